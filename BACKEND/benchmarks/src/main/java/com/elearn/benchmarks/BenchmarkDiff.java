@@ -0,0 +1,111 @@
+package com.elearn.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files, e.g. from two releases:
+ * <pre>
+ * java -jar target/benchmarks.jar -rf json -rff results-1.4.json
+ * java -cp target/benchmarks.jar com.elearn.benchmarks.BenchmarkDiff results-1.3.json results-1.4.json 10
+ * </pre>
+ * A benchmark has regressed when it got worse by more than the threshold percent
+ * (default 5) and by more than both runs' error margins together. Exits with 1 if any did.
+ */
+public final class BenchmarkDiff {
+
+    private BenchmarkDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkDiff <baseline.json> <candidate.json> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> candidate = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Candidate", "Change", "Unit");
+        for (Map.Entry<String, Result> entry : candidate.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now.score, "new", now.unit);
+                continue;
+            }
+            if (!before.unit.equals(now.unit)) {
+                System.out.printf("%-70s units differ: %s vs %s%n", entry.getKey(), before.unit, now.unit);
+                continue;
+            }
+            double change = before.score == 0 ? 0 : (now.score - before.score) / before.score * 100;
+            // Throughput is better when higher; time per operation when lower
+            double worse = now.higherIsBetter ? -change : change;
+            boolean significant = Math.abs(now.score - before.score) > before.error + now.error;
+            String verdict = "";
+            if (significant && worse > threshold) {
+                verdict = "  REGRESSION";
+                regressions++;
+            } else if (significant && -worse > threshold) {
+                verdict = "  improved";
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.score, now.score, change,
+                    now.unit, verdict);
+        }
+        for (String removed : baseline.keySet()) {
+            if (!candidate.containsKey(removed)) {
+                System.out.printf("%-70s %14.3f %14s %9s%n", removed, baseline.get(removed).score, "-", "removed");
+            }
+        }
+        System.out.println(regressions + " regression(s) over " + threshold + "%");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Results by benchmark name without the package, with its parameters, e.g.
+     * JsonSerializationBenchmark.courses(size=500)
+     */
+    static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.path("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            if (!params.isEmpty()) {
+                name += params.toString().replace('{', '(').replace('}', ')').replace(" ", "");
+            }
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            results.put(name, new Result(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), "thrpt".equals(run.path("mode").asText())));
+        }
+        return results;
+    }
+
+    static final class Result {
+        final double score;
+        final double error;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, double error, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
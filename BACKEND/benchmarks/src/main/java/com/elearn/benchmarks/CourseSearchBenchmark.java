@@ -0,0 +1,143 @@
+package com.elearn.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elearn.service.CourseSearchIndex;
+import com.elearn.service.CourseSearchIndex.CourseDocument;
+import com.elearn.service.CourseSearchIndex.SearchPage;
+
+/**
+ * Query latency of the course search index over a synthetic catalog. Words are drawn
+ * from a Zipf distribution: generic words ("learn", "course") are in most descriptions,
+ * subject words like "java" in a few percent and the long tail in a handful of courses.
+ * broadTerm shows the cost of a query that matches most of the catalog.
+ * java -jar target/benchmarks.jar CourseSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CourseSearchBenchmark {
+
+    private static final String[] GENERIC = {
+        "learn", "course", "build", "skill", "project", "real", "world", "step", "guide", "hands",
+        "understand", "create", "work", "professional", "tools", "modern", "basics", "techniques", "apply", "career"
+    };
+
+    private static final String[] SUBJECTS = {
+        "java", "python", "javascript", "react", "spring", "data", "science", "machine", "learning",
+        "web", "development", "design", "cloud", "aws", "security", "network", "database", "sql",
+        "marketing", "finance", "accounting", "excel", "photography", "music", "guitar", "drawing",
+        "writing", "english", "spanish", "leadership", "management", "agile", "docker", "kubernetes",
+        "android", "ios", "game", "unity", "statistics", "algorithms", "testing", "devops", "linux"
+    };
+
+    private static final String[] LEVELS = {
+        "beginner", "introduction", "complete", "advanced", "masterclass", "bootcamp", "practical", "essentials"
+    };
+
+    private static final String[] INSTRUCTORS = {
+        "Sarah Johnson", "Michael Chen", "Jennifer Lee", "Robert Johnson", "Priya Sharma", "Ahmed Khan"
+    };
+
+    private static final int VOCABULARY_SIZE = 20_000;
+
+    @Param({"100000"})
+    private int courses;
+
+    private CourseSearchIndex index;
+
+    private String[] vocabulary;
+
+    private double[] cumulative;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        System.arraycopy(GENERIC, 0, vocabulary, 0, GENERIC.length);
+        System.arraycopy(SUBJECTS, 0, vocabulary, GENERIC.length, SUBJECTS.length);
+        for (int rank = GENERIC.length + SUBJECTS.length; rank < VOCABULARY_SIZE; rank++) {
+            vocabulary[rank] = "topic" + Integer.toString(rank, 36);
+        }
+        cumulative = new double[VOCABULARY_SIZE];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+
+        List<CourseDocument> documents = new ArrayList<>(courses);
+        for (int id = 1; id <= courses; id++) {
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            String title = LEVELS[random.nextInt(LEVELS.length)] + " " + subject + " "
+                    + vocabulary[GENERIC.length + zipfRank(random)];
+
+            StringBuilder description = new StringBuilder();
+            for (int word = 0; word < 40; word++) {
+                description.append(vocabulary[zipfRank(random)]).append(' ');
+            }
+
+            documents.add(new CourseDocument(id, title, description.toString(), id % 40,
+                    "Category " + subject, INSTRUCTORS[random.nextInt(INSTRUCTORS.length)],
+                    BigDecimal.valueOf(random.nextInt(10_000), 2), null));
+        }
+        index = new CourseSearchIndex();
+        index.putAll(documents);
+    }
+
+    private int zipfRank(Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int rank = Arrays.binarySearch(cumulative, target);
+        return Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - GENERIC.length - 1);
+    }
+
+    @Benchmark
+    public SearchPage commonTerm() {
+        return index.search("java", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage twoTerms() {
+        return index.search("data science", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage threeTermsWithStemming() {
+        return index.search("advanced Python programming", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage rareTerm() {
+        return index.search("topic4k2", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage broadTerm() {
+        return index.search("learn", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage deepPage() {
+        return index.search("docker kubernetes", 40, 20);
+    }
+}
@@ -0,0 +1,107 @@
+package com.elearn.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elearn.util.PrefixTrie;
+
+/**
+ * Typeahead lookups in the suggestion trie, with every title indexed from each word start
+ * as CourseSuggestionService does. Short prefixes match most keys and show the cost of the
+ * top-k selection; long ones mostly measure the trie walk.
+ * java -jar target/benchmarks.jar CourseSuggestionBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CourseSuggestionBenchmark {
+
+    private static final String[] WORDS = {
+        "java", "python", "complete", "bootcamp", "data", "science", "web", "development", "machine",
+        "learning", "react", "spring", "advanced", "masterclass", "design", "cloud", "security"
+    };
+
+    @Param({"100000"})
+    private int titles;
+
+    private PrefixTrie trie;
+
+    private final int[] out = new int[8];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < titles; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 3 + random.nextInt(4);
+            for (int j = 0; j < words; j++) {
+                if (j > 0) {
+                    title.append(' ');
+                }
+                title.append(random.nextInt(3) == 0 ? "topic" + random.nextInt(50_000) : WORDS[random.nextInt(WORDS.length)]);
+            }
+            String text = title.toString();
+            long enrollments = random.nextInt(1000);
+            for (int at = 0; at < text.length(); at++) {
+                if (at == 0 || text.charAt(at - 1) == ' ') {
+                    keys.add(text.substring(at));
+                    weights.add(enrollments);
+                    values.add(i);
+                }
+            }
+        }
+
+        long[] weightArray = new long[keys.size()];
+        int[] valueArray = new int[keys.size()];
+        for (int i = 0; i < weightArray.length; i++) {
+            weightArray[i] = weights.get(i);
+            valueArray[i] = values.get(i);
+        }
+        trie = PrefixTrie.build(keys.toArray(new String[0]), weightArray, valueArray);
+    }
+
+    @Benchmark
+    public int oneLetter() {
+        return trie.complete("j", out);
+    }
+
+    @Benchmark
+    public int word() {
+        return trie.complete("python", out);
+    }
+
+    @Benchmark
+    public int twoWords() {
+        return trie.complete("machine le", out);
+    }
+
+    @Benchmark
+    public int rareWord() {
+        return trie.complete("topic4999", out);
+    }
+
+    @Benchmark
+    public int noMatch() {
+        return trie.complete("zzz", out);
+    }
+}
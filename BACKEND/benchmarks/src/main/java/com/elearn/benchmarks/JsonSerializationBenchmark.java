@@ -0,0 +1,114 @@
+package com.elearn.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writing the entity graphs the listing endpoints return: courses with their eager
+ * instructor, and enrollments with their user and course. The mapper is built the way
+ * Spring Boot builds the application's.
+ * java -jar target/benchmarks.jar JsonSerializationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "500"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<Courses> courses;
+
+    private List<Enrollment> enrollments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<User> instructors = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            instructors.add(user(i, User.UserRole.INSTRUCTOR, start.plusDays(i)));
+        }
+
+        Courses.CourseStatus[] statuses = Courses.CourseStatus.values();
+        courses = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Courses course = new Courses();
+            course.setId((long) i);
+            course.setTitle("Complete Spring Boot Course " + i);
+            course.setDescription("Build real world REST APIs with Spring Boot, JPA and security, step by step. " + i);
+            course.setInstructor(instructors.get(random.nextInt(instructors.size())));
+            course.setCategoryId(random.nextInt(40) + 1);
+            course.setPrice(BigDecimal.valueOf(random.nextInt(500_000), 2));
+            course.setThumbnail("https://edulearn-media.s3.ap-south-1.amazonaws.com/courses/" + i + "_thumbnail.png");
+            course.setStatus(statuses[random.nextInt(statuses.length)]);
+            course.setCreatedAt(start.plusMinutes(random.nextInt(525_600)));
+            course.setUpdatedAt(course.getCreatedAt().plusDays(3));
+            courses.add(course);
+        }
+
+        Enrollment.EnrollmentStatus[] enrollmentStatuses = Enrollment.EnrollmentStatus.values();
+        enrollments = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId((long) i);
+            enrollment.setUser(user(1000 + i, User.UserRole.STUDENT, start.plusMinutes(random.nextInt(525_600))));
+            enrollment.setCourse(courses.get(random.nextInt(courses.size())));
+            enrollment.setStatus(enrollmentStatuses[random.nextInt(enrollmentStatuses.length)]);
+            enrollment.setEnrollmentDate(start.plusMinutes(random.nextInt(525_600)));
+            enrollments.add(enrollment);
+        }
+    }
+
+    @Benchmark
+    public byte[] courses() throws Exception {
+        return objectMapper.writeValueAsBytes(courses);
+    }
+
+    @Benchmark
+    public byte[] enrollments() throws Exception {
+        return objectMapper.writeValueAsBytes(enrollments);
+    }
+
+    private static User user(long id, User.UserRole role, LocalDateTime joined) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setPassword("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm");
+        user.setRole(role);
+        user.setJoinDate(joined);
+        user.setLastActive(joined.plusDays(30));
+        return user;
+    }
+}
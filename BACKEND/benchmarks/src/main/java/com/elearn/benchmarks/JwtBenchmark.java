@@ -0,0 +1,127 @@
+package com.elearn.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.elearn.util.JwtFilter;
+import com.elearn.util.JwtUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Token work done on every authenticated request: issuing a token at login, reading
+ * and validating it, and JwtFilter deciding whether a path needs a token at all.
+ * Both classes log every call; System.out is discarded during the run so the numbers
+ * show the work itself rather than console speed.
+ * java -jar target/benchmarks.jar JwtBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtBenchmark {
+
+    private static final String EMAIL = "student@example.com";
+
+    private JwtUtil jwtUtil;
+
+    private PathFilter filter;
+
+    private String token;
+
+    private HttpServletRequest publicRequest;
+    private HttpServletRequest staticRequest;
+    private HttpServletRequest apiRequest;
+
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        jwtUtil = new JwtUtil();
+        set(JwtUtil.class, jwtUtil, "secretString", "benchmark-secret-key-at-least-32-bytes-long");
+        jwtUtil.init();
+        token = jwtUtil.generateToken(EMAIL);
+
+        filter = new PathFilter();
+        set(JwtFilter.class, filter, "jwtUtil", jwtUtil);
+
+        publicRequest = new MockHttpServletRequest("POST", "/api/users/login");
+        staticRequest = new MockHttpServletRequest("GET", "/images/courses/12/thumbnail.png");
+        apiRequest = new MockHttpServletRequest("GET", "/api/videos/instructor/7");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, EMAIL);
+    }
+
+    /**
+     * What a request without a cached token pays: the filter reads the subject, then validates
+     */
+    @Benchmark
+    public boolean extractAndValidate() {
+        return jwtUtil.validateToken(token, jwtUtil.extractUsername(token));
+    }
+
+    @Benchmark
+    public boolean shouldNotFilterPublicEndpoint() throws ServletException {
+        return filter.skips(publicRequest);
+    }
+
+    @Benchmark
+    public boolean shouldNotFilterStaticResource() throws ServletException {
+        return filter.skips(staticRequest);
+    }
+
+    @Benchmark
+    public boolean shouldNotFilterApiRequest() throws ServletException {
+        return filter.skips(apiRequest);
+    }
+
+    private static void set(Class<?> type, Object target, String name, Object value) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * shouldNotFilter is protected
+     */
+    private static class PathFilter extends JwtFilter {
+        boolean skips(HttpServletRequest request) throws ServletException {
+            return shouldNotFilter(request);
+        }
+    }
+}
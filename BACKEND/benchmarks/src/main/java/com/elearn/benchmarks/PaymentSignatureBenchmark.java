@@ -0,0 +1,73 @@
+package com.elearn.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elearn.repository.CoursesRepo;
+import com.elearn.service.ExcelRService;
+
+/**
+ * The Razorpay signature check behind /api/verify-payment. ExcelRService.HmacSHA256
+ * looks up a Mac and builds the key on every call; macWithCachedKey is the HMAC alone
+ * for comparison.
+ * java -jar target/benchmarks.jar PaymentSignatureBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentSignatureBenchmark {
+
+    private static final String SECRET = "rzp_test_benchmark_secret";
+
+    private static final String PAYLOAD = "order_NkP3xJ7bQ2mV9a|pay_NkP4Lq8sT1wZ6c";
+
+    private ExcelRService excelRService;
+
+    private MethodHandle hmacSha256;
+
+    private Mac mac;
+
+    @Setup
+    public void setUp() throws Exception {
+        Constructor<ExcelRService> constructor = ExcelRService.class.getDeclaredConstructor(CoursesRepo.class);
+        constructor.setAccessible(true);
+        excelRService = constructor.newInstance((CoursesRepo) null);
+        hmacSha256 = MethodHandles.privateLookupIn(ExcelRService.class, MethodHandles.lookup())
+                .findVirtual(ExcelRService.class, "HmacSHA256",
+                        MethodType.methodType(String.class, String.class, String.class));
+
+        mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    }
+
+    @Benchmark
+    public String hmacSha256() throws Throwable {
+        return (String) hmacSha256.invokeExact(excelRService, PAYLOAD, SECRET);
+    }
+
+    @Benchmark
+    public byte[] macWithCachedKey() {
+        return mac.doFinal(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,326 @@
+package com.elearn.benchmarks;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.User;
+import com.elearn.service.PopularCourseService;
+import com.elearn.service.ReportService;
+
+/**
+ * Compares the report aggregation loops against the boxed HashMap versions they replaced.
+ * Run with the GC profiler to see the allocation rate per operation:
+ * java -jar target/benchmarks.jar ReportAggregationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReportAggregationBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ReportService reportService;
+
+    private List<Enrollment> enrollments;
+
+    private List<User> users;
+
+    private List<Courses> courses;
+
+    private List<Category> categories;
+
+    @Setup
+    public void setUp() throws Exception {
+        reportService = new ReportService();
+        Field popularCourses = ReportService.class.getDeclaredField("popularCourseService");
+        popularCourses.setAccessible(true);
+        popularCourses.set(reportService, new PopularCourseService());
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        categories = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            Category category = new Category();
+            category.setId(i);
+            category.setName("Category " + i);
+            categories.add(category);
+        }
+
+        Courses.CourseStatus[] courseStatuses = Courses.CourseStatus.values();
+        courses = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            Courses course = new Courses();
+            course.setId((long) i);
+            course.setTitle("Course " + i);
+            course.setCategoryId(random.nextInt(45) + 1); // a few ids without a category
+            course.setStatus(courseStatuses[random.nextInt(courseStatuses.length)]);
+            course.setPrice(BigDecimal.valueOf(random.nextInt(500_000), 2));
+            course.setCreatedAt(start.plusMinutes(random.nextInt(525_600)));
+            courses.add(course);
+        }
+
+        User.UserRole[] roles = User.UserRole.values();
+        User.UserStatus[] userStatuses = User.UserStatus.values();
+        users = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setName("User " + i);
+            user.setRole(roles[random.nextInt(roles.length)]);
+            user.setStatus(userStatuses[random.nextInt(userStatuses.length)]);
+            user.setJoinDate(start.plusMinutes(random.nextInt(525_600)));
+            users.add(user);
+        }
+
+        Enrollment.EnrollmentStatus[] enrollmentStatuses = Enrollment.EnrollmentStatus.values();
+        enrollments = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId((long) i);
+            enrollment.setUser(users.get(random.nextInt(users.size())));
+            enrollment.setCourse(courses.get(random.nextInt(courses.size())));
+            enrollment.setStatus(enrollmentStatuses[random.nextInt(enrollmentStatuses.length)]);
+            enrollment.setEnrollmentDate(start.plusMinutes(random.nextInt(525_600)));
+            enrollments.add(enrollment);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> enrollmentStats() {
+        return reportService.buildEnrollmentStats(enrollments);
+    }
+
+    @Benchmark
+    public Map<String, Object> enrollmentStatsLegacy() {
+        return legacyEnrollmentStats(enrollments);
+    }
+
+    @Benchmark
+    public Map<String, Object> userStats() {
+        return reportService.buildUserStats(users);
+    }
+
+    @Benchmark
+    public Map<String, Object> userStatsLegacy() {
+        return legacyUserStats(users);
+    }
+
+    @Benchmark
+    public Map<String, Object> courseStats() {
+        return reportService.buildCourseStats(courses, categories);
+    }
+
+    @Benchmark
+    public Map<String, Object> courseStatsLegacy() {
+        return legacyCourseStats(courses, categories);
+    }
+
+    @Benchmark
+    public Map<String, Object> revenueStats() {
+        return reportService.buildRevenueStats(enrollments, categories);
+    }
+
+    @Benchmark
+    public Map<String, Object> revenueStatsLegacy() {
+        return legacyRevenueStats(enrollments, categories);
+    }
+
+    // The aggregation code as it was before the primitive counters, kept for comparison
+
+    private static Map<String, Object> legacyEnrollmentStats(List<Enrollment> enrollments) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalEnrollments", enrollments.size());
+
+        Map<String, Long> enrollmentByStatus = new HashMap<>();
+        for (String status : new String[] {"IN_PROGRESS", "COMPLETED", "DROPPED"}) {
+            enrollmentByStatus.put(status, 0L);
+        }
+        enrollments.forEach(enrollment -> {
+            String status = enrollment.getStatus() != null ?
+                enrollment.getStatus().toString() : "IN_PROGRESS";
+            enrollmentByStatus.put(status, enrollmentByStatus.getOrDefault(status, 0L) + 1);
+        });
+        response.put("enrollmentByStatus", enrollmentByStatus);
+
+        int[] monthlyEnrollments = new int[12];
+        enrollments.forEach(enrollment -> {
+            if (enrollment.getEnrollmentDate() != null) {
+                monthlyEnrollments[enrollment.getEnrollmentDate().getMonthValue() - 1]++;
+            }
+        });
+        response.put("monthlyEnrollments", monthlyEnrollments);
+
+        response.put("recentEnrollments", enrollments.stream()
+            .sorted((e1, e2) -> {
+                if (e1.getEnrollmentDate() == null) return 1;
+                if (e2.getEnrollmentDate() == null) return -1;
+                return e2.getEnrollmentDate().compareTo(e1.getEnrollmentDate());
+            })
+            .limit(5)
+            .map(Enrollment::getId)
+            .collect(Collectors.toList()));
+        return response;
+    }
+
+    private static Map<String, Object> legacyUserStats(List<User> users) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalUsers", users.size());
+        response.put("activeUsers", users.stream()
+                .filter(user -> user.getStatus() != null && User.UserStatus.ACTIVE.equals(user.getStatus()))
+                .count());
+
+        Map<String, Long> usersByRole = new HashMap<>();
+        for (String role : new String[] {"STUDENT", "INSTRUCTOR", "ADMIN"}) {
+            usersByRole.put(role, 0L);
+        }
+        users.forEach(user -> {
+            String role = user.getRole() != null ? user.getRole().toString() : "STUDENT";
+            usersByRole.put(role, usersByRole.getOrDefault(role, 0L) + 1);
+        });
+        response.put("usersByRole", usersByRole);
+
+        int[] userGrowth = new int[12];
+        users.forEach(user -> {
+            if (user.getJoinDate() != null) {
+                userGrowth[user.getJoinDate().getMonthValue() - 1]++;
+            }
+        });
+        response.put("userGrowth", userGrowth);
+
+        response.put("recentUsers", users.stream()
+                .sorted((u1, u2) -> {
+                    if (u1.getJoinDate() == null) return 1;
+                    if (u2.getJoinDate() == null) return -1;
+                    return u2.getJoinDate().compareTo(u1.getJoinDate());
+                })
+                .limit(5)
+                .map(User::getId)
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private static Map<String, Object> legacyCourseStats(List<Courses> courses, List<Category> categories) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalCourses", courses.size());
+        response.put("activeCourses", courses.stream()
+                .filter(course -> course.getStatus() != null && "PUBLISHED".equals(course.getStatus().toString()))
+                .count());
+
+        Map<String, Long> coursesByCategory = new HashMap<>();
+        categories.forEach(category -> {
+            coursesByCategory.put(category.getName() != null ? category.getName() : "Uncategorized", 0L);
+        });
+        coursesByCategory.putIfAbsent("Uncategorized", 0L);
+        courses.forEach(course -> {
+            Integer categoryId = course.getCategoryId();
+            boolean foundCategory = false;
+            if (categoryId != null) {
+                Optional<Category> categoryOpt = categories.stream()
+                    .filter(c -> c.getId().equals(categoryId))
+                    .findFirst();
+                if (categoryOpt.isPresent()) {
+                    String categoryName = categoryOpt.get().getName() != null ?
+                        categoryOpt.get().getName() : "Uncategorized";
+                    coursesByCategory.put(categoryName, coursesByCategory.getOrDefault(categoryName, 0L) + 1);
+                    foundCategory = true;
+                }
+            }
+            if (!foundCategory) {
+                coursesByCategory.put("Uncategorized", coursesByCategory.getOrDefault("Uncategorized", 0L) + 1);
+            }
+        });
+        response.put("coursesByCategory", coursesByCategory);
+
+        response.put("recentCourses", courses.stream()
+                .sorted((c1, c2) -> {
+                    if (c1.getCreatedAt() == null) return 1;
+                    if (c2.getCreatedAt() == null) return -1;
+                    return c2.getCreatedAt().compareTo(c1.getCreatedAt());
+                })
+                .limit(5)
+                .map(Courses::getId)
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private static Map<String, Object> legacyRevenueStats(List<Enrollment> enrollments, List<Category> categories) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalRevenue", enrollments.stream()
+                .filter(e -> e.getCourse() != null && e.getCourse().getPrice() != null)
+                .map(e -> e.getCourse().getPrice())
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        BigDecimal[] monthlyRevenue = new BigDecimal[12];
+        for (int i = 0; i < 12; i++) {
+            monthlyRevenue[i] = BigDecimal.ZERO;
+        }
+        enrollments.forEach(enrollment -> {
+            if (enrollment.getEnrollmentDate() != null &&
+                enrollment.getCourse() != null &&
+                enrollment.getCourse().getPrice() != null) {
+                int month = enrollment.getEnrollmentDate().getMonthValue() - 1;
+                monthlyRevenue[month] = monthlyRevenue[month].add(enrollment.getCourse().getPrice());
+            }
+        });
+        response.put("monthlyRevenue", monthlyRevenue);
+
+        Map<String, BigDecimal> revenueByCategory = new HashMap<>();
+        categories.forEach(category -> {
+            revenueByCategory.put(category.getName() != null ? category.getName() : "Uncategorized", BigDecimal.ZERO);
+        });
+        revenueByCategory.putIfAbsent("Uncategorized", BigDecimal.ZERO);
+        enrollments.forEach(enrollment -> {
+            if (enrollment.getCourse() != null &&
+                enrollment.getCourse().getPrice() != null &&
+                enrollment.getCourse().getCategoryId() != null) {
+                Integer categoryId = enrollment.getCourse().getCategoryId();
+                BigDecimal price = enrollment.getCourse().getPrice();
+                boolean foundCategory = false;
+                for (Category category : categories) {
+                    if (category.getId().equals(categoryId)) {
+                        String categoryName = category.getName() != null ? category.getName() : "Uncategorized";
+                        revenueByCategory.put(categoryName,
+                                revenueByCategory.getOrDefault(categoryName, BigDecimal.ZERO).add(price));
+                        foundCategory = true;
+                        break;
+                    }
+                }
+                if (!foundCategory) {
+                    revenueByCategory.put("Uncategorized",
+                            revenueByCategory.getOrDefault("Uncategorized", BigDecimal.ZERO).add(price));
+                }
+            }
+        });
+        response.put("revenueByCategory", revenueByCategory);
+        return response;
+    }
+}
@@ -0,0 +1,143 @@
+package com.elearn.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.elearn.service.CartService;
+import com.elearn.service.CertificateService;
+import com.elearn.service.ChunkedUploadService;
+import com.elearn.service.ContentStoreService;
+import com.elearn.service.DirectUploadService;
+import com.elearn.service.MediaStreamService;
+import com.elearn.service.PlaybackService;
+import com.elearn.service.ReportJobService;
+import com.elearn.service.StockReservationService;
+import com.elearn.service.StorageGcService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the counters every service already keeps for its /stats endpoint as
+ * Micrometer meters, e.g. cart's invoiceHits becomes edulearn.cart.invoice.hits.
+ * Running totals are function counters so rate() works on them; the values listed in
+ * GAUGES go up and down and are gauges.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Current sizes and averages rather than totals since startup
+    private static final Set<String> GAUGES = Set.of(
+            "cachedInvoices", "streamsOpen", "knownBlobs", "cachedUrls", "indexed", "pending",
+            "queued", "queueRemainingCapacity", "activeWorkers", "poolSize", "trackedJobs",
+            "averageRenderMillis", "averageGenerationMillis");
+
+    private final List<Snapshot> snapshots = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private MediaStreamService mediaStreamService;
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private PlaybackService playbackService;
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private StorageGcService storageGcService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Bean
+    public MeterBinder serviceMetrics() {
+        Map<String, Supplier<Map<String, Object>>> services = new LinkedHashMap<>();
+        services.put("cart", cartService::getMetrics);
+        services.put("media", mediaStreamService::getMetrics);
+        services.put("uploads.direct", directUploadService::getMetrics);
+        services.put("uploads.chunked", chunkedUploadService::getMetrics);
+        services.put("content.store", contentStoreService::getMetrics);
+        services.put("playback", playbackService::getMetrics);
+        services.put("certificates", certificateService::getMetrics);
+        services.put("reports", reportJobService::getMetrics);
+        services.put("storage.gc", storageGcService::getMetrics);
+        services.put("stock", stockReservationService::getMetrics);
+
+        return registry -> services.forEach((name, metrics) -> {
+            Snapshot snapshot = new Snapshot(metrics);
+            // Meters only hold their object weakly, and nothing else refers to a snapshot
+            snapshots.add(snapshot);
+            for (Map.Entry<String, Object> entry : metrics.get().entrySet()) {
+                if (!(entry.getValue() instanceof Number)) {
+                    continue;
+                }
+                String key = entry.getKey();
+                String meterName = "edulearn." + name + "." + dotted(key);
+                if (GAUGES.contains(key)) {
+                    Gauge.builder(meterName, snapshot, s -> s.value(key)).register(registry);
+                } else {
+                    FunctionCounter.builder(meterName, snapshot, s -> s.value(key)).register(registry);
+                }
+            }
+        });
+    }
+
+    /**
+     * invoiceHits -> invoice.hits
+     */
+    static String dotted(String camelCase) {
+        return camelCase.replaceAll("([a-z0-9])([A-Z])", "$1.$2").toLowerCase();
+    }
+
+    /**
+     * One getMetrics() call serves all gauges of a service during a scrape; some of
+     * them count rows in the database.
+     */
+    private static class Snapshot {
+        private static final long MAX_AGE_MILLIS = 1000;
+
+        private final Supplier<Map<String, Object>> source;
+        private volatile Map<String, Object> values;
+        private volatile long takenAt;
+
+        Snapshot(Supplier<Map<String, Object>> source) {
+            this.source = source;
+        }
+
+        double value(String key) {
+            long now = System.currentTimeMillis();
+            Map<String, Object> current = values;
+            if (current == null || now - takenAt > MAX_AGE_MILLIS) {
+                current = source.get();
+                values = current;
+                takenAt = now;
+            }
+            Object value = current.get(key);
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+        }
+    }
+}
@@ -36,11 +36,15 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints - expanded list with pattern matching
                 .requestMatchers("/api/users/login", "/api/users/register", "/api/users/verify-token").permitAll()
-                .requestMatchers("/login", "/logout", "/api/create-order", "/api/verify-payment").permitAll()
-                .requestMatchers("/create-order", "/verify-payment").permitAll() // Keep old paths for backward compatibility
+                .requestMatchers("/login", "/logout", "/api/verify-payment").permitAll()
+                .requestMatchers("/verify-payment").permitAll() // Keep old paths for backward compatibility
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/static/**", "/css/**", "/js/**", "/images/**", "/favicon.ico").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                
+                // Metrics and the Prometheus scrape endpoint
+                .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                 
                 // API endpoints for authenticated users
                 .requestMatchers("/api/**").authenticated()
@@ -0,0 +1,189 @@
+package com.elearn.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.model.CartItem.ItemType;
+import com.elearn.model.User;
+import com.elearn.service.CartService;
+import com.elearn.service.CartService.CartLine;
+import com.elearn.service.CartService.Checkout;
+import com.elearn.util.QueryBudget;
+import com.razorpay.RazorpayException;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174", "http://localhost:4200", "https://edulearn-lms.netlify.app", "https://www.edulearn-lms.netlify.app"})
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @GetMapping("/cart")
+    @QueryBudget(3)
+    public ResponseEntity<?> getCart(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(cartService.getInvoice(user.getId()));
+    }
+
+    /**
+     * Set the quantity of one item, e.g. {"type": "laptops", "id": 1, "quantity": 2}.
+     * A quantity of zero removes the item.
+     */
+    @PutMapping("/cart/items")
+    @QueryBudget(9)
+    public ResponseEntity<?> setItem(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> data) {
+        if (user == null) {
+            return unauthorized();
+        }
+        try {
+            CartLine line = parseLine(data, true);
+            return ResponseEntity.ok(cartService.setItem(user.getId(), line.getType(), line.getItemId(), line.getQuantity()));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Replace the whole cart with {"items": [{"type": "courses", "id": 3, "quantity": 1}, ...]}.
+     * Each line is one insert, so the budget covers an upload of two lines
+     */
+    @PutMapping("/cart")
+    @QueryBudget(11)
+    public ResponseEntity<?> replaceCart(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> data) {
+        if (user == null) {
+            return unauthorized();
+        }
+        try {
+            List<CartLine> lines = new ArrayList<>();
+            Object items = data.get("items");
+            if (items != null && !(items instanceof List)) {
+                throw new IllegalArgumentException("items must be a list");
+            }
+            if (items != null) {
+                for (Object item : (List<?>) items) {
+                    if (!(item instanceof Map)) {
+                        throw new IllegalArgumentException("Cart item must be an object");
+                    }
+                    lines.add(parseLine((Map<?, ?>) item, false));
+                }
+            }
+            return ResponseEntity.ok(cartService.replaceItems(user.getId(), lines));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    @DeleteMapping("/cart")
+    public ResponseEntity<?> clearCart(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(cartService.clear(user.getId()));
+    }
+
+    /**
+     * Create a Razorpay order for the server-computed cart total
+     */
+    @PostMapping("/cart/checkout")
+    @QueryBudget(7)
+    public ResponseEntity<?> checkout(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return unauthorized();
+        }
+        return placeOrder(user, () -> cartService.checkout(user.getId()));
+    }
+
+    /**
+     * Buy one course now at its server-side price, without touching the cart
+     */
+    @PostMapping("/cart/checkout/courses/{courseId}")
+    @QueryBudget(2)
+    public ResponseEntity<?> checkoutCourse(@AuthenticationPrincipal User user, @PathVariable Long courseId) {
+        if (user == null) {
+            return unauthorized();
+        }
+        return placeOrder(user, () -> cartService.checkoutCourse(user.getId(), courseId));
+    }
+
+    @GetMapping("/admin/carts/stats")
+    public ResponseEntity<Map<String, Object>> getCartStats(@AuthenticationPrincipal User user) {
+        if (user == null || user.getRole() != User.UserRole.ADMIN) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Only admins can view cart stats");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        return ResponseEntity.ok(cartService.getMetrics());
+    }
+
+    private ResponseEntity<?> placeOrder(User user, OrderPlacement placement) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Checkout checkout = placement.place();
+            response.put("order", new JSONObject(checkout.getOrder()).toMap());
+            response.put("invoice", checkout.getInvoice());
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            // Unavailable or out of stock; nothing was reserved
+            response.put("message", e.getMessage());
+            response.put("invoice", cartService.getInvoice(user.getId()));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        } catch (Exception e) {
+            System.err.println("Failed to check out for user " + user.getId() + ": " + e.getMessage());
+            e.printStackTrace();
+            response.put("message", "Failed to create order: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    private interface OrderPlacement {
+        Checkout place() throws RazorpayException;
+    }
+
+    private CartLine parseLine(Map<?, ?> line, boolean allowZero) {
+        if (line.get("type") == null || line.get("id") == null) {
+            throw new IllegalArgumentException("Cart item needs a type and an id");
+        }
+        ItemType type = ItemType.valueOf(line.get("type").toString().trim().toUpperCase(Locale.ROOT));
+        Long id = Long.valueOf(line.get("id").toString());
+        int quantity = line.get("quantity") != null ? Integer.parseInt(line.get("quantity").toString()) : 1;
+        if (quantity == 0 && !allowZero) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        return new CartLine(type, id, quantity);
+    }
+
+    private ResponseEntity<?> unauthorized() {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Authentication required");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
+
+    private ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Invalid cart: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+}
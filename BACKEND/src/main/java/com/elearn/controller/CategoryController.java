@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.elearn.model.Category;
 import com.elearn.service.CategoryService;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -30,18 +31,21 @@ public class CategoryController {
     private CategoryService categoryService;
     
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<List<Category>> getAllCategories() {
         List<Category> categories = categoryService.getAllCategories();
         return ResponseEntity.ok(categories);
     }
     
     @GetMapping("/active")
+    @QueryBudget(2)
     public ResponseEntity<List<Category>> getActiveCategories() {
         List<Category> categories = categoryService.getActiveCategories();
         return ResponseEntity.ok(categories);
     }
     
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> getCategoryById(@PathVariable Integer id) {
         Optional<Category> categoryOpt = categoryService.getCategoryById(id);
         
@@ -0,0 +1,143 @@
+package com.elearn.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.model.Certificate;
+import com.elearn.model.Enrollment;
+import com.elearn.model.Enrollment.EnrollmentStatus;
+import com.elearn.model.User;
+import com.elearn.service.CertificateService;
+import com.elearn.service.CertificateService.VerificationRecord;
+import com.elearn.service.EnrollmentService;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class CertificateController {
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    /**
+     * Public certificate verification, answered from the in-memory index
+     */
+    @GetMapping("/public/certificates/{verificationId}")
+    public ResponseEntity<?> verifyCertificate(@PathVariable String verificationId) {
+        Optional<VerificationRecord> record = certificateService.verify(verificationId);
+        if (!record.isPresent()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Certificate not found");
+            return ResponseEntity.status(404).body(response);
+        }
+        return ResponseEntity.ok(record.get());
+    }
+
+    @GetMapping("/public/certificates/{verificationId}/pdf")
+    public ResponseEntity<?> downloadCertificatePdf(@PathVariable String verificationId) {
+        return downloadCertificate(verificationId, true);
+    }
+
+    @GetMapping("/public/certificates/{verificationId}/png")
+    public ResponseEntity<?> downloadCertificatePng(@PathVariable String verificationId) {
+        return downloadCertificate(verificationId, false);
+    }
+
+    /**
+     * Get the certificate of an enrollment. Completed enrollments from before certificates
+     * were issued get theirs requested on first access.
+     */
+    @GetMapping("/certificates/enrollment/{enrollmentId}")
+    public ResponseEntity<?> getEnrollmentCertificate(@AuthenticationPrincipal User user, @PathVariable Long enrollmentId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<Certificate> certificateOpt = certificateService.getByEnrollmentId(enrollmentId);
+
+        if (!certificateOpt.isPresent()) {
+            Optional<Enrollment> enrollmentOpt = enrollmentService.getEnrollmentById(enrollmentId);
+            if (!enrollmentOpt.isPresent()) {
+                response.put("message", "Enrollment not found");
+                return ResponseEntity.status(404).body(response);
+            }
+            Enrollment enrollment = enrollmentOpt.get();
+            if (!canAccess(user, enrollment.getUser().getId())) {
+                response.put("message", "You can only view your own certificates");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+            }
+            if (enrollment.getStatus() != EnrollmentStatus.COMPLETED) {
+                response.put("message", "Course is not completed yet");
+                return ResponseEntity.status(409).body(response);
+            }
+            certificateOpt = Optional.of(certificateService.requestCertificate(enrollment));
+        }
+
+        Certificate certificate = certificateOpt.get();
+        if (!canAccess(user, certificate.getUserId())) {
+            response.put("message", "You can only view your own certificates");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        response.put("enrollmentId", certificate.getEnrollmentId());
+        response.put("verificationId", certificate.getVerificationId());
+        response.put("status", certificate.getStatus().toString());
+        response.put("studentName", certificate.getStudentName());
+        response.put("courseTitle", certificate.getCourseTitle());
+        response.put("completedAt", certificate.getCompletedAt());
+        response.put("issuedAt", certificate.getIssuedAt());
+        if (certificate.getStatus() == Certificate.CertificateStatus.ISSUED) {
+            String base = "/api/public/certificates/" + certificate.getVerificationId();
+            response.put("pdfUrl", base + "/pdf");
+            response.put("pngUrl", base + "/png");
+            return ResponseEntity.ok(response);
+        }
+        // Still rendering: the client polls until it is issued
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/certificates/stats")
+    public ResponseEntity<Map<String, Object>> getCertificateStats() {
+        return ResponseEntity.ok(certificateService.getMetrics());
+    }
+
+    private ResponseEntity<?> downloadCertificate(String verificationId, boolean pdf) {
+        Optional<VerificationRecord> record = certificateService.verify(verificationId);
+        if (!record.isPresent()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Certificate not found");
+            return ResponseEntity.status(404).body(response);
+        }
+
+        try {
+            byte[] content = certificateService.readArtifact(record.get(), pdf);
+            return ResponseEntity.ok()
+                .contentType(pdf ? MediaType.APPLICATION_PDF : MediaType.IMAGE_PNG)
+                .header("Content-Disposition", "inline; filename=Certificate-" + record.get().getVerificationId()
+                        + (pdf ? ".pdf" : ".png"))
+                // Content-addressed, so the file for a verification id never changes
+                .header("Cache-Control", "public, max-age=31536000, immutable")
+                .body(content);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Failed to read certificate: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    private boolean canAccess(User user, Long ownerId) {
+        return user != null && (user.getRole() == User.UserRole.ADMIN || user.getId().equals(ownerId));
+    }
+}
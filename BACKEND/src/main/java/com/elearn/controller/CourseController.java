@@ -1,6 +1,7 @@
 package com.elearn.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -19,7 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 // import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
-// import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -31,6 +32,15 @@ import com.elearn.model.Category;
 import com.elearn.service.CourseService;
 import com.elearn.service.UserService;
 import com.elearn.service.CategoryService;
+import com.elearn.service.CourseSearchIndex.CourseDocument;
+import com.elearn.service.CourseSearchIndex.SearchHit;
+import com.elearn.service.CourseSearchIndex.SearchPage;
+import com.elearn.service.CourseSearchService;
+import com.elearn.service.CourseSuggestionService;
+import com.elearn.service.CourseSuggestionService.Suggestion;
+import com.elearn.service.PopularCourseService;
+import com.elearn.service.PopularCourseService.RankedCourse;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -46,7 +56,21 @@ public class CourseController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private PopularCourseService popularCourseService;
+    
+    @Autowired
+    private CourseSearchService courseSearchService;
+    
+    @Autowired
+    private CourseSuggestionService courseSuggestionService;
+    
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    
+    private static final int MAX_SUGGESTIONS = 10;
+    
     @GetMapping
+    @QueryBudget(3)
     public ResponseEntity<List<Courses>> getAllCourses() {
         List<Courses> courses = courseService.getAllCourses();
         
@@ -69,7 +93,137 @@ public class CourseController {
         return ResponseEntity.ok(courses);
     }
     
+    @GetMapping("/popular")
+    public ResponseEntity<?> getPopularCourses(@RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > 50) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Limit must be between 1 and 50");
+            return ResponseEntity.status(400).body(response);
+        }
+        
+        // Students only see published courses, so unpublished ones are skipped and the
+        // ranking is read on until the list is full
+        List<Map<String, Object>> popularCourses = new ArrayList<>();
+        int skip = 0;
+        while (popularCourses.size() < limit) {
+            List<RankedCourse> ranked = popularCourseService.getTopCourses(skip, limit);
+            if (ranked.isEmpty()) {
+                break;
+            }
+            skip += ranked.size();
+            
+            // Load the ranked courses in one query and keep the ranking order
+            Map<Long, Courses> coursesById = courseService.getCoursesByIds(
+                    ranked.stream().map(RankedCourse::getCourseId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Courses::getId, course -> course));
+            
+            for (RankedCourse rankedCourse : ranked) {
+                Courses course = coursesById.get(rankedCourse.getCourseId());
+                if (course == null || course.getStatus() != CourseStatus.PUBLISHED) {
+                    continue;
+                }
+                if (popularCourses.size() >= limit) {
+                    break;
+                }
+                Map<String, Object> courseData = new HashMap<>();
+                courseData.put("id", course.getId());
+                courseData.put("title", course.getTitle());
+                courseData.put("thumbnail", course.getThumbnail());
+                courseData.put("price", course.getPrice());
+                courseData.put("categoryId", course.getCategoryId());
+                courseData.put("status", course.getStatus());
+                courseData.put("instructorName", course.getInstructor() != null ? course.getInstructor().getName() : null);
+                courseData.put("enrollments", rankedCourse.getEnrollments());
+                popularCourses.add(courseData);
+            }
+        }
+        
+        return ResponseEntity.ok(popularCourses);
+    }
+    
+    /**
+     * Full-text search over published courses, ranked by relevance
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 50 || (long) (page + 1) * size > MAX_SEARCH_RESULTS) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Page size must be between 1 and 50, and results are limited to the first "
+                    + MAX_SEARCH_RESULTS);
+            return ResponseEntity.status(400).body(response);
+        }
+        
+        long start = System.nanoTime();
+        SearchPage searchPage = courseSearchService.search(q, page, size);
+        long tookMicros = (System.nanoTime() - start) / 1000;
+        
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (SearchHit hit : searchPage.getHits()) {
+            CourseDocument course = hit.getCourse();
+            Map<String, Object> courseData = new HashMap<>();
+            courseData.put("id", course.getId());
+            courseData.put("title", course.getTitle());
+            courseData.put("description", course.getDescription());
+            courseData.put("thumbnail", course.getThumbnail());
+            courseData.put("price", course.getPrice());
+            courseData.put("categoryId", course.getCategoryId());
+            courseData.put("categoryName", course.getCategoryName());
+            courseData.put("instructorName", course.getInstructorName());
+            courseData.put("score", hit.getScore());
+            results.add(courseData);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", q);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("total", searchPage.getTotal());
+        response.put("tookMicros", tookMicros);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(courseSearchService.getStats());
+    }
+    
+    /**
+     * Typeahead suggestions of course titles and category names for a typed prefix
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Limit must be between 1 and " + MAX_SUGGESTIONS);
+            return ResponseEntity.status(400).body(response);
+        }
+        
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Suggestion suggestion : courseSuggestionService.suggest(q, limit)) {
+            Map<String, Object> suggestionData = new HashMap<>();
+            suggestionData.put("type", suggestion.getType().toString());
+            suggestionData.put("id", suggestion.getId());
+            suggestionData.put("text", suggestion.getText());
+            suggestionData.put("enrollments", suggestion.getEnrollments());
+            suggestions.add(suggestionData);
+        }
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<Map<String, Object>> getSuggestStats() {
+        return ResponseEntity.ok(courseSuggestionService.getStats());
+    }
+    
     @GetMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<?> getCourseById(@PathVariable Long id) {
         Optional<Courses> courseOpt = courseService.getCourseById(id);
         
@@ -94,6 +248,7 @@ public class CourseController {
     }
     
     @GetMapping("/instructor/{instructorId}")
+    @QueryBudget(3)
     public ResponseEntity<?> getCoursesByInstructor(@PathVariable Long instructorId) {
         Optional<User> instructorOpt = userService.getUserById(instructorId);
         
@@ -109,12 +264,14 @@ public class CourseController {
     }
     
     @GetMapping("/category/{categoryId}")
+    @QueryBudget(2)
     public ResponseEntity<List<Courses>> getCoursesByCategory(@PathVariable Integer categoryId) {
         List<Courses> courses = courseService.getCoursesByCategory(categoryId);
         return ResponseEntity.ok(courses);
     }
     
     @GetMapping("/status/{status}")
+    @QueryBudget(2)
     public ResponseEntity<?> getCoursesByStatus(@PathVariable String status) {
         try {
             CourseStatus courseStatus = CourseStatus.valueOf(status.toUpperCase());
@@ -1,5 +1,6 @@
 package com.elearn.controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +11,8 @@ import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,7 +25,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.elearn.model.Enrollment;
 import com.elearn.model.Enrollment.EnrollmentStatus;
+import com.elearn.model.EnrollmentProgress;
+import com.elearn.model.User;
 import com.elearn.service.EnrollmentService;
+import com.elearn.service.ProgressService;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -32,13 +39,18 @@ public class EnrollmentController {
     @Autowired
     private EnrollmentService enrollmentService;
     
+    @Autowired
+    private ProgressService progressService;
+    
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<List<Enrollment>> getAllEnrollments() {
         List<Enrollment> enrollments = enrollmentService.getAllEnrollments();
         return ResponseEntity.ok(enrollments);
     }
     
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> getEnrollmentById(@PathVariable Long id) {
         Optional<Enrollment> enrollmentOpt = enrollmentService.getEnrollmentById(id);
         
@@ -52,12 +64,14 @@ public class EnrollmentController {
     }
     
     @GetMapping("/user/{userId}")
+    @QueryBudget(2)
     public ResponseEntity<List<Enrollment>> getEnrollmentsByUser(@PathVariable Long userId) {
         List<Enrollment> enrollments = enrollmentService.getEnrollmentsByUser(userId);
         return ResponseEntity.ok(enrollments);
     }
     
     @GetMapping("/course/{courseId}")
+    @QueryBudget(2)
     public ResponseEntity<List<Enrollment>> getEnrollmentsByCourse(@PathVariable Long courseId) {
         List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourse(courseId);
         return ResponseEntity.ok(enrollments);
@@ -184,6 +198,80 @@ public class EnrollmentController {
         }
     }
     
+    @GetMapping("/{id}/progress")
+    @QueryBudget(3)
+    public ResponseEntity<?> getEnrollmentProgress(@PathVariable Long id) {
+        if (!progressService.enrollmentExists(id)) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Enrollment not found");
+            return ResponseEntity.status(404).body(response);
+        }
+        
+        Optional<EnrollmentProgress> progressOpt = progressService.getProgress(id);
+        if (progressOpt.isPresent()) {
+            return ResponseEntity.ok(toProgressResponse(progressOpt.get()));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("enrollmentId", id);
+        response.put("progress", 0);
+        response.put("completedVideos", "");
+        return ResponseEntity.ok(response);
+    }
+    
+    @PutMapping("/{id}/progress")
+    public ResponseEntity<?> updateEnrollmentProgress(@AuthenticationPrincipal User user, @PathVariable Long id,
+            @RequestBody Map<String, Object> progressData) {
+        if (user == null) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            int progress = 0;
+            Object progressValue = progressData.get("progress");
+            if (progressValue instanceof Number) {
+                progress = ((Number) progressValue).intValue();
+            } else if (progressValue instanceof String) {
+                progress = Integer.parseInt((String) progressValue);
+            }
+            
+            // completedVideos may be a comma separated string or a list of ids
+            List<Long> completedVideoIds = new ArrayList<>();
+            Object completedValue = progressData.get("completedVideos");
+            if (completedValue instanceof String) {
+                for (String videoId : ((String) completedValue).split(",")) {
+                    if (!videoId.isBlank()) {
+                        completedVideoIds.add(Long.parseLong(videoId.trim()));
+                    }
+                }
+            } else if (completedValue instanceof List) {
+                for (Object videoId : (List<?>) completedValue) {
+                    completedVideoIds.add(Long.parseLong(videoId.toString()));
+                }
+            }
+            
+            Optional<EnrollmentProgress> updated = progressService.updateProgress(user.getId(), id, completedVideoIds, progress);
+            if (updated.isPresent()) {
+                return ResponseEntity.ok(toProgressResponse(updated.get()));
+            }
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Enrollment not found");
+            return ResponseEntity.status(404).body(response);
+        } catch (NumberFormatException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Invalid progress data: " + e.getMessage());
+            return ResponseEntity.status(400).body(response);
+        } catch (AccessDeniedException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (Exception e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEnrollment(@PathVariable Long id) {
         try {
@@ -198,4 +286,15 @@ public class EnrollmentController {
             return ResponseEntity.status(500).body(response);
         }
     }
+    
+    private Map<String, Object> toProgressResponse(EnrollmentProgress progress) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("enrollmentId", progress.getEnrollmentId());
+        response.put("progress", progress.getProgress());
+        response.put("completedVideos", progressService.getCompletedVideoIds(progress).stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+        response.put("updatedAt", progress.getUpdatedAt());
+        return response;
+    }
 } 
\ No newline at end of file
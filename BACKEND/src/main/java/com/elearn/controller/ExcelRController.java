@@ -1,14 +1,18 @@
 package com.elearn.controller;
 
 import java.io.IOException;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,10 +28,17 @@ import com.elearn.model.Courses;
 import com.elearn.model.Headphones;
 import com.elearn.model.Laptops;
 import com.elearn.model.Mobiles;
+import com.elearn.model.ProductType;
 import com.elearn.model.User;
 import com.elearn.repo.UserRepository;
 import com.elearn.service.ExcelRService;
+import com.elearn.service.ProductCatalogIndex.ProductPage;
+import com.elearn.service.ProductCatalogIndex.ProductQuery;
+import com.elearn.service.ProductCatalogIndex.ProductSort;
+import com.elearn.service.ProductCatalogService;
+import com.elearn.service.StockReservationService;
 import com.elearn.util.JwtUtil;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api")
@@ -43,6 +54,14 @@ public class ExcelRController {
 	@Autowired
 	private ExcelRService excelRService;
 	
+	@Autowired
+	private ProductCatalogService productCatalogService;
+	
+	@Autowired
+	private StockReservationService stockReservationService;
+	
+	private static final int MAX_PRODUCT_PAGE_SIZE = 100;
+	
 	
 	@PostMapping("/login")
 	public ResponseEntity<Map<String, String>> login(@RequestBody Map<String, String> loginData){
@@ -67,41 +86,104 @@ public class ExcelRController {
 	
 	
 	@GetMapping("/user/courses")
+	@QueryBudget(2)
 	public List<Courses> getCourses(){
 		return excelRService.getCourses();
 	}
 	
 	@GetMapping("/user/laptops")
+	@QueryBudget(2)
 	public List<Laptops> getLatops() {
 		return excelRService.getLaptops();
 	}
 	
 	@GetMapping("/user/mobiles")
+	@QueryBudget(2)
 	public List<Mobiles> getMobiles() {
 		return excelRService.getMobiles();
 	}
 	
 	@GetMapping("/user/headphones")
+	@QueryBudget(2)
 	public List<Headphones> getHeadphones() {
 		return excelRService.getHeadphones();
 	}
 	
+	/**
+	 * Query laptops, mobiles and headphones together, with facet counts
+	 * @param types Comma separated product types, e.g. laptops,mobiles; all types if omitted
+	 * @param sort One of name_asc, name_desc, price_asc, price_desc
+	 */
+	@GetMapping("/user/products")
+	@QueryBudget(1)
+	public ResponseEntity<?> queryProducts(@RequestParam(required = false) List<String> types,
+								@RequestParam(required = false) Integer minPrice,
+								@RequestParam(required = false) Integer maxPrice,
+								@RequestParam(defaultValue = "false") boolean inStock,
+								@RequestParam(required = false) String q,
+								@RequestParam(defaultValue = "name_asc") String sort,
+								@RequestParam(defaultValue = "0") int page,
+								@RequestParam(defaultValue = "20") int size) {
+		Map<String, String> error = new HashMap<>();
+		ProductQuery query = new ProductQuery();
+		try {
+			if (types != null) {
+				Set<ProductType> selected = EnumSet.noneOf(ProductType.class);
+				for (String type : types) {
+					selected.add(ProductType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+				}
+				query.setTypes(selected);
+			}
+			query.setSort(ProductSort.valueOf(sort.toUpperCase(Locale.ROOT)));
+		} catch (IllegalArgumentException e) {
+			error.put("message", "Unknown product type or sort order");
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+		}
+		if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+			error.put("message", "minPrice must not be greater than maxPrice");
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+		}
+		if (page < 0 || size < 1 || size > MAX_PRODUCT_PAGE_SIZE) {
+			error.put("message", "Page size must be between 1 and " + MAX_PRODUCT_PAGE_SIZE);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+		}
+		query.setMinPrice(minPrice);
+		query.setMaxPrice(maxPrice);
+		query.setInStock(inStock);
+		query.setNamePrefix(q);
+		query.setPage(page);
+		query.setSize(size);
+		
+		ProductPage result = productCatalogService.query(query);
+		Map<String, Object> response = new HashMap<>();
+		response.put("page", page);
+		response.put("size", size);
+		response.put("total", result.getTotal());
+		response.put("results", result.getResults());
+		response.put("facets", result.getFacets());
+		return ResponseEntity.ok(response);
+	}
+	
 	@GetMapping("/user/laptops/{pid}")
+	@QueryBudget(2)
 	public Optional<Laptops> getSingleLaptop(@PathVariable Long pid){
 		return excelRService.getLaptopById(pid);
 	}
 	
 	@GetMapping("/user/courses/{pid}")
+	@QueryBudget(2)
 	public Optional<Courses> getSingleCourses(@PathVariable Long pid) {
 		return excelRService.getCoursesById(pid);
 	}
 	
 	@GetMapping("/user/mobiles/{pid}")
+	@QueryBudget(2)
 	public Optional<Mobiles> getSingleMobile(@PathVariable Long pid){
 		return excelRService.getMobilesById(pid);
 	}
 	
 	@GetMapping("/user/headphones/{pid}")
+	@QueryBudget(2)
 	public Optional<Headphones> getSingleHeadphone(@PathVariable Long pid){
 		return excelRService.getHeadphonesById(pid);
 	}
@@ -111,8 +193,9 @@ public class ExcelRController {
 	public ResponseEntity<?> uploadLaptops(@RequestParam String pname,
 								@RequestParam int pqty,
 								@RequestParam int pcost,
-								@RequestParam MultipartFile file) {
-		 if (pname == null || pname.isEmpty() || pcost <= 0 || file == null || file.isEmpty() || pqty<=0) {
+								@RequestParam(required = false) MultipartFile file) {
+		 // The image may instead be uploaded straight to S3 through /api/uploads afterwards
+		 if (pname == null || pname.isEmpty() || pcost <= 0 || pqty<=0) {
              return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid input parameters");
          }else {
         	 Laptops savedLaptop = null;
@@ -151,26 +234,6 @@ public class ExcelRController {
 	/*
 	 * razorpay
 	 */
-	@PostMapping("/create-order")
-    public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> data) {
-        try {
-            System.out.println("Creating order with data: " + data);
-            int amount = Integer.parseInt(data.get("amount").toString());
-            String currency = (String) data.get("currency");
-            String receipt = (String) data.get("receipt");
-
-            System.out.println("Amount: " + amount + ", Currency: " + currency + ", Receipt: " + receipt);
-            String order = excelRService.createOrder(amount, currency, receipt);
-            System.out.println("Order created successfully: " + order);
-            return ResponseEntity.ok(order);
-        } catch (Exception e) {
-            System.err.println("Failed to create order: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to create order: " + e.getMessage());
-        }
-    }
-	
 	@PostMapping("/verify-payment")
     public ResponseEntity<?> verifyPayment(@RequestBody Map<String, String> data) {
         try {
@@ -197,4 +260,13 @@ public class ExcelRController {
 	
 	
 	
+	@GetMapping("/admin/stock-reservations/stats")
+	public ResponseEntity<Map<String, Object>> getReservationStats(@AuthenticationPrincipal User user) {
+		if (user == null || user.getRole() != User.UserRole.ADMIN) {
+			Map<String, Object> response = new HashMap<>();
+			response.put("message", "Only admins can view stock reservations");
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+		}
+		return ResponseEntity.ok(stockReservationService.getMetrics());
+	}
 }
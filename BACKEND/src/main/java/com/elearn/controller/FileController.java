@@ -0,0 +1,57 @@
+package com.elearn.controller;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.service.BlobStore;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves uploaded files when they are kept on local disk. With S3 storage browsers
+ * fetch them from the bucket and this controller is not registered.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class FileController {
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @GetMapping("/api/public/files/{*key}")
+    public void getFile(@PathVariable String key, HttpServletResponse response) throws IOException {
+        String blobKey = key.startsWith("/") ? key.substring(1) : key;
+        ByteBuffer content;
+        try {
+            content = blobStore.read(blobKey);
+        } catch (IllegalArgumentException e) {
+            content = null;
+        }
+        if (content == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "File not found");
+            return;
+        }
+        String contentType = URLConnection.guessContentTypeFromName(blobKey);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setContentLengthLong(content.remaining());
+        // Keys are never reused for different content
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        while (content.hasRemaining()) {
+            out.write(content);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.elearn.controller;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.model.User;
+import com.elearn.service.MediaStreamService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@CrossOrigin(origins = "*")
+public class MediaController {
+
+    @Autowired
+    private MediaStreamService mediaStreamService;
+
+    /**
+     * Stream a local media file. The URL comes from the playback endpoints and is signed
+     * for one user, since video elements cannot send the JWT header.
+     */
+    @RequestMapping(value = "/api/public/media/{*key}", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void stream(@PathVariable String key, @RequestParam long uid, @RequestParam long expires,
+            @RequestParam String signature,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String mediaKey = key.startsWith("/") ? key.substring(1) : key;
+        if (!mediaStreamService.verify(mediaKey, uid, expires, signature)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Invalid or expired media link");
+            return;
+        }
+        if (!mediaStreamService.acquire(uid)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many open streams");
+            return;
+        }
+        try {
+            mediaStreamService.serve(mediaKey, range, ifRange, request, response);
+        } catch (NoSuchElementException e) {
+            if (!response.isCommitted()) {
+                response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            }
+        } finally {
+            mediaStreamService.release(uid);
+        }
+    }
+
+    @GetMapping("/api/media/stats")
+    public ResponseEntity<Map<String, Object>> getStreamStats(@AuthenticationPrincipal User user) {
+        if (user == null || user.getRole() != User.UserRole.ADMIN) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Only admins can view media stats");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        return ResponseEntity.ok(mediaStreamService.getMetrics());
+    }
+}
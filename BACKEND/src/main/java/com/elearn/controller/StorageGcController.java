@@ -0,0 +1,61 @@
+package com.elearn.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.model.User;
+import com.elearn.service.StorageGcService;
+
+@RestController
+@RequestMapping("/api/admin/storage/gc")
+@CrossOrigin(origins = "*")
+public class StorageGcController {
+
+    @Autowired
+    private StorageGcService storageGcService;
+
+    /**
+     * Progress of the current or last run and the bytes it reclaimed
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getReport(@AuthenticationPrincipal User user) {
+        if (!isAdmin(user)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(storageGcService.getReport());
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> startRun(@AuthenticationPrincipal User user) {
+        if (!isAdmin(user)) {
+            return forbidden();
+        }
+        Map<String, Object> response = new HashMap<>();
+        if (!storageGcService.startRun()) {
+            response.put("message", "Storage GC is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Storage GC started");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private boolean isAdmin(User user) {
+        return user != null && user.getRole() == User.UserRole.ADMIN;
+    }
+
+    private ResponseEntity<Map<String, Object>> forbidden() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Only admins can manage storage");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+}
@@ -0,0 +1,247 @@
+package com.elearn.controller;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.elearn.model.UploadIntent.UploadTarget;
+import com.elearn.model.UploadSession;
+import com.elearn.model.UploadSession.LessonFile;
+import com.elearn.model.User;
+import com.elearn.service.ChunkedUploadService;
+import com.elearn.service.DirectUploadService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:5174", "http://localhost:4200", "https://edulearn-lms.netlify.app", "https://www.edulearn-lms.netlify.app"})
+public class UploadController {
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    /**
+     * Request a presigned URL, e.g. {"target": "course-thumbnail", "targetId": 12,
+     * "contentType": "image/png", "size": 48213}. The browser then PUTs the file to the
+     * returned URL with the returned headers and calls complete.
+     */
+    @PostMapping("/intents")
+    public ResponseEntity<?> createIntent(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> data) {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            if (data.get("target") == null || data.get("targetId") == null || data.get("size") == null) {
+                throw new IllegalArgumentException("target, targetId and size are required");
+            }
+            UploadTarget target = UploadTarget.valueOf(
+                    data.get("target").toString().trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            Long targetId = Long.valueOf(data.get("targetId").toString());
+            long size = Long.parseLong(data.get("size").toString());
+            String contentType = data.get("contentType") != null ? data.get("contentType").toString() : null;
+            return ResponseEntity.ok(directUploadService.createIntent(user, target, targetId, contentType, size));
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("message", "Invalid upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    @PostMapping("/intents/{id}/complete")
+    public ResponseEntity<?> completeIntent(@AuthenticationPrincipal User user, @PathVariable String id) {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            response.put("url", directUploadService.complete(user, id));
+            response.put("message", "Upload recorded");
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalStateException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * Start a resumable lesson upload, e.g. {"videoId": 31, "file": "video",
+     * "contentType": "video/mp4", "size": 734003200}. The client then PUTs the file to
+     * /sessions/{id}?offset=N in chunks of the returned chunkSize and calls complete.
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<?> createSession(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> data)
+            throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            if (data.get("videoId") == null || data.get("file") == null || data.get("size") == null) {
+                throw new IllegalArgumentException("videoId, file and size are required");
+            }
+            Long videoId = Long.valueOf(data.get("videoId").toString());
+            LessonFile file = LessonFile.valueOf(data.get("file").toString().trim().toUpperCase(Locale.ROOT));
+            long size = Long.parseLong(data.get("size").toString());
+            String contentType = data.get("contentType") != null ? data.get("contentType").toString() : null;
+            Long chunkSize = data.get("chunkSize") != null ? Long.valueOf(data.get("chunkSize").toString()) : null;
+            UploadSession session = chunkedUploadService.create(user, videoId, file, contentType, size, chunkSize);
+            return ResponseEntity.status(HttpStatus.CREATED).body(session);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("message", "Invalid upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    /**
+     * Where to resume: "received" is the offset of the next chunk
+     */
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<?> getSession(@AuthenticationPrincipal User user, @PathVariable String id) {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            return ResponseEntity.ok(chunkedUploadService.get(user, id));
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+    }
+
+    /**
+     * One chunk as the raw request body. It is streamed to storage, never buffered whole.
+     */
+    @PutMapping("/sessions/{id}")
+    public ResponseEntity<?> putChunk(@AuthenticationPrincipal User user, @PathVariable String id,
+            @RequestParam long offset, HttpServletRequest request) throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            response.put("message", "Content-Length is required");
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body(response);
+        }
+        try {
+            response.put("offset", chunkedUploadService.writeChunk(user, id, offset, request.getInputStream(), length));
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalStateException e) {
+            // The client continues from the offset the server has
+            response.put("message", e.getMessage());
+            response.put("offset", chunkedUploadService.get(user, id).getReceived());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("message", "Invalid chunk: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    @PostMapping("/sessions/{id}/complete")
+    public ResponseEntity<?> completeSession(@AuthenticationPrincipal User user, @PathVariable String id)
+            throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            return ResponseEntity.ok(chunkedUploadService.complete(user, id));
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalStateException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<?> abortSession(@AuthenticationPrincipal User user, @PathVariable String id)
+            throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            chunkedUploadService.abort(user, id);
+            response.put("message", "Upload discarded");
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalStateException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getUploadStats() {
+        Map<String, Object> stats = new HashMap<>(directUploadService.getMetrics());
+        stats.put("chunked", chunkedUploadService.getMetrics());
+        return ResponseEntity.ok(stats);
+    }
+}
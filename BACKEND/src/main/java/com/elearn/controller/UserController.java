@@ -23,6 +23,7 @@ import com.elearn.model.User;
 import com.elearn.model.User.UserStatus;
 import com.elearn.service.UserService;
 import com.elearn.util.JwtUtil;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api/users")
@@ -134,12 +135,14 @@ public class UserController {
     }
     
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<List<User>> getAllUsers() {
         List<User> users = userService.getAllUsers();
         return ResponseEntity.ok(users);
     }
     
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
         Optional<User> userOpt = userService.getUserById(id);
         
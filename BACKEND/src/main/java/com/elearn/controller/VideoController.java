@@ -2,12 +2,18 @@ package com.elearn.controller;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +22,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.persistence.EntityNotFoundException;
 
 import com.elearn.model.Courses;
+import com.elearn.model.User;
 import com.elearn.model.Video;
+import com.elearn.repository.VideoSummary;
 import com.elearn.service.CourseService;
+import com.elearn.service.HeartbeatService;
+import com.elearn.service.PlaybackService;
 import com.elearn.service.VideoService;
+import com.elearn.util.QueryBudget;
 
 @RestController
 @RequestMapping("/api/videos")
@@ -36,41 +48,261 @@ public class VideoController {
     @Autowired
     private CourseService courseService;
     
+    @Autowired
+    private HeartbeatService heartbeatService;
+    
+    @Autowired
+    private PlaybackService playbackService;
+    
+    private static final int MAX_COURSE_IDS = 100;
+    
+    @Value("${heartbeats.max-batch:500}")
+    private int maxHeartbeatBatch;
+    
     @GetMapping
-    public ResponseEntity<List<Video>> getAllVideos() {
+    public ResponseEntity<List<Video>> getAllVideos(@AuthenticationPrincipal User user) {
         List<Video> videos = videoService.getAllVideos();
-        return ResponseEntity.ok(videos);
+        return ResponseEntity.ok(forViewer(videos, user));
+    }
+    
+    /**
+     * List the videos of several courses with a single query, grouped by course.
+     * Example: GET /api/videos?courseIds=1,2,3
+     */
+    @GetMapping(params = "courseIds")
+    @QueryBudget(2)
+    public ResponseEntity<?> getVideosByCourseIds(@AuthenticationPrincipal User user, @RequestParam List<Long> courseIds) {
+        if (courseIds.size() > MAX_COURSE_IDS) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "At most " + MAX_COURSE_IDS + " course ids per request");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Map<Long, List<VideoSummary>> videosByCourse = videoService.getVideoSummariesByCourseIds(new LinkedHashSet<>(courseIds));
+        List<Map<String, Object>> groups = new ArrayList<>(videosByCourse.size());
+        for (Map.Entry<Long, List<VideoSummary>> entry : videosByCourse.entrySet()) {
+            Map<String, Object> group = new HashMap<>();
+            group.put("courseId", entry.getKey());
+            group.put("courseTitle", entry.getValue().get(0).getCourseTitle());
+            group.put("videos", summariesForViewer(entry.getValue(), user));
+            groups.add(group);
+        }
+        return ResponseEntity.ok(groups);
     }
     
+    /**
+     * Stored video and notes links are only returned to staff of the course; students
+     * get signed ones from /{id}/playback
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Video> getVideoById(@PathVariable Long id) {
+    public ResponseEntity<Video> getVideoById(@AuthenticationPrincipal User user, @PathVariable Long id) {
         try {
             Video video = videoService.getVideoById(id);
-            return ResponseEntity.ok(video);
+            return ResponseEntity.ok(forViewer(List.of(video), user).get(0));
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Video>> getVideosByCourseId(@PathVariable Long courseId) {
+    @QueryBudget(3)
+    public ResponseEntity<List<Video>> getVideosByCourseId(@AuthenticationPrincipal User user, @PathVariable Long courseId) {
         List<Video> videos = videoService.getVideosByCourseId(courseId);
-        return ResponseEntity.ok(videos);
+        return ResponseEntity.ok(forViewer(videos, user));
     }
     
-    @GetMapping("/instructor/{instructorId}")
-    public ResponseEntity<List<Video>> getVideosByInstructorId(@PathVariable Long instructorId) {
+    /**
+     * Accept a batch of watch heartbeats for the current user. Events for videos the
+     * user may not watch, or that do not exist, are rejected.
+     * Body: {"events": [{"videoId": 1, "seconds": 5}, ...]}
+     */
+    @PostMapping("/heartbeats")
+    public ResponseEntity<?> recordHeartbeats(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> payload) {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        
+        Object eventsValue = payload.get("events");
+        if (!(eventsValue instanceof List)) {
+            response.put("message", "events must be a list");
+            return ResponseEntity.badRequest().body(response);
+        }
+        List<?> events = (List<?>) eventsValue;
+        if (events.size() > maxHeartbeatBatch) {
+            response.put("message", "At most " + maxHeartbeatBatch + " events per request");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        int accepted = 0;
+        int dropped = 0;
+        int rejected = 0;
+        // A batch usually repeats a few videos, so each is checked once
+        Map<Long, Boolean> mayRecord = new HashMap<>();
         try {
-            // Get all courses for this instructor
-            List<Courses> instructorCourses = courseService.getCoursesByInstructorId(instructorId);
-            
-            // Get videos for all instructor courses
-            List<Video> videos = new ArrayList<>();
-            for (Courses course : instructorCourses) {
-                videos.addAll(videoService.getVideosByCourseId(course.getId()));
+            for (Object eventValue : events) {
+                Map<?, ?> event = (Map<?, ?>) eventValue;
+                long videoId = ((Number) event.get("videoId")).longValue();
+                int seconds = ((Number) event.get("seconds")).intValue();
+                if (!mayRecord.computeIfAbsent(videoId, id -> playbackService.mayRecordWatchTime(user, id))) {
+                    rejected++;
+                } else if (heartbeatService.record(user.getId(), videoId, seconds)) {
+                    accepted++;
+                } else {
+                    dropped++;
+                }
             }
-            
-            return ResponseEntity.ok(videos);
+        } catch (ClassCastException | NullPointerException e) {
+            response.put("message", "Each event needs a numeric videoId and seconds");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        response.put("accepted", accepted);
+        response.put("dropped", dropped);
+        response.put("rejected", rejected);
+        if (accepted == 0 && dropped == 0 && rejected > 0) {
+            response.put("message", "You cannot watch these videos");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        if (accepted == 0 && dropped > 0) {
+            response.put("message", "Heartbeat buffer is full, please retry later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @GetMapping("/heartbeats/stats")
+    public ResponseEntity<Map<String, Object>> getHeartbeatStats(@AuthenticationPrincipal User user) {
+        if (!isAdmin(user)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(heartbeatService.getStats());
+    }
+    
+    @GetMapping("/{id}/watch-time")
+    public ResponseEntity<Map<String, Object>> getWatchTime(@AuthenticationPrincipal User user, @PathVariable Long id) {
+        return ResponseEntity.ok(heartbeatService.getWatchTime(id, user != null ? user.getId() : null));
+    }
+    
+    /**
+     * Signed playback links for one lesson
+     */
+    @GetMapping("/{id}/playback")
+    public ResponseEntity<?> getPlayback(@AuthenticationPrincipal User user, @PathVariable Long id) {
+        return playbackResponse(user, () -> playbackService.getPlayback(user, id));
+    }
+    
+    /**
+     * Signed playback links for every lesson of a course, in course order
+     */
+    @GetMapping("/course/{courseId}/playback")
+    public ResponseEntity<?> getCoursePlayback(@AuthenticationPrincipal User user, @PathVariable Long courseId) {
+        return playbackResponse(user, () -> playbackService.getCoursePlaylist(user, courseId));
+    }
+    
+    @GetMapping("/playback/stats")
+    public ResponseEntity<Map<String, Object>> getPlaybackStats(@AuthenticationPrincipal User user) {
+        if (!isAdmin(user)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(playbackService.getMetrics());
+    }
+    
+    private boolean isAdmin(User user) {
+        return user != null && user.getRole() == User.UserRole.ADMIN;
+    }
+    
+    private ResponseEntity<Map<String, Object>> forbidden() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Only admins can view video stats");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+    
+    /**
+     * The videos with their stored links removed on courses the user does not manage.
+     * Copies, so the managed entities are never changed.
+     */
+    private List<Video> forViewer(List<Video> videos, User user) {
+        List<Video> visible = new ArrayList<>(videos.size());
+        for (Video video : videos) {
+            User instructor = video.getCourse() != null ? video.getCourse().getInstructor() : null;
+            if (manages(user, instructor != null ? instructor.getId() : null)) {
+                visible.add(video);
+                continue;
+            }
+            Video copy = new Video();
+            copy.setId(video.getId());
+            copy.setTitle(video.getTitle());
+            copy.setDescription(video.getDescription());
+            copy.setCourse(video.getCourse());
+            copy.setCourseOrdinal(video.getCourseOrdinal());
+            copy.setCreatedAt(video.getCreatedAt());
+            copy.setUpdatedAt(video.getUpdatedAt());
+            visible.add(copy);
+        }
+        return visible;
+    }
+
+    private static List<Object> summariesForViewer(List<VideoSummary> videos, User user) {
+        List<Object> rows = new ArrayList<>(videos.size());
+        for (VideoSummary video : videos) {
+            if (manages(user, video.getInstructorId())) {
+                rows.add(video);
+                continue;
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", video.getId());
+            row.put("title", video.getTitle());
+            row.put("description", video.getDescription());
+            row.put("videoLink", null);
+            row.put("notesLink", null);
+            row.put("courseOrdinal", video.getCourseOrdinal());
+            row.put("createdAt", video.getCreatedAt());
+            row.put("updatedAt", video.getUpdatedAt());
+            row.put("courseId", video.getCourseId());
+            row.put("courseTitle", video.getCourseTitle());
+            row.put("instructorId", video.getInstructorId());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Admins and the course's instructor edit lessons and so see the links as stored
+     */
+    private static boolean manages(User user, Long instructorId) {
+        if (user == null) {
+            return false;
+        }
+        return user.getRole() == User.UserRole.ADMIN || user.getId().equals(instructorId);
+    }
+    
+    private ResponseEntity<?> playbackResponse(User user, Supplier<Object> playback) {
+        Map<String, Object> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            return ResponseEntity.ok(playback.get());
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (AccessDeniedException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+    }
+    
+    /**
+     * List the videos of all courses of an instructor with a single query, ordered by course
+     */
+    @GetMapping("/instructor/{instructorId}")
+    @QueryBudget(2)
+    public ResponseEntity<List<Object>> getVideosByInstructorId(@AuthenticationPrincipal User user, @PathVariable Long instructorId) {
+        try {
+            return ResponseEntity.ok(summariesForViewer(videoService.getVideoSummariesByInstructorId(instructorId), user));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -0,0 +1,29 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One shopping cart per user. The version goes up with every change to the cart's
+ * items, so a computed invoice can be reused until the cart changes.
+ */
+@Entity
+@Table(name = "carts")
+@Data
+public class Cart {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,56 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+@Entity
+@Table(name = "cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cart_items_user_item", columnNames = {"user_id", "item_type", "item_id"})
+}, indexes = {
+    @Index(name = "idx_cart_items_user", columnList = "user_id")
+})
+@Data
+public class CartItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false, length = 16)
+    private ItemType itemType;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "added_at", nullable = false, updatable = false)
+    private LocalDateTime addedAt = LocalDateTime.now();
+
+    public enum ItemType {
+        LAPTOPS, MOBILES, HEADPHONES, COURSES;
+
+        /**
+         * The stock-keeping product type, or null for courses
+         */
+        public ProductType toProductType() {
+            return this == COURSES ? null : ProductType.valueOf(name());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Course completion certificate. Names are copied at issue time so the certificate
+ * stays verifiable after the enrollment, course or user changes.
+ */
+@Entity
+@Table(name = "certificates")
+@Data
+public class Certificate {
+
+    public static final int MAX_ERROR_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "verification_id", nullable = false, unique = true, length = 16)
+    private String verificationId;
+
+    @Column(name = "enrollment_id", nullable = false, unique = true)
+    private Long enrollmentId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "student_name", nullable = false)
+    private String studentName;
+
+    @Column(name = "course_title", nullable = false)
+    private String courseTitle;
+
+    @Column(name = "instructor_name")
+    private String instructorName;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CertificateStatus status = CertificateStatus.PENDING;
+
+    // SHA-256 of the rendered files, which is also their storage key
+    @Column(name = "pdf_sha256", length = 64)
+    private String pdfSha256;
+
+    @Column(name = "png_sha256", length = 64)
+    private String pngSha256;
+
+    private int attempts;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "issued_at")
+    private LocalDateTime issuedAt;
+
+    public enum CertificateStatus {
+        PENDING, ISSUED, FAILED
+    }
+}
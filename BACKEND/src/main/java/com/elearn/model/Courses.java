@@ -3,6 +3,8 @@ package com.elearn.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -52,6 +54,12 @@ public class Courses {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Ordinal the next video of this course gets. Only moved up by CoursesRepo.advanceNextVideoOrdinal,
+    // never written from a loaded entity, so a stale course save cannot hand out an ordinal twice
+    @JsonIgnore
+    @Column(name = "next_video_ordinal", insertable = false, updatable = false)
+    private Integer nextVideoOrdinal;
+    
     public enum CourseStatus {
         DRAFT, PUBLISHED, ARCHIVED
     }
@@ -0,0 +1,29 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "enrollment_progress")
+@Data
+public class EnrollmentProgress {
+
+    @Id
+    @Column(name = "enrollment_id")
+    private Long enrollmentId;
+
+    // Bit n is set once the video with course ordinal n has been completed
+    @Column(name = "completed_videos", nullable = false, columnDefinition = "VARBINARY(1024)")
+    private byte[] completedVideos;
+
+    @Column(nullable = false)
+    private int progress;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
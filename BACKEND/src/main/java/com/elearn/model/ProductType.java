@@ -0,0 +1,8 @@
+package com.elearn.model;
+
+/**
+ * The product tables; names match the /api/user/{type} paths
+ */
+public enum ProductType {
+    LAPTOPS, MOBILES, HEADPHONES
+}
@@ -0,0 +1,53 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Progress of the storage GC, saved after every listing page so a run that stops
+ * halfway resumes where it left off. The counters cover the current or last run.
+ */
+@Entity
+@Table(name = "storage_gc_checkpoints")
+@Data
+public class StorageGcCheckpoint {
+
+    @Id
+    @Column(length = 32)
+    private String id;
+
+    // Prefix being scanned; null once the run finished
+    private String prefix;
+
+    @Column(name = "continuation_token", length = 1024)
+    private String continuationToken;
+
+    private long scanned;
+
+    private long referenced;
+
+    // Unreferenced but younger than the minimum age
+    @Column(name = "too_new")
+    private long tooNew;
+
+    private long deleted;
+
+    private long failed;
+
+    @Column(name = "bytes_reclaimed")
+    private long bytesReclaimed;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,79 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A file the browser was given a presigned URL to upload straight to S3. Completing
+ * the intent checks the uploaded object and records it on its target.
+ */
+@Entity
+@Table(name = "upload_intents", indexes = {
+    @Index(name = "idx_upload_intents_status_expiry", columnList = "status, expires_at")
+})
+@Data
+public class UploadIntent {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private UploadTarget target;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Column(name = "object_key", nullable = false)
+    private String objectKey;
+
+    @Column(name = "content_type", nullable = false, length = 64)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long size;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadStatus status = UploadStatus.PENDING;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // When the presigned URL stops working
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum UploadTarget {
+        COURSE_THUMBNAIL("courses"), LAPTOP_IMAGE("laptops");
+
+        private final String keyPrefix;
+
+        UploadTarget(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+    }
+
+    public enum UploadStatus {
+        PENDING, COMPLETED
+    }
+}
@@ -0,0 +1,89 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A resumable upload of a lesson video or notes file, sent in chunks at increasing
+ * offsets. The received count only moves once a chunk is safely stored, so after a
+ * dropped connection the client asks for it and continues from there.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_expiry", columnList = "expires_at")
+})
+@Data
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "video_id", nullable = false)
+    private Long videoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lesson_file", nullable = false, length = 16)
+    private LessonFile file;
+
+    // Media key for local storage, bucket key for S3
+    @Column(name = "object_key", nullable = false)
+    private String objectKey;
+
+    @Column(name = "content_type", nullable = false, length = 64)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long size;
+
+    // Every chunk but the last has exactly this size
+    @Column(name = "chunk_size", nullable = false)
+    private long chunkSize;
+
+    // Bytes stored from the start of the file
+    @Column(name = "received_bytes", nullable = false)
+    private long received;
+
+    // S3 multipart upload id; null when stored locally
+    @JsonIgnore
+    @Column(name = "multipart_upload_id", length = 1024)
+    private String multipartUploadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadStatus status = UploadStatus.OPEN;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Unfinished uploads are discarded after this
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum LessonFile {
+        VIDEO, NOTES
+    }
+
+    public enum UploadStatus {
+        OPEN, COMPLETED
+    }
+}
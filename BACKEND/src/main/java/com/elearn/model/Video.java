@@ -11,10 +11,11 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 
 @Entity
-@Table(name = "videos")
+@Table(name = "videos", uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "course_ordinal"}))
 @Data
 public class Video {
 
@@ -38,6 +39,10 @@ public class Video {
     @JoinColumn(name = "course_id", nullable = false)
     private Courses course;
     
+    // Stable position of the video within its course, never reused after a delete
+    @Column(name = "course_ordinal")
+    private Integer courseOrdinal;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -0,0 +1,34 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+@Entity
+@Table(name = "video_watch_time", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "video_id"}))
+@Data
+public class VideoWatchTime {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "video_id", nullable = false)
+    private Long videoId;
+
+    @Column(name = "watch_seconds", nullable = false)
+    private long watchSeconds;
+
+    @Column(name = "last_watched_at", nullable = false)
+    private LocalDateTime lastWatchedAt;
+}
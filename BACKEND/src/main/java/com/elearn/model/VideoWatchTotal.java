@@ -0,0 +1,28 @@
+package com.elearn.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Table(name = "video_watch_totals")
+@Data
+public class VideoWatchTotal {
+
+    @Id
+    @Column(name = "video_id")
+    private Long videoId;
+
+    @Column(name = "watch_seconds", nullable = false)
+    private long watchSeconds;
+
+    @Column(name = "heartbeat_count", nullable = false)
+    private long heartbeatCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.elearn.repo;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.CartItem;
+import com.elearn.model.CartItem.ItemType;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    List<CartItem> findByUserIdOrderByIdAsc(Long userId);
+
+    Optional<CartItem> findByUserIdAndItemTypeAndItemId(Long userId, ItemType itemType, Long itemId);
+
+    long countByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,25 @@
+package com.elearn.repo;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.Cart;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, Long> {
+
+    // Read as a scalar so a cart entity already in the persistence context cannot hide a newer version
+    @Query("SELECT c.version FROM Cart c WHERE c.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+
+    // Also locks the cart row until commit, so changes to one cart are applied one at a time
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = :now WHERE c.userId = :userId")
+    int bumpVersion(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.elearn.repo;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.Certificate;
+import com.elearn.model.Certificate.CertificateStatus;
+
+@Repository
+public interface CertificateRepository extends JpaRepository<Certificate, Long> {
+    Optional<Certificate> findByEnrollmentId(Long enrollmentId);
+
+    List<Certificate> findByStatus(CertificateStatus status);
+
+    boolean existsByVerificationId(String verificationId);
+}
@@ -0,0 +1,10 @@
+package com.elearn.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.EnrollmentProgress;
+
+@Repository
+public interface EnrollmentProgressRepository extends JpaRepository<EnrollmentProgress, Long> {
+}
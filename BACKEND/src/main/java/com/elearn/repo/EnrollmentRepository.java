@@ -2,10 +2,13 @@ package com.elearn.repo;
 
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.elearn.model.Courses;
 import com.elearn.model.Enrollment;
+import com.elearn.model.Enrollment.EnrollmentStatus;
 import com.elearn.model.User;
 
 @Repository
@@ -13,4 +16,20 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByUser(User user);
     List<Enrollment> findByCourse(Courses course);
     boolean existsByUserAndCourse(User user, Courses course);
+
+    // Load each enrollment's user, course and instructor in the same query instead of one select per row
+    @Query("SELECT e FROM Enrollment e LEFT JOIN FETCH e.user LEFT JOIN FETCH e.course c LEFT JOIN FETCH c.instructor")
+    List<Enrollment> findAllWithCourse();
+
+    @Query("SELECT e FROM Enrollment e LEFT JOIN FETCH e.user LEFT JOIN FETCH e.course c LEFT JOIN FETCH c.instructor "
+            + "WHERE e.user.id = :userId")
+    List<Enrollment> findByUserIdWithCourse(@Param("userId") Long userId);
+
+    @Query("SELECT e FROM Enrollment e LEFT JOIN FETCH e.user LEFT JOIN FETCH e.course c LEFT JOIN FETCH c.instructor "
+            + "WHERE e.course.id = :courseId")
+    List<Enrollment> findByCourseIdWithUser(@Param("courseId") Long courseId);
+    boolean existsByUserIdAndCourseIdAndStatusNot(Long userId, Long courseId, EnrollmentStatus status);
+
+    @Query("SELECT e.course.id, COUNT(e) FROM Enrollment e GROUP BY e.course.id")
+    List<Object[]> countEnrollmentsByCourse();
 } 
\ No newline at end of file
@@ -1,10 +1,27 @@
 package com.elearn.repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.elearn.model.Headphones;
 @Repository
 public interface HeadphonesRepo extends JpaRepository<Headphones, Long> {
 
+    // Takes stock only if enough is left; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE Headphones h SET h.pqty = h.pqty - :quantity WHERE h.pid = :pid AND h.pqty >= :quantity")
+    int reserveStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Headphones h SET h.pqty = h.pqty + :quantity WHERE h.pid = :pid")
+    int releaseStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    // Image URLs still in use, for the storage GC
+    @Query("SELECT h.pimage FROM Headphones h WHERE h.pimage IS NOT NULL")
+    List<String> findAllImages();
 }
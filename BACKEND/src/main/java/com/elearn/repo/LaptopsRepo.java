@@ -1,10 +1,31 @@
 package com.elearn.repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.elearn.model.Laptops;
 @Repository
 public interface LaptopsRepo extends JpaRepository<Laptops, Long> {
 
+    // Takes stock only if enough is left; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE Laptops l SET l.pqty = l.pqty - :quantity WHERE l.pid = :pid AND l.pqty >= :quantity")
+    int reserveStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Laptops l SET l.pqty = l.pqty + :quantity WHERE l.pid = :pid")
+    int releaseStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Laptops l SET l.pimage = :pimage WHERE l.pid = :pid")
+    int updateImage(@Param("pid") Long pid, @Param("pimage") String pimage);
+
+    // Image URLs still in use, for the storage GC
+    @Query("SELECT l.pimage FROM Laptops l WHERE l.pimage IS NOT NULL")
+    List<String> findAllImages();
 }
@@ -1,10 +1,27 @@
 package com.elearn.repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.elearn.model.Mobiles;
 @Repository
 public interface MobilesRepo extends JpaRepository<Mobiles, Long> {
 
+    // Takes stock only if enough is left; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE Mobiles m SET m.pqty = m.pqty - :quantity WHERE m.pid = :pid AND m.pqty >= :quantity")
+    int reserveStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Mobiles m SET m.pqty = m.pqty + :quantity WHERE m.pid = :pid")
+    int releaseStock(@Param("pid") Long pid, @Param("quantity") int quantity);
+
+    // Image URLs still in use, for the storage GC
+    @Query("SELECT m.pimage FROM Mobiles m WHERE m.pimage IS NOT NULL")
+    List<String> findAllImages();
 }
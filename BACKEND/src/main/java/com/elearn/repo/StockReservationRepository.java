@@ -0,0 +1,35 @@
+package com.elearn.repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.StockReservation;
+import com.elearn.model.StockReservation.ReservationStatus;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByOrderId(String orderId);
+
+    List<StockReservation> findByStatusAndExpiresAtBefore(ReservationStatus status, LocalDateTime time, Pageable pageable);
+
+    long countByStatus(ReservationStatus status);
+
+    // Moves a reservation on only from the expected status, so the sweeper and a late
+    // payment confirmation cannot both act on it
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to, r.paymentId = :paymentId, r.confirmedAt = :confirmedAt "
+            + "WHERE r.id = :id AND r.status = :from")
+    int confirm(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to,
+            @Param("paymentId") String paymentId, @Param("confirmedAt") LocalDateTime confirmedAt);
+}
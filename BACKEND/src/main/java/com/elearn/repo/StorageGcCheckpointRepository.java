@@ -0,0 +1,10 @@
+package com.elearn.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.StorageGcCheckpoint;
+
+@Repository
+public interface StorageGcCheckpointRepository extends JpaRepository<StorageGcCheckpoint, String> {
+}
@@ -0,0 +1,47 @@
+package com.elearn.repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.StoredBlob;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    Optional<StoredBlob> findByObjectKey(String objectKey);
+
+    List<StoredBlob> findByObjectKeyIn(Collection<String> objectKeys);
+
+    // Held by the storage GC while it deletes the objects, so addReference waits and then finds no row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.objectKey IN :objectKeys AND b.refCount = 0 AND b.updatedAt < :cutoff")
+    List<StoredBlob> lockUnreferenced(@Param("objectKeys") Collection<String> objectKeys,
+            @Param("cutoff") LocalDateTime cutoff);
+
+    // A plain INSERT: save() would merge into a row a concurrent upload just created
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (hash, object_key, size_bytes, content_type, ref_count, created_at, updated_at) "
+            + "VALUES (:hash, :objectKey, :size, :contentType, 1, :now, :now)", nativeQuery = true)
+    int insert(@Param("hash") String hash, @Param("objectKey") String objectKey, @Param("size") long size,
+            @Param("contentType") String contentType, @Param("now") LocalDateTime now);
+
+    // 0 if the blob is not recorded, so the caller stores it
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.hash = :hash")
+    int addReference(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now WHERE b.objectKey = :objectKey AND b.refCount > 0")
+    int removeReference(@Param("objectKey") String objectKey, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,26 @@
+package com.elearn.repo;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.UploadIntent;
+import com.elearn.model.UploadIntent.UploadStatus;
+
+@Repository
+public interface UploadIntentRepository extends JpaRepository<UploadIntent, String> {
+
+    // Completes an intent once, however many times the browser calls back
+    @Modifying
+    @Query("UPDATE UploadIntent u SET u.status = :to, u.completedAt = :completedAt WHERE u.id = :id AND u.status = :from")
+    int complete(@Param("id") String id, @Param("from") UploadStatus from, @Param("to") UploadStatus to,
+            @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("DELETE FROM UploadIntent u WHERE u.status = :status AND u.expiresAt < :time")
+    int deleteByStatusAndExpiresAtBefore(@Param("status") UploadStatus status, @Param("time") LocalDateTime time);
+}
@@ -0,0 +1,32 @@
+package com.elearn.repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.UploadSession;
+import com.elearn.model.UploadSession.UploadStatus;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Moves the offset only if no other chunk got there first; 0 otherwise
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.received = :to, s.updatedAt = :now "
+            + "WHERE s.id = :id AND s.received = :from AND s.status = :status")
+    int advance(@Param("id") String id, @Param("from") long from, @Param("to") long to,
+            @Param("status") UploadStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = :to, s.completedAt = :now, s.updatedAt = :now "
+            + "WHERE s.id = :id AND s.status = :from")
+    int complete(@Param("id") String id, @Param("from") UploadStatus from, @Param("to") UploadStatus to,
+            @Param("now") LocalDateTime now);
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time);
+}
@@ -0,0 +1,20 @@
+package com.elearn.repository;
+
+import java.math.BigDecimal;
+
+import com.elearn.model.Courses.CourseStatus;
+
+/**
+ * The fields needed to price a course in a cart, read without loading its instructor
+ */
+public interface CoursePrice {
+    Long getId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+
+    String getThumbnail();
+
+    CourseStatus getStatus();
+}
@@ -1,9 +1,16 @@
 package com.elearn.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.elearn.model.Courses;
 import com.elearn.model.User;
@@ -15,4 +22,44 @@ public interface CoursesRepo extends JpaRepository<Courses, Long> {
     List<Courses> findByCategoryId(Integer categoryId);
     List<Courses> findByStatus(CourseStatus status);
     List<Courses> findByInstructorId(Long instructorId);
+
+    // Loads instructors in the same query instead of one select per instructor
+    @Query("SELECT c FROM Courses c LEFT JOIN FETCH c.instructor WHERE c.status = :status")
+    List<Courses> findByStatusWithInstructor(@Param("status") CourseStatus status);
+
+    @Query("SELECT c FROM Courses c LEFT JOIN FETCH c.instructor")
+    List<Courses> findAllWithInstructor();
+
+    @Query("SELECT c FROM Courses c LEFT JOIN FETCH c.instructor WHERE c.categoryId = :categoryId")
+    List<Courses> findByCategoryIdWithInstructor(@Param("categoryId") Integer categoryId);
+
+    @Query("SELECT c.id AS id, c.title AS title, c.price AS price, c.thumbnail AS thumbnail, c.status AS status "
+            + "FROM Courses c WHERE c.id IN :ids")
+    List<CoursePrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.thumbnail FROM Courses c WHERE c.thumbnail IS NOT NULL")
+    List<String> findAllThumbnails();
+
+    @Query("SELECT c.instructor.id FROM Courses c WHERE c.id = :id")
+    Optional<Long> findInstructorIdById(@Param("id") Long id);
+
+    // Clears the persistence context so a course read afterwards shows the new thumbnail
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Courses c SET c.thumbnail = :thumbnail, c.updatedAt = :now WHERE c.id = :id")
+    int updateThumbnail(@Param("id") Long id, @Param("thumbnail") String thumbnail, @Param("now") LocalDateTime now);
+
+    @Query("SELECT c.nextVideoOrdinal FROM Courses c WHERE c.id = :id")
+    Optional<Integer> findNextVideoOrdinal(@Param("id") Long id);
+
+    // Moves the counter only from the value the caller read, so two writers never take the same ordinal
+    @Transactional
+    @Modifying
+    @Query("UPDATE Courses c SET c.nextVideoOrdinal = :next WHERE c.id = :id AND c.nextVideoOrdinal = :expected")
+    int advanceNextVideoOrdinal(@Param("id") Long id, @Param("expected") int expected, @Param("next") int next);
+
+    // For courses whose counter was never set, i.e. created before it existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Courses c SET c.nextVideoOrdinal = :next WHERE c.id = :id AND c.nextVideoOrdinal IS NULL")
+    int initNextVideoOrdinal(@Param("id") Long id, @Param("next") int next);
 } 
\ No newline at end of file
@@ -1,13 +1,51 @@
 package com.elearn.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.elearn.model.Video;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Long> {
+    String SUMMARY_SELECT = "SELECT v.id AS id, v.title AS title, v.description AS description, "
+            + "v.videoLink AS videoLink, v.notesLink AS notesLink, v.courseOrdinal AS courseOrdinal, "
+            + "v.createdAt AS createdAt, v.updatedAt AS updatedAt, c.id AS courseId, c.title AS courseTitle, c.instructor.id AS instructorId "
+            + "FROM Video v JOIN v.course c ";
+
     List<Video> findByCourseId(Long courseId);
-} 
\ No newline at end of file
+
+    @Query("SELECT v.course.id FROM Video v WHERE v.id = :id")
+    Optional<Long> findCourseIdById(@Param("id") Long id);
+
+    @Query(SUMMARY_SELECT + "WHERE v.id = :id")
+    Optional<VideoSummary> findSummaryById(@Param("id") Long id);
+
+    List<Video> findByCourseOrdinalIsNullOrderByIdAsc();
+
+    @Query("SELECT v.videoLink FROM Video v WHERE v.videoLink IS NOT NULL")
+    List<String> findAllVideoLinks();
+
+    @Query("SELECT v.notesLink FROM Video v WHERE v.notesLink IS NOT NULL")
+    List<String> findAllNotesLinks();
+
+    @Query("SELECT MAX(v.courseOrdinal) FROM Video v WHERE v.course.id = :courseId")
+    Integer findMaxCourseOrdinal(@Param("courseId") Long courseId);
+
+    /**
+     * All videos of an instructor's courses, ordered by course and then video
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.instructor.id = :instructorId ORDER BY c.id, v.id")
+    List<VideoSummary> findSummariesByInstructorId(@Param("instructorId") Long instructorId);
+
+    /**
+     * All videos of the given courses, ordered by course and then video
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.id IN :courseIds ORDER BY c.id, v.id")
+    List<VideoSummary> findSummariesByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+}
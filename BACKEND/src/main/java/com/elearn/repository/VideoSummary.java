@@ -0,0 +1,31 @@
+package com.elearn.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Video listing row with its course id and title, read in one query without loading
+ * the course or instructor entities
+ */
+public interface VideoSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getVideoLink();
+
+    String getNotesLink();
+
+    Integer getCourseOrdinal();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getCourseId();
+
+    String getCourseTitle();
+
+    Long getInstructorId();
+}
@@ -0,0 +1,15 @@
+package com.elearn.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.VideoWatchTime;
+
+@Repository
+public interface VideoWatchTimeRepository extends JpaRepository<VideoWatchTime, Long> {
+    Optional<VideoWatchTime> findByUserIdAndVideoId(Long userId, Long videoId);
+
+    long countByVideoId(Long videoId);
+}
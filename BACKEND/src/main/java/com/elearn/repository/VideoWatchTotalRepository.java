@@ -0,0 +1,10 @@
+package com.elearn.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.elearn.model.VideoWatchTotal;
+
+@Repository
+public interface VideoWatchTotalRepository extends JpaRepository<VideoWatchTotal, Long> {
+}
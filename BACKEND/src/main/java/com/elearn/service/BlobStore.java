@@ -0,0 +1,74 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Storage for uploaded files such as course thumbnails and product images. Keys are
+ * relative paths like "blobs/3f/3fa9...e1.png". The S3 implementation is the
+ * default; storage.backend=local keeps everything on local disk so the app and its
+ * tests run without AWS.
+ */
+public interface BlobStore {
+
+    void put(String key, InputStream content, long size, String contentType) throws IOException;
+
+    /**
+     * The whole object, read-only; null if there is no such key
+     */
+    ByteBuffer read(String key) throws IOException;
+
+    /**
+     * Size in bytes, or -1 if there is no such key
+     */
+    long size(String key) throws IOException;
+
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Delete up to MAX_BATCH_DELETE keys in one request
+     * @return The keys that are gone now
+     */
+    List<String> deleteAll(List<String> keys) throws IOException;
+
+    /**
+     * One page of the objects whose keys start with the prefix. Pass the returned
+     * token back to get the next page; it is null after the last one. Pages come in
+     * an order fixed by the store, not necessarily key order.
+     */
+    Listing list(String prefix, String continuationToken, int pageSize) throws IOException;
+
+    /**
+     * URL browsers fetch the object from
+     */
+    String publicUrl(String key);
+
+    /**
+     * The key of a URL built by publicUrl, or null if it points elsewhere
+     */
+    String keyOf(String url);
+
+    // The most S3 accepts in one DeleteObjects request
+    int MAX_BATCH_DELETE = 1000;
+
+    @Getter
+    @AllArgsConstructor
+    class StoredObject {
+        private final String key;
+        private final long size;
+        private final Instant lastModified;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    class Listing {
+        private final List<StoredObject> objects;
+        private final String nextToken;
+    }
+}
@@ -0,0 +1,463 @@
+package com.elearn.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.Cart;
+import com.elearn.model.CartItem;
+import com.elearn.model.CartItem.ItemType;
+import com.elearn.model.Courses.CourseStatus;
+import com.elearn.model.Headphones;
+import com.elearn.model.Laptops;
+import com.elearn.model.Mobiles;
+import com.elearn.repo.CartItemRepository;
+import com.elearn.repo.CartRepository;
+import com.elearn.repo.HeadphonesRepo;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.repository.CoursePrice;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.service.StockReservationService.ReservationLine;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.razorpay.RazorpayException;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Server-side carts. A cart is priced with one query per product table and one for
+ * courses, however many lines it has, and the invoice is cached until the cart changes.
+ * Checkout always reprices the cart and charges the server's total.
+ */
+@Service
+public class CartService {
+
+    public static final String CURRENCY = "INR";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private LaptopsRepo laptopsRepo;
+
+    @Autowired
+    private MobilesRepo mobilesRepo;
+
+    @Autowired
+    private HeadphonesRepo headphonesRepo;
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private ExcelRService excelRService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${carts.max-lines:500}")
+    private int maxLines;
+
+    @Value("${carts.max-quantity:100}")
+    private int maxQuantity;
+
+    // Bounds how stale a cached price or stock figure can get while the cart is unchanged
+    @Value("${carts.invoice-ttl-ms:60000}")
+    private long invoiceTtlMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTemplate;
+
+    private final Map<Long, Invoice> invoices = new ConcurrentHashMap<>();
+
+    private final LongAdder invoiceHits = new LongAdder();
+    private final LongAdder invoiceMisses = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutsRejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Get the priced cart of a user, reusing the cached invoice while the cart version matches
+     */
+    public Invoice getInvoice(Long userId) {
+        Invoice cached = invoices.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.getComputedAt() < invoiceTtlMillis
+                && cached.getVersion() == currentVersion(userId)) {
+            invoiceHits.increment();
+            return cached;
+        }
+        return computeInvoice(userId);
+    }
+
+    /**
+     * Set the quantity of one item; a quantity of zero removes it
+     * @throws IllegalArgumentException if the quantity is out of range or the cart is full
+     */
+    public Invoice setItem(Long userId, ItemType type, Long itemId, int quantity) {
+        validateLine(type, itemId, quantity, true);
+        modify(userId, () -> {
+            Optional<CartItem> existing = cartItemRepository.findByUserIdAndItemTypeAndItemId(userId, type, itemId);
+            if (quantity == 0) {
+                existing.ifPresent(cartItemRepository::delete);
+                return;
+            }
+            CartItem item = existing.orElse(null);
+            if (item == null) {
+                if (cartItemRepository.countByUserId(userId) >= maxLines) {
+                    throw new IllegalArgumentException("A cart can hold at most " + maxLines + " items");
+                }
+                item = newItem(userId, type, itemId);
+            }
+            item.setQuantity(quantity);
+            cartItemRepository.save(item);
+        });
+        return computeInvoice(userId);
+    }
+
+    /**
+     * Replace the whole cart, e.g. when a cart built before signing in is uploaded.
+     * Repeated items are merged.
+     */
+    public Invoice replaceItems(Long userId, List<CartLine> lines) {
+        Map<String, CartItem> merged = new LinkedHashMap<>();
+        for (CartLine line : lines) {
+            validateLine(line.getType(), line.getItemId(), line.getQuantity(), false);
+            CartItem item = merged.computeIfAbsent(line.getType() + ":" + line.getItemId(),
+                    key -> newItem(userId, line.getType(), line.getItemId()));
+            item.setQuantity(item.getQuantity() + line.getQuantity());
+            validateLine(line.getType(), line.getItemId(), item.getQuantity(), false);
+        }
+        if (merged.size() > maxLines) {
+            throw new IllegalArgumentException("A cart can hold at most " + maxLines + " items");
+        }
+        modify(userId, () -> {
+            cartItemRepository.deleteByUserId(userId);
+            cartItemRepository.saveAll(merged.values());
+        });
+        return computeInvoice(userId);
+    }
+
+    public Invoice clear(Long userId) {
+        modify(userId, () -> cartItemRepository.deleteByUserId(userId));
+        return computeInvoice(userId);
+    }
+
+    /**
+     * Reprice the cart and create a Razorpay order for its total, reserving stock for
+     * the product lines
+     * @throws IllegalArgumentException if the cart is empty or free
+     * @throws IllegalStateException if an item is unavailable or out of stock
+     */
+    public Checkout checkout(Long userId) throws RazorpayException {
+        Invoice invoice = computeInvoice(userId);
+        if (invoice.getLines().isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        try {
+            return placeOrder(invoice, "cart_" + userId + "_v" + invoice.getVersion(),
+                    "Some items in the cart are no longer available");
+        } catch (IllegalStateException e) {
+            // Unavailable, or stock ran out between pricing and reservation
+            invoices.remove(userId);
+            throw e;
+        }
+    }
+
+    /**
+     * Create a Razorpay order for one course at its current price, leaving the cart as it is
+     * @throws IllegalArgumentException if the course is free
+     * @throws IllegalStateException if the course does not exist or is not published
+     */
+    public Checkout checkoutCourse(Long userId, Long courseId) throws RazorpayException {
+        validateLine(ItemType.COURSES, courseId, 1, false);
+        CartItem item = newItem(userId, ItemType.COURSES, courseId);
+        item.setQuantity(1);
+        Invoice invoice = readOnlyTemplate.execute(status -> price(0, List.of(item)));
+        return placeOrder(invoice, "course_" + courseId + "_user_" + userId + "_" + System.currentTimeMillis(),
+                "This course is not available");
+    }
+
+    private Checkout placeOrder(Invoice invoice, String receipt, String unavailableMessage) throws RazorpayException {
+        if (!invoice.isPayable()) {
+            checkoutsRejected.increment();
+            throw new IllegalStateException(unavailableMessage);
+        }
+        if (invoice.getTotalPaise() <= 0) {
+            // Razorpay cannot take a zero amount; free courses are enrolled in directly
+            throw new IllegalArgumentException("Nothing in the cart needs paying for");
+        }
+        List<ReservationLine> stockLines = new ArrayList<>();
+        for (InvoiceLine line : invoice.getLines()) {
+            if (line.getType() != ItemType.COURSES) {
+                stockLines.add(new ReservationLine(line.getType().toProductType(), line.getItemId(), line.getQuantity()));
+            }
+        }
+        try {
+            String order = excelRService.createOrderInPaise(invoice.getTotalPaise(), CURRENCY, receipt, stockLines);
+            checkouts.increment();
+            return new Checkout(order, invoice);
+        } catch (IllegalStateException e) {
+            // Stock ran out between pricing and reservation
+            checkoutsRejected.increment();
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${carts.invoice-ttl-ms:60000}", initialDelayString = "${carts.invoice-ttl-ms:60000}")
+    public void evictExpiredInvoices() {
+        long cutoff = System.currentTimeMillis() - invoiceTtlMillis;
+        invoices.values().removeIf(invoice -> invoice.getComputedAt() < cutoff);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("cachedInvoices", invoices.size());
+        metrics.put("invoiceHits", invoiceHits.sum());
+        metrics.put("invoiceMisses", invoiceMisses.sum());
+        metrics.put("checkouts", checkouts.sum());
+        metrics.put("checkoutsRejected", checkoutsRejected.sum());
+        return metrics;
+    }
+
+    private Invoice computeInvoice(Long userId) {
+        invoiceMisses.increment();
+        // Version and items are read in one transaction so the invoice matches the version it is cached under
+        Invoice invoice = readOnlyTemplate.execute(status ->
+                price(currentVersion(userId), cartItemRepository.findByUserIdOrderByIdAsc(userId)));
+        invoices.merge(userId, invoice, (cached, fresh) -> fresh.getVersion() >= cached.getVersion() ? fresh : cached);
+        return invoice;
+    }
+
+    private long currentVersion(Long userId) {
+        return cartRepository.findVersion(userId).orElse(0L);
+    }
+
+    /**
+     * Apply a change to the items of a cart and bump its version, creating the cart first if needed
+     */
+    private void modify(Long userId, Runnable change) {
+        try {
+            applyChange(userId, change);
+        } catch (DataIntegrityViolationException e) {
+            // Two first changes raced to create the cart; the cart exists now
+            applyChange(userId, change);
+        }
+        invoices.remove(userId);
+    }
+
+    private void applyChange(Long userId, Runnable change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (cartRepository.bumpVersion(userId, LocalDateTime.now()) == 0) {
+                Cart cart = new Cart();
+                cart.setUserId(userId);
+                cart.setVersion(1);
+                cartRepository.saveAndFlush(cart);
+            }
+            change.run();
+        });
+    }
+
+    private void validateLine(ItemType type, Long itemId, int quantity, boolean allowZero) {
+        if (type == null || itemId == null) {
+            throw new IllegalArgumentException("Cart item needs a type and an id");
+        }
+        if (quantity < (allowZero ? 0 : 1) || quantity > maxQuantity) {
+            throw new IllegalArgumentException("Quantity must be between " + (allowZero ? 0 : 1) + " and " + maxQuantity);
+        }
+        if (type == ItemType.COURSES && quantity > 1) {
+            throw new IllegalArgumentException("A course can only be bought once");
+        }
+    }
+
+    private static CartItem newItem(Long userId, ItemType type, Long itemId) {
+        CartItem item = new CartItem();
+        item.setUserId(userId);
+        item.setItemType(type);
+        item.setItemId(itemId);
+        return item;
+    }
+
+    private Invoice price(long version, List<CartItem> items) {
+        Map<ItemType, Set<Long>> idsByType = new EnumMap<>(ItemType.class);
+        for (CartItem item : items) {
+            idsByType.computeIfAbsent(item.getItemType(), type -> new HashSet<>()).add(item.getItemId());
+        }
+        Map<ItemType, Map<Long, PricedItem>> catalog = new EnumMap<>(ItemType.class);
+        for (Map.Entry<ItemType, Set<Long>> entry : idsByType.entrySet()) {
+            catalog.put(entry.getKey(), lookup(entry.getKey(), entry.getValue()));
+        }
+        return buildInvoice(version, items, catalog, System.currentTimeMillis());
+    }
+
+    /**
+     * Price all items of one type with a single IN query
+     */
+    private Map<Long, PricedItem> lookup(ItemType type, Set<Long> ids) {
+        Map<Long, PricedItem> priced = new HashMap<>();
+        switch (type) {
+            case LAPTOPS:
+                for (Laptops laptop : laptopsRepo.findAllById(ids)) {
+                    priced.put(laptop.getPid(), new PricedItem(laptop.getPname(), laptop.getPimage(),
+                            laptop.getPcost() * 100L, laptop.getPqty(), true));
+                }
+                break;
+            case MOBILES:
+                for (Mobiles mobile : mobilesRepo.findAllById(ids)) {
+                    priced.put(mobile.getPid(), new PricedItem(mobile.getPname(), mobile.getPimage(),
+                            mobile.getPcost() * 100L, mobile.getPqty(), true));
+                }
+                break;
+            case HEADPHONES:
+                for (Headphones headphone : headphonesRepo.findAllById(ids)) {
+                    priced.put(headphone.getPid(), new PricedItem(headphone.getPname(), headphone.getPimage(),
+                            headphone.getPcost() * 100L, headphone.getPqty(), true));
+                }
+                break;
+            default:
+                for (CoursePrice course : coursesRepo.findPricesByIdIn(ids)) {
+                    priced.put(course.getId(), new PricedItem(course.getTitle(), course.getThumbnail(),
+                            toPaise(course.getPrice()), null, course.getStatus() == CourseStatus.PUBLISHED));
+                }
+        }
+        return priced;
+    }
+
+    static long toPaise(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0;
+        }
+        return rupees.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Build the invoice of a cart from its items and their current prices. Lines that
+     * cannot be bought are listed with a problem and left out of the total.
+     */
+    static Invoice buildInvoice(long version, List<CartItem> items, Map<ItemType, Map<Long, PricedItem>> catalog,
+            long computedAt) {
+        List<InvoiceLine> lines = new ArrayList<>(items.size());
+        long totalPaise = 0;
+        boolean payable = true;
+        for (CartItem item : items) {
+            PricedItem priced = catalog.getOrDefault(item.getItemType(), Map.of()).get(item.getItemId());
+            if (priced == null) {
+                lines.add(new InvoiceLine(item.getItemType(), item.getItemId(), null, null, item.getQuantity(), 0, 0,
+                        "No longer available"));
+                payable = false;
+                continue;
+            }
+            String problem = null;
+            if (!priced.isOnSale()) {
+                problem = "No longer on sale";
+            } else if (priced.getStock() != null && priced.getStock() < item.getQuantity()) {
+                problem = priced.getStock() <= 0 ? "Out of stock" : "Only " + priced.getStock() + " left";
+            }
+            long lineTotal = Math.multiplyExact(priced.getUnitPricePaise(), item.getQuantity());
+            if (problem == null) {
+                totalPaise = Math.addExact(totalPaise, lineTotal);
+            } else {
+                payable = false;
+            }
+            lines.add(new InvoiceLine(item.getItemType(), item.getItemId(), priced.getName(), priced.getImage(),
+                    item.getQuantity(), priced.getUnitPricePaise(), lineTotal, problem));
+        }
+        return new Invoice(version, lines, totalPaise, payable, computedAt);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class PricedItem {
+        private final String name;
+        private final String image;
+        private final long unitPricePaise;
+        // Null for items without stock, i.e. courses
+        private final Integer stock;
+        private final boolean onSale;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CartLine {
+        private final ItemType type;
+        private final Long itemId;
+        private final int quantity;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Invoice {
+        private final long version;
+        private final List<InvoiceLine> lines;
+        private final long totalPaise;
+        private final boolean payable;
+        @JsonIgnore
+        private final long computedAt;
+
+        public BigDecimal getTotal() {
+            return BigDecimal.valueOf(totalPaise, 2);
+        }
+
+        public String getCurrency() {
+            return CURRENCY;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class InvoiceLine {
+        private final ItemType type;
+        private final Long itemId;
+        private final String name;
+        private final String image;
+        private final int quantity;
+        private final long unitPricePaise;
+        private final long lineTotalPaise;
+        // Why the line cannot be bought, or null
+        private final String problem;
+
+        public BigDecimal getUnitPrice() {
+            return BigDecimal.valueOf(unitPricePaise, 2);
+        }
+
+        public BigDecimal getLineTotal() {
+            return BigDecimal.valueOf(lineTotalPaise, 2);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Checkout {
+        private final String order;
+        private final Invoice invoice;
+    }
+}
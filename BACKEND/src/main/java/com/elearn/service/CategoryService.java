@@ -15,6 +15,12 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CourseSearchService courseSearchService;
+    
+    @Autowired
+    private CourseSuggestionService courseSuggestionService;
+    
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -28,11 +34,16 @@ public class CategoryService {
     }
     
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        courseSearchService.onCategoryChanged(savedCategory.getId(), savedCategory.getName());
+        courseSuggestionService.requestRebuild();
+        return savedCategory;
     }
     
     public void deleteCategory(Integer id) {
         categoryRepository.deleteById(id);
+        courseSearchService.onCategoryChanged(id, null);
+        courseSuggestionService.requestRebuild();
     }
     
     public Category updateCategoryStatus(Integer id, boolean active) {
@@ -40,7 +51,9 @@ public class CategoryService {
         if (categoryOpt.isPresent()) {
             Category category = categoryOpt.get();
             category.setActive(active);
-            return categoryRepository.save(category);
+            Category savedCategory = categoryRepository.save(category);
+            courseSuggestionService.requestRebuild();
+            return savedCategory;
         }
         return null;
     }
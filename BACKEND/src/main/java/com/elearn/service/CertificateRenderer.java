@@ -0,0 +1,230 @@
+package com.elearn.service;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import com.elearn.model.Certificate;
+import com.elearn.util.PdfImageWriter;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Draws certificates with Java2D. Everything that is the same on every certificate, including
+ * the seal and signature images, is drawn once at startup into a template; each certificate
+ * only copies the template and adds its own text.
+ */
+@Component
+public class CertificateRenderer {
+
+    // Twice the size of an A4 landscape page in points
+    private static final int WIDTH = 1684;
+    private static final int HEIGHT = 1191;
+    private static final int PAGE_WIDTH = 842;
+    private static final int PAGE_HEIGHT = 595;
+
+    private static final int MARGIN = 110;
+    private static final int MAX_TEXT_WIDTH = 1400;
+
+    private static final Color NAVY = new Color(0x10, 0x37, 0x5c);
+    private static final Color NAME_BLUE = new Color(0x1a, 0x52, 0x76);
+    private static final Color SLATE = new Color(0x2c, 0x3e, 0x50);
+    private static final Color GOLD = new Color(0xb8, 0x94, 0x3f);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH);
+
+    private BufferedImage template;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Image signature = loadAsset("certificates/signature.png");
+        Image seal = loadAsset("certificates/seal.png");
+        template = drawTemplate(signature, seal);
+    }
+
+    /**
+     * Render a certificate as PNG and as a one-page PDF of the same image
+     */
+    public RenderedCertificate render(Certificate certificate) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.drawImage(template, 0, 0, null);
+            applyHints(g);
+
+            g.setColor(Color.BLACK);
+            g.setFont(new Font(Font.SERIF, Font.PLAIN, 30));
+            g.drawString(DATE_FORMAT.format(certificate.getCompletedAt()), MARGIN, 200);
+            drawRightAligned(g, certificate.getVerificationId(), WIDTH - MARGIN, 200);
+
+            g.setColor(NAME_BLUE);
+            drawCentered(g, certificate.getStudentName(), new Font(Font.SERIF, Font.BOLD, 76), 575);
+
+            g.setColor(SLATE);
+            drawCentered(g, certificate.getCourseTitle(), new Font(Font.SERIF, Font.BOLD, 60), 765);
+
+            if (certificate.getInstructorName() != null) {
+                g.setColor(Color.DARK_GRAY);
+                drawCentered(g, "Instructor: " + certificate.getInstructorName(), new Font(Font.SERIF, Font.ITALIC, 30), 890);
+            }
+
+            g.setColor(Color.GRAY);
+            drawCentered(g, "Verify this certificate with ID " + certificate.getVerificationId(),
+                    new Font(Font.SANS_SERIF, Font.PLAIN, 22), HEIGHT - 70);
+        } finally {
+            g.dispose();
+        }
+
+        byte[] png = encodePng(image);
+        byte[] pdf = PdfImageWriter.write(encodeJpeg(image), WIDTH, HEIGHT, PAGE_WIDTH, PAGE_HEIGHT);
+        return new RenderedCertificate(png, pdf);
+    }
+
+    private BufferedImage drawTemplate(Image signature, Image seal) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            applyHints(g);
+            g.setPaint(new GradientPaint(0, 0, Color.WHITE, 0, HEIGHT, new Color(0xf9, 0xfc, 0xff)));
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+
+            g.setColor(NAVY);
+            g.setStroke(new BasicStroke(8));
+            g.drawRect(30, 30, WIDTH - 60, HEIGHT - 60);
+            g.setColor(GOLD);
+            g.setStroke(new BasicStroke(3));
+            g.drawRect(50, 50, WIDTH - 100, HEIGHT - 100);
+
+            g.setColor(Color.BLACK);
+            g.setFont(new Font(Font.SERIF, Font.BOLD, 30));
+            g.drawString("Date Issued:", MARGIN, 160);
+            drawRightAligned(g, "Certificate Number:", WIDTH - MARGIN, 160);
+
+            g.setColor(NAVY);
+            drawCentered(g, "Certificate of Completion", new Font(Font.SERIF, Font.BOLD, 84), 330);
+
+            g.setColor(Color.GRAY);
+            g.setFont(new Font(Font.SERIF, Font.PLAIN, 30));
+            FontMetrics metrics = g.getFontMetrics();
+            String academy = "EduLearn Academy";
+            int academyWidth = metrics.stringWidth(academy);
+            int academyX = (WIDTH - academyWidth) / 2;
+            g.drawString(academy, academyX, 395);
+            g.setStroke(new BasicStroke(2));
+            g.drawLine(academyX - 320, 385, academyX - 30, 385);
+            g.drawLine(academyX + academyWidth + 30, 385, academyX + academyWidth + 320, 385);
+
+            g.setColor(Color.BLACK);
+            drawCentered(g, "This is to certify that", new Font(Font.SERIF, Font.PLAIN, 36), 470);
+            drawCentered(g, "has successfully completed the course", new Font(Font.SERIF, Font.PLAIN, 36), 665);
+
+            // Signature block on the left, seal on the right
+            drawScaled(g, signature, MARGIN + 40, 930, 330, 110);
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke(2));
+            g.drawLine(MARGIN + 40, 1050, MARGIN + 440, 1050);
+            g.setFont(new Font(Font.SERIF, Font.BOLD, 30));
+            g.drawString("Neel Sapariya", MARGIN + 40, 1090);
+            g.setFont(new Font(Font.SERIF, Font.PLAIN, 26));
+            g.drawString("Director", MARGIN + 40, 1125);
+
+            drawScaled(g, seal, WIDTH - MARGIN - 260, 860, 240, 240);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static void applyHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    /**
+     * Draw centered text, shrinking the font until it fits the text area
+     */
+    private static void drawCentered(Graphics2D g, String text, Font font, int baseline) {
+        Font fitted = font;
+        while (g.getFontMetrics(fitted).stringWidth(text) > MAX_TEXT_WIDTH && fitted.getSize() > 20) {
+            fitted = fitted.deriveFont((float) fitted.getSize() - 2);
+        }
+        g.setFont(fitted);
+        g.drawString(text, (WIDTH - g.getFontMetrics().stringWidth(text)) / 2, baseline);
+    }
+
+    private static void drawRightAligned(Graphics2D g, String text, int right, int baseline) {
+        g.drawString(text, right - g.getFontMetrics().stringWidth(text), baseline);
+    }
+
+    /**
+     * Draw an image inside a box, keeping its aspect ratio
+     */
+    private static void drawScaled(Graphics2D g, Image image, int x, int y, int maxWidth, int maxHeight) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        double scale = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        g.drawImage(image, x, y, (int) (width * scale), (int) (height * scale), null);
+    }
+
+    private static Image loadAsset(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                throw new IOException("Unreadable certificate asset: " + path);
+            }
+            return image;
+        }
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(0.9f);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RenderedCertificate {
+        private final byte[] png;
+        private final byte[] pdf;
+    }
+}
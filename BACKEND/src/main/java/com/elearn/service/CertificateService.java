@@ -0,0 +1,330 @@
+package com.elearn.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Certificate;
+import com.elearn.model.Certificate.CertificateStatus;
+import com.elearn.model.Enrollment;
+import com.elearn.repo.CertificateRepository;
+import com.elearn.service.CertificateRenderer.RenderedCertificate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+
+/**
+ * Issues course completion certificates. Completed enrollments are queued on a bounded
+ * worker pool that renders each certificate once and stores the PDF and PNG in the
+ * BlobStore under their SHA-256. Issued certificates are kept in an in-memory index keyed
+ * by verification id, so public verification never touches the database or the renderer.
+ */
+@Service
+public class CertificateService {
+
+    // Crockford base32: no I, L, O or U, so ids survive being read aloud or retyped
+    private static final char[] ID_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private CertificateRenderer renderer;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${certificates.pool-size:2}")
+    private int poolSize;
+
+    @Value("${certificates.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${certificates.max-attempts:3}")
+    private int maxAttempts;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, VerificationRecord> index = new ConcurrentHashMap<>();
+
+    // Certificate ids queued or being rendered, so the retry sweep does not submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong totalRenderMillis = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "certificate-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        for (Certificate certificate : certificateRepository.findByStatus(CertificateStatus.ISSUED)) {
+            index.put(certificate.getVerificationId(), new VerificationRecord(certificate));
+        }
+        System.out.println("Loaded " + index.size() + " issued certificates into the verification index");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Create the certificate of a completed enrollment and queue it for rendering.
+     * Does nothing if the enrollment already has one.
+     * @return The existing or newly created certificate
+     */
+    public Certificate requestCertificate(Enrollment enrollment) {
+        Optional<Certificate> existing = certificateRepository.findByEnrollmentId(enrollment.getId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Certificate certificate = new Certificate();
+        certificate.setVerificationId(newVerificationId());
+        certificate.setEnrollmentId(enrollment.getId());
+        certificate.setUserId(enrollment.getUser().getId());
+        certificate.setCourseId(enrollment.getCourse().getId());
+        certificate.setStudentName(enrollment.getUser().getName());
+        certificate.setCourseTitle(enrollment.getCourse().getTitle());
+        if (enrollment.getCourse().getInstructor() != null) {
+            certificate.setInstructorName(enrollment.getCourse().getInstructor().getName());
+        }
+        certificate.setCompletedAt(enrollment.getCompletionDate() != null ? enrollment.getCompletionDate() : LocalDateTime.now());
+
+        Certificate saved;
+        try {
+            saved = certificateRepository.save(certificate);
+        } catch (DataIntegrityViolationException e) {
+            // Another request created it first
+            return certificateRepository.findByEnrollmentId(enrollment.getId()).orElseThrow(() -> e);
+        }
+        submit(saved.getId());
+        return saved;
+    }
+
+    public Optional<Certificate> getByEnrollmentId(Long enrollmentId) {
+        return certificateRepository.findByEnrollmentId(enrollmentId);
+    }
+
+    /**
+     * Look up an issued certificate by verification id, from memory only
+     */
+    public Optional<VerificationRecord> verify(String verificationId) {
+        verifications.incrementAndGet();
+        return Optional.ofNullable(index.get(verificationId.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Read a stored certificate file
+     * @param pdf true for the PDF, false for the PNG
+     */
+    public byte[] readArtifact(VerificationRecord record, boolean pdf) throws IOException {
+        String key = artifactKey(pdf ? record.getPdfSha256() : record.getPngSha256(), pdf ? "pdf" : "png");
+        ByteBuffer buffer = blobStore.read(key);
+        if (buffer == null) {
+            throw new NoSuchFileException(key);
+        }
+        byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("issued", issued.get());
+        metrics.put("failedAttempts", failedAttempts.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("verifications", verifications.get());
+        metrics.put("indexed", index.size());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("activeWorkers", executor.getActiveCount());
+        long done = issued.get();
+        metrics.put("averageRenderMillis", done > 0 ? totalRenderMillis.get() / done : 0);
+        return metrics;
+    }
+
+    /**
+     * Queue pending certificates again: those rejected by a full queue, those whose
+     * rendering failed with attempts left, and those left over from a restart
+     */
+    @Scheduled(fixedDelayString = "${certificates.retry-interval-ms:60000}")
+    public void resubmitPending() {
+        for (Certificate certificate : certificateRepository.findByStatus(CertificateStatus.PENDING)) {
+            if (!inFlight.contains(certificate.getId())) {
+                submit(certificate.getId());
+            }
+        }
+    }
+
+    private void submit(Long certificateId) {
+        if (!inFlight.add(certificateId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    issue(certificateId);
+                } finally {
+                    inFlight.remove(certificateId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(certificateId);
+            rejected.incrementAndGet();
+            System.err.println("Certificate queue is full, certificate " + certificateId + " will be retried");
+        }
+    }
+
+    private void issue(Long certificateId) {
+        Certificate certificate = certificateRepository.findById(certificateId).orElse(null);
+        if (certificate == null || certificate.getStatus() != CertificateStatus.PENDING) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            RenderedCertificate rendered = renderer.render(certificate);
+            String pngSha256 = sha256(rendered.getPng());
+            String pdfSha256 = sha256(rendered.getPdf());
+            storeArtifact(artifactKey(pngSha256, "png"), rendered.getPng(), "image/png");
+            storeArtifact(artifactKey(pdfSha256, "pdf"), rendered.getPdf(), "application/pdf");
+
+            certificate.setPngSha256(pngSha256);
+            certificate.setPdfSha256(pdfSha256);
+            certificate.setStatus(CertificateStatus.ISSUED);
+            certificate.setIssuedAt(LocalDateTime.now());
+            certificate.setError(null);
+            certificateRepository.save(certificate);
+
+            index.put(certificate.getVerificationId(), new VerificationRecord(certificate));
+            issued.incrementAndGet();
+            totalRenderMillis.addAndGet(System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            failedAttempts.incrementAndGet();
+            System.err.println("Failed to issue certificate " + certificateId + ": " + e.getMessage());
+            certificate.setAttempts(certificate.getAttempts() + 1);
+            certificate.setError(errorOf(e));
+            if (certificate.getAttempts() >= maxAttempts) {
+                certificate.setStatus(CertificateStatus.FAILED);
+            }
+            // Thrown here the attempt would be lost and the certificate retried without end
+            try {
+                certificateRepository.save(certificate);
+            } catch (RuntimeException saveError) {
+                System.err.println("Failed to record the failed attempt of certificate " + certificateId + ": "
+                        + saveError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Store a file under its content hash. Identical content maps to the same key,
+     * so an existing file is left in place.
+     */
+    private void storeArtifact(String key, byte[] content, String contentType) throws IOException {
+        if (blobStore.size(key) == content.length) {
+            return;
+        }
+        blobStore.put(key, new ByteArrayInputStream(content), content.length, contentType);
+    }
+
+    /**
+     * The exception message cut to what the error column holds
+     */
+    private static String errorOf(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        return message.length() > Certificate.MAX_ERROR_LENGTH
+                ? message.substring(0, Certificate.MAX_ERROR_LENGTH) : message;
+    }
+
+    private String artifactKey(String sha256, String extension) {
+        return "certificates/" + sha256.substring(0, 2) + "/" + sha256 + "." + extension;
+    }
+
+    /**
+     * Generate an unused id like EDL-7KQ2M-9XHTR (50 random bits)
+     */
+    private String newVerificationId() {
+        String id;
+        do {
+            StringBuilder builder = new StringBuilder("EDL-");
+            for (int i = 0; i < 10; i++) {
+                if (i == 5) {
+                    builder.append('-');
+                }
+                builder.append(ID_ALPHABET[random.nextInt(ID_ALPHABET.length)]);
+            }
+            id = builder.toString();
+        } while (certificateRepository.existsByVerificationId(id));
+        return id;
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * The public view of an issued certificate
+     */
+    @Getter
+    public static class VerificationRecord {
+        private final String verificationId;
+        private final String studentName;
+        private final String courseTitle;
+        private final String instructorName;
+        private final LocalDateTime completedAt;
+        private final LocalDateTime issuedAt;
+        // Lets a verifier check that a PDF they were sent is the one issued
+        private final String pdfSha256;
+        private final String pngSha256;
+
+        VerificationRecord(Certificate certificate) {
+            this.verificationId = certificate.getVerificationId();
+            this.studentName = certificate.getStudentName();
+            this.courseTitle = certificate.getCourseTitle();
+            this.instructorName = certificate.getInstructorName();
+            this.completedAt = certificate.getCompletedAt();
+            this.issuedAt = certificate.getIssuedAt();
+            this.pdfSha256 = certificate.getPdfSha256();
+            this.pngSha256 = certificate.getPngSha256();
+        }
+    }
+}
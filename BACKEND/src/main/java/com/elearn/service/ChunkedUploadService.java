@@ -0,0 +1,367 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.UploadSession;
+import com.elearn.model.UploadSession.LessonFile;
+import com.elearn.model.UploadSession.UploadStatus;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repo.UploadSessionRepository;
+import com.elearn.repository.VideoRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Resumable uploads of lesson videos and notes. The client creates a session, PUTs
+ * chunks at the current offset and asks for the offset again after a dropped
+ * connection. Locally each chunk is written straight into the partial file at its
+ * position and completing renames the file into the media directory; when the
+ * BlobStore takes multipart uploads (S3) each chunk is streamed as one part that the
+ * store joins on completion. Neither reads the file back. The result becomes the
+ * video's video or notes link.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Map<String, String> VIDEO_EXTENSIONS = Map.of(
+            "video/mp4", "mp4",
+            "video/webm", "webm",
+            "video/quicktime", "mov",
+            "video/x-m4v", "m4v");
+
+    private static final Map<String, String> NOTES_EXTENSIONS = Map.of(
+            "application/pdf", "pdf");
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private MediaStreamService mediaStreamService;
+
+    @Autowired
+    private PlaybackService playbackService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${uploads.max-lesson-bytes:5368709120}")
+    private long maxLessonBytes;
+
+    @Value("${uploads.chunk-size:8388608}")
+    private long defaultChunkSize;
+
+    @Value("${uploads.max-chunk-bytes:67108864}")
+    private long maxChunkBytes;
+
+    @Value("${uploads.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder chunksStored = new LongAdder();
+    private final LongAdder chunksRejected = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder uploadsCompleted = new LongAdder();
+    private final LongAdder sessionsPurged = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start an upload for a video's video or notes file
+     * @param chunkSize Requested chunk size, or null for the default
+     * @throws NoSuchElementException if the video does not exist
+     * @throws AccessDeniedException if the user may not change it
+     * @throws IllegalArgumentException if the type, size or chunk size is not allowed
+     */
+    public UploadSession create(User user, Long videoId, LessonFile file, String contentType, long size, Long chunkSize)
+            throws IOException {
+        checkAccess(user, videoId);
+        String type = contentType == null ? "" : contentType.trim().toLowerCase(Locale.ROOT);
+        String extension = (file == LessonFile.VIDEO ? VIDEO_EXTENSIONS : NOTES_EXTENSIONS).get(type);
+        if (extension == null) {
+            throw new IllegalArgumentException(file == LessonFile.VIDEO
+                    ? "Only MP4, WebM and QuickTime videos can be uploaded" : "Only PDF notes can be uploaded");
+        }
+        if (size < 1 || size > maxLessonBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxLessonBytes + " bytes");
+        }
+        long chunk = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (multipart() != null) {
+            chunk = Math.max(chunk, (size + MultipartBlobStore.MAX_PARTS - 1) / MultipartBlobStore.MAX_PARTS);
+            if (chunk < MultipartBlobStore.MIN_PART_BYTES) {
+                throw new IllegalArgumentException("Chunks must be at least " + MultipartBlobStore.MIN_PART_BYTES + " bytes");
+            }
+        }
+        if (chunk < 1 || chunk > maxChunkBytes) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + maxChunkBytes + " bytes");
+        }
+
+        String id = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setUserId(user.getId());
+        session.setVideoId(videoId);
+        session.setFile(file);
+        session.setObjectKey("lessons/" + videoId + "/" + id + "." + extension);
+        session.setContentType(type);
+        session.setSize(size);
+        session.setChunkSize(Math.min(chunk, size));
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+        if (multipart() != null) {
+            session.setMultipartUploadId(multipart().createMultipartUpload(session.getObjectKey(), type));
+        }
+        uploadSessionRepository.save(session);
+        sessionsCreated.increment();
+        return session;
+    }
+
+    /**
+     * The session of one of the user's uploads, with the offset to continue from
+     */
+    public UploadSession get(User user, String id) {
+        UploadSession session = uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Upload not found"));
+        if (!session.getUserId().equals(user.getId())) {
+            throw new AccessDeniedException("This upload belongs to another user");
+        }
+        return session;
+    }
+
+    /**
+     * Store one chunk read from the request body. The chunk must start at the current
+     * offset and, except for the last, be exactly the session's chunk size.
+     * @return The new offset
+     * @throws IllegalStateException if the offset is not the current one or the session is closed
+     * @throws IllegalArgumentException if the chunk has the wrong length
+     */
+    public long writeChunk(User user, String id, long offset, InputStream content, long length) throws IOException {
+        UploadSession session = get(user, id);
+        if (session.getStatus() != UploadStatus.OPEN || session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("This upload is closed");
+        }
+        if (offset != session.getReceived()) {
+            chunksRejected.increment();
+            throw new IllegalStateException("Expected the chunk at offset " + session.getReceived());
+        }
+        long end = offset + length;
+        if (length < 1 || end > session.getSize()
+                || (length != session.getChunkSize() && end != session.getSize())) {
+            chunksRejected.increment();
+            throw new IllegalArgumentException("Chunks must be " + session.getChunkSize()
+                    + " bytes, except the last one");
+        }
+
+        if (session.getMultipartUploadId() != null) {
+            int partNumber = (int) (offset / session.getChunkSize()) + 1;
+            multipart().uploadPart(session.getObjectKey(), session.getMultipartUploadId(), partNumber, content, length);
+        } else {
+            writeAt(mediaStreamService.partialPath(id), offset, content, length);
+        }
+
+        Integer advanced = transactionTemplate.execute(status ->
+                uploadSessionRepository.advance(id, offset, end, UploadStatus.OPEN, LocalDateTime.now()));
+        if (advanced == null || advanced == 0) {
+            throw new IllegalStateException("Another chunk was stored at this offset");
+        }
+        chunksStored.increment();
+        bytesReceived.add(length);
+        return end;
+    }
+
+    /**
+     * Turn the received chunks into the file and link it from the video. Completing
+     * twice returns the same video.
+     * @throws IllegalStateException if chunks are missing
+     */
+    public Video complete(User user, String id) throws IOException {
+        UploadSession session = get(user, id);
+        if (session.getStatus() == UploadStatus.COMPLETED) {
+            return videoRepository.findById(session.getVideoId())
+                    .orElseThrow(() -> new NoSuchElementException("Video not found"));
+        }
+        if (session.getReceived() != session.getSize()) {
+            throw new IllegalStateException("Received " + session.getReceived() + " of " + session.getSize() + " bytes");
+        }
+
+        String link;
+        if (session.getMultipartUploadId() != null) {
+            // A retry after the store joined the parts finds the object instead of the upload
+            if (blobStore.size(session.getObjectKey()) != session.getSize()) {
+                multipart().completeMultipartUpload(session.getObjectKey(), session.getMultipartUploadId());
+            }
+            link = blobStore.publicUrl(session.getObjectKey());
+        } else {
+            Path partial = mediaStreamService.partialPath(id);
+            Path target = mediaStreamService.pathForWrite(session.getObjectKey());
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // Moved by an earlier attempt to complete
+                if (!Files.isRegularFile(target) || Files.size(target) != session.getSize()) {
+                    throw new IllegalStateException("The uploaded file is missing");
+                }
+            }
+            link = MediaStreamService.LINK_PREFIX + session.getObjectKey();
+        }
+
+        // The local file this upload replaces, deleted once the new link is saved
+        String[] replaced = new String[1];
+        Video video = transactionTemplate.execute(status -> {
+            Video current = videoRepository.findById(session.getVideoId())
+                    .orElseThrow(() -> new NoSuchElementException("Video not found"));
+            if (uploadSessionRepository.complete(id, UploadStatus.OPEN, UploadStatus.COMPLETED, LocalDateTime.now()) == 0) {
+                return current;
+            }
+            if (session.getFile() == LessonFile.VIDEO) {
+                replaced[0] = current.getVideoLink();
+                current.setVideoLink(link);
+            } else {
+                replaced[0] = current.getNotesLink();
+                current.setNotesLink(link);
+            }
+            current.setUpdatedAt(LocalDateTime.now());
+            return videoRepository.save(current);
+        });
+        playbackService.evictVideo(session.getVideoId());
+        // Files in the BlobStore are left to the storage GC
+        if (MediaStreamService.isLocalLink(replaced[0]) && !replaced[0].equals(link)
+                && MediaStreamService.keyOf(replaced[0]).startsWith("lessons/")) {
+            mediaStreamService.delete(MediaStreamService.keyOf(replaced[0]));
+        }
+        uploadsCompleted.increment();
+        System.out.println("Chunked upload " + id + " stored as " + session.getFile() + " of video " + session.getVideoId());
+        return video;
+    }
+
+    /**
+     * Give up an upload and drop what was received
+     */
+    public void abort(User user, String id) throws IOException {
+        UploadSession session = get(user, id);
+        if (session.getStatus() == UploadStatus.COMPLETED) {
+            throw new IllegalStateException("This upload is already complete");
+        }
+        discard(session);
+    }
+
+    /**
+     * Discard uploads that were not finished in time and forget finished ones
+     */
+    @Scheduled(fixedDelayString = "${uploads.purge-interval-ms:3600000}", initialDelayString = "${uploads.purge-interval-ms:3600000}")
+    public int purgeExpiredSessions() {
+        int purged = 0;
+        for (UploadSession session : uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now())) {
+            try {
+                discard(session);
+                purged++;
+            } catch (Exception e) {
+                System.err.println("Failed to discard upload " + session.getId() + ": " + e.getMessage());
+            }
+        }
+        if (purged > 0) {
+            sessionsPurged.add(purged);
+            System.out.println("Purged " + purged + " expired upload sessions");
+        }
+        return purged;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("sessionsCreated", sessionsCreated.sum());
+        metrics.put("chunksStored", chunksStored.sum());
+        metrics.put("chunksRejected", chunksRejected.sum());
+        metrics.put("bytesReceived", bytesReceived.sum());
+        metrics.put("uploadsCompleted", uploadsCompleted.sum());
+        metrics.put("sessionsPurged", sessionsPurged.sum());
+        return metrics;
+    }
+
+    /**
+     * Copy exactly length bytes into the file at the position with positional writes,
+     * then force them to disk so the offset is never ahead of the data
+     */
+    static void writeAt(Path file, long position, InputStream content, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ReadableByteChannel in = Channels.newChannel(content);
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long written = 0;
+            while (written < length) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), length - written));
+                int read = in.read(buffer);
+                if (read < 0) {
+                    throw new IllegalArgumentException("The chunk ended after " + written + " of " + length + " bytes");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+            }
+            channel.force(false);
+        }
+    }
+
+    private void discard(UploadSession session) throws IOException {
+        if (session.getStatus() == UploadStatus.OPEN) {
+            if (session.getMultipartUploadId() != null) {
+                multipart().abortMultipartUpload(session.getObjectKey(), session.getMultipartUploadId());
+            } else {
+                Files.deleteIfExists(mediaStreamService.partialPath(session.getId()));
+            }
+        }
+        uploadSessionRepository.deleteById(session.getId());
+    }
+
+    private void checkAccess(User user, Long videoId) {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new NoSuchElementException("Video not found"));
+        boolean admin = user.getRole() == User.UserRole.ADMIN;
+        User instructor = video.getCourse().getInstructor();
+        if (!admin && (instructor == null || !user.getId().equals(instructor.getId()))) {
+            throw new AccessDeniedException("Only the course instructor can upload lesson files");
+        }
+    }
+
+    /**
+     * The BlobStore when it takes multipart uploads; null means chunks go to the local
+     * media directory
+     */
+    private MultipartBlobStore multipart() {
+        return blobStore instanceof MultipartBlobStore ? (MultipartBlobStore) blobStore : null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.StoredBlob;
+import com.elearn.repo.StoredBlobRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed uploads on top of the BlobStore. A file is stored under the
+ * SHA-256 of its bytes, so uploading the same thumbnail again only adds a reference
+ * and skips the PUT. Known hashes are kept in memory and in the stored_blobs table.
+ * Objects whose last reference is released are removed later by the storage GC.
+ */
+@Service
+public class ContentStoreService {
+
+    public static final String KEY_PREFIX = "blobs/";
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Hash to object key of every recorded blob
+    private final Map<String, String> knownKeys = new ConcurrentHashMap<>();
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+    private final LongAdder bytesDeduplicated = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (StoredBlob blob : storedBlobRepository.findAll()) {
+            knownKeys.put(blob.getHash(), blob.getObjectKey());
+        }
+        System.out.println("Loaded " + knownKeys.size() + " stored blob hashes");
+    }
+
+    /**
+     * Store a file, or add a reference to the identical file already stored. The source
+     * is read twice at most: once to hash it and once to upload it if it is new.
+     * @return The public URL of the file
+     */
+    public String store(InputStreamSource source, long size, String contentType, String originalFilename)
+            throws IOException {
+        String hash = hash(source);
+
+        String key = knownKeys.get(hash);
+        if (key == null) {
+            Optional<StoredBlob> recorded = storedBlobRepository.findById(hash);
+            key = recorded.isPresent() ? recorded.get().getObjectKey() : keyFor(hash, originalFilename, contentType);
+        }
+        if (addReference(hash)) {
+            knownKeys.put(hash, key);
+            deduplicated.increment();
+            bytesDeduplicated.add(size);
+            return blobStore.publicUrl(key);
+        }
+
+        // The object may exist without a record if a previous store stopped halfway
+        if (blobStore.size(key) != size) {
+            try (InputStream content = source.getInputStream()) {
+                blobStore.put(key, content, size, contentType);
+            }
+            stored.increment();
+            bytesStored.add(size);
+        } else {
+            deduplicated.increment();
+            bytesDeduplicated.add(size);
+        }
+        record(hash, key, size, contentType);
+        knownKeys.put(hash, key);
+        return blobStore.publicUrl(key);
+    }
+
+    /**
+     * Drop one reference to the file at a URL. URLs of files stored some other way are ignored.
+     * @return Whether a reference was dropped
+     */
+    public boolean release(String url) {
+        String key = url == null ? null : blobStore.keyOf(url);
+        if (key == null || !key.startsWith(KEY_PREFIX)) {
+            return false;
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                storedBlobRepository.removeReference(key, LocalDateTime.now()));
+        if (updated != null && updated > 0) {
+            released.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called by the storage GC after it deleted a blob
+     */
+    public void forget(String hash) {
+        knownKeys.remove(hash);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("knownBlobs", knownKeys.size());
+        metrics.put("stored", stored.sum());
+        metrics.put("deduplicated", deduplicated.sum());
+        metrics.put("bytesStored", bytesStored.sum());
+        metrics.put("bytesDeduplicated", bytesDeduplicated.sum());
+        metrics.put("released", released.sum());
+        return metrics;
+    }
+
+    /**
+     * blobs/ab/abcdef....png; the two-character level spreads keys over S3 prefixes
+     */
+    static String keyFor(String hash, String originalFilename, String contentType) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.lastIndexOf('.') >= 0) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        } else if (contentType != null && contentType.contains("/")) {
+            extension = contentType.substring(contentType.indexOf('/') + 1).toLowerCase(Locale.ROOT);
+        }
+        if (!extension.matches("[a-z0-9]{1,5}")) {
+            extension = "";
+        }
+        return KEY_PREFIX + hash.substring(0, 2) + "/" + hash + (extension.isEmpty() ? "" : "." + extension);
+    }
+
+    private boolean addReference(String hash) {
+        Integer updated = transactionTemplate.execute(status -> storedBlobRepository.addReference(hash, LocalDateTime.now()));
+        return updated != null && updated > 0;
+    }
+
+    private void record(String hash, String key, long size, String contentType) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    storedBlobRepository.insert(hash, key, size, contentType, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent upload of the same file recorded it first
+            addReference(hash);
+        }
+    }
+
+    private static String hash(InputStreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream content = source.getInputStream()) {
+            int read;
+            while ((read = content.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
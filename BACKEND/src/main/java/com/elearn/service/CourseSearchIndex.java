@@ -0,0 +1,455 @@
+package com.elearn.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.elearn.util.LongCounterMap;
+import com.elearn.util.TextAnalyzer;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-memory inverted index over course documents, ranked with BM25. Title, category,
+ * instructor and description terms are weighted and summed into one term frequency per
+ * document. Documents get increasing ordinals, so posting lists stay sorted by appending;
+ * an update marks the old ordinal dead and appends a new one, and the postings are
+ * compacted once dead entries outnumber live ones. Queries share a read lock and
+ * updates take the write lock.
+ */
+public class CourseSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float INSTRUCTOR_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final int MIN_DEAD_POSTINGS_TO_COMPACT = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    // Course id -> live ordinal, or -1 once removed
+    private LongCounterMap ordinalByCourseId = new LongCounterMap();
+
+    // Indexed by ordinal; null for removed documents
+    private CourseDocument[] documents = new CourseDocument[1024];
+    private float[] lengths = new float[1024];
+    private int nextOrdinal;
+
+    private int liveDocuments;
+    private double totalLength;
+    private long livePostings;
+    private long deadPostings;
+
+    // Per-thread score buffers indexed by ordinal, so queries do not allocate them
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+
+    /**
+     * Add a document, replacing any document with the same course id
+     */
+    public void put(CourseDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getId());
+            addLocked(document);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(List<CourseDocument> batch) {
+        lock.writeLock().lock();
+        try {
+            for (CourseDocument document : batch) {
+                removeLocked(document.getId());
+                addLocked(document);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long courseId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(courseId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the live documents of a category, e.g. to re-index them after a rename
+     */
+    public List<CourseDocument> findByCategoryId(Integer categoryId) {
+        List<CourseDocument> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                CourseDocument document = documents[ordinal];
+                if (document != null && categoryId.equals(document.getCategoryId())) {
+                    matches.add(document);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank documents matching any query term
+     * @param page Zero-based page number
+     * @param size Page size
+     */
+    public SearchPage search(String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty() || size <= 0) {
+            return new SearchPage(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Accumulator accumulator = accumulators.get();
+            accumulator.ensureCapacity(nextOrdinal);
+            float[] scores = accumulator.scores;
+            int[] touched = accumulator.touched;
+            int matched = 0;
+
+            float averageLength = liveDocuments > 0 ? (float) (totalLength / liveDocuments) : 1f;
+            float lengthBase = K1 * (1 - B);
+            float lengthScale = K1 * B / averageLength;
+
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null || list.documentFrequency == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocuments - list.documentFrequency + 0.5)
+                        / (list.documentFrequency + 0.5));
+                int[] ordinals = list.ordinals;
+                float[] frequencies = list.frequencies;
+                float weight = idf * (K1 + 1);
+                boolean hasDead = list.documentFrequency < list.size;
+                boolean first = matched == 0;
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = ordinals[i];
+                    if (hasDead && documents[ordinal] == null) {
+                        continue;
+                    }
+                    float tf = frequencies[i];
+                    float score = weight * tf / (tf + lengthBase + lengthScale * lengths[ordinal]);
+                    // Every document of the first list is new, so only later lists check
+                    if (first || scores[ordinal] == 0f) {
+                        touched[matched++] = ordinal;
+                        scores[ordinal] = score;
+                    } else {
+                        scores[ordinal] += score;
+                    }
+                }
+            }
+
+            List<SearchHit> hits = topHits(scores, touched, matched, page, size);
+            for (int i = 0; i < matched; i++) {
+                scores[touched[i]] = 0f;
+            }
+            return new SearchPage(hits, matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Select one page of the best hits with a bounded heap whose root is the worst kept hit.
+     * Ties are broken by course id.
+     */
+    private List<SearchHit> topHits(float[] scores, int[] touched, int matched, int page, int size) {
+        long wanted = Math.min(matched, (long) (page + 1) * size);
+        long from = (long) page * size;
+        if (from >= wanted) {
+            return List.of();
+        }
+        int capacity = (int) wanted;
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        // Score of the worst kept hit once the heap is full; most hits fail this one compare
+        float floor = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < matched; i++) {
+            int ordinal = touched[i];
+            if (heapSize < capacity) {
+                heap[heapSize] = ordinal;
+                siftUp(heap, heapSize++, scores);
+                if (heapSize == capacity) {
+                    floor = scores[heap[0]];
+                }
+            } else if (scores[ordinal] >= floor && ranksBefore(ordinal, heap[0], scores)) {
+                heap[0] = ordinal;
+                siftDown(heap, heapSize, scores);
+                floor = scores[heap[0]];
+            }
+        }
+
+        // The root is the worst kept hit: moving it to the end repeatedly sorts best first
+        for (int end = heapSize - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, scores);
+        }
+        List<SearchHit> hits = new ArrayList<>(heapSize - (int) from);
+        for (int rank = (int) from; rank < heapSize; rank++) {
+            int ordinal = heap[rank];
+            hits.add(new SearchHit(documents[ordinal], scores[ordinal]));
+        }
+        return hits;
+    }
+
+    private boolean ranksBefore(int a, int b, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return documents[a].getId() < documents[b].getId();
+    }
+
+    private void siftUp(int[] heap, int index, float[] scores) {
+        int ordinal = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], ordinal, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = ordinal;
+    }
+
+    private void siftDown(int[] heap, int size, float[] scores) {
+        int index = 0;
+        int ordinal = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksBefore(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!ranksBefore(ordinal, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = ordinal;
+    }
+
+    private void addLocked(CourseDocument document) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addTerms(frequencies, document.getTitle(), TITLE_WEIGHT);
+        length += addTerms(frequencies, document.getCategoryName(), CATEGORY_WEIGHT);
+        length += addTerms(frequencies, document.getInstructorName(), INSTRUCTOR_WEIGHT);
+        length += addTerms(frequencies, document.getDescription(), DESCRIPTION_WEIGHT);
+
+        String[] terms = new String[frequencies.size()];
+        float[] weights = new float[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+            terms[i] = entry.getKey();
+            weights[i] = entry.getValue();
+            i++;
+        }
+        document.terms = terms;
+        document.weights = weights;
+        document.length = length;
+        appendLocked(document);
+    }
+
+    private void appendLocked(CourseDocument document) {
+        if (nextOrdinal == documents.length) {
+            int capacity = documents.length * 2;
+            documents = Arrays.copyOf(documents, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int ordinal = nextOrdinal++;
+        documents[ordinal] = document;
+        lengths[ordinal] = document.length;
+        ordinalByCourseId.put(document.getId(), ordinal);
+        liveDocuments++;
+        totalLength += document.length;
+
+        for (int i = 0; i < document.terms.length; i++) {
+            postings.computeIfAbsent(document.terms[i], term -> new PostingList()).add(ordinal, document.weights[i]);
+        }
+        livePostings += document.terms.length;
+    }
+
+    private static float addTerms(Map<String, Float> frequencies, String text, float weight) {
+        List<String> terms = TextAnalyzer.analyze(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private void removeLocked(long courseId) {
+        int ordinal = (int) ordinalByCourseId.getOrDefault(courseId, -1);
+        if (ordinal < 0) {
+            return;
+        }
+        CourseDocument document = documents[ordinal];
+        documents[ordinal] = null;
+        ordinalByCourseId.put(courseId, -1);
+        liveDocuments--;
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            postings.get(term).documentFrequency--;
+        }
+        livePostings -= document.terms.length;
+        deadPostings += document.terms.length;
+    }
+
+    /**
+     * Rebuild the postings from the live documents once most entries are dead
+     */
+    private void compactIfNeeded() {
+        if (deadPostings < MIN_DEAD_POSTINGS_TO_COMPACT || deadPostings < livePostings) {
+            return;
+        }
+        CourseDocument[] live = new CourseDocument[liveDocuments];
+        int count = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (documents[ordinal] != null) {
+                live[count++] = documents[ordinal];
+            }
+        }
+
+        postings.clear();
+        ordinalByCourseId = new LongCounterMap();
+        documents = new CourseDocument[Math.max(1024, Integer.highestOneBit(Math.max(1, count)) * 2)];
+        lengths = new float[documents.length];
+        nextOrdinal = 0;
+        liveDocuments = 0;
+        totalLength = 0;
+        livePostings = 0;
+        deadPostings = 0;
+        for (int i = 0; i < count; i++) {
+            appendLocked(live[i]);
+        }
+    }
+
+    private static class PostingList {
+        private int[] ordinals = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        // Live documents only; dead entries stay in the arrays until compaction
+        private int documentFrequency;
+
+        void add(int ordinal, float frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+    }
+
+    private static class Accumulator {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+
+        void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                touched = new int[capacity];
+            }
+        }
+    }
+
+    /**
+     * The searchable fields of a course plus what a result list needs to display it
+     */
+    @Getter
+    public static class CourseDocument {
+        private final long id;
+        private final String title;
+        private final String description;
+        private final Integer categoryId;
+        private final String categoryName;
+        private final String instructorName;
+        private final BigDecimal price;
+        private final String thumbnail;
+
+        // Analysis of the fields, filled in when indexed
+        @Getter(AccessLevel.NONE)
+        private String[] terms;
+        @Getter(AccessLevel.NONE)
+        private float[] weights;
+        @Getter(AccessLevel.NONE)
+        private float length;
+
+        public CourseDocument(long id, String title, String description, Integer categoryId, String categoryName,
+                String instructorName, BigDecimal price, String thumbnail) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.instructorName = instructorName;
+            this.price = price;
+            this.thumbnail = thumbnail;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchHit {
+        private final CourseDocument course;
+        private final float score;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchPage {
+        private final List<SearchHit> hits;
+        private final int total;
+    }
+}
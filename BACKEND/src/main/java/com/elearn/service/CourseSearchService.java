@@ -0,0 +1,188 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.service.CourseSearchIndex.CourseDocument;
+import com.elearn.service.CourseSearchIndex.SearchPage;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Full-text search over published courses. The index is built from the database at
+ * startup, kept current by CourseService and CategoryService, and periodically rebuilt
+ * to pick up changes made elsewhere, such as instructor renames.
+ */
+@Service
+public class CourseSearchService {
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile CourseSearchIndex index = new CourseSearchIndex();
+
+    private final Map<Integer, String> categoryNames = new ConcurrentHashMap<>();
+
+    // Course ids changed while a rebuild runs; re-applied to the new index once it is swapped in
+    private Set<Long> changedDuringRebuild;
+
+    // Categories renamed or deleted before a running rebuild has applied the names it read
+    private Set<Integer> categoriesChangedDuringRebuild;
+
+    private volatile long lastRebuildMillis;
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Build a fresh index from the database and swap it in
+     */
+    @Scheduled(fixedDelayString = "${courses.search.rebuild-interval-ms:900000}",
+            initialDelayString = "${courses.search.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        Set<Integer> changedCategories = new HashSet<>();
+        synchronized (this) {
+            changedDuringRebuild = changed;
+            categoriesChangedDuringRebuild = changedCategories;
+        }
+
+        Map<Integer, String> names = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            names.put(category.getId(), category.getName());
+        }
+        synchronized (this) {
+            // Names set by onCategoryChanged since the rebuild started are newer than the ones read
+            for (Integer categoryId : changedCategories) {
+                String current = categoryNames.get(categoryId);
+                if (current != null) {
+                    names.put(categoryId, current);
+                } else {
+                    names.remove(categoryId);
+                }
+            }
+            categoryNames.putAll(names);
+            categoryNames.keySet().retainAll(names.keySet());
+            categoriesChangedDuringRebuild = null;
+        }
+
+        List<CourseDocument> documents = new ArrayList<>();
+        for (Courses course : coursesRepo.findByStatusWithInstructor(Courses.CourseStatus.PUBLISHED)) {
+            documents.add(toDocument(course));
+        }
+        CourseSearchIndex fresh = new CourseSearchIndex();
+        fresh.putAll(documents);
+
+        synchronized (this) {
+            index = fresh;
+            changedDuringRebuild = null;
+        }
+        for (Long courseId : changed) {
+            refreshCourse(courseId);
+        }
+
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        System.out.println("Indexed " + documents.size() + " courses for search in " + lastRebuildMillis + " ms");
+    }
+
+    /**
+     * Index a created or updated course; courses that are not published are removed
+     */
+    public void indexCourse(Courses course) {
+        CourseSearchIndex target = indexFor(course.getId());
+        if (course.getStatus() == Courses.CourseStatus.PUBLISHED) {
+            target.put(toDocument(course));
+        } else {
+            target.remove(course.getId());
+        }
+    }
+
+    public void removeCourse(Long courseId) {
+        indexFor(courseId).remove(courseId);
+    }
+
+    /**
+     * Re-index the courses of a category after it was renamed or deleted, reading them
+     * from the database so a newer version of a course is never overwritten
+     */
+    public void onCategoryChanged(Integer categoryId, String name) {
+        synchronized (this) {
+            if (name != null) {
+                categoryNames.put(categoryId, name);
+            } else {
+                categoryNames.remove(categoryId);
+            }
+            if (categoriesChangedDuringRebuild != null) {
+                categoriesChangedDuringRebuild.add(categoryId);
+            }
+        }
+        Set<Long> refreshed = new HashSet<>();
+        for (Courses course : coursesRepo.findByCategoryIdWithInstructor(categoryId)) {
+            indexCourse(course);
+            refreshed.add(course.getId());
+        }
+        // Indexed under the category but since moved out of it
+        for (CourseDocument document : index.findByCategoryId(categoryId)) {
+            if (!refreshed.contains(document.getId())) {
+                refreshCourse(document.getId());
+            }
+        }
+    }
+
+    public SearchPage search(String query, int page, int size) {
+        return index.search(query, page, size);
+    }
+
+    public Map<String, Object> getStats() {
+        CourseSearchIndex current = index;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("courses", current.size());
+        stats.put("terms", current.termCount());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    /**
+     * Re-read a course from the database and index it, for changes made with update
+     * queries that leave no entity to pass to indexCourse
+     */
+    public void refreshCourse(Long courseId) {
+        coursesRepo.findById(courseId).ifPresentOrElse(this::indexCourse, () -> removeCourse(courseId));
+    }
+
+    /**
+     * Get the index an update should go to, noting the course if a rebuild is running
+     */
+    private synchronized CourseSearchIndex indexFor(Long courseId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(courseId);
+        }
+        return index;
+    }
+
+    private CourseDocument toDocument(Courses course) {
+        String categoryName = course.getCategoryId() != null ? categoryNames.get(course.getCategoryId()) : null;
+        String instructorName = course.getInstructor() != null ? course.getInstructor().getName() : null;
+        return new CourseDocument(course.getId(), course.getTitle(), course.getDescription(), course.getCategoryId(),
+                categoryName, instructorName, course.getPrice(), course.getThumbnail());
+    }
+}
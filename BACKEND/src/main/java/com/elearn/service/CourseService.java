@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -14,42 +13,26 @@ import com.elearn.model.Courses;
 import com.elearn.model.User;
 import com.elearn.repository.CoursesRepo;
 
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-
 @Service
 public class CourseService {
 
     @Autowired
     private CoursesRepo coursesRepo;
     
-    @Value("${aws.s3.bucket.name}")
-    private String bucketName;
-    
-    @Value("${aws.accessKeyId}")
-    private String accessKeyId;
+    @Autowired
+    private PopularCourseService popularCourseService;
     
-    @Value("${aws.secretAccessKey}")
-    private String secretAccessKey;
+    @Autowired
+    private CourseSearchService courseSearchService;
     
-    @Value("${aws.s3.region}")
-    private String region;
+    @Autowired
+    private CourseSuggestionService courseSuggestionService;
     
-    private S3Client getS3Client() {
-        return S3Client.builder()
-                .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                    AwsBasicCredentials.create(accessKeyId, secretAccessKey)
-                ))
-                .build();
-    }
+    @Autowired
+    private ContentStoreService contentStoreService;
     
     public List<Courses> getAllCourses() {
-        return coursesRepo.findAll();
+        return coursesRepo.findAllWithInstructor();
     }
     
     public List<Courses> getCoursesByInstructor(User instructor) {
@@ -57,11 +40,11 @@ public class CourseService {
     }
     
     public List<Courses> getCoursesByCategory(Integer categoryId) {
-        return coursesRepo.findByCategoryId(categoryId);
+        return coursesRepo.findByCategoryIdWithInstructor(categoryId);
     }
     
     public List<Courses> getCoursesByStatus(Courses.CourseStatus status) {
-        return coursesRepo.findByStatus(status);
+        return coursesRepo.findByStatusWithInstructor(status);
     }
     
     public Optional<Courses> getCourseById(Long id) {
@@ -78,7 +61,10 @@ public class CourseService {
         course.setCreatedAt(LocalDateTime.now());
         course.setUpdatedAt(LocalDateTime.now());
         
-        return coursesRepo.save(course);
+        Courses savedCourse = coursesRepo.save(course);
+        courseSearchService.indexCourse(savedCourse);
+        courseSuggestionService.requestRebuild();
+        return savedCourse;
     }
     
     public Courses updateCourse(Courses course, MultipartFile thumbnailFile) throws IOException {
@@ -88,9 +74,11 @@ public class CourseService {
             Courses existingCourse = existingCourseOpt.get();
             
             // Only update the thumbnail if a new file is provided
+            String replacedThumbnail = null;
             if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
                 String thumbnailUrl = uploadFile(thumbnailFile);
                 course.setThumbnail(thumbnailUrl);
+                replacedThumbnail = existingCourse.getThumbnail();
             } else {
                 // Keep the existing thumbnail
                 course.setThumbnail(existingCourse.getThumbnail());
@@ -101,34 +89,36 @@ public class CourseService {
             // Update the updated timestamp
             course.setUpdatedAt(LocalDateTime.now());
             
-            return coursesRepo.save(course);
+            Courses savedCourse = coursesRepo.save(course);
+            contentStoreService.release(replacedThumbnail);
+            courseSearchService.indexCourse(savedCourse);
+            courseSuggestionService.requestRebuild();
+            return savedCourse;
         }
         
         return null;
     }
     
     public void deleteCourse(Long id) {
+        String thumbnail = coursesRepo.findById(id).map(Courses::getThumbnail).orElse(null);
         coursesRepo.deleteById(id);
+        contentStoreService.release(thumbnail);
+        popularCourseService.removeCourse(id);
+        courseSearchService.removeCourse(id);
+        courseSuggestionService.requestRebuild();
     }
     
     private String uploadFile(MultipartFile file) throws IOException {
-        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        
         try {
-            // Upload to S3
-            getS3Client().putObject(
-                PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .build(),
-                RequestBody.fromBytes(file.getBytes())
-            );
+            // Re-uploading the same thumbnail only adds a reference to the stored one
+            return contentStoreService.store(file, file.getSize(), file.getContentType(), file.getOriginalFilename());
         } catch (Exception e) {
-            throw new RuntimeException("Error uploading file to S3: " + e.getMessage());
+            throw new RuntimeException("Error uploading file: " + e.getMessage());
         }
-        
-        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, fileName);
+    }
+
+    public List<Courses> getCoursesByIds(Iterable<Long> ids) {
+        return coursesRepo.findAllById(ids);
     }
 
     public List<Courses> getCoursesByInstructorId(Long instructorId) {
@@ -0,0 +1,200 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.util.PrefixTrie;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Typeahead suggestions for published course titles and category names, weighted by
+ * enrollments. Suggestions live in an immutable PrefixTrie that is rebuilt on a
+ * background thread after catalog changes and swapped in whole, so lookups never
+ * wait for a rebuild.
+ */
+@Service
+public class CourseSuggestionService {
+
+    // Titles also match from each later word, so "pyth" finds "Complete Python Bootcamp"
+    private static final int MAX_WORD_STARTS = 8;
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PopularCourseService popularCourseService;
+
+    @Value("${courses.suggest.rebuild-delay-ms:2000}")
+    private long rebuildDelayMillis;
+
+    private ScheduledExecutorService executor;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = new Snapshot(PrefixTrie.build(new String[0], new long[0], new int[0]),
+            new Suggestion[0]);
+
+    private volatile long lastRebuildMillis;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "course-suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedule a rebuild after a catalog change. Changes within the delay share one rebuild.
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            }, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuild periodically so weights follow enrollment counts
+     */
+    @Scheduled(fixedDelayString = "${courses.suggest.rebuild-interval-ms:300000}",
+            initialDelayString = "${courses.suggest.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            List<Suggestion> suggestions = new ArrayList<>();
+            Map<Integer, Long> categoryEnrollments = new HashMap<>();
+            for (Courses course : coursesRepo.findByStatusWithInstructor(Courses.CourseStatus.PUBLISHED)) {
+                if (course.getTitle() == null || course.getTitle().isBlank()) {
+                    continue;
+                }
+                long enrollments = popularCourseService.getEnrollmentCount(course.getId());
+                suggestions.add(new Suggestion(SuggestionType.COURSE, course.getId(), course.getTitle().trim(), enrollments));
+                if (course.getCategoryId() != null) {
+                    categoryEnrollments.merge(course.getCategoryId(), enrollments, Long::sum);
+                }
+            }
+            for (Category category : categoryRepository.findByActiveTrue()) {
+                if (category.getName() != null && !category.getName().isBlank()) {
+                    suggestions.add(new Suggestion(SuggestionType.CATEGORY, category.getId(), category.getName().trim(),
+                            categoryEnrollments.getOrDefault(category.getId(), 0L)));
+                }
+            }
+
+            List<String> keys = new ArrayList<>();
+            List<Long> weights = new ArrayList<>();
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < suggestions.size(); i++) {
+                Suggestion suggestion = suggestions.get(i);
+                String text = PrefixTrie.normalize(suggestion.getText());
+                int starts = 0;
+                for (int at = 0; at < text.length() && starts < MAX_WORD_STARTS; at++) {
+                    if (at == 0 || text.charAt(at - 1) == ' ') {
+                        keys.add(text.substring(at));
+                        weights.add(suggestion.getEnrollments());
+                        values.add(i);
+                        starts++;
+                    }
+                }
+            }
+
+            String[] keyArray = keys.toArray(new String[0]);
+            long[] weightArray = new long[keyArray.length];
+            int[] valueArray = new int[keyArray.length];
+            for (int i = 0; i < keyArray.length; i++) {
+                weightArray[i] = weights.get(i);
+                valueArray[i] = values.get(i);
+            }
+            snapshot = new Snapshot(PrefixTrie.build(keyArray, weightArray, valueArray),
+                    suggestions.toArray(new Suggestion[0]));
+
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            System.out.println("Built " + suggestions.size() + " course suggestions in " + lastRebuildMillis + " ms");
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            System.err.println("Failed to rebuild course suggestions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the most enrolled suggestions whose title or name has a word starting with the prefix
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = PrefixTrie.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        int[] matches = new int[limit];
+        int count = current.trie.complete(normalized, matches);
+        List<Suggestion> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(current.suggestions[matches[i]]);
+        }
+        return results;
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("suggestions", current.suggestions.length);
+        stats.put("keys", current.trie.size());
+        stats.put("nodes", current.trie.nodeCount());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    public enum SuggestionType {
+        COURSE, CATEGORY
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Suggestion {
+        private final SuggestionType type;
+        private final long id;
+        private final String text;
+        private final long enrollments;
+    }
+
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final PrefixTrie trie;
+        private final Suggestion[] suggestions;
+    }
+}
@@ -0,0 +1,129 @@
+package com.elearn.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Builds the admin dashboard in one pass: each base dataset is loaded once, the four
+ * report sections are computed in parallel on a dedicated executor, and the combined
+ * result is cached for a short window.
+ */
+@Service
+public class DashboardService {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Value("${reports.dashboard.pool-size:4}")
+    private int poolSize;
+
+    @Value("${reports.dashboard.cache-ttl-ms:15000}")
+    private long cacheTtlMillis;
+
+    private ExecutorService executor;
+
+    private volatile Map<String, Object> cachedDashboard;
+
+    private volatile long cachedUntil;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getDashboard() {
+        Map<String, Object> dashboard = cachedDashboard;
+        if (dashboard != null && System.currentTimeMillis() < cachedUntil) {
+            return dashboard;
+        }
+
+        // Only one request rebuilds an expired dashboard; the others wait for its result
+        synchronized (this) {
+            if (cachedDashboard != null && System.currentTimeMillis() < cachedUntil) {
+                return cachedDashboard;
+            }
+            dashboard = buildDashboard();
+            cachedDashboard = dashboard;
+            cachedUntil = System.currentTimeMillis() + cacheTtlMillis;
+            return dashboard;
+        }
+    }
+
+    private Map<String, Object> buildDashboard() {
+        // Fan out: load each base dataset exactly once
+        CompletableFuture<List<User>> users = CompletableFuture.supplyAsync(userService::getAllUsers, executor);
+        CompletableFuture<List<Courses>> courses = CompletableFuture.supplyAsync(courseService::getAllCourses, executor);
+        CompletableFuture<List<Enrollment>> enrollments = CompletableFuture.supplyAsync(enrollmentService::getAllEnrollments, executor);
+        CompletableFuture<List<Category>> categories = CompletableFuture.supplyAsync(categoryService::getAllCategories, executor);
+
+        // Compute each section as soon as the datasets it needs are available
+        CompletableFuture<Map<String, Object>> enrollmentStats = enrollments
+                .thenApplyAsync(reportService::buildEnrollmentStats, executor);
+        CompletableFuture<Map<String, Object>> userStats = users
+                .thenApplyAsync(reportService::buildUserStats, executor);
+        CompletableFuture<Map<String, Object>> courseStats = courses
+                .thenCombineAsync(categories, reportService::buildCourseStats, executor);
+        CompletableFuture<Map<String, Object>> revenueStats = enrollments
+                .thenCombineAsync(categories, reportService::buildRevenueStats, executor);
+
+        // Fan in
+        try {
+            CompletableFuture.allOf(enrollmentStats, userStats, courseStats, revenueStats).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("enrollments", enrollmentStats.join());
+        dashboard.put("users", userStats.join());
+        dashboard.put("courses", courseStats.join());
+        dashboard.put("revenue", revenueStats.join());
+        dashboard.put("generatedAt", LocalDateTime.now());
+        dashboard.put("cacheTtlMs", cacheTtlMillis);
+        return dashboard;
+    }
+}
@@ -0,0 +1,245 @@
+package com.elearn.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.Courses;
+import com.elearn.model.Laptops;
+import com.elearn.model.UploadIntent;
+import com.elearn.model.UploadIntent.UploadStatus;
+import com.elearn.model.UploadIntent.UploadTarget;
+import com.elearn.model.User;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.UploadIntentRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.service.impl.S3BlobStore;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+/**
+ * Browser uploads straight to S3. An upload intent hands out a presigned PUT URL that
+ * is only valid for the declared content type and exact size; completing the intent
+ * checks the object in S3 and records its URL on the course or laptop. The file bytes
+ * never pass through this server.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Map<String, String> IMAGE_EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "image/gif", "gif");
+
+    @Autowired
+    private UploadIntentRepository uploadIntentRepository;
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private LaptopsRepo laptopsRepo;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private CourseSearchService courseSearchService;
+
+    @Autowired
+    private CourseSuggestionService courseSuggestionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    // Presigned uploads need S3 itself, whichever store serves other files
+    @Autowired
+    private S3BlobStore s3BlobStore;
+
+    @Value("${uploads.url-ttl-seconds:600}")
+    private long urlTtlSeconds;
+
+    @Value("${uploads.max-image-bytes:5242880}")
+    private long maxImageBytes;
+
+    // How long an intent that was never completed is kept after its URL expired
+    @Value("${uploads.pending-retention-hours:24}")
+    private long pendingRetentionHours;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder intentsCreated = new LongAdder();
+    private final LongAdder uploadsCompleted = new LongAdder();
+    private final LongAdder uploadsRejected = new LongAdder();
+    private final LongAdder bytesUploaded = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start an upload: check the caller may change the target and return a presigned PUT URL
+     * @throws NoSuchElementException if the course or laptop does not exist
+     * @throws AccessDeniedException if the user may not change it
+     * @throws IllegalArgumentException if the content type or size is not allowed
+     */
+    public Intent createIntent(User user, UploadTarget target, Long targetId, String contentType, long size) {
+        checkAccess(user, target, targetId);
+        String extension = contentType == null ? null : IMAGE_EXTENSIONS.get(contentType.toLowerCase());
+        if (extension == null) {
+            throw new IllegalArgumentException("Only JPEG, PNG, WebP and GIF images can be uploaded");
+        }
+        if (size < 1 || size > maxImageBytes) {
+            throw new IllegalArgumentException("Image size must be between 1 and " + maxImageBytes + " bytes");
+        }
+
+        String id = UUID.randomUUID().toString();
+        String key = target.getKeyPrefix() + "/" + targetId + "/" + id + "." + extension;
+        // Content type and length are signed, so S3 refuses any other file on this URL
+        String uploadUrl = s3BlobStore.presignPut(key, contentType.toLowerCase(), size, urlTtlSeconds);
+
+        UploadIntent intent = new UploadIntent();
+        intent.setId(id);
+        intent.setUserId(user.getId());
+        intent.setTarget(target);
+        intent.setTargetId(targetId);
+        intent.setObjectKey(key);
+        intent.setContentType(contentType.toLowerCase());
+        intent.setSize(size);
+        intent.setExpiresAt(LocalDateTime.now().plusSeconds(urlTtlSeconds));
+        uploadIntentRepository.save(intent);
+        intentsCreated.increment();
+
+        // The browser sets Host and Content-Length itself
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", intent.getContentType());
+        return new Intent(id, uploadUrl, "PUT", headers, key, intent.getExpiresAt());
+    }
+
+    /**
+     * Finish an upload once the browser has PUT the file. Completing twice returns the same URL.
+     * @return The public URL now recorded on the target
+     * @throws IllegalStateException if the object is missing or does not match the intent
+     */
+    public String complete(User user, String intentId) {
+        UploadIntent intent = uploadIntentRepository.findById(intentId)
+                .orElseThrow(() -> new NoSuchElementException("Upload not found"));
+        if (!intent.getUserId().equals(user.getId())) {
+            throw new AccessDeniedException("This upload belongs to another user");
+        }
+        String url = s3BlobStore.publicUrl(intent.getObjectKey());
+        if (intent.getStatus() == UploadStatus.COMPLETED) {
+            return url;
+        }
+
+        HeadObjectResponse head = s3BlobStore.head(intent.getObjectKey());
+        if (head == null) {
+            throw new IllegalStateException("The file has not been uploaded yet");
+        }
+        if (head.contentLength() == null || head.contentLength() != intent.getSize()
+                || !intent.getContentType().equals(head.contentType())) {
+            uploadsRejected.increment();
+            throw new IllegalStateException("The uploaded file does not match the upload request");
+        }
+
+        // The URL this upload replaces, so a content-addressed file loses its reference
+        String[] replaced = new String[1];
+        Boolean applied = transactionTemplate.execute(status -> {
+            if (uploadIntentRepository.complete(intentId, UploadStatus.PENDING, UploadStatus.COMPLETED,
+                    LocalDateTime.now()) == 0) {
+                return false;
+            }
+            if (intent.getTarget() == UploadTarget.COURSE_THUMBNAIL) {
+                replaced[0] = coursesRepo.findById(intent.getTargetId()).map(Courses::getThumbnail).orElse(null);
+                coursesRepo.updateThumbnail(intent.getTargetId(), url, LocalDateTime.now());
+            } else {
+                replaced[0] = laptopsRepo.findById(intent.getTargetId()).map(Laptops::getPimage).orElse(null);
+                laptopsRepo.updateImage(intent.getTargetId(), url);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(applied)) {
+            contentStoreService.release(replaced[0]);
+            uploadsCompleted.increment();
+            bytesUploaded.add(intent.getSize());
+            if (intent.getTarget() == UploadTarget.LAPTOP_IMAGE) {
+                productCatalogService.refresh();
+            } else {
+                courseSearchService.refreshCourse(intent.getTargetId());
+                courseSuggestionService.requestRebuild();
+            }
+            System.out.println("Direct upload " + intentId + " recorded on " + intent.getTarget() + " " + intent.getTargetId());
+        }
+        return url;
+    }
+
+    /**
+     * Forget intents that were never completed. Their objects, if any, are left for storage cleanup.
+     */
+    @Scheduled(fixedDelayString = "${uploads.purge-interval-ms:3600000}", initialDelayString = "${uploads.purge-interval-ms:3600000}")
+    public int purgeStaleIntents() {
+        Integer purged = transactionTemplate.execute(status -> uploadIntentRepository.deleteByStatusAndExpiresAtBefore(
+                UploadStatus.PENDING, LocalDateTime.now().minusHours(pendingRetentionHours)));
+        if (purged != null && purged > 0) {
+            System.out.println("Purged " + purged + " stale upload intents");
+        }
+        return purged == null ? 0 : purged;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("intentsCreated", intentsCreated.sum());
+        metrics.put("uploadsCompleted", uploadsCompleted.sum());
+        metrics.put("uploadsRejected", uploadsRejected.sum());
+        metrics.put("bytesUploaded", bytesUploaded.sum());
+        return metrics;
+    }
+
+    private void checkAccess(User user, UploadTarget target, Long targetId) {
+        boolean admin = user.getRole() == User.UserRole.ADMIN;
+        if (target == UploadTarget.COURSE_THUMBNAIL) {
+            Courses course = coursesRepo.findById(targetId)
+                    .orElseThrow(() -> new NoSuchElementException("Course not found"));
+            if (!admin && (course.getInstructor() == null || !user.getId().equals(course.getInstructor().getId()))) {
+                throw new AccessDeniedException("Only the course instructor can change its thumbnail");
+            }
+        } else {
+            if (!laptopsRepo.existsById(targetId)) {
+                throw new NoSuchElementException("Laptop not found");
+            }
+            if (!admin) {
+                throw new AccessDeniedException("Only admins can change product images");
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Intent {
+        private final String id;
+        private final String uploadUrl;
+        private final String method;
+        private final Map<String, String> headers;
+        private final String key;
+        private final LocalDateTime expiresAt;
+    }
+}
@@ -27,24 +27,25 @@ public class EnrollmentService {
     @Autowired
     private CoursesRepo coursesRepo;
     
+    @Autowired
+    private PopularCourseService popularCourseService;
+    
+    @Autowired
+    private ProgressService progressService;
+    
+    @Autowired
+    private CertificateService certificateService;
+    
     public List<Enrollment> getAllEnrollments() {
-        return enrollmentRepository.findAll();
+        return enrollmentRepository.findAllWithCourse();
     }
     
     public List<Enrollment> getEnrollmentsByUser(Long userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isPresent()) {
-            return enrollmentRepository.findByUser(userOpt.get());
-        }
-        return List.of();
+        return enrollmentRepository.findByUserIdWithCourse(userId);
     }
     
     public List<Enrollment> getEnrollmentsByCourse(Long courseId) {
-        Optional<Courses> courseOpt = coursesRepo.findById(courseId);
-        if (courseOpt.isPresent()) {
-            return enrollmentRepository.findByCourse(courseOpt.get());
-        }
-        return List.of();
+        return enrollmentRepository.findByCourseIdWithUser(courseId);
     }
     
     public Optional<Enrollment> getEnrollmentById(Long id) {
@@ -73,7 +74,9 @@ public class EnrollmentService {
             enrollment.setEnrollmentDate(LocalDateTime.now());
             enrollment.setStatus(EnrollmentStatus.IN_PROGRESS);
             
-            return enrollmentRepository.save(enrollment);
+            Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+            popularCourseService.recordEnrollment(course.getId());
+            return savedEnrollment;
         }
         
         throw new RuntimeException("User or course not found");
@@ -91,7 +94,14 @@ public class EnrollmentService {
                 enrollment.setCompletionDate(LocalDateTime.now());
             }
             
-            return enrollmentRepository.save(enrollment);
+            Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+            
+            // Rendering happens on the certificate workers, not on this request
+            if (status == EnrollmentStatus.COMPLETED) {
+                certificateService.requestCertificate(savedEnrollment);
+            }
+            
+            return savedEnrollment;
         }
         
         return null;
@@ -102,6 +112,11 @@ public class EnrollmentService {
     }
     
     public void deleteEnrollment(Long id) {
+        Optional<Enrollment> enrollmentOpt = enrollmentRepository.findById(id);
         enrollmentRepository.deleteById(id);
+        progressService.removeEnrollment(id);
+        if (enrollmentOpt.isPresent() && enrollmentOpt.get().getCourse() != null) {
+            popularCourseService.recordUnenrollment(enrollmentOpt.get().getCourse().getId());
+        }
     }
 } 
\ No newline at end of file
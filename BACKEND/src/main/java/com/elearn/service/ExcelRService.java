@@ -16,15 +16,8 @@ import com.elearn.model.Mobiles;
 import com.elearn.model.User;
 import com.elearn.repo.*;
 import com.elearn.repository.CoursesRepo;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
+import com.elearn.service.StockReservationService.ReservationLine;
+
 import com.razorpay.RazorpayException;
 import org.json.JSONObject;
 
@@ -48,32 +41,15 @@ public class ExcelRService {
 	@Autowired
 	private HeadphonesRepo headphonesRepo;
 	
+	@Autowired
+	private ProductCatalogService productCatalogService;
 	
-	 @Value("${aws.s3.bucket.name}")
-	 private String bucketName;
-	    
-	    
-	 @Value("${aws.accessKeyId}")
-	 private String accessKeyId;
-
-	 @Value("${aws.secretAccessKey}")
-	 private String secretAccessKey;
-
-     @Value("${aws.s3.region}")
-     private String awsRegion;
+	@Autowired
+	private StockReservationService stockReservationService;
 	
-	 // Getting reference of s3 buckets using injected credentials
-	 private S3Client s3Client;
-
-     @Autowired
-     public void initS3Client() {
-         this.s3Client = S3Client.builder()
-             .region(Region.of(awsRegion))
-             .credentialsProvider(StaticCredentialsProvider.create(
-                 AwsBasicCredentials.create(accessKeyId, secretAccessKey)
-             ))
-             .build();
-     }
+	
+	 @Autowired
+	 private ContentStoreService contentStoreService;
 
     ExcelRService(CoursesRepo coursesRepo) {
         this.coursesRepo = coursesRepo;
@@ -82,28 +58,11 @@ public class ExcelRService {
 	 
 	 
 	 public Laptops saveLaptop(String pname, int pcost, int pqty, MultipartFile file) throws IOException {
-	        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-	        try {
-	            // Upload to S3
-	            s3Client.putObject(
-	                PutObjectRequest.builder()
-	                    .bucket(bucketName)
-	                    .key(fileName)
-	                    
-	                    .contentType("image/jpeg")
-	                    .build(),
-	                RequestBody.fromBytes(file.getBytes())
-	            );
-	        } catch (Exception e) {
-	            throw new RuntimeException("Error uploading file to S3: " + e.getMessage());
+	        String fileUrl = null;
+	        if (file != null && !file.isEmpty()) {
+	            fileUrl = uploadLaptopImage(file);
 	        }
 
-	        //String fileUrl = String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, Region.US_EAST_1.id(), fileName);
-
-	        String fileUrl = String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, awsRegion, fileName);
-	        System.out.println("File uploaded successfully. File URL: " + fileUrl);
-
-	        
 	        try {
 	            // Save to database
 	            Laptops laptop = new Laptops();
@@ -113,11 +72,26 @@ public class ExcelRService {
 	            laptop.setPqty(pqty);
 	            System.out.println("Saving Laptop: pname=" + pname + ", pcost=" + pcost + ", pimage=" + fileUrl);
 
-	            return laptopsRepo.save(laptop);
+	            Laptops savedLaptop = laptopsRepo.save(laptop);
+	            productCatalogService.refresh();
+	            return savedLaptop;
 	        } catch (Exception e) {
 	            throw new RuntimeException("Error saving laptop to database: " + e.getMessage());
 	        }
 	    }
+
+	 private String uploadLaptopImage(MultipartFile file) throws IOException {
+	        String fileUrl;
+	        try {
+	            fileUrl = contentStoreService.store(file, file.getSize(),
+	                    file.getContentType() != null ? file.getContentType() : "image/jpeg", file.getOriginalFilename());
+	        } catch (Exception e) {
+	            throw new RuntimeException("Error uploading file: " + e.getMessage());
+	        }
+
+	        System.out.println("File uploaded successfully. File URL: " + fileUrl);
+	        return fileUrl;
+	    }
 	 
 	 
 	 
@@ -157,7 +131,7 @@ public class ExcelRService {
 	}
 	
 	public List<Courses> getCourses(){
-		return coursesRepo.findAll();
+		return coursesRepo.findAllWithInstructor();
 	}
 	
 	public Optional<Courses> getCoursesById(Long pid){
@@ -166,25 +140,26 @@ public class ExcelRService {
 	/*
 	 * Razorpay
 	 */
-	@Value("${razorpay.api.key}")
-    private String key;
+    @Autowired
+    private RazorpayGateway razorpayGateway;
 
     @Value("${razorpay.api.secret}")
     private String secret;
 
-    public String createOrder(int amount, String currency, String receipt) throws RazorpayException {
+    /**
+     * Create a Razorpay order for an amount already in the smallest currency unit
+     */
+    public String createOrderInPaise(long amountPaise, String currency, String receipt) throws RazorpayException {
         try {
-            System.out.println("Creating Razorpay order with key: " + key + ", amount: " + amount);
-            RazorpayClient razorpay = new RazorpayClient(key, secret);
+            System.out.println("Creating Razorpay order, amount in paise: " + amountPaise);
 
             JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amount * 100); // Amount in paise
+            orderRequest.put("amount", amountPaise);
             orderRequest.put("currency", currency);
             orderRequest.put("receipt", receipt);
             System.out.println("Order request JSON: " + orderRequest.toString());
 
-            Order order = razorpay.orders.create(orderRequest);
-            String orderJson = order.toString();
+            String orderJson = razorpayGateway.createOrder(orderRequest);
             System.out.println("Order created: " + orderJson);
             return orderJson;
         } catch (RazorpayException e) {
@@ -198,18 +173,42 @@ public class ExcelRService {
         }
     }
 
+    /**
+     * Create a Razorpay order and reserve stock for its product lines. Only for
+     * server-priced orders, i.e. cart checkout.
+     * @throws IllegalStateException if a product does not have enough stock; nothing is reserved
+     */
+    public String createOrderInPaise(long amountPaise, String currency, String receipt, List<ReservationLine> items)
+            throws RazorpayException {
+        String orderJson = createOrderInPaise(amountPaise, currency, receipt);
+        if (items != null && !items.isEmpty()) {
+            // An order whose stock could not be reserved is never paid and expires at Razorpay
+            String orderId = new JSONObject(orderJson).getString("id");
+            stockReservationService.reserve(orderId, items);
+        }
+        return orderJson;
+    }
+
     public boolean verifyPayment(String orderId, String paymentId, String signature) {
+        boolean valid;
         try {
             System.out.println("Verifying payment with orderId: " + orderId + ", paymentId: " + paymentId);
             String generatedSignature = HmacSHA256(orderId + "|" + paymentId, secret);
             System.out.println("Generated signature: " + generatedSignature);
             System.out.println("Received signature: " + signature);
-            return generatedSignature.equals(signature);
+            valid = generatedSignature.equals(signature);
         } catch (Exception e) {
             System.err.println("Error verifying payment: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
+        if (valid) {
+            int confirmed = stockReservationService.confirm(orderId, paymentId);
+            if (confirmed > 0) {
+                System.out.println("Confirmed " + confirmed + " stock reservations for order " + orderId);
+            }
+        }
+        return valid;
     }
 
     private String HmacSHA256(String data, String secret) {
@@ -0,0 +1,259 @@
+package com.elearn.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.VideoWatchTime;
+import com.elearn.model.VideoWatchTotal;
+import com.elearn.repository.VideoWatchTimeRepository;
+import com.elearn.repository.VideoWatchTotalRepository;
+import com.elearn.util.LongCounterMap;
+import com.elearn.util.MpscRingBuffer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Ingests video watch heartbeats. Request threads append events to a lock-free ring buffer;
+ * a single consumer thread sums them per (user, video) and per video, and periodically adds
+ * the sums to the database with JDBC batch upserts in one transaction.
+ */
+@Service
+public class HeartbeatService {
+
+    private static final String WATCH_TIME_UPSERT =
+            "INSERT INTO video_watch_time (user_id, video_id, watch_seconds, last_watched_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE watch_seconds = watch_seconds + VALUES(watch_seconds), "
+            + "last_watched_at = VALUES(last_watched_at)";
+
+    private static final String WATCH_TOTAL_UPSERT =
+            "INSERT INTO video_watch_totals (video_id, watch_seconds, heartbeat_count, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE watch_seconds = watch_seconds + VALUES(watch_seconds), "
+            + "heartbeat_count = heartbeat_count + VALUES(heartbeat_count), updated_at = VALUES(updated_at)";
+
+    private static final int DRAIN_LIMIT = 4096;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VideoWatchTimeRepository watchTimeRepository;
+
+    @Autowired
+    private VideoWatchTotalRepository watchTotalRepository;
+
+    @Value("${heartbeats.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${heartbeats.flush-interval-ms:5000}")
+    private long flushIntervalMillis;
+
+    // Pending (user, video) sums that trigger an early flush; while flushes fail, also the most kept
+    @Value("${heartbeats.max-pending-keys:50000}")
+    private int maxPendingKeys;
+
+    @Value("${heartbeats.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${heartbeats.max-seconds:60}")
+    private int maxSecondsPerHeartbeat;
+
+    private MpscRingBuffer<Heartbeat> buffer;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread consumer;
+
+    private volatile boolean running;
+
+    // Consumer thread state: sums not yet written
+    private final Map<WatchKey, Long> pendingWatchSeconds = new HashMap<>();
+    private final LongCounterMap pendingVideoSeconds = new LongCounterMap();
+    private final LongCounterMap pendingVideoHeartbeats = new LongCounterMap();
+    private boolean flushFailing;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        consumer = new Thread(this::consume, "heartbeat-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(30_000);
+    }
+
+    /**
+     * Queue a heartbeat without blocking
+     * @param seconds Seconds watched since the previous heartbeat, capped at heartbeats.max-seconds
+     * @return false if the buffer is full and the heartbeat was dropped
+     */
+    public boolean record(long userId, long videoId, int seconds) {
+        if (seconds <= 0) {
+            return true;
+        }
+        if (buffer.offer(new Heartbeat(userId, videoId, Math.min(seconds, maxSecondsPerHeartbeat)))) {
+            accepted.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Get the written watch time of a video; the latest flush interval is not included yet
+     */
+    public Map<String, Object> getWatchTime(Long videoId, Long userId) {
+        Map<String, Object> watchTime = new HashMap<>();
+        watchTime.put("videoId", videoId);
+
+        VideoWatchTotal total = watchTotalRepository.findById(videoId).orElse(null);
+        watchTime.put("totalSeconds", total != null ? total.getWatchSeconds() : 0L);
+        watchTime.put("heartbeats", total != null ? total.getHeartbeatCount() : 0L);
+        watchTime.put("viewers", watchTimeRepository.countByVideoId(videoId));
+
+        VideoWatchTime own = watchTimeRepository.findByUserIdAndVideoId(userId, videoId).orElse(null);
+        watchTime.put("yourSeconds", own != null ? own.getWatchSeconds() : 0L);
+        return watchTime;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("buffered", buffer.size());
+        stats.put("bufferCapacity", buffer.capacity());
+        stats.put("rowsWritten", rowsWritten.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+
+    private void consume() {
+        long nextFlush = System.currentTimeMillis() + flushIntervalMillis;
+        while (running) {
+            int drained = buffer.drain(this::aggregate, DRAIN_LIMIT);
+
+            // Flush early when too many keys are pending, unless the database just failed
+            long now = System.currentTimeMillis();
+            if (now >= nextFlush || (pendingWatchSeconds.size() >= maxPendingKeys && !flushFailing)) {
+                flushFailing = !writeAggregates();
+                nextFlush = now + flushIntervalMillis;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+
+        // Shutting down: take whatever producers managed to publish and write it out
+        while (buffer.drain(this::aggregate, DRAIN_LIMIT) > 0) {
+            // keep draining
+        }
+        writeAggregates();
+    }
+
+    /**
+     * Add a heartbeat to the pending sums. While flushes fail nothing is written, so new
+     * (user, video) keys beyond maxPendingKeys are dropped and counted instead of growing
+     * the maps without bound; keys already pending keep adding up.
+     */
+    private void aggregate(Heartbeat heartbeat) {
+        WatchKey key = new WatchKey(heartbeat.getUserId(), heartbeat.getVideoId());
+        if (flushFailing && pendingWatchSeconds.size() >= maxPendingKeys && !pendingWatchSeconds.containsKey(key)) {
+            overflowed.increment();
+            return;
+        }
+        pendingWatchSeconds.merge(key, (long) heartbeat.getSeconds(), Long::sum);
+        pendingVideoSeconds.add(heartbeat.getVideoId(), heartbeat.getSeconds());
+        pendingVideoHeartbeats.increment(heartbeat.getVideoId());
+    }
+
+    /**
+     * Write the pending sums. On failure they are kept and retried with the next flush,
+     * which is safe because both tables are written in a single transaction.
+     * @return false if the write failed
+     */
+    private boolean writeAggregates() {
+        if (pendingWatchSeconds.isEmpty()) {
+            return true;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> watchTimeRows = new ArrayList<>(pendingWatchSeconds.size());
+        pendingWatchSeconds.forEach((key, seconds) ->
+                watchTimeRows.add(new Object[] {key.getUserId(), key.getVideoId(), seconds, now}));
+
+        List<Object[]> totalRows = new ArrayList<>(pendingVideoSeconds.size());
+        pendingVideoSeconds.forEach((videoId, seconds) ->
+                totalRows.add(new Object[] {videoId, seconds, pendingVideoHeartbeats.get(videoId), now}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeInBatches(WATCH_TIME_UPSERT, watchTimeRows);
+                writeInBatches(WATCH_TOTAL_UPSERT, totalRows);
+            });
+            rowsWritten.add(watchTimeRows.size() + totalRows.size());
+            pendingWatchSeconds.clear();
+            pendingVideoSeconds.clear();
+            pendingVideoHeartbeats.clear();
+            return true;
+        } catch (Exception e) {
+            failedFlushes.increment();
+            System.err.println("Failed to write " + watchTimeRows.size() + " watch-time rows, will retry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeInBatches(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Heartbeat {
+        private final long userId;
+        private final long videoId;
+        private final int seconds;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class WatchKey {
+        private final long userId;
+        private final long videoId;
+    }
+}
@@ -0,0 +1,385 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.elearn.util.ByteRanges;
+import com.elearn.util.ByteRanges.Range;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lesson media served from local disk for self-hosted deployments. Videos reference a
+ * file as "media:lessons/12/intro.mp4"; playback hands out URLs signed for one user that
+ * expire like the S3 ones. Responses support Range with single and multiple ranges and
+ * If-Range. Each user may hold a bounded number of open streams, so bodies are copied
+ * through the response stream while the stream slot is held. With no limit, whole files
+ * and single ranges are handed to Tomcat's sendfile instead, which sends them from the
+ * page cache after the handler returns.
+ */
+@Service
+public class MediaStreamService {
+
+    public static final String LINK_PREFIX = "media:";
+
+    private static final String STREAM_PATH = "/api/public/media/";
+
+    // Request attributes of Tomcat's sendfile support; end is exclusive
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Unfinished chunked uploads, on the same disk so completing one is a rename
+    private static final String PARTIAL_DIR = ".uploads";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "mp4", "video/mp4",
+            "m4v", "video/mp4",
+            "webm", "video/webm",
+            "mov", "video/quicktime",
+            "mp3", "audio/mpeg",
+            "pdf", "application/pdf",
+            "png", "image/png",
+            "jpg", "image/jpeg");
+
+    @Value("${media.local-dir:${user.home}/edulearn-media}")
+    private String localDir;
+
+    // Where browsers reach this server, for the signed stream URLs
+    @Value("${media.public-base-url:http://localhost:9090}")
+    private String publicBaseUrl;
+
+    @Value("${media.signing-key:${jwt.secret.key}}")
+    private String signingKey;
+
+    // 0 for no limit
+    @Value("${media.max-streams-per-user:4}")
+    private int maxStreamsPerUser;
+
+    // More ranges than this in one request are ignored and the whole file is sent
+    @Value("${media.max-ranges:16}")
+    private int maxRanges;
+
+    private Path root;
+
+    private SecretKeySpec macKey;
+
+    private final Map<Long, Integer> openStreams = new ConcurrentHashMap<>();
+
+    private final LongAdder streamsOpened = new LongAdder();
+    private final LongAdder streamsRejected = new LongAdder();
+    private final LongAdder partialResponses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder sendfileResponses = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(localDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        macKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public static boolean isLocalLink(String link) {
+        return link != null && link.startsWith(LINK_PREFIX) && link.length() > LINK_PREFIX.length();
+    }
+
+    public static String keyOf(String link) {
+        return link.substring(LINK_PREFIX.length()).trim();
+    }
+
+    /**
+     * Stream URL for a media key, valid for one user until the given time
+     */
+    public String signedUrl(String key, long userId, long expiresAtSeconds) {
+        StringBuilder url = new StringBuilder(publicBaseUrl.replaceAll("/+$", "")).append(STREAM_PATH);
+        String[] segments = key.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                url.append('/');
+            }
+            url.append(URLEncoder.encode(segments[i], StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return url.append("?uid=").append(userId)
+                .append("&expires=").append(expiresAtSeconds)
+                .append("&signature=").append(signature(key, userId, expiresAtSeconds))
+                .toString();
+    }
+
+    public boolean verify(String key, long userId, long expiresAtSeconds, String signature) {
+        if (signature == null || expiresAtSeconds < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        return MessageDigest.isEqual(signature(key, userId, expiresAtSeconds).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Take one of the user's stream slots; false if all are in use
+     */
+    public boolean acquire(long userId) {
+        if (maxStreamsPerUser <= 0) {
+            streamsOpened.increment();
+            return true;
+        }
+        boolean[] acquired = new boolean[1];
+        openStreams.compute(userId, (id, open) -> {
+            int current = open == null ? 0 : open;
+            if (current >= maxStreamsPerUser) {
+                return open;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (acquired[0]) {
+            streamsOpened.increment();
+        } else {
+            streamsRejected.increment();
+        }
+        return acquired[0];
+    }
+
+    public void release(long userId) {
+        openStreams.computeIfPresent(userId, (id, open) -> open > 1 ? open - 1 : null);
+    }
+
+    /**
+     * Write the file, or the requested ranges of it, to the response, or leave the body
+     * to the container's sendfile when it offers one
+     * @throws NoSuchElementException if there is no such file
+     */
+    public void serve(String key, String range, String ifRange, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        boolean headOnly = "HEAD".equals(request.getMethod());
+        Path file = resolve(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            Instant modified = Files.getLastModifiedTime(file).toInstant().truncatedTo(ChronoUnit.SECONDS);
+            String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(modified.getEpochSecond()) + "\"";
+            String contentType = contentTypeOf(key);
+
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.LAST_MODIFIED,
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(modified.atZone(ZoneOffset.UTC)));
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=300");
+
+            List<Range> ranges = range != null && rangeStillValid(ifRange, etag, modified)
+                    ? ByteRanges.parse(range, length, maxRanges) : null;
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+
+            if (ranges == null) {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(contentType);
+                response.setContentLengthLong(length);
+                if (!headOnly && !sendfile(request, file, 0, length)) {
+                    transfer(channel, 0, length, response.getOutputStream());
+                }
+                return;
+            }
+
+            partialResponses.increment();
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            if (ranges.size() == 1) {
+                Range only = ranges.get(0);
+                response.setContentType(contentType);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, only.contentRange(length));
+                response.setContentLengthLong(only.length());
+                if (!headOnly && !sendfile(request, file, only.getStart(), only.length())) {
+                    transfer(channel, only.getStart(), only.length(), response.getOutputStream());
+                }
+                return;
+            }
+
+            String boundary = UUID.randomUUID().toString().replace("-", "");
+            byte[][] partHeaders = new byte[ranges.size()][];
+            long contentLength = 0;
+            for (int i = 0; i < ranges.size(); i++) {
+                partHeaders[i] = ("\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\nContent-Range: "
+                        + ranges.get(i).contentRange(length) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+                contentLength += partHeaders[i].length + ranges.get(i).length();
+            }
+            byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            response.setContentLengthLong(contentLength + closing.length);
+            if (headOnly) {
+                return;
+            }
+            OutputStream out = response.getOutputStream();
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders[i]);
+                transfer(channel, ranges.get(i).getStart(), ranges.get(i).length(), out);
+            }
+            out.write(closing);
+        } catch (NoSuchFileException e) {
+            throw new NoSuchElementException("Media not found");
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("streamsOpened", streamsOpened.sum());
+        metrics.put("streamsRejected", streamsRejected.sum());
+        metrics.put("streamsOpen", openStreams.values().stream().mapToInt(Integer::intValue).sum());
+        metrics.put("partialResponses", partialResponses.sum());
+        metrics.put("bytesServed", bytesServed.sum());
+        metrics.put("sendfileResponses", sendfileResponses.sum());
+        return metrics;
+    }
+
+    /**
+     * Where a new media file with this key goes; its directory is created
+     */
+    public Path pathForWrite(String key) throws IOException {
+        Path file = root.resolve(key).normalize();
+        if (key.isEmpty() || key.startsWith(".") || !file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        Files.createDirectories(file.getParent());
+        return file;
+    }
+
+    /**
+     * The file an unfinished chunked upload is written to
+     */
+    public Path partialPath(String uploadId) throws IOException {
+        Path dir = root.resolve(PARTIAL_DIR);
+        Files.createDirectories(dir);
+        return dir.resolve(uploadId + ".part");
+    }
+
+    public boolean delete(String key) throws IOException {
+        try {
+            return Files.deleteIfExists(resolve(key));
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The file of a key, refusing keys that would leave the media directory or reach
+     * unfinished uploads
+     */
+    Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (key.isEmpty() || key.startsWith(".") || !file.startsWith(root) || file.equals(root)
+                || !Files.isRegularFile(file)) {
+            throw new NoSuchElementException("Media not found");
+        }
+        return file;
+    }
+
+    /**
+     * Ask Tomcat to send a region of the file itself once the handler returns. The
+     * response must carry its Content-Length and no body. False if the connector has no
+     * sendfile, e.g. useSendfile turned off or another container, or if streams are
+     * limited: the caller releases its slot when the handler returns, before Tomcat
+     * has sent anything.
+     */
+    private boolean sendfile(HttpServletRequest request, Path file, long position, long count) {
+        if (maxStreamsPerUser > 0 || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.toString());
+        request.setAttribute(SENDFILE_START, position);
+        request.setAttribute(SENDFILE_END, position + count);
+        sendfileResponses.increment();
+        bytesServed.add(count);
+        return true;
+    }
+
+    /**
+     * Copy a region of the file through the response stream. The servlet stream is not a
+     * socket channel, so transferTo only loops through a small buffer here; no zero copy
+     */
+    private void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position + count - remaining, remaining, target);
+            if (sent <= 0) {
+                throw new IOException("File ended while streaming");
+            }
+            remaining -= sent;
+            bytesServed.add(sent);
+        }
+    }
+
+    /**
+     * If-Range: serve ranges only if the client's copy is still current, else the whole file
+     */
+    private static boolean rangeStillValid(String ifRange, String etag, Instant modified) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // Only a strong validator may be used with If-Range
+            return value.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().equals(modified);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String contentTypeOf(String key) {
+        int dot = key.lastIndexOf('.');
+        String extension = dot < 0 ? "" : key.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private String signature(String key, long userId, long expiresAtSeconds) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(macKey);
+            byte[] digest = mac.doFinal((key + "\n" + userId + "\n" + expiresAtSeconds).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot sign media URLs", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A BlobStore that can also assemble an object from parts uploaded one at a time,
+ * so large files are never buffered whole. Parts are numbered from 1; every part but
+ * the last must be at least MIN_PART_BYTES.
+ */
+public interface MultipartBlobStore extends BlobStore {
+
+    long MIN_PART_BYTES = 5L * 1024 * 1024;
+
+    int MAX_PARTS = 10000;
+
+    /**
+     * Start a multipart upload
+     * @return The upload id that every part and the completion refer to
+     */
+    String createMultipartUpload(String key, String contentType) throws IOException;
+
+    void uploadPart(String key, String uploadId, int partNumber, InputStream content, long size) throws IOException;
+
+    /**
+     * Join the uploaded parts into the object
+     */
+    void completeMultipartUpload(String key, String uploadId) throws IOException;
+
+    /**
+     * Drop the parts of an unfinished upload; does nothing if it is already gone
+     */
+    void abortMultipartUpload(String key, String uploadId) throws IOException;
+}
@@ -0,0 +1,260 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Enrollment.EnrollmentStatus;
+import com.elearn.model.User;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+import com.elearn.repository.VideoSummary;
+import com.elearn.service.SignedUrlCache.MediaFile;
+import com.elearn.service.SignedUrlCache.SignedUrl;
+import com.elearn.service.impl.S3BlobStore;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Playback links for lesson videos and notes. Links into our bucket are answered with
+ * short-lived signed GET URLs, so the bucket can stay private, and "media:" links with
+ * signed URLs of the local MediaStreamService; other links, such as YouTube videos, are
+ * returned as stored. Only enrolled students, the course
+ * instructor and admins get playback links.
+ */
+@Service
+public class PlaybackService {
+
+    private static final String STUDENT_TIER = "student";
+    private static final String STAFF_TIER = "staff";
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private MediaStreamService mediaStreamService;
+
+    @Autowired
+    private S3BlobStore s3BlobStore;
+
+    @Value("${media.signed-url-ttl-seconds:900}")
+    private long studentTtlSeconds;
+
+    @Value("${media.staff-signed-url-ttl-seconds:3600}")
+    private long staffTtlSeconds;
+
+    // A cached URL is replaced once it has less than this left, so clients never get one about to expire
+    @Value("${media.signed-url-refresh-margin-seconds:120}")
+    private long refreshMarginSeconds;
+
+    @Value("${media.signed-url-cache-size:100000}")
+    private int cacheSize;
+
+    // How long a (user, course) pair found allowed is trusted for heartbeats without a query
+    @Value("${heartbeats.access-cache-ttl-seconds:300}")
+    private long accessTtlSeconds;
+
+    @Value("${heartbeats.access-cache-size:100000}")
+    private int accessCacheSize;
+
+    private SignedUrlCache cache;
+
+    // Video id -> course id; videos never move between courses
+    private final Map<Long, Long> videoCourses = new ConcurrentHashMap<>();
+
+    // (user, course) pairs allowed to watch -> when that answer expires, in epoch millis
+    private final Map<Viewer, Long> viewers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new SignedUrlCache(s3BlobStore::presignGet, refreshMarginSeconds, cacheSize);
+    }
+
+    /**
+     * Playback links for one video
+     * @throws NoSuchElementException if the video does not exist
+     * @throws AccessDeniedException if the user may not watch its course
+     */
+    public Playback getPlayback(User user, Long videoId) {
+        VideoSummary video = videoRepository.findSummaryById(videoId)
+                .orElseThrow(() -> new NoSuchElementException("Video not found"));
+        checkAccess(user, video.getCourseId());
+        return toPlayback(video, user);
+    }
+
+    /**
+     * Playback links for every video of a course, read with one query and signed in one pass
+     */
+    public List<Playback> getCoursePlaylist(User user, Long courseId) {
+        checkAccess(user, courseId);
+        List<VideoSummary> videos = videoRepository.findSummariesByCourseIds(List.of(courseId));
+        List<Playback> playlist = new ArrayList<>(videos.size());
+        for (VideoSummary video : videos) {
+            playlist.add(toPlayback(video, user));
+        }
+        return playlist;
+    }
+
+    /**
+     * Whether the user may report watch time for a video: it exists and the user may
+     * watch its course. Allowed pairs are cached, so a dropped enrollment can still
+     * report for up to heartbeats.access-cache-ttl-seconds; refusals are not cached, so
+     * a new enrollment counts at once.
+     */
+    public boolean mayRecordWatchTime(User user, long videoId) {
+        Long courseId = videoCourses.get(videoId);
+        if (courseId == null) {
+            courseId = videoRepository.findCourseIdById(videoId).orElse(null);
+            if (courseId == null) {
+                return false;
+            }
+            if (videoCourses.size() >= accessCacheSize) {
+                videoCourses.clear();
+            }
+            videoCourses.put(videoId, courseId);
+        }
+        if (user.getRole() == User.UserRole.ADMIN) {
+            return true;
+        }
+
+        Viewer viewer = new Viewer(user.getId(), courseId);
+        long now = System.currentTimeMillis();
+        Long expiresAt = viewers.get(viewer);
+        if (expiresAt != null && expiresAt > now) {
+            return true;
+        }
+        if (!mayWatch(user, courseId)) {
+            return false;
+        }
+        if (viewers.size() >= accessCacheSize) {
+            viewers.values().removeIf(expiry -> expiry <= now);
+            if (viewers.size() >= accessCacheSize) {
+                viewers.clear();
+            }
+        }
+        viewers.put(viewer, now + accessTtlSeconds * 1000);
+        return true;
+    }
+
+    public void evictVideo(Long videoId) {
+        cache.evictVideo(videoId);
+    }
+
+    @Scheduled(fixedDelayString = "${media.signed-url-purge-interval-ms:300000}",
+            initialDelayString = "${media.signed-url-purge-interval-ms:300000}")
+    public void purgeExpired() {
+        cache.purgeExpired();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("cachedUrls", cache.size());
+        metrics.put("cacheHits", cache.getHits());
+        metrics.put("signed", cache.getSigned());
+        return metrics;
+    }
+
+    private Playback toPlayback(VideoSummary video, User user) {
+        String tier = tierOf(user);
+        long ttlSeconds = STAFF_TIER.equals(tier) ? staffTtlSeconds : studentTtlSeconds;
+        Link videoLink = resolve(video.getId(), MediaFile.VIDEO, tier, user, video.getVideoLink(), ttlSeconds);
+        Link notesLink = resolve(video.getId(), MediaFile.NOTES, tier, user, video.getNotesLink(), ttlSeconds);
+        return new Playback(video.getId(), video.getTitle(), video.getCourseOrdinal(),
+                videoLink.getUrl(), notesLink.getUrl(), earliest(videoLink.getExpiresAtMillis(), notesLink.getExpiresAtMillis()));
+    }
+
+    private Link resolve(Long videoId, MediaFile file, String tier, User user, String link, long ttlSeconds) {
+        if (MediaStreamService.isLocalLink(link)) {
+            // Signed for one user, so their open streams can be bounded; HMAC signing is cheap enough not to cache
+            long expiresAtSeconds = System.currentTimeMillis() / 1000 + ttlSeconds;
+            return new Link(mediaStreamService.signedUrl(MediaStreamService.keyOf(link), user.getId(), expiresAtSeconds),
+                    expiresAtSeconds * 1000);
+        }
+        String key = s3BlobStore.keyOf(link);
+        if (key == null) {
+            return new Link(link, null);
+        }
+        SignedUrl signed = cache.get(videoId, file, tier, key, ttlSeconds);
+        return new Link(signed.getUrl(), signed.getExpiresAtMillis());
+    }
+
+    private void checkAccess(User user, Long courseId) {
+        Optional<Long> instructorId = coursesRepo.findInstructorIdById(courseId);
+        if (!instructorId.isPresent()) {
+            throw new NoSuchElementException("Course not found");
+        }
+        if (!mayWatch(user, courseId, instructorId.get())) {
+            throw new AccessDeniedException("Enroll in this course to watch its lessons");
+        }
+    }
+
+    private boolean mayWatch(User user, Long courseId) {
+        Long instructorId = coursesRepo.findInstructorIdById(courseId).orElse(null);
+        return instructorId != null && mayWatch(user, courseId, instructorId);
+    }
+
+    /**
+     * Admins, the course instructor and students enrolled and not dropped may watch
+     */
+    private boolean mayWatch(User user, Long courseId, Long instructorId) {
+        return user.getRole() == User.UserRole.ADMIN || user.getId().equals(instructorId)
+                || enrollmentRepository.existsByUserIdAndCourseIdAndStatusNot(user.getId(), courseId, EnrollmentStatus.DROPPED);
+    }
+
+    private static String tierOf(User user) {
+        return user.getRole() == User.UserRole.STUDENT ? STUDENT_TIER : STAFF_TIER;
+    }
+
+    private static Long earliest(Long first, Long second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : Math.min(first, second);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Viewer {
+        private final long userId;
+        private final long courseId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Link {
+        private final String url;
+        private final Long expiresAtMillis;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Playback {
+        private final Long videoId;
+        private final String title;
+        private final Integer courseOrdinal;
+        private final String videoUrl;
+        private final String notesUrl;
+        // When the first signed URL stops working; null if nothing was signed
+        private final Long expiresAtMillis;
+    }
+}
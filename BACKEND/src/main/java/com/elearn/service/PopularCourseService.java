@@ -0,0 +1,135 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.elearn.repo.EnrollmentRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Keeps per-course enrollment counters and a ranking ordered by count, so the
+ * most popular courses can be read without scanning every enrollment.
+ * Counters are loaded from the database at startup, updated on every enrollment
+ * write, and periodically reconciled with the database.
+ */
+@Service
+public class PopularCourseService {
+
+    private static final Comparator<RankedCourse> BY_POPULARITY = Comparator
+            .<RankedCourse>comparingLong(RankedCourse::getEnrollments).reversed()
+            .thenComparingLong(RankedCourse::getCourseId);
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final Map<Long, Long> enrollmentCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<RankedCourse> ranking = new ConcurrentSkipListSet<>(BY_POPULARITY);
+
+    @PostConstruct
+    public void init() {
+        reconcile();
+    }
+
+    /**
+     * Reload all counters from the database to correct any drift
+     */
+    @Scheduled(fixedDelayString = "${courses.popular.reconcile-interval-ms:600000}",
+            initialDelayString = "${courses.popular.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<Object[]> counts = enrollmentRepository.countEnrollmentsByCourse();
+        synchronized (this) {
+            enrollmentCounts.clear();
+            ranking.clear();
+            for (Object[] row : counts) {
+                Long courseId = (Long) row[0];
+                long count = ((Number) row[1]).longValue();
+                if (courseId != null && count > 0) {
+                    enrollmentCounts.put(courseId, count);
+                    ranking.add(new RankedCourse(courseId, count));
+                }
+            }
+        }
+    }
+
+    public void recordEnrollment(Long courseId) {
+        adjust(courseId, 1);
+    }
+
+    public void recordUnenrollment(Long courseId) {
+        adjust(courseId, -1);
+    }
+
+    public synchronized void removeCourse(Long courseId) {
+        Long current = enrollmentCounts.remove(courseId);
+        if (current != null) {
+            ranking.remove(new RankedCourse(courseId, current));
+        }
+    }
+
+    public long getEnrollmentCount(Long courseId) {
+        return enrollmentCounts.getOrDefault(courseId, 0L);
+    }
+
+    /**
+     * Get the most enrolled courses, most popular first
+     * @param limit Maximum number of courses to return
+     * @return Up to limit ranked courses, walking only the head of the ranking
+     */
+    public List<RankedCourse> getTopCourses(int limit) {
+        return getTopCourses(0, limit);
+    }
+
+    /**
+     * The ranking from position skip on, for callers that drop some courses and read on
+     * until they have enough
+     */
+    public List<RankedCourse> getTopCourses(int skip, int limit) {
+        List<RankedCourse> top = new ArrayList<>(Math.max(0, Math.min(limit, ranking.size() - skip)));
+        int position = 0;
+        for (RankedCourse course : ranking) {
+            if (top.size() >= limit) {
+                break;
+            }
+            if (position++ >= skip) {
+                top.add(course);
+            }
+        }
+        return top;
+    }
+
+    private synchronized void adjust(Long courseId, long delta) {
+        if (courseId == null) {
+            return;
+        }
+        long current = enrollmentCounts.getOrDefault(courseId, 0L);
+        long updated = Math.max(0, current + delta);
+        if (current > 0) {
+            ranking.remove(new RankedCourse(courseId, current));
+        }
+        if (updated > 0) {
+            enrollmentCounts.put(courseId, updated);
+            ranking.add(new RankedCourse(courseId, updated));
+        } else {
+            enrollmentCounts.remove(courseId);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RankedCourse {
+        private final long courseId;
+        private final long enrollments;
+    }
+}
@@ -0,0 +1,239 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.elearn.model.ProductType;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Immutable snapshot of laptops, mobiles and headphones, kept sorted by name and by price.
+ * A name prefix narrows a query to one binary-searched range of the name order, and when
+ * the requested sort matches a stored order the page is read off it without sorting.
+ * Facet counts are disjunctive: each facet counts the products matching every other filter,
+ * so the client can show what selecting another value would return.
+ */
+public class ProductCatalogIndex {
+
+    /**
+     * Upper bounds of the price facet buckets; the last bucket is open ended
+     */
+    private static final int[] PRICE_BUCKET_BOUNDS = {1_000, 5_000, 20_000, 50_000, 100_000};
+
+    private static final Comparator<Product> BY_NAME = Comparator.comparing((Product p) -> p.nameKey)
+            .thenComparing(Product::getType)
+            .thenComparingLong(Product::getPid);
+
+    private static final Comparator<Product> BY_PRICE = Comparator.comparingInt(Product::getPcost)
+            .thenComparing(BY_NAME);
+
+    private final Product[] byName;
+    private final Product[] byPrice;
+
+    public ProductCatalogIndex(List<Product> products) {
+        byName = products.toArray(new Product[0]);
+        Arrays.sort(byName, BY_NAME);
+        byPrice = products.toArray(new Product[0]);
+        Arrays.sort(byPrice, BY_PRICE);
+    }
+
+    public int size() {
+        return byName.length;
+    }
+
+    public ProductPage query(ProductQuery query) {
+        Set<ProductType> types = query.getTypes() == null || query.getTypes().isEmpty()
+                ? EnumSet.allOf(ProductType.class) : query.getTypes();
+        int minPrice = query.getMinPrice() != null ? query.getMinPrice() : Integer.MIN_VALUE;
+        int maxPrice = query.getMaxPrice() != null ? query.getMaxPrice() : Integer.MAX_VALUE;
+        ProductSort sort = query.getSort() != null ? query.getSort() : ProductSort.NAME_ASC;
+        String prefix = normalize(query.getNamePrefix());
+
+        // Scan the name range of the prefix, or the whole order the results are sorted by
+        Product[] source;
+        int from;
+        int to;
+        if (!prefix.isEmpty()) {
+            source = byName;
+            from = lowerBound(prefix);
+            to = lowerBound(prefix + Character.MAX_VALUE);
+        } else {
+            source = sort == ProductSort.PRICE_ASC || sort == ProductSort.PRICE_DESC ? byPrice : byName;
+            from = 0;
+            to = source.length;
+        }
+        boolean presorted = source == (sort.byPrice ? byPrice : byName);
+
+        int[] typeCounts = new int[ProductType.values().length];
+        int[] priceCounts = new int[PRICE_BUCKET_BOUNDS.length + 1];
+        int inStockCount = 0;
+        int outOfStockCount = 0;
+        List<Product> matches = new ArrayList<>();
+        int total = 0;
+
+        long first = (long) query.getPage() * query.getSize();
+        long last = first + query.getSize();
+        for (int step = 0; step < to - from; step++) {
+            // Descending sorts walk the stored order backwards
+            Product product = source[presorted && sort.descending ? to - 1 - step : from + step];
+            boolean typeOk = types.contains(product.type);
+            boolean priceOk = product.pcost >= minPrice && product.pcost <= maxPrice;
+            boolean stockOk = !query.isInStock() || product.pqty > 0;
+
+            if (priceOk && stockOk) {
+                typeCounts[product.type.ordinal()]++;
+            }
+            if (typeOk && stockOk) {
+                priceCounts[priceBucket(product.pcost)]++;
+            }
+            if (typeOk && priceOk) {
+                if (product.pqty > 0) {
+                    inStockCount++;
+                } else {
+                    outOfStockCount++;
+                }
+            }
+            if (typeOk && priceOk && stockOk) {
+                if (!presorted || (total >= first && total < last)) {
+                    matches.add(product);
+                }
+                total++;
+            }
+        }
+
+        List<Product> page;
+        if (presorted) {
+            page = matches;
+        } else {
+            Comparator<Product> order = sort.byPrice ? BY_PRICE : BY_NAME;
+            matches.sort(sort.descending ? order.reversed() : order);
+            page = first >= matches.size() ? List.of()
+                    : new ArrayList<>(matches.subList((int) first, (int) Math.min(last, matches.size())));
+        }
+
+        Map<ProductType, Integer> typeFacet = new LinkedHashMap<>();
+        for (ProductType type : ProductType.values()) {
+            typeFacet.put(type, typeCounts[type.ordinal()]);
+        }
+        List<PriceBucket> priceFacet = new ArrayList<>();
+        for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+            Integer low = bucket == 0 ? 0 : PRICE_BUCKET_BOUNDS[bucket - 1];
+            Integer high = bucket < PRICE_BUCKET_BOUNDS.length ? PRICE_BUCKET_BOUNDS[bucket] : null;
+            priceFacet.add(new PriceBucket(low, high, priceCounts[bucket]));
+        }
+        return new ProductPage(page, total, new Facets(typeFacet, priceFacet, inStockCount, outOfStockCount));
+    }
+
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * First position in the name order whose key is not less than the given key
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byName[mid].nameKey.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int priceBucket(int price) {
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && price >= PRICE_BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    public enum ProductSort {
+        NAME_ASC(false, false), NAME_DESC(false, true), PRICE_ASC(true, false), PRICE_DESC(true, true);
+
+        private final boolean byPrice;
+        private final boolean descending;
+
+        ProductSort(boolean byPrice, boolean descending) {
+            this.byPrice = byPrice;
+            this.descending = descending;
+        }
+    }
+
+    @Getter
+    public static class Product {
+        private final ProductType type;
+        private final long pid;
+        private final String pname;
+        private final int pcost;
+        private final int pqty;
+        private final String pimage;
+
+        @Getter(AccessLevel.NONE)
+        private final String nameKey;
+
+        public Product(ProductType type, long pid, String pname, int pcost, int pqty, String pimage) {
+            this.type = type;
+            this.pid = pid;
+            this.pname = pname;
+            this.pcost = pcost;
+            this.pqty = pqty;
+            this.pimage = pimage;
+            this.nameKey = normalize(pname);
+        }
+    }
+
+    @Data
+    public static class ProductQuery {
+        private Set<ProductType> types;
+        private Integer minPrice;
+        private Integer maxPrice;
+        private boolean inStock;
+        private String namePrefix;
+        private ProductSort sort;
+        private int page;
+        private int size = 20;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ProductPage {
+        private final List<Product> results;
+        private final int total;
+        private final Facets facets;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Facets {
+        private final Map<ProductType, Integer> types;
+        private final List<PriceBucket> price;
+        private final int inStock;
+        private final int outOfStock;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private final Integer min;
+        // Exclusive; null for the last bucket
+        private final Integer max;
+        private final int count;
+    }
+}
@@ -0,0 +1,91 @@
+package com.elearn.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Headphones;
+import com.elearn.model.Laptops;
+import com.elearn.model.Mobiles;
+import com.elearn.model.ProductType;
+import com.elearn.repo.HeadphonesRepo;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.service.ProductCatalogIndex.Product;
+import com.elearn.service.ProductCatalogIndex.ProductPage;
+import com.elearn.service.ProductCatalogIndex.ProductQuery;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Filtered, sorted and faceted queries across laptops, mobiles and headphones, served from
+ * an in-memory ProductCatalogIndex. The index is rebuilt after product writes, on the
+ * next query after a stock change, and periodically, to pick up rows changed outside
+ * the application.
+ */
+@Service
+public class ProductCatalogService {
+
+    @Autowired
+    private LaptopsRepo laptopsRepo;
+
+    @Autowired
+    private MobilesRepo mobilesRepo;
+
+    @Autowired
+    private HeadphonesRepo headphonesRepo;
+
+    private volatile ProductCatalogIndex index = new ProductCatalogIndex(List.of());
+
+    // Set when stock moved; a burst of reservations costs one rebuild, on the next query
+    private volatile boolean stale;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${products.catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${products.catalog.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        // Cleared first so a change made during the rebuild marks the new index stale again
+        stale = false;
+        List<Product> products = new ArrayList<>();
+        for (Laptops laptop : laptopsRepo.findAll()) {
+            products.add(new Product(ProductType.LAPTOPS, laptop.getPid(), laptop.getPname(), laptop.getPcost(),
+                    laptop.getPqty(), laptop.getPimage()));
+        }
+        for (Mobiles mobile : mobilesRepo.findAll()) {
+            products.add(new Product(ProductType.MOBILES, mobile.getPid(), mobile.getPname(), mobile.getPcost(),
+                    mobile.getPqty(), mobile.getPimage()));
+        }
+        for (Headphones headphone : headphonesRepo.findAll()) {
+            products.add(new Product(ProductType.HEADPHONES, headphone.getPid(), headphone.getPname(),
+                    headphone.getPcost(), headphone.getPqty(), headphone.getPimage()));
+        }
+        index = new ProductCatalogIndex(products);
+    }
+
+    /**
+     * Product stock changed in the database, e.g. reserved or returned by StockReservationService
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    public ProductPage query(ProductQuery query) {
+        if (stale) {
+            refreshIfStale();
+        }
+        return index.query(query);
+    }
+
+    private synchronized void refreshIfStale() {
+        if (stale) {
+            refresh();
+        }
+    }
+}
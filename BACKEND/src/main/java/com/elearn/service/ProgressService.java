@@ -0,0 +1,258 @@
+package com.elearn.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.EnrollmentProgress;
+import com.elearn.model.Video;
+import com.elearn.repo.EnrollmentProgressRepository;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repository.VideoRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+
+/**
+ * Tracks which videos of a course each enrollment has completed. Completed videos are
+ * stored as a bitset over the videos' course ordinals. Updates are coalesced per enrollment
+ * in memory and written to the database in batches on a timer, so a crash loses at most
+ * one flush interval. Reads always see the latest buffered state.
+ */
+@Service
+public class ProgressService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO enrollment_progress (enrollment_id, completed_videos, progress, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE completed_videos = VALUES(completed_videos), progress = VALUES(progress), "
+            + "updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentProgressRepository progressRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${progress.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Latest unwritten state per enrollment; entries are never modified once published
+    private final Map<Long, EnrollmentProgress> pending = new ConcurrentHashMap<>();
+
+    // Entries taken by the running flush, still visible to readers until written
+    private final Map<Long, EnrollmentProgress> flushing = new ConcurrentHashMap<>();
+
+    private final Map<Long, EnrollmentRef> enrollments = new ConcurrentHashMap<>();
+
+    private final Map<Long, CourseVideos> videosByCourse = new ConcurrentHashMap<>();
+
+    /**
+     * Record completed videos for an enrollment. Videos already recorded stay completed.
+     * @param userId The user reporting progress, who must own the enrollment
+     * @param enrollmentId The enrollment
+     * @param completedVideoIds Ids of completed videos; ids not in the course are ignored
+     * @param reportedProgress Progress sent by the client, used only when the course has no videos
+     * @return The updated progress, or empty if the enrollment does not exist
+     * @throws AccessDeniedException if the enrollment belongs to another user
+     */
+    public Optional<EnrollmentProgress> updateProgress(Long userId, Long enrollmentId,
+            Collection<Long> completedVideoIds, int reportedProgress) {
+        EnrollmentRef enrollment = getEnrollment(enrollmentId);
+        if (enrollment == null) {
+            return Optional.empty();
+        }
+        if (!enrollment.userId.equals(userId)) {
+            throw new AccessDeniedException("This enrollment belongs to another user");
+        }
+        CourseVideos videos = getCourseVideos(enrollment.courseId);
+
+        BitSet added = new BitSet();
+        for (Long videoId : completedVideoIds) {
+            Integer ordinal = videos.ordinalByVideo.get(videoId);
+            if (ordinal != null) {
+                added.set(ordinal);
+            }
+        }
+
+        EnrollmentProgress updated = pending.compute(enrollmentId, (id, current) -> {
+            EnrollmentProgress base = current != null ? current : loadFlushedProgress(id);
+            BitSet completed = base != null ? BitSet.valueOf(base.getCompletedVideos()) : new BitSet();
+            completed.or(added);
+
+            EnrollmentProgress next = new EnrollmentProgress();
+            next.setEnrollmentId(id);
+            next.setCompletedVideos(completed.toByteArray());
+            next.setProgress(videos.videoByOrdinal.isEmpty() ?
+                    Math.max(0, Math.min(100, reportedProgress)) : videos.percentComplete(completed));
+            next.setUpdatedAt(LocalDateTime.now());
+            return next;
+        });
+        return Optional.of(updated);
+    }
+
+    /**
+     * Get the current progress of an enrollment, including updates not yet written
+     * @return The progress, or empty if nothing has been recorded
+     */
+    public Optional<EnrollmentProgress> getProgress(Long enrollmentId) {
+        EnrollmentProgress buffered = pending.get(enrollmentId);
+        if (buffered != null) {
+            return Optional.of(buffered);
+        }
+        return Optional.ofNullable(loadFlushedProgress(enrollmentId));
+    }
+
+    public boolean enrollmentExists(Long enrollmentId) {
+        return getEnrollment(enrollmentId) != null;
+    }
+
+    /**
+     * Translate a progress bitset back into video ids, skipping videos that were deleted
+     */
+    public List<Long> getCompletedVideoIds(EnrollmentProgress progress) {
+        List<Long> videoIds = new ArrayList<>();
+        EnrollmentRef enrollment = getEnrollment(progress.getEnrollmentId());
+        if (enrollment == null) {
+            return videoIds;
+        }
+        CourseVideos videos = getCourseVideos(enrollment.courseId);
+        BitSet completed = BitSet.valueOf(progress.getCompletedVideos());
+        for (int ordinal = completed.nextSetBit(0); ordinal >= 0; ordinal = completed.nextSetBit(ordinal + 1)) {
+            Long videoId = videos.videoByOrdinal.get(ordinal);
+            if (videoId != null) {
+                videoIds.add(videoId);
+            }
+        }
+        return videoIds;
+    }
+
+    /**
+     * Write all buffered updates to the database in batches
+     */
+    @Scheduled(fixedDelayString = "${progress.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Publish each entry in flushing before taking it out of pending so readers never miss it.
+        // If an update lands meanwhile, the newer entry stays pending for the next flush.
+        List<EnrollmentProgress> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, EnrollmentProgress> entry : pending.entrySet()) {
+            flushing.put(entry.getKey(), entry.getValue());
+            pending.remove(entry.getKey(), entry.getValue());
+            batch.add(entry.getValue());
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, flushBatchSize, (ps, progress) -> {
+                ps.setLong(1, progress.getEnrollmentId());
+                ps.setBytes(2, progress.getCompletedVideos());
+                ps.setInt(3, progress.getProgress());
+                ps.setTimestamp(4, Timestamp.valueOf(progress.getUpdatedAt()));
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to flush " + batch.size() + " progress updates, will retry: " + e.getMessage());
+            // Newer pending entries already include these completions
+            for (EnrollmentProgress progress : batch) {
+                pending.putIfAbsent(progress.getEnrollmentId(), progress);
+            }
+        } finally {
+            for (EnrollmentProgress progress : batch) {
+                flushing.remove(progress.getEnrollmentId(), progress);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Drop all progress of a deleted enrollment
+     */
+    public synchronized void removeEnrollment(Long enrollmentId) {
+        pending.remove(enrollmentId);
+        enrollments.remove(enrollmentId);
+        progressRepository.deleteById(enrollmentId);
+    }
+
+    /**
+     * Forget the cached video ordinals of a course after its videos change
+     */
+    public void evictCourseVideos(Long courseId) {
+        if (courseId != null) {
+            videosByCourse.remove(courseId);
+        }
+    }
+
+    private EnrollmentProgress loadFlushedProgress(Long enrollmentId) {
+        EnrollmentProgress inFlight = flushing.get(enrollmentId);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        return progressRepository.findById(enrollmentId).orElse(null);
+    }
+
+    private EnrollmentRef getEnrollment(Long enrollmentId) {
+        return enrollments.computeIfAbsent(enrollmentId, id -> enrollmentRepository.findById(id)
+                .filter(enrollment -> enrollment.getCourse() != null && enrollment.getUser() != null)
+                .map(enrollment -> new EnrollmentRef(enrollment.getUser().getId(), enrollment.getCourse().getId()))
+                .orElse(null));
+    }
+
+    @AllArgsConstructor
+    private static class EnrollmentRef {
+        private final Long userId;
+        private final Long courseId;
+    }
+
+    private CourseVideos getCourseVideos(Long courseId) {
+        return videosByCourse.computeIfAbsent(courseId, id -> new CourseVideos(videoRepository.findByCourseId(id)));
+    }
+
+    private static class CourseVideos {
+        private final Map<Long, Integer> ordinalByVideo = new HashMap<>();
+        private final Map<Integer, Long> videoByOrdinal = new HashMap<>();
+
+        CourseVideos(List<Video> videos) {
+            for (Video video : videos) {
+                if (video.getCourseOrdinal() != null) {
+                    ordinalByVideo.put(video.getId(), video.getCourseOrdinal());
+                    videoByOrdinal.put(video.getCourseOrdinal(), video.getId());
+                }
+            }
+        }
+
+        int percentComplete(BitSet completed) {
+            int done = 0;
+            for (Integer ordinal : videoByOrdinal.keySet()) {
+                if (completed.get(ordinal)) {
+                    done++;
+                }
+            }
+            return Math.round(done * 100f / videoByOrdinal.size());
+        }
+    }
+}
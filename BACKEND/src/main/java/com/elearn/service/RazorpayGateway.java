@@ -0,0 +1,46 @@
+package com.elearn.service;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The calls that leave for the Razorpay API. Kept apart from ExcelRService so tests
+ * and offline runs can replace it with an in-process fake.
+ */
+@Service
+public class RazorpayGateway {
+
+    @Value("${razorpay.api.key}")
+    private String key;
+
+    @Value("${razorpay.api.secret}")
+    private String secret;
+
+    /**
+     * Create an order, e.g. {"amount": 49900, "currency": "INR", "receipt": "cart_7_v3"}
+     * @return The order as Razorpay returned it
+     */
+    public String createOrder(JSONObject orderRequest) throws RazorpayException {
+        System.out.println("Creating Razorpay order with key: " + key);
+        RazorpayClient razorpay = new RazorpayClient(key, secret);
+
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        Order order;
+        try {
+            order = razorpay.orders.create(orderRequest);
+        } catch (RazorpayException e) {
+            sample.stop(Metrics.timer("edulearn.razorpay.requests", "operation", "orders.create", "outcome", "error"));
+            throw e;
+        }
+        sample.stop(Metrics.timer("edulearn.razorpay.requests", "operation", "orders.create", "outcome", "success"));
+        return order.toString();
+    }
+}
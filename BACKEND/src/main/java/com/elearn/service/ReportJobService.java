@@ -0,0 +1,330 @@
+package com.elearn.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Runs custom report generation on a bounded worker pool instead of the request thread.
+ * Finished reports are kept in the BlobStore for a limited time, and identical
+ * (type, range, format) requests within that window reuse the same job and artifact.
+ */
+@Service
+public class ReportJobService {
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${reports.jobs.pool-size:2}")
+    private int poolSize;
+
+    @Value("${reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${reports.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // Cache key (type|range|format) -> id of the job serving that key
+    private final Map<String, String> jobsByKey = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalGenerationMillis = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a report for background generation, reusing a pending or cached job
+     * for the same (type, range, format) when one exists.
+     * @throws IllegalArgumentException if the report type is unknown
+     * @throws java.util.concurrent.RejectedExecutionException if the job queue is full
+     */
+    public Submission submit(String reportType, String timeRange, String format) {
+        if (!ReportService.REPORT_TYPES.contains(reportType)) {
+            throw new IllegalArgumentException("Invalid report type");
+        }
+        boolean csv = "csv".equals(format);
+        String cacheKey = reportType + "|" + timeRange + "|" + (csv ? "csv" : "pdf");
+
+        ReportJob[] created = new ReportJob[1];
+        String jobId = jobsByKey.compute(cacheKey, (key, existingId) -> {
+            ReportJob existing = existingId != null ? jobs.get(existingId) : null;
+            if (existing != null && existing.isReusable()) {
+                return existingId;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key, reportType, timeRange, csv);
+            jobs.put(job.getId(), job);
+            try {
+                job.future = executor.submit(() -> run(job));
+            } catch (RuntimeException e) {
+                jobs.remove(job.getId());
+                rejected.incrementAndGet();
+                throw e;
+            }
+            created[0] = job;
+            return job.getId();
+        });
+
+        if (created[0] == null) {
+            cacheHits.incrementAndGet();
+            return new Submission(jobs.get(jobId), true);
+        }
+        submitted.incrementAndGet();
+        return new Submission(created[0], false);
+    }
+
+    public Optional<ReportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public byte[] readArtifact(ReportJob job) throws IOException {
+        ByteBuffer buffer = blobStore.read(job.artifactLocation);
+        if (buffer == null) {
+            throw new NoSuchFileException(job.artifactLocation);
+        }
+        byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+    /**
+     * Cancel a queued or running job
+     * @return true if the job was cancelled, false if it had already finished
+     */
+    public boolean cancel(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED && job.status != JobStatus.RUNNING) {
+                return false;
+            }
+            job.status = JobStatus.CANCELLED;
+            job.finishedAt = LocalDateTime.now();
+            job.expiresAt = job.finishedAt.plusMinutes(ttlMinutes);
+        }
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        jobsByKey.remove(job.cacheKey, job.getId());
+        cancelled.incrementAndGet();
+        return true;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("submitted", submitted.get());
+        metrics.put("cacheHits", cacheHits.get());
+        metrics.put("completed", completed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("cancelled", cancelled.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("activeWorkers", executor.getActiveCount());
+        metrics.put("poolSize", poolSize);
+        metrics.put("trackedJobs", jobs.size());
+        long done = completed.get();
+        metrics.put("averageGenerationMillis", done > 0 ? totalGenerationMillis.get() / done : 0);
+        return metrics;
+    }
+
+    /**
+     * Drop jobs whose artifacts have outlived the TTL, along with their stored files
+     */
+    @Scheduled(fixedDelayString = "${reports.jobs.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().forEach(job -> {
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                jobs.remove(job.getId());
+                jobsByKey.remove(job.cacheKey, job.getId());
+                deleteArtifact(job);
+            }
+        });
+    }
+
+    private void run(ReportJob job) {
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+
+        long start = System.currentTimeMillis();
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            Map<String, Object> reportData = reportService.getReportData(job.reportType);
+            byte[] reportBytes = reportService.renderReport(reportData, job.reportType, job.csv);
+            String location = storeArtifact(job, reportBytes);
+
+            synchronized (job) {
+                if (job.status == JobStatus.CANCELLED) {
+                    job.artifactLocation = location;
+                    deleteArtifact(job);
+                    return;
+                }
+                job.artifactLocation = location;
+                job.sizeBytes = reportBytes.length;
+                job.status = JobStatus.COMPLETED;
+                job.finishedAt = LocalDateTime.now();
+                job.expiresAt = job.finishedAt.plusMinutes(ttlMinutes);
+            }
+            completed.incrementAndGet();
+            totalGenerationMillis.addAndGet(System.currentTimeMillis() - start);
+            sample.stop(generationTimer(job, "success"));
+        } catch (Exception e) {
+            System.err.println("Report job " + job.getId() + " failed: " + e.getMessage());
+            synchronized (job) {
+                if (job.status == JobStatus.CANCELLED) {
+                    return;
+                }
+                job.status = JobStatus.FAILED;
+                job.error = e.getMessage();
+                job.finishedAt = LocalDateTime.now();
+                job.expiresAt = job.finishedAt.plusMinutes(ttlMinutes);
+            }
+            jobsByKey.remove(job.cacheKey, job.getId());
+            failed.incrementAndGet();
+            sample.stop(generationTimer(job, "error"));
+        }
+    }
+
+    private static Timer generationTimer(ReportJob job, String outcome) {
+        return Metrics.timer("edulearn.reports.generation", "type", job.reportType,
+                "format", job.csv ? "csv" : "pdf", "outcome", outcome);
+    }
+
+    private String storeArtifact(ReportJob job, byte[] reportBytes) throws IOException {
+        String key = "reports/" + job.getId() + "." + job.getFileExtension();
+        blobStore.put(key, new ByteArrayInputStream(reportBytes), reportBytes.length, job.getContentType());
+        return key;
+    }
+
+    private void deleteArtifact(ReportJob job) {
+        if (job.artifactLocation == null) {
+            return;
+        }
+        try {
+            blobStore.delete(job.artifactLocation);
+        } catch (Exception e) {
+            System.err.println("Failed to delete report artifact " + job.artifactLocation + ": " + e.getMessage());
+        }
+    }
+
+    @Getter
+    public static class ReportJob {
+        private final String id;
+        private final String reportType;
+        private final String timeRange;
+        private final boolean csv;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile long sizeBytes;
+        private volatile String error;
+
+        @Getter(AccessLevel.NONE)
+        private final String cacheKey;
+        @Getter(AccessLevel.NONE)
+        private volatile String artifactLocation;
+        @Getter(AccessLevel.NONE)
+        private volatile Future<?> future;
+
+        ReportJob(String id, String cacheKey, String reportType, String timeRange, boolean csv) {
+            this.id = id;
+            this.cacheKey = cacheKey;
+            this.reportType = reportType;
+            this.timeRange = timeRange;
+            this.csv = csv;
+        }
+
+        public String getContentType() {
+            return csv ? "text/csv" : "application/pdf";
+        }
+
+        public String getFileExtension() {
+            return csv ? "csv" : "pdf";
+        }
+
+        public String getFileName() {
+            return reportType + "_report_" + timeRange + "." + getFileExtension();
+        }
+
+        boolean isReusable() {
+            if (status == JobStatus.QUEUED || status == JobStatus.RUNNING) {
+                return true;
+            }
+            return status == JobStatus.COMPLETED && expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Submission {
+        private final ReportJob job;
+        private final boolean cached;
+    }
+}
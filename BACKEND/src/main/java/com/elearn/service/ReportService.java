@@ -0,0 +1,667 @@
+package com.elearn.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.User;
+import com.elearn.util.LongCounterMap;
+
+/**
+ * Builds the statistics behind the admin reports so they can be computed
+ * from the request thread or from a background report job alike.
+ */
+@Service
+public class ReportService {
+
+    public static final List<String> REPORT_TYPES = List.of("enrollment", "revenue", "users", "courses");
+
+    private static final Enrollment.EnrollmentStatus[] ENROLLMENT_STATUSES = Enrollment.EnrollmentStatus.values();
+
+    private static final User.UserRole[] USER_ROLES = User.UserRole.values();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private PopularCourseService popularCourseService;
+
+    public Map<String, Object> getEnrollmentStats() {
+        return buildEnrollmentStats(enrollmentService.getAllEnrollments());
+    }
+
+    public Map<String, Object> getUserStats() {
+        return buildUserStats(userService.getAllUsers());
+    }
+
+    public Map<String, Object> getCourseStats() {
+        return buildCourseStats(courseService.getAllCourses(), categoryService.getAllCategories());
+    }
+
+    public Map<String, Object> getRevenueStats() {
+        return buildRevenueStats(enrollmentService.getAllEnrollments(), categoryService.getAllCategories());
+    }
+
+    /**
+     * Get the data for a report type
+     * @param reportType One of {@link #REPORT_TYPES}
+     * @return The report data, or null if the report type is unknown
+     */
+    public Map<String, Object> getReportData(String reportType) {
+        if (reportType == null) {
+            return null;
+        }
+        switch (reportType) {
+            case "enrollment":
+                return getEnrollmentStats();
+            case "revenue":
+                return getRevenueStats();
+            case "users":
+                return getUserStats();
+            case "courses":
+                return getCourseStats();
+            default:
+                return null;
+        }
+    }
+
+    public Map<String, Object> buildEnrollmentStats(List<Enrollment> enrollments) {
+        Map<String, Object> response = new HashMap<>();
+
+        // Calculate total enrollments
+        response.put("totalEnrollments", enrollments.size());
+
+        // Count enrollments by status and month in one pass, indexed by ordinal / month
+        long[] statusCounts = new long[ENROLLMENT_STATUSES.length];
+        int[] monthlyEnrollments = new int[12];
+        for (int i = 0, n = enrollments.size(); i < n; i++) {
+            Enrollment enrollment = enrollments.get(i);
+            Enrollment.EnrollmentStatus status = enrollment.getStatus();
+            statusCounts[status != null ? status.ordinal() : Enrollment.EnrollmentStatus.IN_PROGRESS.ordinal()]++;
+
+            LocalDateTime enrollmentDate = enrollment.getEnrollmentDate();
+            if (enrollmentDate != null) {
+                monthlyEnrollments[enrollmentDate.getMonthValue() - 1]++;
+            }
+        }
+
+        Map<String, Long> enrollmentByStatus = new HashMap<>();
+        for (Enrollment.EnrollmentStatus status : ENROLLMENT_STATUSES) {
+            enrollmentByStatus.put(status.name(), statusCounts[status.ordinal()]);
+        }
+        response.put("enrollmentByStatus", enrollmentByStatus);
+        response.put("monthlyEnrollments", monthlyEnrollments);
+
+        // Get recent enrollments
+        List<Map<String, Object>> recentEnrollments = new ArrayList<>();
+        try {
+            recentEnrollments = newestFirst(enrollments, Enrollment::getEnrollmentDate, 5).stream()
+                .map(enrollment -> {
+                    try {
+                        Map<String, Object> enrollmentData = new HashMap<>();
+                        enrollmentData.put("enrollmentId", enrollment.getId());
+                        enrollmentData.put("userId", enrollment.getUser() != null ?
+                            enrollment.getUser().getId() : null);
+                        enrollmentData.put("userName", enrollment.getUser() != null ?
+                            (enrollment.getUser().getName() != null ? enrollment.getUser().getName() : "Unknown") : "Unknown");
+                        enrollmentData.put("courseName", enrollment.getCourse() != null ?
+                            (enrollment.getCourse().getTitle() != null ? enrollment.getCourse().getTitle() : "Unknown Course") : "Unknown Course");
+                        enrollmentData.put("enrollmentDate", enrollment.getEnrollmentDate());
+                        enrollmentData.put("status", enrollment.getStatus() != null ?
+                            enrollment.getStatus().toString() : "IN_PROGRESS");
+                        return enrollmentData;
+                    } catch (Exception e) {
+                        System.err.println("Error mapping enrollment: " + e.getMessage());
+                        Map<String, Object> errorData = new HashMap<>();
+                        errorData.put("enrollmentId", enrollment.getId());
+                        errorData.put("error", "Error processing enrollment data");
+                        return errorData;
+                    }
+                })
+                .collect(Collectors.toList());
+        } catch (Exception e) {
+            System.err.println("Error processing recent enrollments: " + e.getMessage());
+        }
+
+        response.put("recentEnrollments", recentEnrollments);
+
+        return response;
+    }
+
+    public Map<String, Object> buildUserStats(List<User> users) {
+        Map<String, Object> response = new HashMap<>();
+
+        // Calculate total users
+        response.put("totalUsers", users.size());
+
+        // Count active users, roles and monthly growth in one pass
+        long activeUsers = 0;
+        long[] roleCounts = new long[USER_ROLES.length];
+        int[] userGrowth = new int[12];
+        for (int i = 0, n = users.size(); i < n; i++) {
+            User user = users.get(i);
+            if (user.getStatus() == User.UserStatus.ACTIVE) {
+                activeUsers++;
+            }
+            User.UserRole role = user.getRole();
+            roleCounts[role != null ? role.ordinal() : User.UserRole.STUDENT.ordinal()]++;
+
+            LocalDateTime joinDate = user.getJoinDate();
+            if (joinDate != null) {
+                userGrowth[joinDate.getMonthValue() - 1]++;
+            }
+        }
+        response.put("activeUsers", activeUsers);
+
+        Map<String, Long> usersByRole = new HashMap<>();
+        for (User.UserRole role : USER_ROLES) {
+            usersByRole.put(role.name(), roleCounts[role.ordinal()]);
+        }
+        response.put("usersByRole", usersByRole);
+        // Read by the CSV and PDF renderers
+        response.put("totalStudents", roleCounts[User.UserRole.STUDENT.ordinal()]);
+        response.put("totalInstructors", roleCounts[User.UserRole.INSTRUCTOR.ordinal()]);
+        response.put("totalAdmins", roleCounts[User.UserRole.ADMIN.ordinal()]);
+        response.put("userGrowth", userGrowth);
+
+        // Get recent users
+        List<Map<String, Object>> recentUsers = newestFirst(users, User::getJoinDate, 5).stream()
+                .map(user -> {
+                    Map<String, Object> userData = new HashMap<>();
+                    userData.put("id", user.getId());
+                    userData.put("name", user.getName() != null ? user.getName() : "Unknown");
+                    userData.put("email", user.getEmail());
+                    userData.put("role", user.getRole() != null ? user.getRole().toString() : "STUDENT");
+                    userData.put("status", user.getStatus() != null ? user.getStatus().toString() : "INACTIVE");
+                    userData.put("registrationDate", user.getJoinDate());
+                    return userData;
+                })
+                .collect(Collectors.toList());
+
+        response.put("recentUsers", recentUsers);
+
+        return response;
+    }
+
+    public Map<String, Object> buildCourseStats(List<Courses> courses, List<Category> categories) {
+        Map<String, Object> response = new HashMap<>();
+
+        // Calculate total courses
+        response.put("totalCourses", courses.size());
+
+        // Resolve every category id to a counter slot up front; categories sharing a name share a slot
+        List<String> categoryNames = new ArrayList<>();
+        LongCounterMap slotByCategoryId = new LongCounterMap(categories.size());
+        int uncategorizedSlot = resolveCategorySlots(categories, categoryNames, slotByCategoryId);
+
+        // Count active courses and courses per category in one pass
+        long activeCourses = 0;
+        long[] categoryCounts = new long[categoryNames.size()];
+        for (int i = 0, n = courses.size(); i < n; i++) {
+            Courses course = courses.get(i);
+            if (course.getStatus() == Courses.CourseStatus.PUBLISHED) {
+                activeCourses++;
+            }
+            Integer categoryId = course.getCategoryId();
+            int slot = categoryId != null ?
+                (int) slotByCategoryId.getOrDefault(categoryId, uncategorizedSlot) : uncategorizedSlot;
+            categoryCounts[slot]++;
+        }
+        response.put("activeCourses", activeCourses);
+
+        Map<String, Long> coursesByCategory = new HashMap<>();
+        for (int slot = 0; slot < categoryNames.size(); slot++) {
+            coursesByCategory.put(categoryNames.get(slot), categoryCounts[slot]);
+        }
+        response.put("coursesByCategory", coursesByCategory);
+
+        // Calculate popular courses (by enrollment count) from the maintained ranking
+        Map<Long, Courses> coursesById = new HashMap<>();
+        courses.forEach(course -> {
+            if (course.getId() != null) {
+                coursesById.put(course.getId(), course);
+            }
+        });
+
+        List<Courses> topCourses = new ArrayList<>();
+        for (PopularCourseService.RankedCourse ranked : popularCourseService.getTopCourses(5)) {
+            Courses course = coursesById.get(ranked.getCourseId());
+            if (course != null) {
+                topCourses.add(course);
+            }
+        }
+        // Fill up with courses that have no enrollments yet
+        for (Courses course : courses) {
+            if (topCourses.size() >= 5) {
+                break;
+            }
+            if (course.getId() != null && popularCourseService.getEnrollmentCount(course.getId()) == 0) {
+                topCourses.add(course);
+            }
+        }
+
+        List<Map<String, Object>> popularCourses = topCourses.stream()
+                .map(course -> {
+                    Map<String, Object> courseData = new HashMap<>();
+                    courseData.put("id", course.getId());
+                    courseData.put("title", course.getTitle() != null ? course.getTitle() : "Untitled Course");
+                    courseData.put("enrollments", popularCourseService.getEnrollmentCount(course.getId()));
+                    courseData.put("rating", 4.5); // Default rating since no rating field exists
+                    return courseData;
+                })
+                .collect(Collectors.toList());
+
+        response.put("popularCourses", popularCourses);
+
+        // Get recent courses
+        List<Map<String, Object>> recentCourses = newestFirst(courses, Courses::getCreatedAt, 5).stream()
+                .map(course -> {
+                    Map<String, Object> courseData = new HashMap<>();
+                    courseData.put("id", course.getId());
+                    courseData.put("title", course.getTitle() != null ? course.getTitle() : "Untitled Course");
+                    courseData.put("instructorName", course.getInstructor() != null && course.getInstructor().getName() != null ?
+                            course.getInstructor().getName() : "Unknown Instructor");
+                    courseData.put("createdAt", course.getCreatedAt());
+                    return courseData;
+                })
+                .collect(Collectors.toList());
+
+        response.put("recentCourses", recentCourses);
+
+        return response;
+    }
+
+    public Map<String, Object> buildRevenueStats(List<Enrollment> enrollments, List<Category> categories) {
+        try {
+            return buildRevenueStatsInMinorUnits(enrollments, categories);
+        } catch (ArithmeticException e) {
+            // Prices or totals too large for a long in minor units
+            return buildRevenueStatsInBigDecimal(enrollments, categories);
+        }
+    }
+
+    /**
+     * Sum revenue as long minor units at the largest price scale, converting each course price once.
+     * Every bucket also tracks the largest scale it has seen, so the BigDecimal it returns has the
+     * same value and scale as adding the prices up with BigDecimal.
+     * @throws ArithmeticException If a price or a sum does not fit in a long
+     */
+    private Map<String, Object> buildRevenueStatsInMinorUnits(List<Enrollment> enrollments, List<Category> categories) {
+        // Working scale: enough decimal places for every price
+        int workingScale = 0;
+        for (int i = 0, n = enrollments.size(); i < n; i++) {
+            Courses course = enrollments.get(i).getCourse();
+            if (course != null && course.getPrice() != null) {
+                workingScale = Math.max(workingScale, course.getPrice().scale());
+            }
+        }
+
+        List<String> categoryNames = new ArrayList<>();
+        LongCounterMap slotByCategoryId = new LongCounterMap(categories.size());
+        int uncategorizedSlot = resolveCategorySlots(categories, categoryNames, slotByCategoryId);
+
+        LongCounterMap minorUnitsByCourse = new LongCounterMap();
+        long totalRevenue = 0;
+        int totalScale = 0;
+        long[] monthlyRevenue = new long[12];
+        int[] monthlyScale = new int[12];
+        long[] categoryRevenue = new long[categoryNames.size()];
+        int[] categoryScale = new int[categoryNames.size()];
+
+        for (int i = 0, n = enrollments.size(); i < n; i++) {
+            Enrollment enrollment = enrollments.get(i);
+            Courses course = enrollment.getCourse();
+            if (course == null || course.getPrice() == null) {
+                continue;
+            }
+
+            long amount;
+            if (course.getId() == null) {
+                amount = toMinorUnits(course.getPrice(), workingScale);
+            } else {
+                long courseId = course.getId();
+                if (!minorUnitsByCourse.containsKey(courseId)) {
+                    minorUnitsByCourse.put(courseId, toMinorUnits(course.getPrice(), workingScale));
+                }
+                amount = minorUnitsByCourse.get(courseId);
+            }
+            int scale = course.getPrice().scale();
+
+            totalRevenue = Math.addExact(totalRevenue, amount);
+            totalScale = Math.max(totalScale, scale);
+
+            LocalDateTime enrollmentDate = enrollment.getEnrollmentDate();
+            if (enrollmentDate != null) {
+                int month = enrollmentDate.getMonthValue() - 1;
+                monthlyRevenue[month] = Math.addExact(monthlyRevenue[month], amount);
+                monthlyScale[month] = Math.max(monthlyScale[month], scale);
+            }
+
+            Integer categoryId = course.getCategoryId();
+            if (categoryId != null) {
+                int slot = (int) slotByCategoryId.getOrDefault(categoryId, uncategorizedSlot);
+                categoryRevenue[slot] = Math.addExact(categoryRevenue[slot], amount);
+                categoryScale[slot] = Math.max(categoryScale[slot], scale);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalRevenue", fromMinorUnits(totalRevenue, workingScale, totalScale));
+
+        BigDecimal[] monthlyTotals = new BigDecimal[12];
+        for (int month = 0; month < 12; month++) {
+            monthlyTotals[month] = fromMinorUnits(monthlyRevenue[month], workingScale, monthlyScale[month]);
+        }
+        response.put("monthlyRevenue", monthlyTotals);
+
+        Map<String, BigDecimal> revenueByCategory = new HashMap<>();
+        for (int slot = 0; slot < categoryNames.size(); slot++) {
+            revenueByCategory.put(categoryNames.get(slot),
+                    fromMinorUnits(categoryRevenue[slot], workingScale, categoryScale[slot]));
+        }
+        response.put("revenueByCategory", revenueByCategory);
+
+        return response;
+    }
+
+    private static long toMinorUnits(BigDecimal price, int workingScale) {
+        return price.setScale(workingScale).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromMinorUnits(long amount, int workingScale, int scale) {
+        return BigDecimal.valueOf(amount, workingScale).setScale(scale);
+    }
+
+    private Map<String, Object> buildRevenueStatsInBigDecimal(List<Enrollment> enrollments, List<Category> categories) {
+        Map<String, Object> response = new HashMap<>();
+
+        // Calculate total revenue
+        BigDecimal totalRevenue = enrollments.stream()
+                .filter(e -> e.getCourse() != null && e.getCourse().getPrice() != null)
+                .map(e -> e.getCourse().getPrice())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        response.put("totalRevenue", totalRevenue);
+
+        // Calculate monthly revenue
+        BigDecimal[] monthlyRevenue = new BigDecimal[12];
+        for (int i = 0; i < 12; i++) {
+            monthlyRevenue[i] = BigDecimal.ZERO;
+        }
+
+        enrollments.forEach(enrollment -> {
+            if (enrollment.getEnrollmentDate() != null &&
+                enrollment.getCourse() != null &&
+                enrollment.getCourse().getPrice() != null) {
+                int month = enrollment.getEnrollmentDate().getMonthValue() - 1; // 0-based index
+                if (month >= 0 && month < 12) { // Ensure month is valid
+                    monthlyRevenue[month] = monthlyRevenue[month].add(enrollment.getCourse().getPrice());
+                }
+            }
+        });
+        response.put("monthlyRevenue", monthlyRevenue);
+
+        // Calculate revenue by category
+        Map<String, BigDecimal> revenueByCategory = new HashMap<>();
+
+        // Initialize all categories with zero revenue
+        categories.forEach(category -> {
+            revenueByCategory.put(category.getName() != null ? category.getName() : "Uncategorized", BigDecimal.ZERO);
+        });
+
+        // Add "Uncategorized" category if not present
+        if (!revenueByCategory.containsKey("Uncategorized")) {
+            revenueByCategory.put("Uncategorized", BigDecimal.ZERO);
+        }
+
+        // Calculate revenue for each category
+        enrollments.forEach(enrollment -> {
+            if (enrollment.getCourse() != null &&
+                enrollment.getCourse().getPrice() != null &&
+                enrollment.getCourse().getCategoryId() != null) {
+
+                Integer categoryId = enrollment.getCourse().getCategoryId();
+                BigDecimal price = enrollment.getCourse().getPrice();
+                boolean foundCategory = false;
+
+                for (Category category : categories) {
+                    if (category.getId().equals(categoryId)) {
+                        String categoryName = category.getName() != null ?
+                            category.getName() : "Uncategorized";
+                        revenueByCategory.put(categoryName,
+                                revenueByCategory.getOrDefault(categoryName, BigDecimal.ZERO).add(price));
+                        foundCategory = true;
+                        break;
+                    }
+                }
+
+                // If no category found, add to Uncategorized
+                if (!foundCategory) {
+                    revenueByCategory.put("Uncategorized",
+                            revenueByCategory.getOrDefault("Uncategorized", BigDecimal.ZERO).add(price));
+                }
+            }
+        });
+        response.put("revenueByCategory", revenueByCategory);
+
+        return response;
+    }
+
+    /**
+     * Assign a counter slot to every distinct category name, always including "Uncategorized"
+     * @param categories The categories to resolve
+     * @param slotNames Filled with the category name of each slot
+     * @param slotByCategoryId Filled with the slot of each category id
+     * @return The slot of "Uncategorized"
+     */
+    private static int resolveCategorySlots(List<Category> categories, List<String> slotNames,
+            LongCounterMap slotByCategoryId) {
+        Map<String, Integer> slotByName = new HashMap<>();
+        for (Category category : categories) {
+            String name = category.getName() != null ? category.getName() : "Uncategorized";
+            Integer slot = slotByName.get(name);
+            if (slot == null) {
+                slot = slotNames.size();
+                slotByName.put(name, slot);
+                slotNames.add(name);
+            }
+            // The first category with a given id wins, as with a linear search
+            if (category.getId() != null && !slotByCategoryId.containsKey(category.getId())) {
+                slotByCategoryId.put(category.getId(), slot);
+            }
+        }
+        Integer uncategorized = slotByName.get("Uncategorized");
+        if (uncategorized == null) {
+            uncategorized = slotNames.size();
+            slotNames.add("Uncategorized");
+        }
+        return uncategorized;
+    }
+
+    /**
+     * Select the newest items without sorting the whole list. Ties keep list order
+     * and items without a date come last, matching a stable sort followed by a limit.
+     * @param items The items to select from
+     * @param dateOf Extracts the date to order by
+     * @param limit Maximum number of items to return
+     * @return Up to limit items, newest first
+     */
+    private static <T> List<T> newestFirst(List<T> items, Function<T, LocalDateTime> dateOf, int limit) {
+        List<T> newest = new ArrayList<>(limit + 1);
+        List<T> undated = new ArrayList<>(limit);
+        for (int i = 0, n = items.size(); i < n; i++) {
+            T item = items.get(i);
+            LocalDateTime date = dateOf.apply(item);
+            if (date == null) {
+                if (undated.size() < limit) {
+                    undated.add(item);
+                }
+                continue;
+            }
+            int position = newest.size();
+            while (position > 0 && dateOf.apply(newest.get(position - 1)).isBefore(date)) {
+                position--;
+            }
+            if (position < limit) {
+                newest.add(position, item);
+                if (newest.size() > limit) {
+                    newest.remove(limit);
+                }
+            }
+        }
+        for (int i = 0; i < undated.size() && newest.size() < limit; i++) {
+            newest.add(undated.get(i));
+        }
+        return newest;
+    }
+
+    /**
+     * Render report data into a downloadable file
+     * @param reportData The data to include in the report
+     * @param reportType The type of report
+     * @param csv Whether to render CSV instead of PDF
+     * @return Byte array of the report content
+     */
+    public byte[] renderReport(Map<String, Object> reportData, String reportType, boolean csv) throws Exception {
+        return csv ? generateCsvReport(reportData, reportType) : generatePdfReport(reportData, reportType);
+    }
+
+    /**
+     * Generate CSV content from report data
+     * @param reportData The data to include in the CSV
+     * @param reportType The type of report
+     * @return Byte array of CSV content
+     */
+    public byte[] generateCsvReport(Map<String, Object> reportData, String reportType) throws Exception {
+        StringBuilder csvContent = new StringBuilder();
+
+        // Add CSV headers based on report type
+        switch(reportType) {
+            case "enrollment":
+                csvContent.append("Month,Enrollments,Completions\n");
+                // Add monthly data
+                String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+                int[] monthlyEnrollments = (int[]) reportData.get("monthlyEnrollments");
+                for (int i = 0; i < 12; i++) {
+                    csvContent.append(months[i]).append(",").append(monthlyEnrollments[i]).append(",0\n");
+                }
+                break;
+
+            case "revenue":
+                csvContent.append("Month,Revenue\n");
+                // Add monthly revenue data
+                String[] revenueMonths = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+                BigDecimal[] monthlyRevenue = (BigDecimal[]) reportData.get("monthlyRevenue");
+                for (int i = 0; i < 12; i++) {
+                    csvContent.append(revenueMonths[i]).append(",").append(monthlyRevenue[i]).append("\n");
+                }
+                break;
+
+            case "users":
+                csvContent.append("User Type,Count\n");
+                csvContent.append("Students,").append(reportData.get("totalStudents")).append("\n");
+                csvContent.append("Instructors,").append(reportData.get("totalInstructors")).append("\n");
+                csvContent.append("Admins,").append(reportData.get("totalAdmins")).append("\n");
+                break;
+
+            case "courses":
+                csvContent.append("Category,Courses\n");
+                // Add courses by category
+                @SuppressWarnings("unchecked")
+                Map<String, Long> coursesByCategory = (Map<String, Long>) reportData.get("coursesByCategory");
+                for (Map.Entry<String, Long> entry : coursesByCategory.entrySet()) {
+                    csvContent.append(entry.getKey()).append(",").append(entry.getValue()).append("\n");
+                }
+                break;
+
+            default:
+                csvContent.append("No data available");
+        }
+
+        return csvContent.toString().getBytes();
+    }
+
+    /**
+     * Generate PDF content from report data
+     * @param reportData The data to include in the PDF
+     * @param reportType The type of report
+     * @return Byte array of PDF content
+     */
+    public byte[] generatePdfReport(Map<String, Object> reportData, String reportType) throws Exception {
+        // This is a simplified PDF generation - in a real application you would use a PDF library
+        // like iText, PDFBox, or JasperReports. For this example, we'll create a simple text
+        // representation that would normally be formatted into a PDF
+
+        StringBuilder pdfContent = new StringBuilder();
+        pdfContent.append("Report Type: ").append(reportType.toUpperCase()).append("\n\n");
+
+        switch(reportType) {
+            case "enrollment":
+                pdfContent.append("Total Enrollments: ").append(reportData.get("totalEnrollments")).append("\n\n");
+                pdfContent.append("Monthly Enrollments:\n");
+                String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+                int[] monthlyEnrollments = (int[]) reportData.get("monthlyEnrollments");
+                for (int i = 0; i < 12; i++) {
+                    pdfContent.append(months[i]).append(": ").append(monthlyEnrollments[i]).append("\n");
+                }
+                break;
+
+            case "revenue":
+                pdfContent.append("Total Revenue: $").append(reportData.get("totalRevenue")).append("\n\n");
+                pdfContent.append("Monthly Revenue:\n");
+                String[] revenueMonths = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+                BigDecimal[] monthlyRevenue = (BigDecimal[]) reportData.get("monthlyRevenue");
+                for (int i = 0; i < 12; i++) {
+                    pdfContent.append(revenueMonths[i]).append(": $").append(monthlyRevenue[i]).append("\n");
+                }
+                break;
+
+            case "users":
+                pdfContent.append("User Statistics:\n");
+                pdfContent.append("Total Students: ").append(reportData.get("totalStudents")).append("\n");
+                pdfContent.append("Total Instructors: ").append(reportData.get("totalInstructors")).append("\n");
+                pdfContent.append("Total Admins: ").append(reportData.get("totalAdmins")).append("\n");
+                break;
+
+            case "courses":
+                pdfContent.append("Course Statistics:\n");
+                pdfContent.append("Total Courses: ").append(reportData.get("totalCourses")).append("\n");
+                pdfContent.append("Active Courses: ").append(reportData.get("activeCourses")).append("\n\n");
+                pdfContent.append("Courses by Category:\n");
+
+                @SuppressWarnings("unchecked")
+                Map<String, Long> coursesByCategory = (Map<String, Long>) reportData.get("coursesByCategory");
+                for (Map.Entry<String, Long> entry : coursesByCategory.entrySet()) {
+                    pdfContent.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+                }
+                break;
+
+            default:
+                pdfContent.append("No data available");
+        }
+
+        // In a real implementation, convert this content to PDF using a PDF library
+        // For this example, we're just returning the text content as bytes
+        return pdfContent.toString().getBytes();
+    }
+}
@@ -0,0 +1,128 @@
+package com.elearn.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Signed GET URLs for private media, cached per (video, file, user tier) until shortly
+ * before they expire. Signing is pure CPU work, so every user of a tier shares one
+ * signature per file instead of paying for a fresh one on each lesson open.
+ */
+public class SignedUrlCache {
+
+    /**
+     * Signs a GET for an object key, valid for the given number of seconds
+     */
+    public interface Signer {
+        String sign(String objectKey, long ttlSeconds);
+    }
+
+    public enum MediaFile {
+        VIDEO, NOTES
+    }
+
+    private final Signer signer;
+    private final long refreshMarginMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final Map<Key, SignedUrl> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder signed = new LongAdder();
+
+    public SignedUrlCache(Signer signer, long refreshMarginSeconds, int maxEntries) {
+        this(signer, refreshMarginSeconds, maxEntries, System::currentTimeMillis);
+    }
+
+    SignedUrlCache(Signer signer, long refreshMarginSeconds, int maxEntries, LongSupplier clock) {
+        this.signer = signer;
+        this.refreshMarginMillis = refreshMarginSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a signed URL for an object, reusing the cached one while it has more than the
+     * refresh margin left and still points at the same object
+     */
+    public SignedUrl get(long videoId, MediaFile file, String tier, String objectKey, long ttlSeconds) {
+        if (ttlSeconds * 1000 <= refreshMarginMillis) {
+            throw new IllegalArgumentException("URL lifetime must be longer than the refresh margin");
+        }
+        Key key = new Key(videoId, file, tier);
+        long now = clock.getAsLong();
+        SignedUrl cached = entries.get(key);
+        if (isUsable(cached, objectKey, now)) {
+            hits.increment();
+            return cached;
+        }
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                // Still full of live entries: sign without caching
+                return sign(objectKey, ttlSeconds, now);
+            }
+        }
+        // One signature per key even when many requests miss at once
+        return entries.compute(key, (k, current) ->
+                isUsable(current, objectKey, now) ? current : sign(objectKey, ttlSeconds, now));
+    }
+
+    public void evictVideo(long videoId) {
+        entries.keySet().removeIf(key -> key.videoId == videoId);
+    }
+
+    /**
+     * Drop entries inside their refresh margin; they would be signed again on next use anyway
+     */
+    public int purgeExpired() {
+        long cutoff = clock.getAsLong() + refreshMarginMillis;
+        int before = entries.size();
+        entries.values().removeIf(url -> url.getExpiresAtMillis() <= cutoff);
+        return before - entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getSigned() {
+        return signed.sum();
+    }
+
+    private boolean isUsable(SignedUrl url, String objectKey, long now) {
+        return url != null && url.getObjectKey().equals(objectKey) && url.getExpiresAtMillis() - refreshMarginMillis > now;
+    }
+
+    private SignedUrl sign(String objectKey, long ttlSeconds, long now) {
+        signed.increment();
+        return new SignedUrl(objectKey, signer.sign(objectKey, ttlSeconds), now + ttlSeconds * 1000);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SignedUrl {
+        private final String objectKey;
+        private final String url;
+        private final long expiresAtMillis;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Key {
+        private final long videoId;
+        private final MediaFile file;
+        private final String tier;
+    }
+}
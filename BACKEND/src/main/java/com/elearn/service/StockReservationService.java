@@ -0,0 +1,236 @@
+package com.elearn.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.ProductType;
+import com.elearn.model.StockReservation;
+import com.elearn.model.StockReservation.ReservationStatus;
+import com.elearn.repo.HeadphonesRepo;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.repo.StockReservationRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Holds product stock for unpaid orders. Stock is taken with a conditional decrement,
+ * so concurrent buyers can never take more than is left, and all lines of an order are
+ * reserved in one transaction or none are. Paid orders are confirmed; unpaid ones are
+ * expired by a sweeper that returns their stock.
+ */
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private LaptopsRepo laptopsRepo;
+
+    @Autowired
+    private MobilesRepo mobilesRepo;
+
+    @Autowired
+    private HeadphonesRepo headphonesRepo;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${products.reservations.ttl-ms:900000}")
+    private long ttlMillis;
+
+    @Value("${products.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder oversold = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reserve every line of an order, or nothing if any product is short
+     * @throws IllegalStateException if a product does not have enough stock left
+     * @throws IllegalArgumentException if a line has no product or a quantity below one
+     */
+    public List<StockReservation> reserve(String orderId, List<ReservationLine> lines) {
+        List<ReservationLine> sorted = new ArrayList<>(lines);
+        for (ReservationLine line : sorted) {
+            if (line.getProductType() == null || line.getProductId() == null || line.getQuantity() < 1) {
+                throw new IllegalArgumentException("Invalid order line");
+            }
+        }
+        // Lock product rows in one order so two multi-line orders cannot deadlock
+        sorted.sort(Comparator.comparing(ReservationLine::getProductType).thenComparing(ReservationLine::getProductId));
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<StockReservation> result = transactionTemplate.execute(status -> {
+                List<StockReservation> reservations = new ArrayList<>();
+                for (ReservationLine line : sorted) {
+                    if (takeStock(line.getProductType(), line.getProductId(), line.getQuantity()) == 0) {
+                        // Throwing rolls back the lines already taken
+                        throw new IllegalStateException("Not enough stock for " + line.getProductType().toString().toLowerCase()
+                                + " " + line.getProductId());
+                    }
+                    StockReservation reservation = new StockReservation();
+                    reservation.setOrderId(orderId);
+                    reservation.setProductType(line.getProductType());
+                    reservation.setProductId(line.getProductId());
+                    reservation.setQuantity(line.getQuantity());
+                    reservation.setCreatedAt(now);
+                    reservation.setExpiresAt(now.plusNanos(ttlMillis * 1_000_000));
+                    reservations.add(reservation);
+                }
+                List<StockReservation> saved = reservationRepository.saveAll(reservations);
+                reserved.add(saved.size());
+                return saved;
+            });
+            productCatalogService.markStale();
+            return result;
+        } catch (IllegalStateException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Confirm the reservations of a paid order. A reservation that expired before the payment
+     * arrived takes its stock again; if that stock is gone it is confirmed anyway and logged,
+     * since the customer has already paid.
+     * @return The number of reservations confirmed by this call
+     */
+    public int confirm(String orderId, String paymentId) {
+        Integer count = transactionTemplate.execute(status -> {
+            int confirmedNow = 0;
+            LocalDateTime now = LocalDateTime.now();
+            for (StockReservation reservation : reservationRepository.findByOrderId(orderId)) {
+                ReservationStatus from = reservation.getStatus();
+                if (from == ReservationStatus.CONFIRMED) {
+                    continue;
+                }
+                if (reservationRepository.confirm(reservation.getId(), from, ReservationStatus.CONFIRMED, paymentId, now) == 0) {
+                    continue;
+                }
+                confirmedNow++;
+                if (from == ReservationStatus.EXPIRED
+                        && takeStock(reservation.getProductType(), reservation.getProductId(), reservation.getQuantity()) == 0) {
+                    oversold.increment();
+                    System.err.println("Order " + orderId + " was paid after its reservation expired and "
+                            + reservation.getProductType() + " " + reservation.getProductId() + " is out of stock");
+                }
+            }
+            return confirmedNow;
+        });
+        confirmed.add(count);
+        if (count > 0) {
+            // Stock moves only for reservations that had expired, but confirmations are few
+            productCatalogService.markStale();
+        }
+        return count;
+    }
+
+    /**
+     * Expire unpaid reservations past their deadline and return their stock
+     */
+    @Scheduled(fixedDelayString = "${products.reservations.sweep-interval-ms:30000}",
+            initialDelayString = "${products.reservations.sweep-interval-ms:30000}")
+    public int sweepExpired() {
+        List<StockReservation> due = reservationRepository.findByStatusAndExpiresAtBefore(
+                ReservationStatus.RESERVED, LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+        int count = 0;
+        for (StockReservation reservation : due) {
+            try {
+                Boolean released = transactionTemplate.execute(status -> {
+                    if (reservationRepository.transition(reservation.getId(), ReservationStatus.RESERVED,
+                            ReservationStatus.EXPIRED) == 0) {
+                        // Confirmed meanwhile
+                        return false;
+                    }
+                    returnStock(reservation.getProductType(), reservation.getProductId(), reservation.getQuantity());
+                    return true;
+                });
+                if (Boolean.TRUE.equals(released)) {
+                    count++;
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to expire stock reservation " + reservation.getId() + ": " + e.getMessage());
+            }
+        }
+        expired.add(count);
+        if (count > 0) {
+            productCatalogService.markStale();
+            System.out.println("Expired " + count + " unpaid stock reservations");
+        }
+        return count;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("reserved", reserved.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("confirmed", confirmed.sum());
+        metrics.put("expired", expired.sum());
+        metrics.put("oversold", oversold.sum());
+        metrics.put("pending", reservationRepository.countByStatus(ReservationStatus.RESERVED));
+        return metrics;
+    }
+
+    private int takeStock(ProductType type, Long productId, int quantity) {
+        switch (type) {
+            case LAPTOPS:
+                return laptopsRepo.reserveStock(productId, quantity);
+            case MOBILES:
+                return mobilesRepo.reserveStock(productId, quantity);
+            default:
+                return headphonesRepo.reserveStock(productId, quantity);
+        }
+    }
+
+    private void returnStock(ProductType type, Long productId, int quantity) {
+        switch (type) {
+            case LAPTOPS:
+                laptopsRepo.releaseStock(productId, quantity);
+                break;
+            case MOBILES:
+                mobilesRepo.releaseStock(productId, quantity);
+                break;
+            default:
+                headphonesRepo.releaseStock(productId, quantity);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ReservationLine {
+        private final ProductType productType;
+        private final Long productId;
+        private final int quantity;
+    }
+}
@@ -0,0 +1,401 @@
+package com.elearn.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.elearn.model.StorageGcCheckpoint;
+import com.elearn.model.StoredBlob;
+import com.elearn.repo.HeadphonesRepo;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.repo.StorageGcCheckpointRepository;
+import com.elearn.repo.StoredBlobRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+import com.elearn.service.BlobStore.Listing;
+import com.elearn.service.BlobStore.StoredObject;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Deletes stored files nothing refers to any more: replaced thumbnails, images of
+ * deleted products and content-addressed blobs whose last reference was released.
+ * A run lists the owned prefixes page by page, diffs the keys against the URLs in
+ * courses, videos and the product tables, and deletes the rest in batches at a
+ * bounded rate. Files younger than the minimum age are kept, so uploads that are
+ * not recorded yet survive. Progress is checkpointed after every page.
+ * <p>
+ * Uploads from before the prefixes were stored at the bucket root as
+ * "&lt;millis&gt;_&lt;filename&gt;". Those are swept by listing the root one leading digit at a
+ * time and only considering keys of exactly that form, so nothing else at the root
+ * and nothing under reports/ or certificates/ is ever touched.
+ */
+@Service
+public class StorageGcService {
+
+    private static final String CHECKPOINT_ID = "storage-gc";
+
+    private static final Pattern LEGACY_KEY = Pattern.compile("\\d+_[^/]+");
+
+    private static final List<String> LEGACY_PREFIXES = List.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private StorageGcCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private LaptopsRepo laptopsRepo;
+
+    @Autowired
+    private MobilesRepo mobilesRepo;
+
+    @Autowired
+    private HeadphonesRepo headphonesRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Only keys under these prefixes are ever deleted; certificates and reports share the bucket
+    @Value("${storage.gc.prefixes:blobs/,courses/,laptops/,lessons/}")
+    private String prefixes;
+
+    @Value("${storage.gc.legacy-root-keys:true}")
+    private boolean legacyRootKeys;
+
+    @Value("${storage.gc.min-age-hours:24}")
+    private long minAgeHours;
+
+    @Value("${storage.gc.page-size:1000}")
+    private int pageSize;
+
+    // 0 for no limit
+    @Value("${storage.gc.max-deletes-per-second:50}")
+    private double maxDeletesPerSecond;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // System.nanoTime() before which the next batch may not be deleted; only the running GC touches it
+    private long nextDeleteAt;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytesReclaimed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.gc.interval-ms:86400000}", initialDelayString = "${storage.gc.initial-delay-ms:600000}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (Exception e) {
+            System.err.println("Storage GC failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Collect to the end, resuming an unfinished run
+     * @return The finished checkpoint, or null if a run is already going
+     */
+    public StorageGcCheckpoint run() throws IOException, InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return collect();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Start a run in the background
+     * @return False if a run is already going
+     */
+    public boolean startRun() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                collect();
+            } catch (Exception e) {
+                System.err.println("Storage GC failed: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                running.set(false);
+            }
+        }, "storage-gc");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Counters of the current or last run, plus totals since startup
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new HashMap<>();
+        checkpointRepository.findById(CHECKPOINT_ID).ifPresent(checkpoint -> {
+            report.put("prefix", checkpoint.getPrefix());
+            report.put("scanned", checkpoint.getScanned());
+            report.put("referenced", checkpoint.getReferenced());
+            report.put("tooNew", checkpoint.getTooNew());
+            report.put("deleted", checkpoint.getDeleted());
+            report.put("failed", checkpoint.getFailed());
+            report.put("bytesReclaimed", checkpoint.getBytesReclaimed());
+            report.put("startedAt", checkpoint.getStartedAt());
+            report.put("updatedAt", checkpoint.getUpdatedAt());
+            report.put("finishedAt", checkpoint.getFinishedAt());
+        });
+        report.put("running", running.get());
+        report.put("totals", getMetrics());
+        return report;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("runs", runs.sum());
+        metrics.put("pages", pages.sum());
+        metrics.put("deleted", deleted.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("bytesReclaimed", bytesReclaimed.sum());
+        return metrics;
+    }
+
+    private StorageGcCheckpoint collect() throws IOException, InterruptedException {
+        List<String> owned = new ArrayList<>();
+        for (String prefix : prefixes.split(",")) {
+            if (!prefix.isBlank()) {
+                owned.add(prefix.trim());
+            }
+        }
+        if (legacyRootKeys) {
+            owned.addAll(LEGACY_PREFIXES);
+        }
+        int batchSize = Math.max(1, Math.min(pageSize, BlobStore.MAX_BATCH_DELETE));
+
+        StorageGcCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_ID).orElse(null);
+        int start = 0;
+        if (checkpoint != null && checkpoint.getFinishedAt() == null && owned.contains(checkpoint.getPrefix())) {
+            start = owned.indexOf(checkpoint.getPrefix());
+            System.out.println("Resuming storage GC in " + checkpoint.getPrefix() + " after " + checkpoint.getScanned()
+                    + " objects");
+        } else {
+            checkpoint = new StorageGcCheckpoint();
+            checkpoint.setId(CHECKPOINT_ID);
+            checkpoint.setStartedAt(LocalDateTime.now());
+        }
+        runs.increment();
+        nextDeleteAt = System.nanoTime();
+
+        // Built on every start, so a resumed run sees references added while it was stopped
+        Set<String> references = references();
+        Instant cutoff = Instant.now().minus(minAgeHours, ChronoUnit.HOURS);
+
+        for (int i = start; i < owned.size(); i++) {
+            String prefix = owned.get(i);
+            if (!prefix.equals(checkpoint.getPrefix())) {
+                checkpoint.setPrefix(prefix);
+                checkpoint.setContinuationToken(null);
+            }
+            do {
+                Listing page = blobStore.list(prefix, checkpoint.getContinuationToken(), batchSize);
+                List<StoredObject> objects = page.getObjects();
+                if (LEGACY_PREFIXES.contains(prefix)) {
+                    objects = objects.stream().filter(object -> LEGACY_KEY.matcher(object.getKey()).matches()).toList();
+                }
+                sweep(objects, references, cutoff, checkpoint);
+                pages.increment();
+                checkpoint.setContinuationToken(page.getNextToken());
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpoint = checkpointRepository.save(checkpoint);
+            } while (checkpoint.getContinuationToken() != null);
+        }
+
+        checkpoint.setPrefix(null);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getFinishedAt());
+        checkpoint = checkpointRepository.save(checkpoint);
+        System.out.println("Storage GC scanned " + checkpoint.getScanned() + " objects, deleted " + checkpoint.getDeleted()
+                + " and reclaimed " + checkpoint.getBytesReclaimed() + " bytes");
+        return checkpoint;
+    }
+
+    private void sweep(List<StoredObject> objects, Set<String> references, Instant cutoff,
+            StorageGcCheckpoint checkpoint) throws IOException, InterruptedException {
+        Map<String, StoredObject> files = new LinkedHashMap<>();
+        Map<String, StoredObject> blobs = new LinkedHashMap<>();
+        for (StoredObject object : objects) {
+            checkpoint.setScanned(checkpoint.getScanned() + 1);
+            if (references.contains(object.getKey())) {
+                checkpoint.setReferenced(checkpoint.getReferenced() + 1);
+            } else if (object.getLastModified().isAfter(cutoff)) {
+                checkpoint.setTooNew(checkpoint.getTooNew() + 1);
+            } else if (object.getKey().startsWith(ContentStoreService.KEY_PREFIX)) {
+                blobs.put(object.getKey(), object);
+            } else {
+                files.put(object.getKey(), object);
+            }
+        }
+        if (!files.isEmpty()) {
+            pace(files.size());
+            account(files, blobStore.deleteAll(new ArrayList<>(files.keySet())), checkpoint);
+        }
+        if (!blobs.isEmpty()) {
+            pace(blobs.size());
+            sweepBlobs(blobs, cutoff, checkpoint);
+        }
+    }
+
+    /**
+     * Blobs are deleted while their rows are locked: an upload of the same file waits
+     * in addReference, finds no row afterwards and stores the file again. A blob with
+     * no row at all is left from a store that failed before recording it.
+     */
+    private void sweepBlobs(Map<String, StoredObject> blobs, Instant cutoff, StorageGcCheckpoint checkpoint) {
+        LocalDateTime rowCutoff = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        List<String> forgotten = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<StoredBlob> unreferenced = storedBlobRepository.lockUnreferenced(blobs.keySet(), rowCutoff);
+            Set<String> recorded = new HashSet<>();
+            for (StoredBlob row : storedBlobRepository.findByObjectKeyIn(blobs.keySet())) {
+                recorded.add(row.getObjectKey());
+                if (row.getRefCount() > 0) {
+                    checkpoint.setReferenced(checkpoint.getReferenced() + 1);
+                } else if (row.getUpdatedAt().isAfter(rowCutoff)) {
+                    checkpoint.setTooNew(checkpoint.getTooNew() + 1);
+                }
+            }
+            List<String> doomed = new ArrayList<>();
+            for (StoredBlob row : unreferenced) {
+                doomed.add(row.getObjectKey());
+            }
+            for (String key : blobs.keySet()) {
+                if (!recorded.contains(key)) {
+                    doomed.add(key);
+                }
+            }
+            if (doomed.isEmpty()) {
+                return;
+            }
+            List<String> gone;
+            try {
+                gone = blobStore.deleteAll(doomed);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to delete blobs: " + e.getMessage(), e);
+            }
+            Set<String> goneKeys = new HashSet<>(gone);
+            List<StoredBlob> rows = new ArrayList<>();
+            for (StoredBlob row : unreferenced) {
+                if (goneKeys.contains(row.getObjectKey())) {
+                    rows.add(row);
+                    forgotten.add(row.getHash());
+                }
+            }
+            storedBlobRepository.deleteAllInBatch(rows);
+            Map<String, StoredObject> attempted = new LinkedHashMap<>();
+            for (String key : doomed) {
+                attempted.put(key, blobs.get(key));
+            }
+            account(attempted, gone, checkpoint);
+        });
+        for (String hash : forgotten) {
+            contentStoreService.forget(hash);
+        }
+    }
+
+    private void account(Map<String, StoredObject> attempted, List<String> gone, StorageGcCheckpoint checkpoint) {
+        long bytes = 0;
+        for (String key : gone) {
+            bytes += attempted.get(key).getSize();
+        }
+        int failures = attempted.size() - gone.size();
+        checkpoint.setDeleted(checkpoint.getDeleted() + gone.size());
+        checkpoint.setFailed(checkpoint.getFailed() + failures);
+        checkpoint.setBytesReclaimed(checkpoint.getBytesReclaimed() + bytes);
+        deleted.add(gone.size());
+        failed.add(failures);
+        bytesReclaimed.add(bytes);
+    }
+
+    /**
+     * Waits until the previous batch's share of the rate has passed
+     */
+    private void pace(int deletes) throws InterruptedException {
+        if (maxDeletesPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextDeleteAt - now > 0) {
+            TimeUnit.NANOSECONDS.sleep(nextDeleteAt - now);
+            now = nextDeleteAt;
+        }
+        nextDeleteAt = now + (long) (deletes * 1_000_000_000L / maxDeletesPerSecond);
+    }
+
+    /**
+     * Keys of every stored file a course, video or product points at
+     */
+    private Set<String> references() {
+        Set<String> keys = new HashSet<>();
+        addKeys(keys, coursesRepo.findAllThumbnails());
+        addKeys(keys, videoRepository.findAllVideoLinks());
+        addKeys(keys, videoRepository.findAllNotesLinks());
+        addKeys(keys, laptopsRepo.findAllImages());
+        addKeys(keys, mobilesRepo.findAllImages());
+        addKeys(keys, headphonesRepo.findAllImages());
+        return keys;
+    }
+
+    private void addKeys(Set<String> keys, List<String> urls) {
+        for (String url : urls) {
+            String key = blobStore.keyOf(url);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+    }
+}
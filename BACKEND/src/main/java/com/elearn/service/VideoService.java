@@ -1,14 +1,21 @@
 package com.elearn.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.elearn.model.Video;
+import com.elearn.repository.VideoSummary;
 
 public interface VideoService {
     List<Video> getAllVideos();
     
     List<Video> getVideosByCourseId(Long courseId);
     
+    List<VideoSummary> getVideoSummariesByInstructorId(Long instructorId);
+    
+    Map<Long, List<VideoSummary>> getVideoSummariesByCourseIds(Collection<Long> courseIds);
+    
     Video getVideoById(Long id);
     
     Video createVideo(Video video);
@@ -0,0 +1,237 @@
+package com.elearn.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.elearn.service.BlobStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * BlobStore on local disk, used with storage.backend=local. Objects are spread over
+ * 65536 directories by a hash of the key so no directory grows large, written to a
+ * temp file and renamed into place so readers never see a partial file, and read
+ * through memory-mapped buffers. Files are served by FileController.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    public static final String FILES_PATH = "/api/public/files/";
+
+    private static final String TEMP_PREFIX = ".upload";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Value("${storage.local-dir:${user.home}/edulearn-storage}")
+    private String localDir;
+
+    // Where browsers reach this server, for the file URLs
+    @Value("${storage.public-base-url:http://localhost:9090}")
+    private String publicBaseUrl;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(localDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        System.out.println("Local blob store at " + root);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        Path target = pathOf(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), TEMP_PREFIX, ".tmp");
+        try {
+            long written = Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (size >= 0 && written != size) {
+                throw new IOException("Expected " + size + " bytes for " + key + " but got " + written);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public ByteBuffer read(String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Object too large to map: " + key);
+            }
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        Path file = pathOf(key);
+        return Files.isRegularFile(file) ? Files.size(file) : -1;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(pathOf(key));
+    }
+
+    @Override
+    public List<String> deleteAll(List<String> keys) {
+        List<String> deleted = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            try {
+                delete(key);
+                deleted.add(key);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Failed to delete " + key + ": " + e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Walks the shard directories in name order; the token is the "ab/cd/file" path of
+     * the last object returned. Encoding keys character by character keeps the prefix
+     * a prefix of the file name, so nothing is decoded until it matches.
+     */
+    @Override
+    public Listing list(String prefix, String continuationToken, int pageSize) throws IOException {
+        if (continuationToken != null && !continuationToken.matches("[0-9a-f]{2}/[0-9a-f]{2}/.+")) {
+            throw new IllegalArgumentException("Invalid continuation token: " + continuationToken);
+        }
+        String encodedPrefix = URLEncoder.encode(prefix, StandardCharsets.UTF_8);
+        List<StoredObject> objects = new ArrayList<>();
+        String last = null;
+        for (String first : shardNames(root)) {
+            if (continuationToken != null && first.compareTo(continuationToken.substring(0, 2)) < 0) {
+                continue;
+            }
+            for (String second : shardNames(root.resolve(first))) {
+                String shard = first + "/" + second;
+                if (continuationToken != null && shard.compareTo(continuationToken.substring(0, 5)) < 0) {
+                    continue;
+                }
+                for (String name : fileNames(root.resolve(first).resolve(second))) {
+                    String position = shard + "/" + name;
+                    if ((continuationToken != null && position.compareTo(continuationToken) <= 0)
+                            || name.startsWith(TEMP_PREFIX) || !name.startsWith(encodedPrefix)) {
+                        continue;
+                    }
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(root.resolve(position), BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (objects.size() == pageSize) {
+                        return new Listing(objects, last);
+                    }
+                    objects.add(new StoredObject(URLDecoder.decode(name, StandardCharsets.UTF_8), attributes.size(),
+                            attributes.lastModifiedTime().toInstant()));
+                    last = position;
+                }
+            }
+        }
+        return new Listing(objects, null);
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        StringBuilder url = new StringBuilder(baseUrl()).append(FILES_PATH);
+        String[] segments = key.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                url.append('/');
+            }
+            url.append(URLEncoder.encode(segments[i], StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return url.toString();
+    }
+
+    @Override
+    public String keyOf(String url) {
+        String prefix = baseUrl() + FILES_PATH;
+        if (url == null || !url.startsWith(prefix) || url.length() == prefix.length()) {
+            return null;
+        }
+        String[] segments = url.substring(prefix.length()).split("/");
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                key.append('/');
+            }
+            key.append(URLDecoder.decode(segments[i].replace("+", "%2B"), StandardCharsets.UTF_8));
+        }
+        return key.toString();
+    }
+
+    /**
+     * root/ab/cd/<encoded key>, where abcd starts the SHA-256 of the key
+     */
+    Path pathOf(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.contains("\\")
+                || ("/" + key + "/").contains("/../") || ("/" + key + "/").contains("/./")) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String shard = new String(new char[] {
+            HEX[(hash[0] >> 4) & 0xF], HEX[hash[0] & 0xF], '/', HEX[(hash[1] >> 4) & 0xF], HEX[hash[1] & 0xF]
+        });
+        return root.resolve(shard).resolve(URLEncoder.encode(key, StandardCharsets.UTF_8));
+    }
+
+    private static List<String> shardNames(Path dir) throws IOException {
+        List<String> names = fileNames(dir);
+        names.removeIf(name -> !name.matches("[0-9a-f]{2}"));
+        return names;
+    }
+
+    private static List<String> fileNames(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.map(entry -> entry.getFileName().toString()).sorted().collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private String baseUrl() {
+        return publicBaseUrl.replaceAll("/+$", "");
+    }
+}
@@ -0,0 +1,334 @@
+package com.elearn.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.elearn.service.MultipartBlobStore;
+import com.elearn.util.S3RequestMetrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+/**
+ * BlobStore on the S3 bucket. Also the one place that builds the S3 client and
+ * presigner: direct uploads and signed playback URLs use S3 itself.
+ */
+@Service
+public class S3BlobStore implements MultipartBlobStore {
+
+    @Value("${aws.s3.bucket.name}")
+    private String bucketName;
+
+    @Value("${aws.accessKeyId}")
+    private String accessKeyId;
+
+    @Value("${aws.secretAccessKey}")
+    private String secretAccessKey;
+
+    @Value("${aws.s3.region}")
+    private String region;
+
+    // Set to use an S3-compatible server instead of AWS, e.g. MinIO or a test fake
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    private S3Client s3Client;
+    private S3Presigner presigner;
+
+    @PostConstruct
+    public void init() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials);
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .overrideConfiguration(config -> config.addExecutionInterceptor(new S3RequestMetrics()));
+        if (isCustomEndpoint()) {
+            S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+            presignerBuilder.endpointOverride(URI.create(endpoint)).serviceConfiguration(pathStyle);
+            clientBuilder.endpointOverride(URI.create(endpoint)).serviceConfiguration(pathStyle);
+        }
+        presigner = presignerBuilder.build();
+        s3Client = clientBuilder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        presigner.close();
+        s3Client.close();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                .build(),
+            RequestBody.fromInputStream(content, size));
+    }
+
+    @Override
+    public ByteBuffer read(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                    .asByteBuffer();
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public long size(String key) {
+        HeadObjectResponse head = head(key);
+        return head == null ? -1 : head.contentLength();
+    }
+
+    @Override
+    public boolean delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+        return true;
+    }
+
+    @Override
+    public List<String> deleteAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return keys;
+        }
+        if (keys.size() > MAX_BATCH_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_DELETE + " keys per delete");
+        }
+        List<ObjectIdentifier> objects = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            objects.add(ObjectIdentifier.builder().key(key).build());
+        }
+        // Quiet mode only reports the keys that failed
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+        if (!response.hasErrors() || response.errors().isEmpty()) {
+            return keys;
+        }
+        Set<String> failed = new HashSet<>();
+        for (S3Error error : response.errors()) {
+            System.err.println("Failed to delete " + error.key() + ": " + error.code() + " " + error.message());
+            failed.add(error.key());
+        }
+        List<String> deleted = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (!failed.contains(key)) {
+                deleted.add(key);
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public Listing list(String prefix, String continuationToken, int pageSize) {
+        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .continuationToken(continuationToken)
+                .maxKeys(Math.min(pageSize, 1000))
+                .build());
+        List<StoredObject> objects = new ArrayList<>(response.keyCount() != null ? response.keyCount() : 0);
+        for (S3Object object : response.contents()) {
+            objects.add(new StoredObject(object.key(), object.size(), object.lastModified()));
+        }
+        return new Listing(objects, Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null);
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        if (isCustomEndpoint()) {
+            return endpoint.replaceAll("/+$", "") + "/" + bucketName + "/" + key;
+        }
+        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
+    }
+
+    /**
+     * Accepts s3:// links, virtual-hosted and path-style S3 URLs and URLs on the
+     * configured custom endpoint
+     */
+    @Override
+    public String keyOf(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        // Decoded path; a '+' in an S3 key path is a literal plus
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        String key = null;
+        if ("s3".equalsIgnoreCase(uri.getScheme())) {
+            key = host.equals(bucketName) ? path : null;
+        } else if (host.equals(bucketName + ".s3.amazonaws.com") || host.equals(bucketName + ".s3." + region + ".amazonaws.com")) {
+            key = path;
+        } else if ((host.equals("s3.amazonaws.com") || host.equals("s3." + region + ".amazonaws.com")
+                || (isCustomEndpoint() && host.equals(URI.create(endpoint).getHost()))) && path.startsWith("/" + bucketName + "/")) {
+            key = path.substring(bucketName.length() + 1);
+        }
+        if (key == null || key.length() <= 1) {
+            return null;
+        }
+        return key.substring(1);
+    }
+
+    /**
+     * Object metadata, or null if there is no such key
+     */
+    public HeadObjectResponse head(String key) {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A GET URL for the object, valid for the given time
+     */
+    public String presignGet(String key, long ttlSeconds) {
+        return presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(ttlSeconds))
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                .build()).url().toString();
+    }
+
+    /**
+     * A PUT URL that only accepts a file of exactly this content type and size
+     */
+    public String presignPut(String key, String contentType, long size, long ttlSeconds) {
+        return presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(ttlSeconds))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(size)
+                        .build())
+                .build()).url().toString();
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    @Override
+    public void uploadPart(String key, String uploadId, int partNumber, InputStream content, long size) {
+        s3Client.uploadPart(UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(size)
+                .build(),
+            RequestBody.fromInputStream(content, size));
+    }
+
+    /**
+     * S3 concatenates the parts itself; the part ETags come from ListParts, so callers
+     * need not keep them.
+     */
+    @Override
+    public void completeMultipartUpload(String key, String uploadId) {
+        List<CompletedPart> parts = new ArrayList<>();
+        Integer marker = null;
+        ListPartsResponse page;
+        do {
+            page = s3Client.listParts(ListPartsRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .partNumberMarker(marker)
+                    .build());
+            for (Part part : page.parts()) {
+                parts.add(CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build());
+            }
+            marker = page.nextPartNumberMarker();
+        } while (Boolean.TRUE.equals(page.isTruncated()));
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build());
+    }
+
+    // S3 keeps billing for the parts otherwise
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (NoSuchUploadException e) {
+            // Already completed or aborted
+        }
+    }
+
+    private boolean isCustomEndpoint() {
+        return endpoint != null && !endpoint.isBlank();
+    }
+}
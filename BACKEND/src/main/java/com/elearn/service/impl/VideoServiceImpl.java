@@ -1,15 +1,26 @@
 package com.elearn.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.elearn.model.Video;
+import com.elearn.repository.CoursesRepo;
 import com.elearn.repository.VideoRepository;
+import com.elearn.repository.VideoSummary;
+import com.elearn.service.PlaybackService;
+import com.elearn.service.ProgressService;
 import com.elearn.service.VideoService;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
@@ -18,6 +29,30 @@ public class VideoServiceImpl implements VideoService {
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private CoursesRepo coursesRepo;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private PlaybackService playbackService;
+
+    /**
+     * Give videos created before course ordinals existed an ordinal, in id order
+     */
+    @PostConstruct
+    public synchronized void assignMissingOrdinals() {
+        List<Video> videos = videoRepository.findByCourseOrdinalIsNullOrderByIdAsc();
+        for (Video video : videos) {
+            video.setCourseOrdinal(nextOrdinal(video.getCourse().getId()));
+        }
+        if (!videos.isEmpty()) {
+            videoRepository.saveAll(videos);
+            System.out.println("Assigned course ordinals to " + videos.size() + " videos");
+        }
+    }
+
     @Override
     public List<Video> getAllVideos() {
         return videoRepository.findAll();
@@ -28,6 +63,27 @@ public class VideoServiceImpl implements VideoService {
         return videoRepository.findByCourseId(courseId);
     }
 
+    @Override
+    public List<VideoSummary> getVideoSummariesByInstructorId(Long instructorId) {
+        return videoRepository.findSummariesByInstructorId(instructorId);
+    }
+
+    /**
+     * Group the videos of several courses by course id, in course id order.
+     * Courses without videos are left out.
+     */
+    @Override
+    public Map<Long, List<VideoSummary>> getVideoSummariesByCourseIds(Collection<Long> courseIds) {
+        Map<Long, List<VideoSummary>> videosByCourse = new LinkedHashMap<>();
+        if (courseIds.isEmpty()) {
+            return videosByCourse;
+        }
+        for (VideoSummary video : videoRepository.findSummariesByCourseIds(courseIds)) {
+            videosByCourse.computeIfAbsent(video.getCourseId(), id -> new ArrayList<>()).add(video);
+        }
+        return videosByCourse;
+    }
+
     @Override
     public Video getVideoById(Long id) {
         return videoRepository.findById(id)
@@ -35,15 +91,19 @@ public class VideoServiceImpl implements VideoService {
     }
 
     @Override
-    public Video createVideo(Video video) {
+    public synchronized Video createVideo(Video video) {
         video.setCreatedAt(LocalDateTime.now());
         video.setUpdatedAt(LocalDateTime.now());
-        return videoRepository.save(video);
+        video.setCourseOrdinal(nextOrdinal(video.getCourse().getId()));
+        Video savedVideo = videoRepository.save(video);
+        progressService.evictCourseVideos(video.getCourse().getId());
+        return savedVideo;
     }
 
     @Override
-    public Video updateVideo(Long id, Video videoDetails) {
+    public synchronized Video updateVideo(Long id, Video videoDetails) {
         Video video = getVideoById(id);
+        Long previousCourseId = video.getCourse().getId();
         
         video.setTitle(videoDetails.getTitle());
         video.setDescription(videoDetails.getDescription());
@@ -52,12 +112,50 @@ public class VideoServiceImpl implements VideoService {
         video.setCourse(videoDetails.getCourse());
         video.setUpdatedAt(LocalDateTime.now());
         
-        return videoRepository.save(video);
+        // A video moved to another course takes the next ordinal there
+        if (!Objects.equals(previousCourseId, video.getCourse().getId())) {
+            video.setCourseOrdinal(nextOrdinal(video.getCourse().getId()));
+            progressService.evictCourseVideos(previousCourseId);
+            progressService.evictCourseVideos(video.getCourse().getId());
+        }
+        
+        Video savedVideo = videoRepository.save(video);
+        playbackService.evictVideo(id);
+        return savedVideo;
     }
 
     @Override
     public void deleteVideo(Long id) {
         Video video = getVideoById(id);
         videoRepository.delete(video);
+        progressService.evictCourseVideos(video.getCourse().getId());
+        playbackService.evictVideo(id);
+    }
+
+    /**
+     * Take the course's next ordinal. The counter on the course only moves up, so the
+     * ordinal of a deleted video, which completed-video progress still refers to, is
+     * never handed out again.
+     */
+    private int nextOrdinal(Long courseId) {
+        while (true) {
+            Optional<Integer> next = coursesRepo.findNextVideoOrdinal(courseId);
+            if (next.isPresent()) {
+                int ordinal = next.get();
+                if (coursesRepo.advanceNextVideoOrdinal(courseId, ordinal, ordinal + 1) == 1) {
+                    return ordinal;
+                }
+                continue;
+            }
+            // No counter yet: start after the highest ordinal still in use
+            Integer maxOrdinal = videoRepository.findMaxCourseOrdinal(courseId);
+            int ordinal = maxOrdinal != null ? maxOrdinal + 1 : 0;
+            if (coursesRepo.initNextVideoOrdinal(courseId, ordinal + 1) == 1) {
+                return ordinal;
+            }
+            if (!coursesRepo.existsById(courseId)) {
+                throw new EntityNotFoundException("Course not found with id: " + courseId);
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.elearn.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Parser for HTTP Range headers of the bytes unit (RFC 9110 section 14). Ranges are
+ * clipped to the representation length, overlapping or adjacent ones are merged, and
+ * headers a server may ignore (malformed, another unit, too many ranges) yield null
+ * so the caller answers with the full representation.
+ */
+public final class ByteRanges {
+
+    private ByteRanges() {
+    }
+
+    /**
+     * @return The satisfiable ranges in ascending order, an empty list if none is
+     *         satisfiable (416), or null if the header should be ignored (200)
+     */
+    public static List<Range> parse(String header, long length, int maxRanges) {
+        if (header == null || !header.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > maxRanges) {
+            return null;
+        }
+        List<Range> ranges = new ArrayList<>(specs.length);
+        for (String raw : specs) {
+            String spec = raw.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            Long first;
+            Long last;
+            try {
+                first = parseNumber(spec.substring(0, dash));
+                last = parseNumber(spec.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (first == null && last == null) {
+                return null;
+            }
+            if (first == null) {
+                // Suffix range: the last N bytes
+                if (last > 0 && length > 0) {
+                    ranges.add(new Range(Math.max(0, length - last), length - 1));
+                }
+                continue;
+            }
+            if (last != null && last < first) {
+                return null;
+            }
+            if (first < length) {
+                ranges.add(new Range(first, last == null ? length - 1 : Math.min(last, length - 1)));
+            }
+        }
+        return merge(ranges);
+    }
+
+    private static List<Range> merge(List<Range> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(Range::getStart));
+        List<Range> merged = new ArrayList<>(ranges.size());
+        Range current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            Range next = ranges.get(i);
+            if (next.getStart() <= current.getEnd() + 1) {
+                current = new Range(current.getStart(), Math.max(current.getEnd(), next.getEnd()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return Collections.unmodifiableList(merged);
+    }
+
+    private static Long parseNumber(String text) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                throw new NumberFormatException("Invalid range: " + text);
+            }
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Inclusive byte range
+     */
+    public static final class Range {
+        private final long start;
+        private final long end;
+
+        public Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long length() {
+            return end - start + 1;
+        }
+
+        public String contentRange(long total) {
+            return "bytes " + start + "-" + end + "/" + total;
+        }
+    }
+}
@@ -35,9 +35,7 @@ public class JwtFilter extends OncePerRequestFilter {
         "/api/users/verify-token",
         "/login",
         "/logout",
-        "/create-order",
         "/verify-payment",
-        "/api/create-order",
         "/api/verify-payment"
     );
 
@@ -0,0 +1,67 @@
+package com.elearn.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a single-page PDF whose page is filled by one JPEG image. This is all the
+ * certificate renderer needs, so it avoids pulling in a full PDF library.
+ */
+public final class PdfImageWriter {
+
+    private PdfImageWriter() {
+    }
+
+    /**
+     * @param jpeg Baseline RGB JPEG data, embedded as-is with the DCTDecode filter
+     * @param pageWidth Page width in points (1/72 inch)
+     * @param pageHeight Page height in points
+     */
+    public static byte[] write(byte[] jpeg, int imageWidth, int imageHeight, int pageWidth, int pageHeight) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(jpeg.length + 1024);
+        List<Integer> offsets = new ArrayList<>();
+
+        append(out, "%PDF-1.4\n");
+        // Binary comment so transfer tools treat the file as binary
+        out.write(new byte[] {'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'}, 0, 6);
+
+        offsets.add(out.size());
+        append(out, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+
+        offsets.add(out.size());
+        append(out, "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+
+        offsets.add(out.size());
+        append(out, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + pageWidth + " " + pageHeight + "] "
+                + "/Resources << /XObject << /Im0 4 0 R >> >> /Contents 5 0 R >>\nendobj\n");
+
+        offsets.add(out.size());
+        append(out, "4 0 obj\n<< /Type /XObject /Subtype /Image /Width " + imageWidth + " /Height " + imageHeight
+                + " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /DCTDecode /Length " + jpeg.length
+                + " >>\nstream\n");
+        out.write(jpeg, 0, jpeg.length);
+        append(out, "\nendstream\nendobj\n");
+
+        String content = "q " + pageWidth + " 0 0 " + pageHeight + " 0 0 cm /Im0 Do Q\n";
+        offsets.add(out.size());
+        append(out, "5 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content + "endstream\nendobj\n");
+
+        int xref = out.size();
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size() + 1).append("\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            table.append(String.format("%010d 00000 n \n", offset));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        append(out, table.toString());
+        return out.toByteArray();
+    }
+
+    private static void append(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,312 @@
+package com.elearn.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Immutable compacted prefix trie over weighted keys, answering "heaviest k keys starting
+ * with this prefix". Keys are sorted, so each node covers a contiguous range of them and
+ * its edge label is read from the first key of that range; nodes store only int ranges.
+ * A max-weight segment tree over the sorted keys yields the heaviest keys of a range
+ * without visiting the rest of it. Lookups allocate nothing but the normalized prefix.
+ */
+public final class PrefixTrie {
+
+    private final String[] keys;
+    private final long[] weights;
+    private final int[] values;
+
+    // Per node: range of sorted keys, string depth, and a contiguous block of children
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    private final int[] nodeDepth;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int nodeCount;
+
+    // best[i] is the sorted position of the heaviest key under segment tree node i, or -1
+    private final int leaves;
+    private final int[] best;
+
+    private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[256]);
+
+    private PrefixTrie(String[] keys, long[] weights, int[] values) {
+        this.keys = keys;
+        this.weights = weights;
+        this.values = values;
+
+        int capacity = 2 * keys.length + 1;
+        nodeStart = new int[capacity];
+        nodeEnd = new int[capacity];
+        nodeDepth = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        nodeCount = buildNodes();
+
+        int size = 1;
+        while (size < keys.length) {
+            size <<= 1;
+        }
+        leaves = size;
+        best = new int[2 * size];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < keys.length; i++) {
+            best[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            best[node] = heavier(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Build a trie; the arrays are parallel and keys should already be normalized
+     * @param values Returned for matching keys, e.g. an index into the caller's own data
+     */
+    public static PrefixTrie build(String[] keys, long[] weights, int[] values) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+
+        String[] sortedKeys = new String[keys.length];
+        long[] sortedWeights = new long[keys.length];
+        int[] sortedValues = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedWeights[i] = weights[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        return new PrefixTrie(sortedKeys, sortedWeights, sortedValues);
+    }
+
+    /**
+     * Lowercase and collapse whitespace, so keys and prefixes compare alike
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Find the heaviest keys starting with a normalized prefix, skipping repeated values
+     * @param out Receives up to out.length distinct values, heaviest first
+     * @return The number of values written
+     */
+    public int complete(String prefix, int[] out) {
+        if (keys.length == 0 || out.length == 0) {
+            return 0;
+        }
+        int node = 0;
+        int matched = 0;
+        while (matched < prefix.length()) {
+            int child = findChild(node, prefix.charAt(matched), matched);
+            if (child < 0) {
+                return 0;
+            }
+            String key = keys[nodeStart[child]];
+            int end = Math.min(prefix.length(), nodeDepth[child]);
+            for (int i = matched + 1; i < end; i++) {
+                if (key.charAt(i) != prefix.charAt(i)) {
+                    return 0;
+                }
+            }
+            node = child;
+            matched = end;
+        }
+        return top(nodeStart[node], nodeEnd[node], out);
+    }
+
+    /**
+     * Best-first search of the segment tree nodes covering [from, to): popping a node emits
+     * its heaviest key and pushes the siblings along the path down to that key
+     */
+    private int top(int from, int to, int[] out) {
+        int[] heap = scratch.get();
+        int heapSize = 0;
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                heap = push(heap, heapSize++, l++);
+            }
+            if ((r & 1) == 1) {
+                heap = push(heap, heapSize++, --r);
+            }
+        }
+
+        int count = 0;
+        while (heapSize > 0 && count < out.length) {
+            int segment = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+
+            int position = best[segment];
+            if (!contains(out, count, values[position])) {
+                out[count++] = values[position];
+            }
+            while (segment < leaves) {
+                int left = 2 * segment;
+                int next = best[left] == position ? left : left + 1;
+                int sibling = next ^ 1;
+                if (best[sibling] >= 0) {
+                    heap = push(heap, heapSize++, sibling);
+                }
+                segment = next;
+            }
+        }
+        scratch.set(heap);
+        return count;
+    }
+
+    private int[] push(int[] heap, int index, int segment) {
+        if (index == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(best[segment], best[heap[parent]])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = segment;
+        return heap;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int segment = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksBefore(best[heap[child + 1]], best[heap[child]])) {
+                child++;
+            }
+            if (!ranksBefore(best[heap[child]], best[segment])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = segment;
+    }
+
+    /**
+     * Heavier first; equal weights in key order
+     */
+    private boolean ranksBefore(int a, int b) {
+        return weights[a] != weights[b] ? weights[a] > weights[b] : a < b;
+    }
+
+    private int heavier(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return ranksBefore(a, b) ? a : b;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binary search the children of a node by their character at the given depth
+     */
+    private int findChild(int node, char c, int depth) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = keys[nodeStart[mid]].charAt(depth);
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lay out nodes breadth first so each node's children are adjacent. A node's depth is
+     * the common prefix length of its range, which for sorted keys is that of the first and
+     * last key; keys ending at that depth sort first and need no child.
+     */
+    private int buildNodes() {
+        nodeStart[0] = 0;
+        nodeEnd[0] = keys.length;
+        nodeDepth[0] = 0;
+        int count = 1;
+        for (int node = 0; node < count; node++) {
+            int depth = nodeDepth[node];
+            int i = nodeStart[node];
+            int end = nodeEnd[node];
+            while (i < end && keys[i].length() == depth) {
+                i++;
+            }
+            firstChild[node] = count;
+            while (i < end) {
+                char c = keys[i].charAt(depth);
+                int j = i + 1;
+                while (j < end && keys[j].charAt(depth) == c) {
+                    j++;
+                }
+                nodeStart[count] = i;
+                nodeEnd[count] = j;
+                nodeDepth[count] = commonPrefixLength(keys[i], keys[j - 1]);
+                count++;
+                i = j;
+            }
+            childCount[node] = count - firstChild[node];
+        }
+        return count;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
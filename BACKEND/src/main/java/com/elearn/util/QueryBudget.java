@@ -0,0 +1,18 @@
+package com.elearn.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a request to this handler should need, including the
+ * lookup of the calling user. Handlers without it get
+ * queries.default-budget. RequestMetricsFilter reports requests that go over.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
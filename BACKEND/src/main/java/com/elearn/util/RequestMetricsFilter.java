@@ -0,0 +1,88 @@
+package com.elearn.util;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements and entity loads each request needed, per endpoint,
+ * and reports requests over their statement budget or repeating one statement.
+ * Latency per endpoint comes from Spring's own http.server.requests timer.
+ * Runs first so the security filters' queries are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    // Statements allowed for handlers without a @QueryBudget
+    @Value("${queries.default-budget:20}")
+    private int defaultBudget;
+
+    // A statement run this many times in one request is reported as a likely N+1
+    @Value("${queries.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.Counts counts = RequestQueryStats.end();
+            // The mapped pattern, e.g. /api/videos/{id}; unmapped paths share one tag
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("edulearn.request.statements")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(Metrics.globalRegistry)
+                    .record(counts.getStatements());
+            DistributionSummary.builder("edulearn.request.entity.loads")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(Metrics.globalRegistry)
+                    .record(counts.getEntityLoads());
+            checkBudget(request, uri, counts);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, String uri, RequestQueryStats.Counts counts) {
+        int budget = budgetOf(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        if (counts.getStatements() > budget) {
+            Metrics.counter("edulearn.request.over.budget", "method", request.getMethod(), "uri", uri).increment();
+            System.err.println("Query budget exceeded: " + request.getMethod() + " " + uri + " ran "
+                    + counts.getStatements() + " statements, budget " + budget);
+        }
+        Map<String, Integer> repeated = counts.getRepeated(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Metrics.counter("edulearn.request.repeated.statements", "method", request.getMethod(), "uri", uri).increment();
+            for (Map.Entry<String, Integer> statement : repeated.entrySet()) {
+                System.err.println("Possible N+1 in " + request.getMethod() + " " + uri + ": "
+                        + statement.getValue() + "x " + statement.getKey());
+            }
+        }
+    }
+
+    private int budgetOf(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
@@ -0,0 +1,107 @@
+package com.elearn.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the SQL statements and entity loads of one unit of work on the current
+ * thread, usually an HTTP request. Hibernate calls it for every statement it
+ * prepares and every entity it loads (see spring.jpa.properties.hibernate.session_factory.*);
+ * threads that never called begin are not counted. Units nest: a request served on a
+ * thread that is already counting, as with MockMvc inside a test's budget, adds to both.
+ */
+public class RequestQueryStats implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Start counting on this thread, inside the unit already counting if there is one
+     */
+    public static Counts begin() {
+        Counts counts = new Counts(CURRENT.get());
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    /**
+     * Stop counting the innermost unit on this thread
+     * @return What was counted since begin, or empty counts if begin was never called
+     */
+    public static Counts end() {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return new Counts(null);
+        }
+        if (counts.enclosing != null) {
+            CURRENT.set(counts.enclosing);
+        } else {
+            CURRENT.remove();
+        }
+        return counts;
+    }
+
+    /**
+     * The counts so far, or null when this thread is not counting
+     */
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Counts counts = CURRENT.get(); counts != null; counts = counts.enclosing) {
+            counts.statements++;
+            counts.bySql.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        for (Counts counts = CURRENT.get(); counts != null; counts = counts.enclosing) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+
+    /**
+     * Only ever touched by the thread that owns it
+     */
+    public static class Counts {
+        private final Counts enclosing;
+        private int statements;
+        private int entityLoads;
+        // Hibernate's SQL has ? for every bind value, so one text is one statement shape
+        private final Map<String, Integer> bySql = new HashMap<>();
+
+        private Counts(Counts enclosing) {
+            this.enclosing = enclosing;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        /**
+         * Statements run at least this many times, most repeated first. The same
+         * select issued once per row of an earlier result is the usual N+1 signature.
+         */
+        public Map<String, Integer> getRepeated(int minTimes) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            bySql.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minTimes)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+            return repeated;
+        }
+    }
+}
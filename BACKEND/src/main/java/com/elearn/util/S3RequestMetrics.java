@@ -0,0 +1,64 @@
+package com.elearn.util;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * Times every call an S3 client makes, by operation and outcome, and counts the bytes
+ * sent by uploads. Registered on each S3 client so no call site has to remember it.
+ */
+public class S3RequestMetrics implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Timer.Sample> SAMPLE = new ExecutionAttribute<>("EduLearnS3Sample");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(SAMPLE, Timer.start(Metrics.globalRegistry));
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        String operation = operation(executionAttributes);
+        record(executionAttributes, operation, "success");
+
+        Long bytes = uploadedBytes(context.request());
+        if (bytes != null) {
+            Metrics.summary("edulearn.s3.upload.bytes", "operation", operation).record(bytes);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, operation(executionAttributes), "error");
+    }
+
+    private static void record(ExecutionAttributes executionAttributes, String operation, String outcome) {
+        Timer.Sample sample = executionAttributes.getAttribute(SAMPLE);
+        if (sample != null) {
+            sample.stop(Metrics.timer("edulearn.s3.requests", "operation", operation, "outcome", outcome));
+        }
+    }
+
+    private static String operation(ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "UNKNOWN";
+    }
+
+    private static Long uploadedBytes(SdkRequest request) {
+        if (request instanceof PutObjectRequest) {
+            return ((PutObjectRequest) request).contentLength();
+        }
+        if (request instanceof UploadPartRequest) {
+            return ((UploadPartRequest) request).contentLength();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.elearn.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into lowercase search terms, drops common English stop words and
+ * reduces words to a rough stem (plurals, -ing, -ed, -ly, trailing e and y), so
+ * "Programming Languages" and "program language" produce the same terms.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "the", "to", "with", "your", "you");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @return The terms of the text in order, including repeats
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if ((c == '+' || c == '#') && token.length() > 0) {
+                // Keep names like c++ and c#
+                token.append(c);
+            } else {
+                addTerm(token, terms);
+            }
+        }
+        addTerm(token, terms);
+        return terms;
+    }
+
+    public static String stem(String word) {
+        if (word.length() <= 3 || !isAllLetters(word)) {
+            return word;
+        }
+        String stem = word;
+
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing") && hasVowel(stem, stem.length() - 3) && stem.length() >= 6) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && !stem.endsWith("eed") && hasVowel(stem, stem.length() - 2) && stem.length() >= 5) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        }
+
+        if (stem.endsWith("ly") && stem.length() >= 6) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        // study, studies, studied and studying all end up as studi
+        if (stem.endsWith("y") && stem.length() > 3 && !isVowel(stem.charAt(stem.length() - 2))) {
+            stem = stem.substring(0, stem.length() - 1) + "i";
+        }
+        return stem;
+    }
+
+    private static void addTerm(StringBuilder token, List<String> terms) {
+        if (token.length() == 0) {
+            return;
+        }
+        String word = token.toString();
+        token.setLength(0);
+        if (!STOP_WORDS.contains(word)) {
+            terms.add(stem(word));
+        }
+    }
+
+    /**
+     * Turn a doubled final consonant into a single one (programm -> program), except l, s and z
+     */
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length >= 3) {
+            char last = stem.charAt(length - 1);
+            if (last == stem.charAt(length - 2) && !isVowel(last) && last != 'l' && last != 's' && last != 'z') {
+                return stem.substring(0, length - 1);
+            }
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if (isVowel(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+
+    private static boolean isAllLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
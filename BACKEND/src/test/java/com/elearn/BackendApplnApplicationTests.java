@@ -0,0 +1,37 @@
+package com.elearn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.elearn.support.OfflineApplicationTest;
+
+class BackendApplnApplicationTests extends OfflineApplicationTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void contextLoads() {
+	}
+
+	@Test
+	void adminCanLogInOffline() throws Exception {
+		HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest
+				.newBuilder(URI.create("http://localhost:" + port + "/api/users/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"admin@edulearn.com\",\"password\":\"admin123\"}"))
+				.build(), HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+		assertTrue(response.body().contains("\"token\""));
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.elearn.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.service.CartService;
+import com.elearn.service.CertificateService;
+import com.elearn.service.ChunkedUploadService;
+import com.elearn.service.ContentStoreService;
+import com.elearn.service.DirectUploadService;
+import com.elearn.service.MediaStreamService;
+import com.elearn.service.PlaybackService;
+import com.elearn.service.ReportJobService;
+import com.elearn.service.StockReservationService;
+import com.elearn.service.StorageGcService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MetricsConfigTest {
+
+	@Test
+	void publishesTotalsAsCountersAndLevelsAsGauges() {
+		MetricsConfig config = new MetricsConfig();
+		Map<String, Object> gc = new HashMap<>(Map.of("deleted", 0L, "bytesReclaimed", 0L));
+		Map<String, Object> media = new HashMap<>(Map.of("bytesServed", 0L, "streamsOpen", 0));
+		StorageGcService storageGcService = mock(StorageGcService.class);
+		when(storageGcService.getMetrics()).thenAnswer(invocation -> gc);
+		MediaStreamService mediaStreamService = mock(MediaStreamService.class);
+		when(mediaStreamService.getMetrics()).thenAnswer(invocation -> media);
+		ReflectionTestUtils.setField(config, "storageGcService", storageGcService);
+		ReflectionTestUtils.setField(config, "mediaStreamService", mediaStreamService);
+		ReflectionTestUtils.setField(config, "cartService", mock(CartService.class));
+		ReflectionTestUtils.setField(config, "directUploadService", mock(DirectUploadService.class));
+		ReflectionTestUtils.setField(config, "chunkedUploadService", mock(ChunkedUploadService.class));
+		ReflectionTestUtils.setField(config, "contentStoreService", mock(ContentStoreService.class));
+		ReflectionTestUtils.setField(config, "playbackService", mock(PlaybackService.class));
+		ReflectionTestUtils.setField(config, "certificateService", mock(CertificateService.class));
+		ReflectionTestUtils.setField(config, "reportJobService", mock(ReportJobService.class));
+		ReflectionTestUtils.setField(config, "stockReservationService", mock(StockReservationService.class));
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		config.serviceMetrics().bindTo(registry);
+
+		assertNull(registry.find("edulearn.storage.gc.bytes.reclaimed").gauge());
+		assertNull(registry.find("edulearn.media.streams.open").functionCounter());
+
+		// The meters must keep their source alive
+		System.gc();
+		gc.put("bytesReclaimed", 4096L);
+		media.put("streamsOpen", 3);
+		assertEquals(4096.0, registry.get("edulearn.storage.gc.bytes.reclaimed").functionCounter().count());
+		assertEquals(0.0, registry.get("edulearn.storage.gc.deleted").functionCounter().count());
+		assertEquals(0.0, registry.get("edulearn.media.bytes.served").functionCounter().count());
+		assertEquals(3.0, registry.get("edulearn.media.streams.open").gauge().value());
+	}
+}
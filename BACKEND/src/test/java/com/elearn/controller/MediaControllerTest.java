@@ -0,0 +1,117 @@
+package com.elearn.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.service.MediaStreamService;
+
+import jakarta.servlet.ServletOutputStream;
+
+/**
+ * Streams through the controller on a connector that offers sendfile, checking that a
+ * user's stream slot covers the whole body and not just the handler.
+ */
+class MediaControllerTest {
+
+	private static final String KEY = "lessons/12/intro.mp4";
+	private static final long UID = 42;
+
+	@TempDir
+	Path mediaDir;
+
+	private MediaStreamService service;
+	private MediaController controller;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[256 * 1024];
+		new Random(7).nextBytes(content);
+		Path file = mediaDir.resolve(KEY);
+		Files.createDirectories(file.getParent());
+		Files.write(file, content);
+
+		service = new MediaStreamService();
+		ReflectionTestUtils.setField(service, "localDir", mediaDir.toString());
+		ReflectionTestUtils.setField(service, "publicBaseUrl", "http://localhost:9090/");
+		ReflectionTestUtils.setField(service, "signingKey", "test-signing-key");
+		ReflectionTestUtils.setField(service, "maxStreamsPerUser", 1);
+		ReflectionTestUtils.setField(service, "maxRanges", 16);
+		service.init();
+
+		controller = new MediaController();
+		ReflectionTestUtils.setField(controller, "mediaStreamService", service);
+	}
+
+	@Test
+	void holdsTheStreamSlotWhileTheBodyIsSent() throws Exception {
+		AtomicReference<Object> openWhileSending = new AtomicReference<>();
+		MockHttpServletResponse full = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				openWhileSending.compareAndSet(null, service.getMetrics().get("streamsOpen"));
+				return super.getOutputStream();
+			}
+		};
+		MockHttpServletRequest request = sendfileRequest();
+		stream(request, null, full);
+
+		assertEquals(200, full.getStatus());
+		assertArrayEquals(content, full.getContentAsByteArray());
+		assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(1, openWhileSending.get());
+		assertEquals(0, service.getMetrics().get("streamsOpen"));
+
+		MockHttpServletResponse partial = new MockHttpServletResponse();
+		stream(sendfileRequest(), "bytes=1000-1999", partial);
+		assertEquals(206, partial.getStatus());
+		assertEquals(1000, partial.getContentAsByteArray().length);
+
+		// The only slot is taken, so a second stream is refused
+		service.acquire(UID);
+		MockHttpServletResponse refused = new MockHttpServletResponse();
+		stream(sendfileRequest(), null, refused);
+		assertEquals(429, refused.getStatus());
+	}
+
+	@Test
+	void leavesTheBodyToSendfileWhenStreamsAreUnlimited() throws Exception {
+		ReflectionTestUtils.setField(service, "maxStreamsPerUser", 0);
+		MockHttpServletRequest request = sendfileRequest();
+		MockHttpServletResponse full = new MockHttpServletResponse();
+		stream(request, null, full);
+
+		assertEquals(200, full.getStatus());
+		assertEquals(0, full.getContentAsByteArray().length);
+		assertEquals(mediaDir.resolve(KEY).toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(1L, service.getMetrics().get("sendfileResponses"));
+	}
+
+	private void stream(MockHttpServletRequest request, String range, MockHttpServletResponse response)
+			throws IOException {
+		long expires = Instant.now().getEpochSecond() + 60;
+		String signature = service.signedUrl(KEY, UID, expires).replaceAll(".*signature=", "");
+		controller.stream("/" + KEY, UID, expires, signature, range, null, request, response);
+	}
+
+	private static MockHttpServletRequest sendfileRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/public/media/" + KEY);
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		return request;
+	}
+}
@@ -0,0 +1,256 @@
+package com.elearn.controller;
+
+import static com.elearn.util.QueryAssertions.assertMaxQueries;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.Headphones;
+import com.elearn.model.Laptops;
+import com.elearn.model.Mobiles;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repo.HeadphonesRepo;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.repo.UserRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+import com.elearn.support.OfflineApplicationTest;
+import com.elearn.util.JwtUtil;
+import com.elearn.util.QueryBudget;
+import com.elearn.util.RequestMetricsFilter;
+
+/**
+ * Requests through the real filters and handlers, counted with the statements of the
+ * user lookup. Every listing has several rows so a per-row select shows up.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest extends OfflineApplicationTest {
+
+	private static final int ROWS = 5;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private RequestMetricsFilter requestMetricsFilter;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@Autowired
+	private VideoRepository videoRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private LaptopsRepo laptopsRepo;
+
+	@Autowired
+	private MobilesRepo mobilesRepo;
+
+	@Autowired
+	private HeadphonesRepo headphonesRepo;
+
+	private MockMvc mockMvc;
+	private String studentToken;
+	private String adminToken;
+	private User student;
+	private Category category;
+	private final List<Courses> courses = new ArrayList<>();
+	private final List<Enrollment> enrollments = new ArrayList<>();
+	private Laptops laptop;
+	private Mobiles mobile;
+	private Headphones headphones;
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context)
+				.addFilters(requestMetricsFilter)
+				.apply(springSecurity())
+				.build();
+
+		student = userRepository.save(user("budget.student@example.com", User.UserRole.STUDENT));
+		User admin = userRepository.save(user("budget.admin@example.com", User.UserRole.ADMIN));
+		studentToken = jwtUtil.generateToken(student.getEmail());
+		adminToken = jwtUtil.generateToken(admin.getEmail());
+
+		category = new Category();
+		category.setName("Budget");
+		category = categoryRepository.save(category);
+		for (int i = 0; i < ROWS; i++) {
+			// One instructor per course, so loading instructors one by one would show
+			User instructor = userRepository.save(user("budget.instructor" + i + "@example.com", User.UserRole.INSTRUCTOR));
+			Courses course = new Courses();
+			course.setTitle("Budget course " + i);
+			course.setInstructor(instructor);
+			course.setCategoryId(category.getId());
+			course.setPrice(new BigDecimal("100.00"));
+			course.setStatus(Courses.CourseStatus.PUBLISHED);
+			course = coursesRepo.save(course);
+			courses.add(course);
+			for (int v = 0; v < 3; v++) {
+				Video video = new Video();
+				video.setTitle("Lesson " + v);
+				video.setVideoLink("https://www.youtube.com/watch?v=budget" + i + v);
+				video.setCourse(course);
+				video.setCourseOrdinal(v);
+				videoRepository.save(video);
+			}
+			Enrollment enrollment = new Enrollment();
+			enrollment.setUser(student);
+			enrollment.setCourse(course);
+			enrollments.add(enrollmentRepository.save(enrollment));
+
+			laptop = laptopsRepo.save(product(new Laptops(), "Laptop " + i));
+			mobile = mobilesRepo.save(product(new Mobiles(), "Mobile " + i));
+			headphones = headphonesRepo.save(product(new Headphones(), "Headphones " + i));
+		}
+	}
+
+	@Test
+	void coursesAndVideos() throws Exception {
+		Long courseId = courses.get(0).getId();
+		expect(CourseController.class, "getCourseById", get("/api/courses/" + courseId));
+		expect(CourseController.class, "getCoursesByInstructor",
+				get("/api/courses/instructor/" + courses.get(0).getInstructor().getId()));
+		expect(CourseController.class, "getCoursesByCategory", get("/api/courses/category/" + category.getId()));
+		expect(VideoController.class, "getVideosByCourseId", get("/api/videos/course/" + courseId));
+	}
+
+	@Test
+	void categories() throws Exception {
+		expect(CategoryController.class, "getAllCategories", get("/api/categories"));
+		expect(CategoryController.class, "getActiveCategories", get("/api/categories/active"));
+		expect(CategoryController.class, "getCategoryById", get("/api/categories/" + category.getId()));
+	}
+
+	@Test
+	void enrollments() throws Exception {
+		Long enrollmentId = enrollments.get(0).getId();
+		expect(EnrollmentController.class, "getAllEnrollments", get("/api/enrollments"), adminToken);
+		expect(EnrollmentController.class, "getEnrollmentById", get("/api/enrollments/" + enrollmentId));
+		expect(EnrollmentController.class, "getEnrollmentsByUser", get("/api/enrollments/user/" + student.getId()));
+		expect(EnrollmentController.class, "getEnrollmentsByCourse",
+				get("/api/enrollments/course/" + courses.get(0).getId()));
+		expect(EnrollmentController.class, "getEnrollmentProgress", get("/api/enrollments/" + enrollmentId + "/progress"));
+	}
+
+	@Test
+	void products() throws Exception {
+		expect(ExcelRController.class, "getCourses", get("/api/user/courses"));
+		expect(ExcelRController.class, "getLatops", get("/api/user/laptops"));
+		expect(ExcelRController.class, "getMobiles", get("/api/user/mobiles"));
+		expect(ExcelRController.class, "getHeadphones", get("/api/user/headphones"));
+		expect(ExcelRController.class, "queryProducts", get("/api/user/products"));
+		expect(ExcelRController.class, "getSingleLaptop", get("/api/user/laptops/" + laptop.getPid()));
+		expect(ExcelRController.class, "getSingleMobile", get("/api/user/mobiles/" + mobile.getPid()));
+		expect(ExcelRController.class, "getSingleHeadphone", get("/api/user/headphones/" + headphones.getPid()));
+		expect(ExcelRController.class, "getSingleCourses", get("/api/user/courses/" + courses.get(0).getId()));
+	}
+
+	@Test
+	void users() throws Exception {
+		expect(UserController.class, "getAllUsers", get("/api/users"), adminToken);
+		expect(UserController.class, "getUserById", get("/api/users/" + student.getId()), adminToken);
+	}
+
+	@Test
+	void cartAndCheckout() throws Exception {
+		expect(CartController.class, "replaceCart", json(put("/api/cart"), "{\"items\":[{\"type\":\"courses\",\"id\":"
+				+ courses.get(1).getId() + ",\"quantity\":1},{\"type\":\"laptops\",\"id\":" + laptop.getPid()
+				+ ",\"quantity\":1}]}"));
+		expect(CartController.class, "setItem", json(put("/api/cart/items"), "{\"type\":\"courses\",\"id\":"
+				+ courses.get(2).getId() + ",\"quantity\":1}"));
+		expect(CartController.class, "getCart", get("/api/cart"));
+		expect(CartController.class, "checkout", post("/api/cart/checkout"));
+		expect(CartController.class, "checkoutCourse", post("/api/cart/checkout/courses/" + courses.get(3).getId()));
+	}
+
+	private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+		return request.contentType(MediaType.APPLICATION_JSON).content(body);
+	}
+
+	private void expect(Class<?> controller, String handler, MockHttpServletRequestBuilder request) throws Exception {
+		expect(controller, handler, request, studentToken);
+	}
+
+	/**
+	 * Perform the request as the given user and hold it to the handler's own budget
+	 */
+	private void expect(Class<?> controller, String handler, MockHttpServletRequestBuilder request, String token)
+			throws Exception {
+		int budget = budget(controller, handler);
+		assertMaxQueries(budget, () -> mockMvc.perform(request.header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk()));
+	}
+
+	private static int budget(Class<?> controller, String handler) {
+		for (Method method : controller.getDeclaredMethods()) {
+			QueryBudget budget = method.getAnnotation(QueryBudget.class);
+			if (method.getName().equals(handler) && budget != null) {
+				return budget.value();
+			}
+		}
+		throw new AssertionError(controller.getSimpleName() + "." + handler + " has no @QueryBudget");
+	}
+
+	private static <T> T product(T product, String name) {
+		if (product instanceof Laptops laptop) {
+			laptop.setPname(name);
+			laptop.setPcost(50000);
+			laptop.setPqty(10);
+		} else if (product instanceof Mobiles mobile) {
+			mobile.setPname(name);
+			mobile.setPcost(20000);
+			mobile.setPqty(10);
+		} else if (product instanceof Headphones headphones) {
+			headphones.setPname(name);
+			headphones.setPcost(3000);
+			headphones.setPqty(10);
+		}
+		return product;
+	}
+
+	private static User user(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("unused");
+		user.setRole(role);
+		return user;
+	}
+}
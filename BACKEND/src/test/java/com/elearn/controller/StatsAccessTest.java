@@ -0,0 +1,67 @@
+package com.elearn.controller;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.elearn.model.User;
+import com.elearn.repo.UserRepository;
+import com.elearn.support.OfflineApplicationTest;
+import com.elearn.util.JwtUtil;
+
+/**
+ * Service counters are only for admins; other signed-in users are refused.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatsAccessTest extends OfflineApplicationTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private MockMvc mockMvc;
+	private String studentToken;
+	private String adminToken;
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		studentToken = jwtUtil.generateToken(userRepository.save(user("stats.student@example.com", User.UserRole.STUDENT)).getEmail());
+		adminToken = jwtUtil.generateToken(userRepository.save(user("stats.admin@example.com", User.UserRole.ADMIN)).getEmail());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/admin/stock-reservations/stats", "/api/admin/carts/stats",
+			"/api/media/stats", "/api/videos/playback/stats", "/api/videos/heartbeats/stats" })
+	void onlyAdminsSeeStats(String path) throws Exception {
+		mockMvc.perform(get(path).header("Authorization", "Bearer " + studentToken))
+				.andExpect(status().isForbidden())
+				.andExpect(jsonPath("$.message").exists());
+		mockMvc.perform(get(path).header("Authorization", "Bearer " + adminToken))
+				.andExpect(status().isOk());
+	}
+
+	private static User user(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("unused");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,172 @@
+package com.elearn.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a scenario from a fixed number of threads for a fixed time and reports
+ * throughput and latency percentiles. Iterations during the warm-up are run but not
+ * measured. A scenario signals a failed iteration by throwing.
+ */
+public class LoadGenerator {
+
+	@FunctionalInterface
+	public interface Scenario {
+		/**
+		 * @param thread Index of the calling thread, for per-thread state such as a login
+		 * @param iteration Unique across threads, counting from 0
+		 */
+		void run(int thread, long iteration) throws Exception;
+	}
+
+	private final int threads;
+	private final long warmupMillis;
+	private final long durationMillis;
+
+	public LoadGenerator(int threads, long warmupMillis, long durationMillis) {
+		this.threads = threads;
+		this.warmupMillis = warmupMillis;
+		this.durationMillis = durationMillis;
+	}
+
+	public Result run(String name, Scenario scenario) throws InterruptedException {
+		return run(name, Long.MAX_VALUE, scenario);
+	}
+
+	/**
+	 * @param maxIterations Stop early after this many iterations, for scenarios that use up their data
+	 */
+	public Result run(String name, long maxIterations, Scenario scenario) throws InterruptedException {
+		AtomicLong iterations = new AtomicLong();
+		LongAdder errors = new LongAdder();
+		AtomicReference<Throwable> firstError = new AtomicReference<>();
+		long[][] latencies = new long[threads][];
+		int[] counts = new int[threads];
+		CountDownLatch done = new CountDownLatch(threads);
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmupMillis * 1_000_000;
+		long end = measureFrom + durationMillis * 1_000_000;
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			Thread worker = new Thread(() -> {
+				long[] own = new long[1024];
+				int count = 0;
+				try {
+					while (true) {
+						long before = System.nanoTime();
+						if (before >= end) {
+							break;
+						}
+						long iteration = iterations.getAndIncrement();
+						if (iteration >= maxIterations) {
+							break;
+						}
+						boolean failed = false;
+						try {
+							scenario.run(thread, iteration);
+						} catch (Exception e) {
+							failed = true;
+							firstError.compareAndSet(null, e);
+						}
+						long after = System.nanoTime();
+						if (before < measureFrom) {
+							continue;
+						}
+						if (failed) {
+							errors.increment();
+						}
+						if (count == own.length) {
+							own = Arrays.copyOf(own, count * 2);
+						}
+						own[count++] = after - before;
+					}
+				} finally {
+					latencies[thread] = own;
+					counts[thread] = count;
+					done.countDown();
+				}
+			}, "load-" + name + "-" + t);
+			worker.start();
+		}
+		done.await();
+		long measuredNanos = Math.max(1, System.nanoTime() - Math.max(start, measureFrom));
+
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		long[] all = new long[total];
+		int position = 0;
+		for (int t = 0; t < threads; t++) {
+			System.arraycopy(latencies[t], 0, all, position, counts[t]);
+			position += counts[t];
+		}
+		Arrays.sort(all);
+		return new Result(name, threads, all, errors.sum(), measuredNanos, firstError.get());
+	}
+
+	public static class Result {
+		private final String name;
+		private final int threads;
+		private final long[] sortedLatencies;
+		private final long errors;
+		private final long elapsedNanos;
+		private final Throwable firstError;
+
+		Result(String name, int threads, long[] sortedLatencies, long errors, long elapsedNanos, Throwable firstError) {
+			this.name = name;
+			this.threads = threads;
+			this.sortedLatencies = sortedLatencies;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+			this.firstError = firstError;
+		}
+
+		public long getIterations() {
+			return sortedLatencies.length;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public double getErrorRate() {
+			return sortedLatencies.length == 0 ? 0 : (double) errors / sortedLatencies.length;
+		}
+
+		public double getThroughput() {
+			return sortedLatencies.length / (elapsedNanos / 1e9);
+		}
+
+		/**
+		 * Nearest-rank percentile in milliseconds, e.g. percentile(99)
+		 */
+		public double percentile(double percent) {
+			if (sortedLatencies.length == 0) {
+				return 0;
+			}
+			int rank = (int) Math.ceil(percent / 100 * sortedLatencies.length);
+			return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, rank - 1))] / 1e6;
+		}
+
+		public Throwable getFirstError() {
+			return firstError;
+		}
+
+		public static String header() {
+			return String.format("%-14s %7s %9s %9s %8s %8s %8s %8s %7s",
+					"scenario", "threads", "iters", "iters/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-14s %7d %9d %9.1f %8.2f %8.2f %8.2f %8.2f %7d",
+					name, threads, getIterations(), getThroughput(),
+					percentile(50), percentile(95), percentile(99), percentile(100), errors);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.elearn.loadtest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repo.UserRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+
+/**
+ * Fills an empty database with N students, instructors, published courses with
+ * videos, and enrollments. Sizes come from system properties, e.g.
+ * -Dloadtest.users=5000 -Dloadtest.courses=500. Students are only enrolled in the
+ * first half of the courses so the second half is free for the enroll scenario.
+ */
+public class LoadTestDataSeeder {
+
+	public static final String PASSWORD = "password";
+
+	private static final int CATEGORIES = 8;
+	private static final int COURSES_PER_INSTRUCTOR = 5;
+	private static final int BATCH_SIZE = 500;
+
+	private final UserRepository userRepository;
+	private final CategoryRepository categoryRepository;
+	private final CoursesRepo coursesRepo;
+	private final VideoRepository videoRepository;
+	private final EnrollmentRepository enrollmentRepository;
+
+	private final int users = Integer.getInteger("loadtest.users", 200);
+	private final int courses = Math.max(2, Integer.getInteger("loadtest.courses", 40));
+	private final int videosPerCourse = Integer.getInteger("loadtest.videos-per-course", 10);
+	private final int enrollments = Integer.getInteger("loadtest.enrollments", 1000);
+
+	public LoadTestDataSeeder(UserRepository userRepository, CategoryRepository categoryRepository,
+			CoursesRepo coursesRepo, VideoRepository videoRepository, EnrollmentRepository enrollmentRepository) {
+		this.userRepository = userRepository;
+		this.categoryRepository = categoryRepository;
+		this.coursesRepo = coursesRepo;
+		this.videoRepository = videoRepository;
+		this.enrollmentRepository = enrollmentRepository;
+	}
+
+	public Dataset seed() {
+		long started = System.currentTimeMillis();
+
+		List<Category> categories = new ArrayList<>();
+		for (int i = 0; i < CATEGORIES; i++) {
+			Category category = new Category();
+			category.setName("Load Category " + i);
+			category.setActive(true);
+			categories.add(category);
+		}
+		categories = categoryRepository.saveAll(categories);
+
+		List<User> instructors = new ArrayList<>();
+		for (int i = 0; i < (courses + COURSES_PER_INSTRUCTOR - 1) / COURSES_PER_INSTRUCTOR; i++) {
+			instructors.add(user("Load Instructor " + i, "load.instructor" + i + "@example.com", User.UserRole.INSTRUCTOR));
+		}
+		instructors = saveInBatches(userRepository, instructors);
+
+		List<Courses> courseRows = new ArrayList<>();
+		for (int i = 0; i < courses; i++) {
+			Courses course = new Courses();
+			course.setTitle("Load Course " + i);
+			course.setDescription("Seeded course " + i + " for load tests");
+			course.setInstructor(instructors.get(i / COURSES_PER_INSTRUCTOR));
+			course.setCategoryId(categories.get(i % CATEGORIES).getId());
+			course.setPrice(BigDecimal.valueOf(499 + (i % 10) * 100L));
+			course.setStatus(Courses.CourseStatus.PUBLISHED);
+			courseRows.add(course);
+		}
+		courseRows = saveInBatches(coursesRepo, courseRows);
+
+		List<Video> videos = new ArrayList<>();
+		for (Courses course : courseRows) {
+			for (int ordinal = 0; ordinal < videosPerCourse; ordinal++) {
+				Video video = new Video();
+				video.setTitle(course.getTitle() + " - Lesson " + (ordinal + 1));
+				video.setVideoLink("https://videos.example.com/" + course.getId() + "/" + ordinal + ".mp4");
+				video.setCourse(course);
+				video.setCourseOrdinal(ordinal);
+				videos.add(video);
+			}
+		}
+		videos = saveInBatches(videoRepository, videos);
+
+		List<User> students = new ArrayList<>();
+		for (int i = 0; i < users; i++) {
+			students.add(user("Load Student " + i, studentEmail(i), User.UserRole.STUDENT));
+		}
+		students = saveInBatches(userRepository, students);
+
+		// Student j % users in course (j / users) of the first half; never the same pair twice
+		int enrolledCourses = courses / 2;
+		int enrollmentCount = Math.min(enrollments, users * enrolledCourses);
+		List<Enrollment> enrollmentRows = new ArrayList<>();
+		for (int j = 0; j < enrollmentCount; j++) {
+			Enrollment enrollment = new Enrollment();
+			enrollment.setUser(students.get(j % users));
+			enrollment.setCourse(courseRows.get(j / users));
+			enrollmentRows.add(enrollment);
+		}
+		enrollmentRows = saveInBatches(enrollmentRepository, enrollmentRows);
+
+		Dataset dataset = new Dataset(
+				ids(students, User::getId),
+				ids(courseRows, Courses::getId),
+				enrolledCourses,
+				videoIdsByCourse(videos, courseRows),
+				ids(enrollmentRows, Enrollment::getId),
+				users);
+		System.out.printf("Seeded %d students, %d courses, %d videos, %d enrollments in %d ms%n",
+				students.size(), courseRows.size(), videos.size(), enrollmentRows.size(),
+				System.currentTimeMillis() - started);
+		return dataset;
+	}
+
+	public static String studentEmail(int index) {
+		return "load.student" + index + "@example.com";
+	}
+
+	private static User user(String name, String email, User.UserRole role) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setPassword(PASSWORD);
+		user.setRole(role);
+		return user;
+	}
+
+	private static <T> List<T> saveInBatches(JpaRepository<T, ?> repository, List<T> rows) {
+		List<T> saved = new ArrayList<>(rows.size());
+		for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+			saved.addAll(repository.saveAll(rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE))));
+		}
+		return saved;
+	}
+
+	private static <T> long[] ids(List<T> rows, Function<T, Long> id) {
+		long[] ids = new long[rows.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = id.apply(rows.get(i));
+		}
+		return ids;
+	}
+
+	private long[][] videoIdsByCourse(List<Video> videos, List<Courses> courseRows) {
+		long[][] byCourse = new long[courseRows.size()][videosPerCourse];
+		for (int i = 0; i < videos.size(); i++) {
+			byCourse[i / videosPerCourse][i % videosPerCourse] = videos.get(i).getId();
+		}
+		return byCourse;
+	}
+
+	/**
+	 * Ids of what was seeded, indexed the way the scenarios pick them
+	 */
+	public static class Dataset {
+		final long[] studentIds;
+		final long[] courseIds;
+		// Courses [0, enrolledCourses) have seeded enrollments; the rest are free to enroll in
+		final int enrolledCourses;
+		final long[][] videoIdsByCourse;
+		final long[] enrollmentIds;
+		private final int users;
+
+		Dataset(long[] studentIds, long[] courseIds, int enrolledCourses, long[][] videoIdsByCourse,
+				long[] enrollmentIds, int users) {
+			this.studentIds = studentIds;
+			this.courseIds = courseIds;
+			this.enrolledCourses = enrolledCourses;
+			this.videoIdsByCourse = videoIdsByCourse;
+			this.enrollmentIds = enrollmentIds;
+			this.users = users;
+		}
+
+		/**
+		 * Index in courseIds of the course enrollmentIds[enrollment] is in
+		 */
+		int courseOfEnrollment(int enrollment) {
+			return enrollment / users;
+		}
+
+		/**
+		 * Index in enrollmentIds of a seeded enrollment owned by studentIds[student], or -1 if it has none
+		 */
+		int enrollmentOf(int student, long iteration) {
+			int owned = (enrollmentIds.length - student + users - 1) / users;
+			return owned <= 0 ? -1 : student + users * (int) (iteration % owned);
+		}
+	}
+}
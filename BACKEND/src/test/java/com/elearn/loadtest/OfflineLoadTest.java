@@ -0,0 +1,224 @@
+package com.elearn.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repo.UserRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+import com.elearn.support.FakeRazorpayGateway;
+import com.elearn.support.OfflineApplicationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End-to-end load against the whole application over HTTP, offline: H2 instead of
+ * MySQL and in-process S3 and Razorpay fakes. Excluded from the normal build; run with
+ * mvn test -Pload-test, sized with e.g. -Dloadtest.users=5000 -Dloadtest.threads=32
+ * -Dloadtest.duration-seconds=60. Each scenario prints throughput and latency
+ * percentiles and fails if too many of its iterations failed.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OfflineLoadTest extends OfflineApplicationTest {
+
+	private static final String[] REPORTS = { "dashboard", "enrollments", "users", "courses", "revenue" };
+
+	private final int threads = Integer.getInteger("loadtest.threads", 8);
+	private final long warmupMillis = Long.getLong("loadtest.warmup-seconds", 2) * 1000;
+	private final long durationMillis = Long.getLong("loadtest.duration-seconds", 10) * 1000;
+	private final double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${razorpay.api.secret}")
+	private String razorpaySecret;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@Autowired
+	private VideoRepository videoRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final List<LoadGenerator.Result> results = new ArrayList<>();
+
+	private LoadTestDataSeeder.Dataset data;
+	private LoadGenerator generator;
+	// One logged-in student per thread
+	private String[] studentTokens;
+	private long[] studentIds;
+	private String adminToken;
+
+	@BeforeAll
+	void seedAndLogIn() throws Exception {
+		data = new LoadTestDataSeeder(userRepository, categoryRepository, coursesRepo, videoRepository,
+				enrollmentRepository).seed();
+		generator = new LoadGenerator(threads, warmupMillis, durationMillis);
+
+		studentTokens = new String[threads];
+		studentIds = new long[threads];
+		for (int t = 0; t < threads; t++) {
+			int student = t % data.studentIds.length;
+			JsonNode login = logIn(LoadTestDataSeeder.studentEmail(student), LoadTestDataSeeder.PASSWORD);
+			studentTokens[t] = login.get("token").asText();
+			studentIds[t] = login.get("userId").asLong();
+		}
+		adminToken = logIn("admin@edulearn.com", "admin123").get("token").asText();
+	}
+
+	@AfterAll
+	void printSummary() {
+		System.out.println(LoadGenerator.Result.header());
+		results.forEach(System.out::println);
+	}
+
+	@Test
+	@Order(1)
+	void catalogBrowse() throws Exception {
+		check(generator.run("browse", (thread, iteration) -> {
+			long courseId = data.courseIds[(int) (iteration % data.courseIds.length)];
+			send(studentTokens[thread], "GET", "/api/courses", null);
+			send(studentTokens[thread], "GET", "/api/courses/" + courseId, null);
+			send(studentTokens[thread], "GET", "/api/videos/course/" + courseId, null);
+		}));
+	}
+
+	@Test
+	@Order(2)
+	void enroll() throws Exception {
+		// Every (student, unenrolled course) pair once; a repeat would be rejected as a duplicate
+		int freeCourses = data.courseIds.length - data.enrolledCourses;
+		int students = data.studentIds.length;
+		check(generator.run("enroll", (long) students * freeCourses, (thread, iteration) -> {
+			long studentId = data.studentIds[(int) (iteration % students)];
+			long courseId = data.courseIds[data.enrolledCourses + (int) (iteration / students)];
+			send(studentTokens[thread], "POST", "/api/enrollments", Map.of("userId", studentId, "courseId", courseId));
+		}));
+	}
+
+	@Test
+	@Order(3)
+	void progressUpdate() throws Exception {
+		check(generator.run("progress", (thread, iteration) -> {
+			// Only the owner may report progress, so each thread updates its own student's enrollments
+			int enrollment = data.enrollmentOf(thread % data.studentIds.length, iteration);
+			if (enrollment < 0) {
+				return;
+			}
+			long[] videos = data.videoIdsByCourse[data.courseOfEnrollment(enrollment)];
+			int watched = (int) (iteration / data.enrollmentIds.length % Math.max(1, videos.length)) + 1;
+			StringBuilder completed = new StringBuilder();
+			for (int v = 0; v < Math.min(watched, videos.length); v++) {
+				completed.append(v == 0 ? "" : ",").append(videos[v]);
+			}
+			send(studentTokens[thread], "PUT", "/api/enrollments/" + data.enrollmentIds[enrollment] + "/progress",
+					Map.of("progress", 0, "completedVideos", completed.toString()));
+		}));
+	}
+
+	@Test
+	@Order(4)
+	void checkout() throws Exception {
+		check(generator.run("checkout", (thread, iteration) -> {
+			long courseId = data.courseIds[(int) (iteration % data.courseIds.length)];
+			send(studentTokens[thread], "PUT", "/api/cart",
+					Map.of("items", List.of(Map.of("type", "courses", "id", courseId, "quantity", 1))));
+			JsonNode checkout = send(studentTokens[thread], "POST", "/api/cart/checkout", null);
+			String orderId = checkout.get("order").get("id").asText();
+			String paymentId = "pay_fake" + iteration;
+			send(null, "POST", "/api/verify-payment", Map.of(
+					"razorpay_order_id", orderId,
+					"razorpay_payment_id", paymentId,
+					"razorpay_signature", FakeRazorpayGateway.sign(orderId, paymentId, razorpaySecret)));
+		}));
+	}
+
+	@Test
+	@Order(5)
+	void adminReports() throws Exception {
+		check(generator.run("reports", (thread, iteration) ->
+				send(adminToken, "GET", "/api/reports/" + REPORTS[(int) (iteration % REPORTS.length)], null)));
+	}
+
+	private void check(LoadGenerator.Result result) {
+		results.add(result);
+		System.out.println(LoadGenerator.Result.header());
+		System.out.println(result);
+		if (result.getFirstError() != null) {
+			System.out.println("First error: " + result.getFirstError().getMessage());
+		}
+		assertTrue(result.getIterations() > 0, "no iterations were measured");
+		assertTrue(result.getErrorRate() <= maxErrorRate, String.format("%d of %d iterations failed, first: %s",
+				result.getErrors(), result.getIterations(), result.getFirstError()));
+	}
+
+	private JsonNode logIn(String email, String password) throws Exception {
+		return send(null, "POST", "/api/users/login", Map.of("email", email, "password", password));
+	}
+
+	/**
+	 * Send a JSON request and read the JSON response
+	 * @throws IllegalStateException for any status other than 2xx
+	 */
+	private JsonNode send(String token, String method, String path, Object body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Accept", "application/json");
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		if (body != null) {
+			request.header("Content-Type", "application/json")
+					.method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+		} else {
+			request.method(method, HttpRequest.BodyPublishers.noBody());
+		}
+		HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() / 100 != 2) {
+			throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": "
+					+ response.body());
+		}
+		String text = response.body();
+		if (text.isEmpty() || !(text.startsWith("{") || text.startsWith("["))) {
+			return objectMapper.nullNode();
+		}
+		return objectMapper.readTree(text);
+	}
+}
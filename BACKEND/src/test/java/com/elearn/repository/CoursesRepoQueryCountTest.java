@@ -0,0 +1,89 @@
+package com.elearn.repository;
+
+import static com.elearn.util.QueryAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.elearn.model.Courses;
+import com.elearn.model.User;
+import com.elearn.util.RequestQueryStats;
+
+/**
+ * Statement budgets of the course listings, counted by the application's own
+ * statement inspector against an in-memory H2 database.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect" })
+class CoursesRepoQueryCountTest {
+
+	private static final int INSTRUCTORS = 6;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < INSTRUCTORS; i++) {
+			User instructor = new User();
+			instructor.setName("Instructor " + i);
+			instructor.setEmail("instructor" + i + "@example.com");
+			instructor.setPassword("password");
+			instructor.setRole(User.UserRole.INSTRUCTOR);
+			entityManager.persist(instructor);
+
+			Courses course = new Courses();
+			course.setTitle("Course " + i);
+			course.setInstructor(instructor);
+			course.setCategoryId(1);
+			course.setStatus(Courses.CourseStatus.PUBLISHED);
+			entityManager.persist(course);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void listingAllCoursesUsesOneQuery() {
+		List<Courses> courses = assertMaxQueries(1, coursesRepo::findAllWithInstructor);
+
+		assertEquals(INSTRUCTORS, courses.size());
+		assertTrue(courses.stream().allMatch(course -> Hibernate.isInitialized(course.getInstructor())));
+	}
+
+	@Test
+	void listingByStatusUsesOneQuery() {
+		assertEquals(INSTRUCTORS, assertMaxQueries(1,
+				() -> coursesRepo.findByStatusWithInstructor(Courses.CourseStatus.PUBLISHED)).size());
+	}
+
+	@Test
+	void detectsTheEagerInstructorSelects() {
+		// The listing findAllWithInstructor replaces: one select per instructor
+		RequestQueryStats.begin();
+		coursesRepo.findAll();
+		RequestQueryStats.Counts counts = RequestQueryStats.end();
+
+		assertEquals(1 + INSTRUCTORS, counts.getStatements());
+		Map<String, Integer> repeated = counts.getRepeated(5);
+		assertEquals(1, repeated.size());
+		assertEquals(INSTRUCTORS, repeated.values().iterator().next());
+		assertTrue(repeated.keySet().iterator().next().contains("users"));
+
+		entityManager.clear();
+		assertThrows(AssertionError.class, () -> assertMaxQueries(3, coursesRepo::findAll));
+	}
+}
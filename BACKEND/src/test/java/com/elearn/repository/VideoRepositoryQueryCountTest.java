@@ -0,0 +1,128 @@
+package com.elearn.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.elearn.model.Courses;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+
+/**
+ * Counts the JDBC statements behind the video listings against an in-memory H2 database.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+class VideoRepositoryQueryCountTest {
+
+	private static final int[] VIDEOS_PER_COURSE = { 2, 3, 4 };
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private VideoRepository videoRepository;
+
+	private Statistics statistics;
+
+	private User instructor;
+
+	private final List<Long> courseIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		instructor = persistInstructor("instructor@example.com");
+		for (int videos : VIDEOS_PER_COURSE) {
+			courseIds.add(persistCourse(instructor, videos).getId());
+		}
+		persistCourse(persistInstructor("other@example.com"), 2);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void instructorListingUsesOneQuery() {
+		List<VideoSummary> videos = videoRepository.findSummariesByInstructorId(instructor.getId());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(9, videos.size());
+		assertOrderedByCourseThenVideo(videos);
+		assertTrue(videos.stream().allMatch(video -> courseIds.contains(video.getCourseId())));
+		assertEquals("Course " + courseIds.get(0), videos.get(0).getCourseTitle());
+	}
+
+	@Test
+	void courseIdsListingUsesOneQuery() {
+		List<VideoSummary> videos = videoRepository.findSummariesByCourseIds(courseIds.subList(1, 3));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(7, videos.size());
+		assertOrderedByCourseThenVideo(videos);
+	}
+
+	@Test
+	void perCourseListingQueriesOncePerCourse() {
+		// The listing this replaces: one query per course plus the eager course and instructor loads
+		int videos = 0;
+		for (Long courseId : courseIds) {
+			videos += videoRepository.findByCourseId(courseId).size();
+		}
+
+		assertEquals(9, videos);
+		assertTrue(statistics.getPrepareStatementCount() > courseIds.size());
+	}
+
+	private void assertOrderedByCourseThenVideo(List<VideoSummary> videos) {
+		for (int i = 1; i < videos.size(); i++) {
+			VideoSummary previous = videos.get(i - 1);
+			VideoSummary current = videos.get(i);
+			assertTrue(previous.getCourseId() < current.getCourseId()
+					|| (previous.getCourseId().equals(current.getCourseId()) && previous.getId() < current.getId()));
+		}
+	}
+
+	private User persistInstructor(String email) {
+		User user = new User();
+		user.setName("Instructor");
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(User.UserRole.INSTRUCTOR);
+		return entityManager.persist(user);
+	}
+
+	private Courses persistCourse(User owner, int videos) {
+		Courses course = new Courses();
+		course.setTitle("Course");
+		course.setInstructor(owner);
+		course.setCategoryId(1);
+		entityManager.persist(course);
+		course.setTitle("Course " + course.getId());
+
+		for (int i = 0; i < videos; i++) {
+			Video video = new Video();
+			video.setTitle("Video " + i);
+			video.setVideoLink("https://videos.example.com/" + course.getId() + "/" + i);
+			video.setCourse(course);
+			video.setCourseOrdinal(i);
+			entityManager.persist(video);
+		}
+		return course;
+	}
+}
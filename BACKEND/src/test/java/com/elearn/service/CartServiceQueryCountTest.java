@@ -0,0 +1,221 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.model.CartItem.ItemType;
+import com.elearn.model.Courses;
+import com.elearn.model.Courses.CourseStatus;
+import com.elearn.model.Headphones;
+import com.elearn.model.Laptops;
+import com.elearn.model.Mobiles;
+import com.elearn.model.User;
+import com.elearn.service.CartService.CartLine;
+import com.elearn.service.CartService.Invoice;
+import com.elearn.service.CartService.InvoiceLine;
+
+/**
+ * Prices a cart of hundreds of lines against an in-memory H2 database and counts the
+ * JDBC statements it takes.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@Import(CartService.class)
+class CartServiceQueryCountTest {
+
+	private static final long USER_ID = 42L;
+	private static final int PER_TYPE = 100;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private CartService cartService;
+
+	@MockitoBean
+	private ExcelRService excelRService;
+
+	private Statistics statistics;
+
+	private final List<Laptops> laptops = new ArrayList<>();
+	private final List<Courses> courses = new ArrayList<>();
+
+	private long expectedTotalPaise;
+
+	@BeforeEach
+	void setUp() {
+		User instructor = new User();
+		instructor.setName("Instructor");
+		instructor.setEmail("instructor@example.com");
+		instructor.setPassword("password");
+		instructor.setRole(User.UserRole.INSTRUCTOR);
+		entityManager.persist(instructor);
+
+		List<CartLine> lines = new ArrayList<>();
+		for (int i = 1; i <= PER_TYPE; i++) {
+			Laptops laptop = new Laptops();
+			laptop.setPname("Laptop " + i);
+			laptop.setPcost(40_000 + i);
+			laptop.setPqty(10);
+			laptops.add(entityManager.persist(laptop));
+			lines.add(new CartLine(ItemType.LAPTOPS, laptop.getPid(), 2));
+			expectedTotalPaise += 2L * laptop.getPcost() * 100;
+
+			Mobiles mobile = new Mobiles();
+			mobile.setPname("Mobile " + i);
+			mobile.setPcost(10_000 + i);
+			mobile.setPqty(10);
+			entityManager.persist(mobile);
+			lines.add(new CartLine(ItemType.MOBILES, mobile.getPid(), 1));
+			expectedTotalPaise += mobile.getPcost() * 100L;
+
+			Headphones headphone = new Headphones();
+			headphone.setPname("Headphone " + i);
+			headphone.setPcost(1_000 + i);
+			headphone.setPqty(10);
+			entityManager.persist(headphone);
+			lines.add(new CartLine(ItemType.HEADPHONES, headphone.getPid(), 3));
+			expectedTotalPaise += 3L * headphone.getPcost() * 100;
+
+			Courses course = new Courses();
+			course.setTitle("Course " + i);
+			course.setInstructor(instructor);
+			course.setCategoryId(1);
+			course.setPrice(new BigDecimal("499.99"));
+			course.setStatus(CourseStatus.PUBLISHED);
+			courses.add(entityManager.persist(course));
+			lines.add(new CartLine(ItemType.COURSES, course.getId(), 1));
+			expectedTotalPaise += 49_999;
+		}
+		entityManager.flush();
+		cartService.replaceItems(USER_ID, lines);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void pricesWholeCartWithOneQueryPerTable() {
+		// Expire the cached invoice so the cart is priced again
+		ReflectionTestUtils.setField(cartService, "invoiceTtlMillis", -1L);
+		Invoice invoice = cartService.getInvoice(USER_ID);
+		ReflectionTestUtils.setField(cartService, "invoiceTtlMillis", 60_000L);
+
+		// Cart version, cart items, then laptops, mobiles, headphones and courses
+		assertEquals(6, statistics.getPrepareStatementCount());
+		// Courses are read as a projection, so no instructors are loaded
+		assertEquals(4 * PER_TYPE + 3 * PER_TYPE, statistics.getEntityLoadCount());
+		assertEquals(4 * PER_TYPE, invoice.getLines().size());
+		assertEquals(expectedTotalPaise, invoice.getTotalPaise());
+		assertTrue(invoice.isPayable());
+	}
+
+	@Test
+	void reusesInvoiceUntilCartChanges() {
+		Invoice first = cartService.getInvoice(USER_ID);
+		// Only the cart version is read
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		Invoice changed = cartService.setItem(USER_ID, ItemType.LAPTOPS, laptops.get(0).getPid(), 3);
+		assertEquals(first.getVersion() + 1, changed.getVersion());
+		assertEquals(first.getTotalPaise() + laptops.get(0).getPcost() * 100L, changed.getTotalPaise());
+
+		statistics.clear();
+		assertEquals(changed.getTotalPaise(), cartService.getInvoice(USER_ID).getTotalPaise());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void refusesCheckoutOfUnavailableItems() {
+		Laptops laptop = entityManager.find(Laptops.class, laptops.get(0).getPid());
+		laptop.setPqty(1);
+		Courses course = entityManager.find(Courses.class, courses.get(0).getId());
+		course.setStatus(CourseStatus.ARCHIVED);
+		entityManager.flush();
+
+		Invoice invoice = cartService.setItem(USER_ID, ItemType.MOBILES, 999_999L, 1);
+
+		assertFalse(invoice.isPayable());
+		assertEquals("Only 1 left", problemOf(invoice, ItemType.LAPTOPS, laptop.getPid()));
+		assertEquals("No longer on sale", problemOf(invoice, ItemType.COURSES, course.getId()));
+		assertEquals("No longer available", problemOf(invoice, ItemType.MOBILES, 999_999L));
+		assertThrows(IllegalStateException.class, () -> cartService.checkout(USER_ID));
+		verifyNoInteractions(excelRService);
+	}
+
+	@Test
+	void checkoutChargesServerTotalAndReservesProducts() throws Exception {
+		when(excelRService.createOrderInPaise(anyLong(), anyString(), anyString(), anyList()))
+				.thenReturn("{\"id\":\"order_1\"}");
+
+		CartService.Checkout checkout = cartService.checkout(USER_ID);
+
+		assertEquals("{\"id\":\"order_1\"}", checkout.getOrder());
+		verify(excelRService).createOrderInPaise(eq(expectedTotalPaise), eq("INR"), any(),
+				argThat(lines -> lines.size() == 3 * PER_TYPE));
+	}
+
+	@Test
+	void courseCheckoutChargesTheCoursePriceAndLeavesTheCart() throws Exception {
+		when(excelRService.createOrderInPaise(anyLong(), anyString(), anyString(), anyList()))
+				.thenReturn("{\"id\":\"order_2\"}");
+		long cartTotal = cartService.getInvoice(USER_ID).getTotalPaise();
+
+		cartService.checkoutCourse(USER_ID, courses.get(0).getId());
+
+		verify(excelRService).createOrderInPaise(eq(49_999L), eq("INR"), any(), argThat(List::isEmpty));
+		assertEquals(cartTotal, cartService.getInvoice(USER_ID).getTotalPaise());
+
+		Courses archived = entityManager.find(Courses.class, courses.get(1).getId());
+		archived.setStatus(CourseStatus.ARCHIVED);
+		entityManager.flush();
+		assertThrows(IllegalStateException.class, () -> cartService.checkoutCourse(USER_ID, archived.getId()));
+	}
+
+	@Test
+	void rejectsOversizedQuantities() {
+		assertThrows(IllegalArgumentException.class,
+				() -> cartService.setItem(USER_ID, ItemType.COURSES, courses.get(0).getId(), 2));
+		assertThrows(IllegalArgumentException.class,
+				() -> cartService.setItem(USER_ID, ItemType.LAPTOPS, laptops.get(0).getPid(), 101));
+	}
+
+	private static String problemOf(Invoice invoice, ItemType type, Long itemId) {
+		for (InvoiceLine line : invoice.getLines()) {
+			if (line.getType() == type && line.getItemId().equals(itemId)) {
+				return line.getProblem();
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,152 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.Certificate;
+import com.elearn.model.Certificate.CertificateStatus;
+import com.elearn.repo.CertificateRepository;
+import com.elearn.service.CertificateService.VerificationRecord;
+import com.elearn.service.impl.LocalBlobStore;
+
+/**
+ * Certificates rendered by the real renderer on the worker pool, stored in a LocalBlobStore
+ * and verified from the in-memory index. Workers save in their own transactions, so the
+ * test is not transactional.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"certificates.max-attempts=3"
+})
+@Import({ CertificateService.class, CertificateRenderer.class, LocalBlobStore.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CertificateServiceTest {
+
+	private static final AtomicLong ENROLLMENT_IDS = new AtomicLong();
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) throws IOException {
+		Path storageDir = Files.createTempDirectory("edulearn-certificates");
+		registry.add("storage.backend", () -> "local");
+		registry.add("storage.local-dir", storageDir::toString);
+	}
+
+	@Autowired
+	private CertificateService certificateService;
+
+	@Autowired
+	private CertificateRepository certificateRepository;
+
+	@MockitoSpyBean
+	private CertificateRenderer renderer;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@AfterEach
+	void tearDown() {
+		reset(renderer);
+		certificateRepository.deleteAll();
+	}
+
+	@Test
+	void rendersStoresAndVerifiesACertificate() throws Exception {
+		Certificate pending = savePending("EDL-7KQ2M-9XHTR");
+
+		certificateService.resubmitPending();
+		Certificate issued = awaitCertificate(pending.getId(), c -> c.getStatus() == CertificateStatus.ISSUED);
+
+		VerificationRecord record = certificateService.verify(" edl-7kq2m-9xhtr ").orElseThrow();
+		assertEquals("Asha Rao", record.getStudentName());
+		assertEquals("Spring Boot Basics", record.getCourseTitle());
+		assertEquals(issued.getPdfSha256(), record.getPdfSha256());
+
+		byte[] pdf = certificateService.readArtifact(record, true);
+		assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+		assertEquals(record.getPdfSha256(), sha256(pdf));
+		byte[] png = certificateService.readArtifact(record, false);
+		assertEquals(record.getPngSha256(), sha256(png));
+		assertEquals(pdf.length, blobStore.size("certificates/" + record.getPdfSha256().substring(0, 2)
+				+ "/" + record.getPdfSha256() + ".pdf"));
+
+		assertFalse(certificateService.verify("EDL-00000-00000").isPresent());
+	}
+
+	@Test
+	void failsAfterMaxAttemptsEvenWithLongErrors() throws Exception {
+		doThrow(new IllegalStateException("x".repeat(1000))).when(renderer).render(any());
+		Certificate pending = savePending("EDL-FA1LS-00001");
+
+		// What the retry sweep does, without waiting a minute between runs
+		long deadline = System.currentTimeMillis() + 30_000;
+		Certificate failed;
+		do {
+			certificateService.resubmitPending();
+			Thread.sleep(20);
+			failed = certificateRepository.findById(pending.getId()).orElseThrow();
+		} while (failed.getStatus() == CertificateStatus.PENDING && System.currentTimeMillis() < deadline);
+
+		assertEquals(CertificateStatus.FAILED, failed.getStatus());
+		assertEquals(3, failed.getAttempts());
+		assertEquals(Certificate.MAX_ERROR_LENGTH, failed.getError().length());
+		assertFalse(certificateService.verify("EDL-FA1LS-00001").isPresent());
+
+		// Failed certificates are not picked up again
+		certificateService.resubmitPending();
+		Thread.sleep(200);
+		assertEquals(3, certificateRepository.findById(pending.getId()).orElseThrow().getAttempts());
+	}
+
+	private Certificate savePending(String verificationId) {
+		Certificate certificate = new Certificate();
+		certificate.setVerificationId(verificationId);
+		certificate.setEnrollmentId(ENROLLMENT_IDS.incrementAndGet());
+		certificate.setUserId(1L);
+		certificate.setCourseId(1L);
+		certificate.setStudentName("Asha Rao");
+		certificate.setCourseTitle("Spring Boot Basics");
+		certificate.setInstructorName("Vikram Iyer");
+		certificate.setCompletedAt(LocalDateTime.of(2024, 5, 17, 10, 0));
+		return certificateRepository.save(certificate);
+	}
+
+	private Certificate awaitCertificate(Long id, Predicate<Certificate> condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (System.currentTimeMillis() < deadline) {
+			Certificate certificate = certificateRepository.findById(id).orElseThrow();
+			if (condition.test(certificate)) {
+				return certificate;
+			}
+			Thread.sleep(20);
+		}
+		throw new AssertionError("Certificate " + id + " did not reach the expected state");
+	}
+
+	private static String sha256(byte[] content) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+}
@@ -0,0 +1,218 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.Courses;
+import com.elearn.model.UploadSession;
+import com.elearn.model.UploadSession.LessonFile;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repo.UploadSessionRepository;
+import com.elearn.repo.UserRepository;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.repository.VideoRepository;
+import com.elearn.service.impl.LocalBlobStore;
+
+/**
+ * Resumable lesson uploads into the local media directory. Every chunk runs in its
+ * own transactions, as it would in separate requests, so the test is not transactional.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"storage.backend=local",
+	"media.signing-key=test-signing-key"
+})
+@Import({ ChunkedUploadService.class, MediaStreamService.class, LocalBlobStore.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChunkedUploadServiceTest {
+
+	private static final int CHUNK = 4096;
+
+	private static Path mediaDir;
+
+	@DynamicPropertySource
+	static void mediaProperties(DynamicPropertyRegistry registry) throws IOException {
+		mediaDir = Files.createTempDirectory("edulearn-lessons");
+		registry.add("media.local-dir", mediaDir::toString);
+		registry.add("storage.local-dir", () -> mediaDir.resolve("blobs").toString());
+	}
+
+	@Autowired
+	private ChunkedUploadService uploadService;
+
+	@Autowired
+	private UploadSessionRepository uploadSessionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@Autowired
+	private VideoRepository videoRepository;
+
+	@MockitoBean
+	private PlaybackService playbackService;
+
+	private User instructor;
+	private User student;
+	private Courses course;
+	private Video video;
+
+	@BeforeEach
+	void setUp() {
+		instructor = saveUser("instructor@example.com", User.UserRole.INSTRUCTOR);
+		student = saveUser("student@example.com", User.UserRole.STUDENT);
+
+		course = new Courses();
+		course.setTitle("Spring Boot");
+		course.setInstructor(instructor);
+		course.setCategoryId(1);
+		course = coursesRepo.save(course);
+
+		video = new Video();
+		video.setTitle("Intro");
+		video.setVideoLink("https://www.youtube.com/watch?v=intro");
+		video.setCourse(course);
+		video = videoRepository.save(video);
+	}
+
+	@AfterEach
+	void tearDown() {
+		uploadSessionRepository.deleteAll();
+		videoRepository.deleteAll();
+		coursesRepo.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void resumesAfterADroppedChunkAndLinksTheVideo() throws IOException {
+		byte[] lecture = bytes(10 * CHUNK + 300);
+		UploadSession session = uploadService.create(instructor, video.getId(), LessonFile.VIDEO, "video/mp4",
+				lecture.length, (long) CHUNK);
+
+		long offset = 0;
+		for (int i = 0; i < 4; i++) {
+			offset = put(session, offset, lecture, CHUNK);
+		}
+		// The connection drops halfway through the fifth chunk
+		long dropped = offset;
+		assertThrows(IllegalArgumentException.class, () -> uploadService.writeChunk(instructor, session.getId(), dropped,
+				new ByteArrayInputStream(lecture, (int) dropped, CHUNK / 2), CHUNK));
+		assertEquals(4L * CHUNK, uploadService.get(instructor, session.getId()).getReceived());
+		// A retry of an older chunk is refused with the offset to continue from
+		assertThrows(IllegalStateException.class, () -> put(session, 0, lecture, CHUNK));
+		assertThrows(IllegalStateException.class, () -> uploadService.complete(instructor, session.getId()));
+
+		offset = uploadService.get(instructor, session.getId()).getReceived();
+		while (offset < lecture.length) {
+			offset = put(session, offset, lecture, (int) Math.min(CHUNK, lecture.length - offset));
+		}
+		Video linked = uploadService.complete(instructor, session.getId());
+
+		assertEquals("media:lessons/" + video.getId() + "/" + session.getId() + ".mp4", linked.getVideoLink());
+		assertArrayEquals(lecture, Files.readAllBytes(mediaDir.resolve(MediaStreamService.keyOf(linked.getVideoLink()))));
+		assertFalse(Files.exists(mediaDir.resolve(".uploads").resolve(session.getId() + ".part")));
+		assertEquals(linked.getVideoLink(), videoRepository.findById(video.getId()).orElseThrow().getVideoLink());
+		verify(playbackService).evictVideo(video.getId());
+		// Completing again changes nothing
+		assertEquals(linked.getVideoLink(), uploadService.complete(instructor, session.getId()).getVideoLink());
+	}
+
+	@Test
+	void rejectsChunksOfTheWrongSize() throws IOException {
+		byte[] notes = bytes(3 * CHUNK);
+		UploadSession session = uploadService.create(instructor, video.getId(), LessonFile.NOTES, "application/pdf",
+				notes.length, (long) CHUNK);
+
+		assertThrows(IllegalArgumentException.class, () -> put(session, 0, notes, CHUNK - 1));
+		assertThrows(IllegalArgumentException.class, () -> put(session, 0, notes, CHUNK + 1));
+		assertEquals(0, uploadService.get(instructor, session.getId()).getReceived());
+	}
+
+	@Test
+	void replacesTheEarlierUploadedFile() throws IOException {
+		String first = upload(bytes(CHUNK + 10)).getNotesLink();
+		String second = upload(bytes(2 * CHUNK)).getNotesLink();
+
+		assertTrue(first.startsWith("media:lessons/") && first.endsWith(".pdf"));
+		assertFalse(Files.exists(mediaDir.resolve(MediaStreamService.keyOf(first))));
+		assertTrue(Files.exists(mediaDir.resolve(MediaStreamService.keyOf(second))));
+	}
+
+	@Test
+	void onlyTheInstructorMayUpload() throws IOException {
+		assertThrows(AccessDeniedException.class, () -> uploadService.create(student, video.getId(), LessonFile.VIDEO,
+				"video/mp4", 100, null));
+		assertThrows(IllegalArgumentException.class, () -> uploadService.create(instructor, video.getId(),
+				LessonFile.VIDEO, "application/zip", 100, null));
+
+		UploadSession session = uploadService.create(instructor, video.getId(), LessonFile.VIDEO, "video/mp4",
+				100, null);
+		assertThrows(AccessDeniedException.class, () -> uploadService.writeChunk(student, session.getId(), 0,
+				new ByteArrayInputStream(new byte[100]), 100));
+
+		put(session, 0, bytes(100), 100);
+		uploadService.abort(instructor, session.getId());
+		assertFalse(uploadSessionRepository.existsById(session.getId()));
+		assertFalse(Files.exists(mediaDir.resolve(".uploads").resolve(session.getId() + ".part")));
+	}
+
+	private Video upload(byte[] notes) throws IOException {
+		UploadSession session = uploadService.create(instructor, video.getId(), LessonFile.NOTES, "application/pdf",
+				notes.length, (long) CHUNK);
+		long offset = 0;
+		while (offset < notes.length) {
+			offset = put(session, offset, notes, (int) Math.min(CHUNK, notes.length - offset));
+		}
+		return uploadService.complete(instructor, session.getId());
+	}
+
+	private long put(UploadSession session, long offset, byte[] file, int length) throws IOException {
+		InputStream chunk = new ByteArrayInputStream(Arrays.copyOfRange(file, (int) offset, (int) offset + length));
+		return uploadService.writeChunk(instructor, session.getId(), offset, chunk, length);
+	}
+
+	private User saveUser(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return userRepository.save(user);
+	}
+
+	private static byte[] bytes(int size) {
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) (i * 7 + i / 251);
+		}
+		return content;
+	}
+}
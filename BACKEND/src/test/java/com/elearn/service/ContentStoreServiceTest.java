@@ -0,0 +1,133 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.StoredBlob;
+import com.elearn.repo.StoredBlobRepository;
+import com.elearn.service.impl.LocalBlobStore;
+
+/**
+ * Content-addressed uploads against the local blob store and an in-memory H2 database.
+ * Every store runs in its own transactions, so the test itself is not transactional.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"storage.backend=local"
+})
+@Import({ ContentStoreService.class, LocalBlobStore.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContentStoreServiceTest {
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) throws IOException {
+		String dir = Files.createTempDirectory("edulearn-blobs").toString();
+		registry.add("storage.local-dir", () -> dir);
+	}
+
+	@Autowired
+	private ContentStoreService contentStoreService;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@Autowired
+	private StoredBlobRepository storedBlobRepository;
+
+	@AfterEach
+	void tearDown() {
+		storedBlobRepository.deleteAll();
+	}
+
+	@Test
+	void storesIdenticalUploadsOnce() throws IOException {
+		byte[] thumbnail = "thumbnail-bytes".repeat(1000).getBytes();
+		long storedBefore = metric("stored");
+
+		String first = store(thumbnail, "intro.png");
+		String second = store(thumbnail, "intro (1).png");
+
+		assertEquals(first, second);
+		assertTrue(blobStore.keyOf(first).startsWith("blobs/"));
+		assertTrue(blobStore.keyOf(first).endsWith(".png"));
+		assertEquals(storedBefore + 1, metric("stored"));
+		StoredBlob blob = storedBlobRepository.findByObjectKey(blobStore.keyOf(first)).orElseThrow();
+		assertEquals(2, blob.getRefCount());
+		assertEquals(thumbnail.length, blob.getSize());
+
+		assertNotEquals(first, store("other-bytes".getBytes(), "intro.png"));
+	}
+
+	@Test
+	void releasesReferences() throws IOException {
+		String url = store("cover".getBytes(), "cover.jpg");
+		store("cover".getBytes(), "cover.jpg");
+
+		assertTrue(contentStoreService.release(url));
+		assertTrue(contentStoreService.release(url));
+		// Never below zero; the object stays until the storage GC removes it
+		assertFalse(contentStoreService.release(url));
+		assertEquals(0, storedBlobRepository.findByObjectKey(blobStore.keyOf(url)).orElseThrow().getRefCount());
+		assertTrue(blobStore.size(blobStore.keyOf(url)) > 0);
+
+		assertFalse(contentStoreService.release("https://example.com/thumbnail.png"));
+		assertFalse(contentStoreService.release(null));
+	}
+
+	@Test
+	void countsEveryConcurrentUploadOfTheSameFile() throws Exception {
+		byte[] image = "same-image".repeat(5000).getBytes();
+		int uploaders = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(uploaders);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < uploaders; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return store(image, "laptop.jpg");
+			}));
+		}
+		start.countDown();
+		Set<String> urls = new HashSet<>();
+		for (Future<String> result : results) {
+			urls.add(result.get());
+		}
+		pool.shutdown();
+
+		assertEquals(1, urls.size());
+		assertEquals(uploaders, storedBlobRepository.findByObjectKey(blobStore.keyOf(urls.iterator().next()))
+				.orElseThrow().getRefCount());
+	}
+
+	private String store(byte[] content, String filename) throws IOException {
+		return contentStoreService.store(new ByteArrayResource(content), content.length, "image/png", filename);
+	}
+
+	private long metric(String name) {
+		return (Long) contentStoreService.getMetrics().get(name);
+	}
+}
@@ -0,0 +1,84 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.elearn.service.CourseSearchIndex.CourseDocument;
+import com.elearn.service.CourseSearchIndex.SearchHit;
+import com.elearn.service.CourseSearchIndex.SearchPage;
+
+class CourseSearchIndexTest {
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		CourseSearchIndex index = new CourseSearchIndex();
+		index.put(course(1, "Cooking basics", "Learn python while you cook"));
+		index.put(course(2, "Python for beginners", "Start programming today"));
+
+		SearchPage page = index.search("python", 0, 10);
+
+		assertEquals(2, page.getTotal());
+		assertEquals(2, page.getHits().get(0).getCourse().getId());
+		assertEquals(1, page.getHits().get(1).getCourse().getId());
+	}
+
+	@Test
+	void matchesStemmedWords() {
+		CourseSearchIndex index = new CourseSearchIndex();
+		index.put(course(1, "Programming Languages", "Compilers and interpreters"));
+
+		assertEquals(1, index.search("program language", 0, 10).getTotal());
+		assertEquals(1, index.search("compiler", 0, 10).getTotal());
+		assertEquals(0, index.search("the", 0, 10).getTotal());
+	}
+
+	@Test
+	void updateReplacesOldTermsAndDeleteRemovesDocument() {
+		CourseSearchIndex index = new CourseSearchIndex();
+		index.put(course(1, "Java fundamentals", "Objects and classes"));
+		index.put(course(1, "Kotlin fundamentals", "Objects and classes"));
+
+		assertEquals(0, index.search("java", 0, 10).getTotal());
+		assertEquals(1, index.search("kotlin", 0, 10).getTotal());
+		assertEquals(1, index.size());
+
+		index.remove(1);
+		assertEquals(0, index.search("kotlin", 0, 10).getTotal());
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void pagesThroughAllHitsInRankOrder() {
+		CourseSearchIndex index = new CourseSearchIndex();
+		List<CourseDocument> documents = new ArrayList<>();
+		for (int id = 1; id <= 55; id++) {
+			documents.add(course(id, "Data course " + id, id % 2 == 0 ? "data data data" : "data"));
+		}
+		index.putAll(documents);
+
+		List<SearchHit> all = new ArrayList<>();
+		for (int page = 0; page < 3; page++) {
+			SearchPage result = index.search("data", page, 20);
+			assertEquals(55, result.getTotal());
+			all.addAll(result.getHits());
+		}
+		assertEquals(55, all.size());
+		assertTrue(index.search("data", 3, 20).getHits().isEmpty());
+		for (int i = 1; i < all.size(); i++) {
+			SearchHit previous = all.get(i - 1);
+			SearchHit current = all.get(i);
+			assertTrue(previous.getScore() > current.getScore() || (previous.getScore() == current.getScore()
+					&& previous.getCourse().getId() < current.getCourse().getId()));
+		}
+	}
+
+	private static CourseDocument course(long id, String title, String description) {
+		return new CourseDocument(id, title, description, 1, "Development", "Sarah Johnson", BigDecimal.TEN, null);
+	}
+}
@@ -0,0 +1,109 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.User;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.service.CourseSearchIndex.CourseDocument;
+import com.elearn.service.CourseSearchIndex.SearchPage;
+
+/**
+ * Category renames reaching the search index, including one that arrives while a
+ * rebuild is reading the categories.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(CourseSearchService.class)
+class CourseSearchServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private CourseSearchService searchService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	private Category category;
+	private Courses course;
+
+	@BeforeEach
+	void setUp() {
+		User instructor = new User();
+		instructor.setName("Vikram Iyer");
+		instructor.setEmail("vikram@example.com");
+		instructor.setPassword("password");
+		instructor.setRole(User.UserRole.INSTRUCTOR);
+		entityManager.persist(instructor);
+
+		category = new Category();
+		category.setName("Web");
+		entityManager.persist(category);
+
+		course = new Courses();
+		course.setTitle("Spring Boot");
+		course.setInstructor(instructor);
+		course.setCategoryId(category.getId());
+		course.setStatus(Courses.CourseStatus.PUBLISHED);
+		entityManager.persist(course);
+		entityManager.flush();
+		searchService.rebuild();
+	}
+
+	@Test
+	void renamesWithTheCoursesAsStored() {
+		// Changed in the database after it was indexed
+		course.setTitle("Spring Boot in Depth");
+		entityManager.flush();
+
+		searchService.onCategoryChanged(category.getId(), "Backend");
+
+		CourseDocument document = only("spring");
+		assertEquals("Backend", document.getCategoryName());
+		assertEquals("Spring Boot in Depth", document.getTitle());
+
+		searchService.onCategoryChanged(category.getId(), null);
+		assertNull(only("spring").getCategoryName());
+	}
+
+	@Test
+	void keepsARenameMadeWhileARebuildRuns() {
+		Category stale = new Category();
+		stale.setId(category.getId());
+		stale.setName("Web");
+		CategoryRepository racing = mock(CategoryRepository.class);
+		when(racing.findAll()).thenAnswer(invocation -> {
+			searchService.onCategoryChanged(category.getId(), "Backend");
+			return List.of(stale);
+		});
+		ReflectionTestUtils.setField(searchService, "categoryRepository", racing);
+		try {
+			searchService.rebuild();
+		} finally {
+			ReflectionTestUtils.setField(searchService, "categoryRepository", categoryRepository);
+		}
+
+		assertEquals("Backend", only("spring").getCategoryName());
+	}
+
+	private CourseDocument only(String query) {
+		SearchPage page = searchService.search(query, 0, 10);
+		assertEquals(1, page.getTotal());
+		return page.getHits().get(0).getCourse();
+	}
+}
@@ -0,0 +1,208 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.Enrollment.EnrollmentStatus;
+import com.elearn.model.User;
+import com.elearn.repo.CategoryRepository;
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.repo.UserRepository;
+import com.elearn.repository.CoursesRepo;
+
+/**
+ * The admin dashboard built from H2 on its own executor, and the short-lived cache in
+ * front of it. Test data is committed so the executor threads can read it.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"reports.dashboard.cache-ttl-ms=60000"
+})
+@Import({ DashboardService.class, ReportService.class, UserService.class, CourseService.class,
+		EnrollmentService.class, CategoryService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DashboardServiceTest {
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@MockitoSpyBean
+	private UserService userService;
+
+	@MockitoBean
+	private PopularCourseService popularCourseService;
+
+	@MockitoBean
+	private CourseSearchService courseSearchService;
+
+	@MockitoBean
+	private CourseSuggestionService courseSuggestionService;
+
+	@MockitoBean
+	private ContentStoreService contentStoreService;
+
+	@MockitoBean
+	private ProgressService progressService;
+
+	@MockitoBean
+	private CertificateService certificateService;
+
+	private User student;
+	private Courses published;
+	private Courses draft;
+
+	@BeforeEach
+	void setUp() {
+		User instructor = userRepository.save(user("meera@example.com", User.UserRole.INSTRUCTOR));
+		userRepository.save(user("admin@example.com", User.UserRole.ADMIN));
+		student = userRepository.save(user("asha@example.com", User.UserRole.STUDENT));
+		User other = userRepository.save(user("ravi@example.com", User.UserRole.STUDENT));
+
+		Category web = new Category();
+		web.setName("Web");
+		web = categoryRepository.save(web);
+
+		published = coursesRepo.save(course("Spring Boot", instructor, web, "499.00", Courses.CourseStatus.PUBLISHED));
+		draft = coursesRepo.save(course("Kubernetes", instructor, web, "999.50", Courses.CourseStatus.DRAFT));
+
+		enroll(student, published, EnrollmentStatus.IN_PROGRESS);
+		enroll(other, published, EnrollmentStatus.IN_PROGRESS);
+		enroll(other, draft, EnrollmentStatus.COMPLETED);
+		expireCache();
+		clearInvocations(userService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		enrollmentRepository.deleteAll();
+		coursesRepo.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void aggregatesEverySection() {
+		Map<String, Object> dashboard = dashboardService.getDashboard();
+
+		Map<String, Object> enrollments = (Map<String, Object>) dashboard.get("enrollments");
+		assertEquals(3, enrollments.get("totalEnrollments"));
+		assertEquals(Map.of("IN_PROGRESS", 2L, "COMPLETED", 1L, "DROPPED", 0L), enrollments.get("enrollmentByStatus"));
+
+		Map<String, Object> users = (Map<String, Object>) dashboard.get("users");
+		assertEquals(4, users.get("totalUsers"));
+		assertEquals(2L, users.get("totalStudents"));
+		assertEquals(1L, users.get("totalInstructors"));
+
+		Map<String, Object> courses = (Map<String, Object>) dashboard.get("courses");
+		assertEquals(2, courses.get("totalCourses"));
+		assertEquals(1L, courses.get("activeCourses"));
+		assertEquals(2L, ((Map<String, Long>) courses.get("coursesByCategory")).get("Web"));
+
+		Map<String, Object> revenue = (Map<String, Object>) dashboard.get("revenue");
+		assertEquals(new BigDecimal("1997.50"), revenue.get("totalRevenue"));
+		assertEquals(new BigDecimal("1997.50"), ((Map<String, BigDecimal>) revenue.get("revenueByCategory")).get("Web"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void servesTheCachedDashboardUntilItExpires() throws Exception {
+		// Concurrent requests for an expired dashboard build it once
+		ExecutorService requests = Executors.newFixedThreadPool(8);
+		List<Future<Map<String, Object>>> results = new ArrayList<>();
+		try {
+			Callable<Map<String, Object>> request = dashboardService::getDashboard;
+			for (int i = 0; i < 8; i++) {
+				results.add(requests.submit(request));
+			}
+			for (Future<Map<String, Object>> result : results) {
+				assertSame(results.get(0).get(), result.get());
+			}
+		} finally {
+			requests.shutdown();
+		}
+		verify(userService, times(1)).getAllUsers();
+		Map<String, Object> first = results.get(0).get();
+
+		enroll(student, draft, EnrollmentStatus.IN_PROGRESS);
+		assertSame(first, dashboardService.getDashboard());
+
+		expireCache();
+		Map<String, Object> rebuilt = dashboardService.getDashboard();
+		assertNotSame(first, rebuilt);
+		assertEquals(4, ((Map<String, Object>) rebuilt.get("enrollments")).get("totalEnrollments"));
+		verify(userService, times(2)).getAllUsers();
+	}
+
+	private void expireCache() {
+		ReflectionTestUtils.setField(dashboardService, "cachedUntil", 0L);
+	}
+
+	private void enroll(User user, Courses course, EnrollmentStatus status) {
+		Enrollment enrollment = new Enrollment();
+		enrollment.setUser(user);
+		enrollment.setCourse(course);
+		enrollment.setStatus(status);
+		enrollmentRepository.save(enrollment);
+	}
+
+	private static Courses course(String title, User instructor, Category category, String price,
+			Courses.CourseStatus status) {
+		Courses course = new Courses();
+		course.setTitle(title);
+		course.setInstructor(instructor);
+		course.setCategoryId(category.getId());
+		course.setPrice(new BigDecimal(price));
+		course.setStatus(status);
+		return course;
+	}
+
+	private static User user(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return user;
+	}
+}
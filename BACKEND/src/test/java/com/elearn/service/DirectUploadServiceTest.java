@@ -0,0 +1,254 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.elearn.model.Courses;
+import com.elearn.model.Laptops;
+import com.elearn.model.UploadIntent.UploadTarget;
+import com.elearn.model.User;
+import com.elearn.service.DirectUploadService.Intent;
+import com.elearn.service.impl.S3BlobStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the presign, browser PUT and completion steps against a local fake of the
+ * S3 object API, so the SDK presigner and HeadObject call are exercised offline.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ DirectUploadService.class, ContentStoreService.class, CourseSearchService.class, S3BlobStore.class })
+class DirectUploadServiceTest {
+
+	private static final String BUCKET = "edulearn-test";
+
+	private static final FakeS3 S3 = FakeS3.start();
+
+	@DynamicPropertySource
+	static void s3Properties(DynamicPropertyRegistry registry) {
+		registry.add("aws.s3.bucket.name", () -> BUCKET);
+		registry.add("aws.s3.region", () -> "ap-south-1");
+		registry.add("aws.accessKeyId", () -> "test-key");
+		registry.add("aws.secretAccessKey", () -> "test-secret");
+		registry.add("aws.s3.endpoint", S3::endpoint);
+	}
+
+	@AfterAll
+	static void stopS3() {
+		S3.stop();
+	}
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DirectUploadService uploadService;
+
+	@Autowired
+	private CourseSearchService courseSearchService;
+
+	@MockitoBean
+	private ProductCatalogService productCatalogService;
+
+	@MockitoBean
+	private CourseSuggestionService courseSuggestionService;
+
+	private final HttpClient browser = HttpClient.newHttpClient();
+
+	private User admin;
+	private User instructor;
+	private User student;
+	private Courses course;
+	private Laptops laptop;
+
+	@BeforeEach
+	void setUp() {
+		admin = persistUser("admin@example.com", User.UserRole.ADMIN);
+		instructor = persistUser("instructor@example.com", User.UserRole.INSTRUCTOR);
+		student = persistUser("student@example.com", User.UserRole.STUDENT);
+
+		course = new Courses();
+		course.setTitle("Spring Boot");
+		course.setInstructor(instructor);
+		course.setCategoryId(1);
+		course.setStatus(Courses.CourseStatus.PUBLISHED);
+		entityManager.persist(course);
+
+		laptop = new Laptops();
+		laptop.setPname("Dell Inspiron");
+		laptop.setPcost(55_000);
+		laptop.setPqty(3);
+		entityManager.persist(laptop);
+		entityManager.flush();
+	}
+
+	@Test
+	void recordsThumbnailUploadedThroughPresignedUrl() throws Exception {
+		byte[] image = new byte[48_213];
+		Intent intent = uploadService.createIntent(instructor, UploadTarget.COURSE_THUMBNAIL, course.getId(),
+				"image/png", image.length);
+
+		assertTrue(intent.getUploadUrl().startsWith(S3.endpoint() + "/" + BUCKET + "/courses/" + course.getId() + "/"));
+		Map<String, String> query = S3.query(intent.getUploadUrl());
+		assertTrue(query.containsKey("X-Amz-Signature"));
+		assertTrue(query.get("X-Amz-SignedHeaders").contains("content-length"));
+		assertTrue(query.get("X-Amz-SignedHeaders").contains("content-type"));
+
+		assertEquals(200, put(intent, image));
+		long completedBefore = (Long) uploadService.getMetrics().get("uploadsCompleted");
+		String url = uploadService.complete(instructor, intent.getId());
+
+		assertEquals(S3.endpoint() + "/" + BUCKET + "/" + intent.getKey(), url);
+		entityManager.clear();
+		assertEquals(url, entityManager.find(Courses.class, course.getId()).getThumbnail());
+		// Search results show the new thumbnail without waiting for a rebuild
+		assertEquals(url, courseSearchService.search("spring", 0, 10).getHits().get(0).getCourse().getThumbnail());
+		verify(courseSuggestionService).requestRebuild();
+		// A repeated callback changes nothing
+		assertEquals(url, uploadService.complete(instructor, intent.getId()));
+		assertEquals(completedBefore + 1, uploadService.getMetrics().get("uploadsCompleted"));
+	}
+
+	@Test
+	void recordsLaptopImageAndRefreshesCatalog() throws Exception {
+		byte[] image = new byte[1_024];
+		Intent intent = uploadService.createIntent(admin, UploadTarget.LAPTOP_IMAGE, laptop.getPid(), "image/jpeg",
+				image.length);
+		put(intent, image);
+
+		String url = uploadService.complete(admin, intent.getId());
+
+		entityManager.clear();
+		assertEquals(url, entityManager.find(Laptops.class, laptop.getPid()).getPimage());
+		verify(productCatalogService).refresh();
+	}
+
+	@Test
+	void refusesToCompleteMissingOrDifferentUploads() throws Exception {
+		Intent intent = uploadService.createIntent(instructor, UploadTarget.COURSE_THUMBNAIL, course.getId(),
+				"image/png", 2_000);
+		assertThrows(IllegalStateException.class, () -> uploadService.complete(instructor, intent.getId()));
+
+		// The fake does not check signatures, so a different size reaches the completion check
+		put(intent, new byte[1_999]);
+		assertThrows(IllegalStateException.class, () -> uploadService.complete(instructor, intent.getId()));
+		entityManager.clear();
+		assertEquals(null, entityManager.find(Courses.class, course.getId()).getThumbnail());
+	}
+
+	@Test
+	void checksPermissionsAndFileConstraints() {
+		assertThrows(AccessDeniedException.class, () -> uploadService.createIntent(student,
+				UploadTarget.COURSE_THUMBNAIL, course.getId(), "image/png", 100));
+		assertThrows(AccessDeniedException.class, () -> uploadService.createIntent(instructor,
+				UploadTarget.LAPTOP_IMAGE, laptop.getPid(), "image/png", 100));
+		assertThrows(IllegalArgumentException.class, () -> uploadService.createIntent(instructor,
+				UploadTarget.COURSE_THUMBNAIL, course.getId(), "application/x-msdownload", 100));
+		assertThrows(IllegalArgumentException.class, () -> uploadService.createIntent(instructor,
+				UploadTarget.COURSE_THUMBNAIL, course.getId(), "image/png", 50L * 1024 * 1024));
+
+		Intent intent = uploadService.createIntent(admin, UploadTarget.COURSE_THUMBNAIL, course.getId(),
+				"image/webp", 100);
+		assertThrows(AccessDeniedException.class, () -> uploadService.complete(instructor, intent.getId()));
+	}
+
+	private int put(Intent intent, byte[] body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(intent.getUploadUrl()))
+				.PUT(HttpRequest.BodyPublishers.ofByteArray(body));
+		intent.getHeaders().forEach(request::header);
+		return browser.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	private User persistUser(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return entityManager.persist(user);
+	}
+
+	/**
+	 * Path-style PUT and HEAD of objects, enough for browser uploads and HeadObject
+	 */
+	static class FakeS3 {
+		private final HttpServer server;
+		private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+
+		private FakeS3(HttpServer server) {
+			this.server = server;
+		}
+
+		static FakeS3 start() {
+			try {
+				FakeS3 fake = new FakeS3(HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+				fake.server.createContext("/", fake::handle);
+				fake.server.start();
+				return fake;
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		String endpoint() {
+			return "http://localhost:" + server.getAddress().getPort();
+		}
+
+		void stop() {
+			server.stop(0);
+		}
+
+		Map<String, String> query(String url) {
+			Map<String, String> query = new ConcurrentHashMap<>();
+			for (String pair : URI.create(url).getRawQuery().split("&")) {
+				String[] parts = pair.split("=", 2);
+				query.put(URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+						URLDecoder.decode(parts.length > 1 ? parts[1] : "", StandardCharsets.UTF_8));
+			}
+			return query;
+		}
+
+		private void handle(HttpExchange exchange) throws IOException {
+			String path = exchange.getRequestURI().getPath();
+			if ("PUT".equals(exchange.getRequestMethod())) {
+				objects.put(path, exchange.getRequestBody().readAllBytes());
+				contentTypes.put(path, exchange.getRequestHeaders().getFirst("Content-Type"));
+				exchange.getResponseHeaders().set("ETag", "\"" + Integer.toHexString(path.hashCode()) + "\"");
+				exchange.sendResponseHeaders(200, -1);
+			} else if ("HEAD".equals(exchange.getRequestMethod()) && objects.containsKey(path)) {
+				exchange.getResponseHeaders().set("Content-Length", Integer.toString(objects.get(path).length));
+				exchange.getResponseHeaders().set("Content-Type", contentTypes.get(path));
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				exchange.sendResponseHeaders(404, -1);
+			}
+			exchange.close();
+		}
+	}
+}
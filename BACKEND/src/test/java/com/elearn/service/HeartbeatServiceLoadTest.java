@@ -0,0 +1,113 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Drives the heartbeat pipeline from several producer threads against a recording
+ * JdbcTemplate, reports sustained events/sec and checks that no accepted second is lost.
+ */
+class HeartbeatServiceLoadTest {
+
+	private static final int PRODUCERS = 4;
+	private static final long DURATION_MILLIS = 3000;
+	private static final int SECONDS_PER_HEARTBEAT = 5;
+
+	@Test
+	void sustainsHighEventRateWithoutLosingWatchTime() throws Exception {
+		AtomicLong watchTimeSeconds = new AtomicLong();
+		AtomicLong totalSeconds = new AtomicLong();
+		AtomicLong batches = new AtomicLong();
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+				batches.incrementAndGet();
+				for (Object[] row : batchArgs) {
+					if (sql.startsWith("INSERT INTO video_watch_time ")) {
+						watchTimeSeconds.addAndGet((Long) row[2]); // user_id, video_id, watch_seconds, ...
+					} else {
+						totalSeconds.addAndGet((Long) row[1]); // video_id, watch_seconds, ...
+					}
+				}
+				return new int[batchArgs.size()];
+			}
+		};
+
+		HeartbeatService service = new HeartbeatService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionManager", new NoOpTransactionManager());
+		ReflectionTestUtils.setField(service, "bufferCapacity", 65536);
+		ReflectionTestUtils.setField(service, "flushIntervalMillis", 200L);
+		ReflectionTestUtils.setField(service, "maxPendingKeys", 50000);
+		ReflectionTestUtils.setField(service, "batchSize", 1000);
+		ReflectionTestUtils.setField(service, "maxSecondsPerHeartbeat", 60);
+		service.init();
+
+		LongAdder accepted = new LongAdder();
+		LongAdder rejected = new LongAdder();
+		long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < PRODUCERS; p++) {
+			Thread producer = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.currentTimeMillis() < deadline) {
+					for (int i = 0; i < 100; i++) {
+						if (service.record(1 + random.nextInt(5000), 1 + random.nextInt(500), SECONDS_PER_HEARTBEAT)) {
+							accepted.increment();
+						} else {
+							rejected.increment();
+							Thread.yield();
+						}
+					}
+				}
+			});
+			producers.add(producer);
+		}
+
+		long start = System.nanoTime();
+		producers.forEach(Thread::start);
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+		service.shutdown();
+
+		long expectedSeconds = accepted.sum() * SECONDS_PER_HEARTBEAT;
+		System.out.printf("Heartbeats: %d accepted (%.0f events/sec), %d rejected while full, %d JDBC batches%n",
+				accepted.sum(), accepted.sum() / elapsedSeconds, rejected.sum(), batches.get());
+
+		assertEquals(expectedSeconds, watchTimeSeconds.get());
+		assertEquals(expectedSeconds, totalSeconds.get());
+		assertTrue(accepted.sum() / elapsedSeconds > 20_000, "expected a sustained rate above 20k events/sec");
+	}
+
+	private static class NoOpTransactionManager implements PlatformTransactionManager {
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Heartbeats kept while the database is down: sums are retried, and new keys past the
+ * pending limit are dropped and counted.
+ */
+class HeartbeatServiceTest {
+
+	private final AtomicBoolean databaseDown = new AtomicBoolean(true);
+	private final Map<Long, Long> writtenSeconds = new ConcurrentHashMap<>();
+	private HeartbeatService service;
+
+	@BeforeEach
+	void setUp() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+				if (databaseDown.get()) {
+					throw new DataAccessResourceFailureException("Database unavailable");
+				}
+				if (sql.startsWith("INSERT INTO video_watch_time ")) {
+					for (Object[] row : batchArgs) {
+						writtenSeconds.merge((Long) row[0], (Long) row[2], Long::sum); // user_id, video_id, watch_seconds
+					}
+				}
+				return new int[batchArgs.size()];
+			}
+		};
+
+		service = new HeartbeatService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "bufferCapacity", 1024);
+		ReflectionTestUtils.setField(service, "flushIntervalMillis", 20L);
+		ReflectionTestUtils.setField(service, "maxPendingKeys", 3);
+		ReflectionTestUtils.setField(service, "batchSize", 100);
+		ReflectionTestUtils.setField(service, "maxSecondsPerHeartbeat", 60);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		service.shutdown();
+	}
+
+	@Test
+	void capsPendingKeysWhileFlushesFail() throws Exception {
+		for (long user = 1; user <= 3; user++) {
+			service.record(user, 7, 5);
+		}
+		awaitStat("failedFlushes", 1);
+
+		// Two new keys overflow; a pending key still adds up
+		service.record(4, 7, 5);
+		service.record(5, 7, 5);
+		service.record(1, 7, 5);
+		awaitStat("overflowed", 2);
+
+		databaseDown.set(false);
+		awaitStat("rowsWritten", 4);
+		assertEquals(Map.of(1L, 10L, 2L, 5L, 3L, 5L), writtenSeconds);
+		assertEquals(6L, service.getStats().get("accepted"));
+	}
+
+	private void awaitStat(String name, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (((Number) service.getStats().get(name)).longValue() < expected) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError(name + " did not reach " + expected + ": " + service.getStats());
+			}
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Range handling of the local media streamer, and a throughput run (tagged load) with many clients
+ * seeking through one lesson video at once.
+ */
+class MediaStreamServiceTest {
+
+	private static final String KEY = "lessons/12/intro.mp4";
+	private static final int FILE_SIZE = 32 * 1024 * 1024;
+
+	private static final int CLIENTS = 32;
+	private static final int SEEKS_PER_CLIENT = 100;
+	private static final int CHUNK = 256 * 1024;
+
+	@TempDir
+	Path mediaDir;
+
+	private MediaStreamService service;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[FILE_SIZE];
+		new Random(7).nextBytes(content);
+		Path file = mediaDir.resolve(KEY);
+		Files.createDirectories(file.getParent());
+		Files.write(file, content);
+
+		service = new MediaStreamService();
+		ReflectionTestUtils.setField(service, "localDir", mediaDir.toString());
+		ReflectionTestUtils.setField(service, "publicBaseUrl", "http://localhost:9090/");
+		ReflectionTestUtils.setField(service, "signingKey", "test-signing-key");
+		ReflectionTestUtils.setField(service, "maxStreamsPerUser", 4);
+		ReflectionTestUtils.setField(service, "maxRanges", 16);
+		service.init();
+	}
+
+	@Test
+	void servesWholeFileAndSingleRange() throws Exception {
+		MockHttpServletResponse full = serve(null, null);
+		assertEquals(200, full.getStatus());
+		assertEquals("video/mp4", full.getContentType());
+		assertEquals("bytes", full.getHeader("Accept-Ranges"));
+		assertArrayEquals(content, full.getContentAsByteArray());
+
+		MockHttpServletResponse partial = serve("bytes=1000-1999", null);
+		assertEquals(206, partial.getStatus());
+		assertEquals("bytes 1000-1999/" + FILE_SIZE, partial.getHeader("Content-Range"));
+		assertEquals(1000, partial.getContentLengthLong());
+		assertArrayEquals(Arrays.copyOfRange(content, 1000, 2000), partial.getContentAsByteArray());
+
+		MockHttpServletResponse unsatisfiable = serve("bytes=" + FILE_SIZE + "-", null);
+		assertEquals(416, unsatisfiable.getStatus());
+		assertEquals("bytes */" + FILE_SIZE, unsatisfiable.getHeader("Content-Range"));
+	}
+
+	@Test
+	void servesMultipleRangesAsMultipart() throws Exception {
+		MockHttpServletResponse response = serve("bytes=0-9,100-109,-5", null);
+
+		assertEquals(206, response.getStatus());
+		String contentType = response.getContentType();
+		assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+		String boundary = contentType.substring(contentType.indexOf('=') + 1);
+		byte[] body = response.getContentAsByteArray();
+		assertEquals(body.length, response.getContentLengthLong());
+
+		String text = new String(body, StandardCharsets.ISO_8859_1);
+		String[] parts = text.split("\r\n--" + boundary);
+		assertEquals("--\r\n", parts[4]);
+		assertPart(parts[1], 0, 9);
+		assertPart(parts[2], 100, 109);
+		assertPart(parts[3], FILE_SIZE - 5, FILE_SIZE - 1);
+	}
+
+	@Test
+	void honoursIfRangeOnlyWhileFileIsUnchanged() throws Exception {
+		String etag = serve(null, null).getHeader("ETag");
+		String lastModified = serve(null, null).getHeader("Last-Modified");
+
+		assertEquals(206, serve("bytes=0-99", etag).getStatus());
+		assertEquals(206, serve("bytes=0-99", lastModified).getStatus());
+
+		MockHttpServletResponse stale = serve("bytes=0-99", "\"0-0\"");
+		assertEquals(200, stale.getStatus());
+		assertEquals(FILE_SIZE, stale.getContentAsByteArray().length);
+		assertEquals(200, serve("bytes=0-99", "W/" + etag).getStatus());
+	}
+
+	@Test
+	void checksSignaturesAndPaths() {
+		long expires = Instant.now().getEpochSecond() + 600;
+		String url = service.signedUrl(KEY, 42, expires);
+		assertTrue(url.startsWith("http://localhost:9090/api/public/media/lessons/12/intro.mp4?uid=42&"));
+		Map<String, String> query = new HashMap<>();
+		for (String pair : URI.create(url).getRawQuery().split("&")) {
+			query.put(pair.substring(0, pair.indexOf('=')), pair.substring(pair.indexOf('=') + 1));
+		}
+
+		assertTrue(service.verify(KEY, 42, expires, query.get("signature")));
+		assertFalse(service.verify(KEY, 43, expires, query.get("signature")));
+		assertFalse(service.verify("lessons/12/other.mp4", 42, expires, query.get("signature")));
+		long past = Instant.now().getEpochSecond() - 1;
+		assertFalse(service.verify(KEY, 42, past, service.signedUrl(KEY, 42, past).replaceAll(".*signature=", "")));
+
+		assertThrows(NoSuchElementException.class, () -> service.resolve("../" + KEY));
+		assertThrows(NoSuchElementException.class, () -> service.resolve("/etc/passwd"));
+		assertThrows(NoSuchElementException.class, () -> service.resolve("lessons/12/missing.mp4"));
+	}
+
+	@Test
+	void boundsOpenStreamsPerUser() {
+		for (int i = 0; i < 4; i++) {
+			assertTrue(service.acquire(42));
+		}
+		assertFalse(service.acquire(42));
+		assertTrue(service.acquire(7));
+
+		service.release(42);
+		assertTrue(service.acquire(42));
+		assertEquals(5L, ((Number) service.getMetrics().get("streamsOpen")).longValue());
+	}
+
+	@Test
+	void handsWholeFilesAndSingleRangesToSendfile() throws Exception {
+		ReflectionTestUtils.setField(service, "maxStreamsPerUser", 0);
+		MockHttpServletRequest request = sendfileRequest();
+		MockHttpServletResponse full = new MockHttpServletResponse();
+		service.serve(KEY, null, null, request, full);
+		assertEquals(200, full.getStatus());
+		assertEquals(FILE_SIZE, full.getContentLengthLong());
+		assertEquals(0, full.getContentAsByteArray().length);
+		assertEquals(mediaDir.resolve(KEY).toAbsolutePath().normalize().toString(),
+				request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals((long) FILE_SIZE, request.getAttribute("org.apache.tomcat.sendfile.end"));
+
+		request = sendfileRequest();
+		MockHttpServletResponse partial = new MockHttpServletResponse();
+		service.serve(KEY, "bytes=1000-1999", null, request, partial);
+		assertEquals(206, partial.getStatus());
+		assertEquals(1000, partial.getContentLengthLong());
+		assertEquals(0, partial.getContentAsByteArray().length);
+		assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(2000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+
+		// Multipart bodies are built here, so they are still written
+		request = sendfileRequest();
+		MockHttpServletResponse multipart = new MockHttpServletResponse();
+		service.serve(KEY, "bytes=0-9,100-109", null, request, multipart);
+		assertTrue(multipart.getContentAsByteArray().length > 20);
+		assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(2L, service.getMetrics().get("sendfileResponses"));
+	}
+
+	@Tag("load")
+	@Test
+	void sustainsParallelSeekingClients() throws Exception {
+		LongAdder bytes = new LongAdder();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> clients = new ArrayList<>();
+		for (int c = 0; c < CLIENTS; c++) {
+			long userId = c;
+			clients.add(new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				try {
+					for (int i = 0; i < SEEKS_PER_CLIENT; i++) {
+						int start = random.nextInt(FILE_SIZE - CHUNK);
+						assertTrue(service.acquire(userId));
+						MockHttpServletResponse response;
+						try {
+							response = serve("bytes=" + start + "-" + (start + CHUNK - 1), null);
+						} finally {
+							service.release(userId);
+						}
+						assertEquals(206, response.getStatus());
+						byte[] body = response.getContentAsByteArray();
+						assertArrayEquals(Arrays.copyOfRange(content, start, start + CHUNK), body);
+						bytes.add(body.length);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}));
+		}
+
+		long start = System.nanoTime();
+		clients.forEach(Thread::start);
+		for (Thread client : clients) {
+			client.join();
+		}
+		double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+
+		double megabytesPerSecond = bytes.sum() / 1048576.0 / elapsedSeconds;
+		System.out.printf("Media streaming: %d clients, %d range requests, %.0f MB/s%n",
+				CLIENTS, CLIENTS * SEEKS_PER_CLIENT, megabytesPerSecond);
+		assertEquals((long) CLIENTS * SEEKS_PER_CLIENT * CHUNK, bytes.sum());
+		assertEquals(bytes.sum(), service.getMetrics().get("bytesServed"));
+		assertEquals(0L, ((Number) service.getMetrics().get("streamsOpen")).longValue());
+	}
+
+	private MockHttpServletResponse serve(String range, String ifRange) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		service.serve(KEY, range, ifRange, new MockHttpServletRequest("GET", "/api/public/media/" + KEY), response);
+		return response;
+	}
+
+	private MockHttpServletRequest sendfileRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/public/media/" + KEY);
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		return request;
+	}
+
+	private void assertPart(String part, int first, int last) {
+		String headers = part.substring(0, part.indexOf("\r\n\r\n"));
+		assertTrue(headers.contains("Content-Type: video/mp4"));
+		assertTrue(headers.contains("Content-Range: bytes " + first + "-" + last + "/" + FILE_SIZE));
+		byte[] data = part.substring(headers.length() + 4).getBytes(StandardCharsets.ISO_8859_1);
+		assertArrayEquals(Arrays.copyOfRange(content, first, last + 1), data);
+	}
+}
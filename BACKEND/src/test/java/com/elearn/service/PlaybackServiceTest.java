@@ -0,0 +1,102 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.Enrollment.EnrollmentStatus;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.service.impl.S3BlobStore;
+
+/**
+ * Who may report watch time for a video, with the same rule as playback links.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(PlaybackService.class)
+class PlaybackServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private PlaybackService playbackService;
+
+	@MockitoBean
+	private MediaStreamService mediaStreamService;
+
+	@MockitoBean
+	private S3BlobStore s3BlobStore;
+
+	private User admin;
+	private User instructor;
+	private User student;
+	private Courses course;
+	private Video video;
+
+	@BeforeEach
+	void setUp() {
+		admin = persistUser("admin@example.com", User.UserRole.ADMIN);
+		instructor = persistUser("instructor@example.com", User.UserRole.INSTRUCTOR);
+		student = persistUser("student@example.com", User.UserRole.STUDENT);
+
+		course = new Courses();
+		course.setTitle("Spring Boot");
+		course.setInstructor(instructor);
+		course.setCategoryId(1);
+		entityManager.persist(course);
+
+		video = new Video();
+		video.setTitle("Introduction");
+		video.setVideoLink("https://www.youtube.com/watch?v=intro");
+		video.setCourse(course);
+		entityManager.persist(video);
+		entityManager.flush();
+	}
+
+	@Test
+	void allowsStaffAndEnrolledStudentsOfExistingVideos() {
+		assertTrue(playbackService.mayRecordWatchTime(admin, video.getId()));
+		assertTrue(playbackService.mayRecordWatchTime(instructor, video.getId()));
+		assertFalse(playbackService.mayRecordWatchTime(student, video.getId()));
+		assertFalse(playbackService.mayRecordWatchTime(admin, video.getId() + 1000));
+
+		// Refusals are not cached, so enrolling counts at once
+		Enrollment enrollment = new Enrollment();
+		enrollment.setUser(student);
+		enrollment.setCourse(course);
+		entityManager.persist(enrollment);
+		entityManager.flush();
+		assertTrue(playbackService.mayRecordWatchTime(student, video.getId()));
+	}
+
+	@Test
+	void refusesDroppedEnrollments() {
+		Enrollment enrollment = new Enrollment();
+		enrollment.setUser(student);
+		enrollment.setCourse(course);
+		enrollment.setStatus(EnrollmentStatus.DROPPED);
+		entityManager.persist(enrollment);
+		entityManager.flush();
+
+		assertFalse(playbackService.mayRecordWatchTime(student, video.getId()));
+	}
+
+	private User persistUser(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return entityManager.persist(user);
+	}
+}
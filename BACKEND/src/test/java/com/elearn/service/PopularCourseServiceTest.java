@@ -0,0 +1,57 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.repo.EnrollmentRepository;
+import com.elearn.service.PopularCourseService.RankedCourse;
+
+class PopularCourseServiceTest {
+
+	private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+	private final PopularCourseService service = new PopularCourseService();
+
+	@BeforeEach
+	void setUp() {
+		when(enrollmentRepository.countEnrollmentsByCourse()).thenReturn(List.of(
+				new Object[] { 1L, 5L },
+				new Object[] { 2L, 9L },
+				new Object[] { 3L, 7L },
+				new Object[] { 4L, 7L }));
+		ReflectionTestUtils.setField(service, "enrollmentRepository", enrollmentRepository);
+		service.init();
+	}
+
+	@Test
+	void pagesThroughTheRanking() {
+		assertEquals(List.of(2L, 3L), ids(service.getTopCourses(2)));
+		assertEquals(List.of(4L, 1L), ids(service.getTopCourses(2, 2)));
+		assertEquals(List.of(1L), ids(service.getTopCourses(3, 5)));
+		assertEquals(List.of(), ids(service.getTopCourses(4, 5)));
+	}
+
+	@Test
+	void movesCoursesAsEnrollmentsChange() {
+		service.recordEnrollment(1L);
+		service.recordEnrollment(1L);
+		service.recordEnrollment(1L);
+		service.recordUnenrollment(2L);
+		service.removeCourse(3L);
+
+		// Ties go to the lower id
+		assertEquals(List.of(1L, 2L, 4L), ids(service.getTopCourses(10)));
+		assertEquals(8L, service.getEnrollmentCount(1L));
+	}
+
+	private static List<Long> ids(List<RankedCourse> ranked) {
+		return ranked.stream().map(RankedCourse::getCourseId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,103 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.elearn.model.ProductType;
+import com.elearn.service.ProductCatalogIndex.Product;
+import com.elearn.service.ProductCatalogIndex.ProductPage;
+import com.elearn.service.ProductCatalogIndex.ProductQuery;
+import com.elearn.service.ProductCatalogIndex.ProductSort;
+
+class ProductCatalogIndexTest {
+
+	private final ProductCatalogIndex index = new ProductCatalogIndex(List.of(
+			new Product(ProductType.LAPTOPS, 1, "Dell Inspiron", 55_000, 4, null),
+			new Product(ProductType.LAPTOPS, 2, "Dell XPS", 120_000, 0, null),
+			new Product(ProductType.LAPTOPS, 3, "HP Pavilion", 48_000, 2, null),
+			new Product(ProductType.MOBILES, 1, "Redmi Note", 14_000, 10, null),
+			new Product(ProductType.MOBILES, 2, "Samsung Galaxy", 70_000, 0, null),
+			new Product(ProductType.HEADPHONES, 1, "boAt Rockerz", 1_500, 25, null),
+			new Product(ProductType.HEADPHONES, 2, "Sony WH-1000", 25_000, 3, null)));
+
+	@Test
+	void filtersByTypePriceAndStock() {
+		ProductQuery query = new ProductQuery();
+		query.setTypes(EnumSet.of(ProductType.LAPTOPS, ProductType.MOBILES));
+		query.setMaxPrice(60_000);
+		query.setInStock(true);
+		query.setSort(ProductSort.PRICE_ASC);
+
+		ProductPage page = index.query(query);
+
+		assertEquals(3, page.getTotal());
+		assertEquals(List.of("Redmi Note", "HP Pavilion", "Dell Inspiron"), names(page));
+	}
+
+	@Test
+	void countsEachFacetWithoutItsOwnFilter() {
+		ProductQuery query = new ProductQuery();
+		query.setTypes(EnumSet.of(ProductType.LAPTOPS));
+		query.setInStock(true);
+
+		ProductPage page = index.query(query);
+
+		assertEquals(2, page.getTotal());
+		// Type counts ignore the type filter but keep the stock filter
+		assertEquals(2, page.getFacets().getTypes().get(ProductType.LAPTOPS));
+		assertEquals(1, page.getFacets().getTypes().get(ProductType.MOBILES));
+		assertEquals(2, page.getFacets().getTypes().get(ProductType.HEADPHONES));
+		// Stock counts ignore the stock filter but keep the type filter
+		assertEquals(2, page.getFacets().getInStock());
+		assertEquals(1, page.getFacets().getOutOfStock());
+		// 20k-50k and 50k-100k each hold one in-stock laptop
+		assertEquals(1, page.getFacets().getPrice().get(3).getCount());
+		assertEquals(1, page.getFacets().getPrice().get(4).getCount());
+		assertEquals(0, page.getFacets().getPrice().get(5).getCount());
+	}
+
+	@Test
+	void matchesNamePrefixInEitherOrder() {
+		ProductQuery query = new ProductQuery();
+		query.setNamePrefix("dell");
+		query.setSort(ProductSort.PRICE_DESC);
+		assertEquals(List.of("Dell XPS", "Dell Inspiron"), names(index.query(query)));
+
+		query.setSort(ProductSort.NAME_DESC);
+		assertEquals(List.of("Dell XPS", "Dell Inspiron"), names(index.query(query)));
+
+		query.setNamePrefix("S");
+		query.setSort(ProductSort.NAME_ASC);
+		assertEquals(List.of("Samsung Galaxy", "Sony WH-1000"), names(index.query(query)));
+	}
+
+	@Test
+	void pagesThroughSortedResults() {
+		ProductQuery query = new ProductQuery();
+		query.setSort(ProductSort.PRICE_DESC);
+		query.setSize(3);
+
+		List<String> all = new ArrayList<>();
+		for (int page = 0; page < 3; page++) {
+			query.setPage(page);
+			ProductPage result = index.query(query);
+			assertEquals(7, result.getTotal());
+			all.addAll(names(result));
+		}
+		assertEquals(List.of("Dell XPS", "Samsung Galaxy", "Dell Inspiron", "HP Pavilion", "Sony WH-1000",
+				"Redmi Note", "boAt Rockerz"), all);
+	}
+
+	private static List<String> names(ProductPage page) {
+		List<String> names = new ArrayList<>();
+		for (Product product : page.getResults()) {
+			names.add(product.getPname());
+		}
+		return names;
+	}
+}
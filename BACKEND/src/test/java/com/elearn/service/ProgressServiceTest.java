@@ -0,0 +1,173 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+import com.elearn.model.EnrollmentProgress;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repo.EnrollmentProgressRepository;
+
+/**
+ * Buffered progress written with the MySQL upsert: failed flushes are retried, updates made
+ * during a flush are kept, and completed videos only ever accumulate.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:progress;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgressService.class)
+class ProgressServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ProgressService progressService;
+
+	@Autowired
+	private EnrollmentProgressRepository progressRepository;
+
+	@MockitoSpyBean
+	private JdbcTemplate jdbcTemplate;
+
+	private User student;
+	private Enrollment enrollment;
+	private Video[] videos;
+
+	@BeforeEach
+	void setUp() {
+		User instructor = persistUser("instructor@example.com", User.UserRole.INSTRUCTOR);
+		student = persistUser("student@example.com", User.UserRole.STUDENT);
+
+		Courses course = new Courses();
+		course.setTitle("Spring Boot");
+		course.setInstructor(instructor);
+		course.setCategoryId(1);
+		entityManager.persist(course);
+
+		videos = new Video[4];
+		for (int i = 0; i < videos.length; i++) {
+			videos[i] = new Video();
+			videos[i].setTitle("Lesson " + i);
+			videos[i].setVideoLink("https://www.youtube.com/watch?v=lesson" + i);
+			videos[i].setCourse(course);
+			videos[i].setCourseOrdinal(i);
+			entityManager.persist(videos[i]);
+		}
+
+		enrollment = new Enrollment();
+		enrollment.setUser(student);
+		enrollment.setCourse(course);
+		entityManager.persist(enrollment);
+		entityManager.flush();
+	}
+
+	@Test
+	void retriesAFailedFlush() {
+		complete(videos[0], videos[1]);
+		doThrow(new DataAccessResourceFailureException("Database unavailable"))
+				.doCallRealMethod()
+				.when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+		progressService.flush();
+		assertTrue(stored().isEmpty());
+		assertEquals(50, progressService.getProgress(enrollment.getId()).orElseThrow().getProgress());
+
+		progressService.flush();
+		assertEquals(List.of(videos[0].getId(), videos[1].getId()), completedInDatabase());
+	}
+
+	@Test
+	void keepsAnUpdateMadeDuringAFlush() {
+		complete(videos[0]);
+		doAnswer(invocation -> {
+			complete(videos[2]);
+			return invocation.callRealMethod();
+		}).doCallRealMethod()
+				.when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+		progressService.flush();
+		assertEquals(List.of(videos[0].getId()), completedInDatabase());
+		assertEquals(List.of(videos[0].getId(), videos[2].getId()),
+				progressService.getCompletedVideoIds(progressService.getProgress(enrollment.getId()).orElseThrow()));
+
+		progressService.flush();
+		assertEquals(List.of(videos[0].getId(), videos[2].getId()), completedInDatabase());
+	}
+
+	@Test
+	void mergesCompletedVideosWithWhatIsStored() {
+		complete(videos[1]);
+		progressService.flush();
+
+		// A later report without the earlier video does not undo it, and unknown ids are ignored
+		progressService.updateProgress(student.getId(), enrollment.getId(), List.of(videos[3].getId(), -1L), 0);
+		progressService.flush();
+
+		assertEquals(List.of(videos[1].getId(), videos[3].getId()), completedInDatabase());
+		entityManager.clear();
+		assertEquals(50, progressRepository.findById(enrollment.getId()).orElseThrow().getProgress());
+	}
+
+	@Test
+	void refusesAnotherUsersEnrollment() {
+		User other = persistUser("other@example.com", User.UserRole.STUDENT);
+
+		assertThrows(AccessDeniedException.class, () -> progressService.updateProgress(other.getId(),
+				enrollment.getId(), List.of(videos[0].getId()), 0));
+		assertTrue(progressService.getProgress(enrollment.getId()).isEmpty());
+		assertTrue(progressService.updateProgress(student.getId(), enrollment.getId() + 1000, List.of(), 0).isEmpty());
+	}
+
+	private void complete(Video... completed) {
+		List<Long> ids = Arrays.stream(completed).map(Video::getId).toList();
+		progressService.updateProgress(student.getId(), enrollment.getId(), ids, 0);
+	}
+
+	private Optional<EnrollmentProgress> stored() {
+		entityManager.clear();
+		return progressRepository.findById(enrollment.getId());
+	}
+
+	private List<Long> completedInDatabase() {
+		return progressService.getCompletedVideoIds(stored().orElseThrow());
+	}
+
+	private User persistUser(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return entityManager.persist(user);
+	}
+}
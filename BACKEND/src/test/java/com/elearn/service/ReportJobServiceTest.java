@@ -0,0 +1,192 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.User;
+import com.elearn.repo.UserRepository;
+import com.elearn.service.ReportJobService.JobStatus;
+import com.elearn.service.ReportJobService.ReportJob;
+import com.elearn.service.ReportJobService.Submission;
+import com.elearn.service.impl.LocalBlobStore;
+
+/**
+ * Report jobs generated from H2 on the worker pool and stored in the local blob store.
+ * Test data is committed so the workers can read it.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"storage.backend=local"
+})
+@Import({ ReportJobService.class, ReportService.class, UserService.class, LocalBlobStore.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportJobServiceTest {
+
+	private static Path storageDir;
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) throws IOException {
+		storageDir = Files.createTempDirectory("edulearn-reports");
+		registry.add("storage.local-dir", storageDir::toString);
+	}
+
+	@Autowired
+	private ReportJobService reportJobService;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoSpyBean
+	private ReportService reportService;
+
+	@MockitoBean
+	private CourseService courseService;
+
+	@MockitoBean
+	private EnrollmentService enrollmentService;
+
+	@MockitoBean
+	private CategoryService categoryService;
+
+	@MockitoBean
+	private PopularCourseService popularCourseService;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.saveAll(List.of(
+				user("asha@example.com", User.UserRole.STUDENT),
+				user("ravi@example.com", User.UserRole.STUDENT),
+				user("meera@example.com", User.UserRole.INSTRUCTOR)));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		// The service outlives each test; start the next one without cached jobs
+		((Map<?, ?>) ReflectionTestUtils.getField(reportJobService, "jobs")).clear();
+		((Map<?, ?>) ReflectionTestUtils.getField(reportJobService, "jobsByKey")).clear();
+		userRepository.deleteAll();
+		try (Stream<Path> files = Files.walk(storageDir)) {
+			List<Path> regular = files.filter(Files::isRegularFile).collect(Collectors.toList());
+			for (Path file : regular) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	void generatesStoresAndExpiresAReport() throws Exception {
+		Submission submission = reportJobService.submit("users", "month", "csv");
+		assertFalse(submission.isCached());
+		ReportJob job = await(submission.getJob());
+
+		assertEquals(JobStatus.COMPLETED, job.getStatus());
+		String csv = new String(reportJobService.readArtifact(job));
+		assertTrue(csv.contains("Students,2\n"), csv);
+		assertTrue(csv.contains("Instructors,1\n"), csv);
+		assertEquals(csv.length(), job.getSizeBytes());
+		assertEquals(csv.length(), blobStore.size("reports/" + job.getId() + ".csv"));
+
+		ReflectionTestUtils.setField(job, "expiresAt", job.getFinishedAt().minusSeconds(1));
+		reportJobService.evictExpired();
+		assertTrue(reportJobService.getJob(job.getId()).isEmpty());
+		assertEquals(-1, blobStore.size("reports/" + job.getId() + ".csv"));
+		assertThrows(NoSuchFileException.class, () -> reportJobService.readArtifact(job));
+	}
+
+	@Test
+	void reusesTheJobForTheSameReport() throws Exception {
+		long cacheHits = metric("cacheHits");
+		ReportJob first = reportJobService.submit("users", "month", "csv").getJob();
+		Submission repeat = reportJobService.submit("users", "month", "csv");
+		assertTrue(repeat.isCached());
+		assertSame(first, repeat.getJob());
+		await(first);
+
+		// Still served from the stored artifact once done
+		assertSame(first, reportJobService.submit("users", "month", "csv").getJob());
+		ReportJob otherRange = reportJobService.submit("users", "year", "csv").getJob();
+		ReportJob otherFormat = reportJobService.submit("users", "month", "pdf").getJob();
+		assertNotEquals(first.getId(), otherRange.getId());
+		assertNotEquals(first.getId(), otherFormat.getId());
+		await(otherRange);
+		await(otherFormat);
+		assertEquals(cacheHits + 2, metric("cacheHits"));
+	}
+
+	@Test
+	void recordsAFailureAndRetriesOnTheNextSubmit() throws Exception {
+		long failures = metric("failed");
+		doThrow(new IllegalStateException("Renderer unavailable"))
+				.doCallRealMethod()
+				.when(reportService).renderReport(any(), eq("users"), anyBoolean());
+
+		ReportJob failed = await(reportJobService.submit("users", "month", "csv").getJob());
+		assertEquals(JobStatus.FAILED, failed.getStatus());
+		assertEquals("Renderer unavailable", failed.getError());
+		assertEquals(failures + 1, metric("failed"));
+
+		// A failed job is not reused
+		Submission retry = reportJobService.submit("users", "month", "csv");
+		assertFalse(retry.isCached());
+		assertEquals(JobStatus.COMPLETED, await(retry.getJob()).getStatus());
+		assertThrows(IllegalArgumentException.class, () -> reportJobService.submit("payroll", "month", "csv"));
+	}
+
+	private long metric(String name) {
+		return (Long) reportJobService.getMetrics().get(name);
+	}
+
+	private static ReportJob await(ReportJob job) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Report job " + job.getId() + " did not finish");
+			}
+			Thread.sleep(10);
+		}
+		return job;
+	}
+
+	private static User user(String email, User.UserRole role) {
+		User user = new User();
+		user.setName(email);
+		user.setEmail(email);
+		user.setPassword("password");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,164 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.elearn.model.Category;
+import com.elearn.model.Courses;
+import com.elearn.model.Enrollment;
+
+/**
+ * Checks that revenue summed in minor units matches plain BigDecimal addition exactly,
+ * value and scale, over randomly generated catalogs.
+ */
+class ReportServiceRevenueTest {
+
+	private final ReportService reportService = new ReportService();
+
+	@Test
+	void matchesBigDecimalSumsOnRandomData() {
+		Random random = new Random(20240601L);
+		for (int run = 0; run < 500; run++) {
+			List<Category> categories = randomCategories(random);
+			List<Enrollment> enrollments = randomEnrollments(random, randomCourses(random, 1 + random.nextInt(30), false));
+			assertSameRevenue(enrollments, categories, "run " + run);
+		}
+	}
+
+	@Test
+	void fallsBackWhenMinorUnitsOverflow() {
+		Random random = new Random(7L);
+		for (int run = 0; run < 50; run++) {
+			List<Category> categories = randomCategories(random);
+			List<Enrollment> enrollments = randomEnrollments(random, randomCourses(random, 1 + random.nextInt(5), true));
+			assertSameRevenue(enrollments, categories, "run " + run);
+		}
+	}
+
+	@Test
+	void emptyInputGivesZeroBuckets() {
+		assertSameRevenue(new ArrayList<>(), new ArrayList<>(), "empty");
+	}
+
+	private void assertSameRevenue(List<Enrollment> enrollments, List<Category> categories, String label) {
+		Map<String, Object> expected = referenceRevenueStats(enrollments, categories);
+		Map<String, Object> actual = reportService.buildRevenueStats(enrollments, categories);
+
+		// BigDecimal.equals compares the scale too, so "10.50" and "10.5" are different
+		assertEquals(expected.get("totalRevenue"), actual.get("totalRevenue"), label);
+		assertArrayEquals((BigDecimal[]) expected.get("monthlyRevenue"), (BigDecimal[]) actual.get("monthlyRevenue"), label);
+		assertEquals(expected.get("revenueByCategory"), actual.get("revenueByCategory"), label);
+	}
+
+	private static List<Category> randomCategories(Random random) {
+		List<Category> categories = new ArrayList<>();
+		int count = random.nextInt(8);
+		for (int i = 1; i <= count; i++) {
+			Category category = new Category();
+			category.setId(i);
+			int name = random.nextInt(10);
+			// Some categories share a name, some have none
+			category.setName(name == 0 ? null : "Category " + (name % 5));
+			categories.add(category);
+		}
+		return categories;
+	}
+
+	private static List<Courses> randomCourses(Random random, int count, boolean huge) {
+		List<Courses> courses = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			Courses course = new Courses();
+			course.setId(random.nextInt(10) == 0 ? null : (long) i);
+			course.setCategoryId(random.nextInt(6) == 0 ? null : random.nextInt(10));
+			course.setPrice(random.nextInt(8) == 0 ? null : randomPrice(random, huge));
+			courses.add(course);
+		}
+		return courses;
+	}
+
+	private static BigDecimal randomPrice(Random random, boolean huge) {
+		if (huge) {
+			return new BigDecimal(BigInteger.valueOf(Long.MAX_VALUE / 4 + random.nextInt(1000)), random.nextInt(3));
+		}
+		// Scales from -1 to 4, including trailing zeros such as 10.50
+		int scale = random.nextInt(6) - 1;
+		return BigDecimal.valueOf(random.nextInt(1_000_000), scale);
+	}
+
+	private static List<Enrollment> randomEnrollments(Random random, List<Courses> courses) {
+		List<Enrollment> enrollments = new ArrayList<>();
+		int count = random.nextInt(200);
+		for (int i = 0; i < count; i++) {
+			Enrollment enrollment = new Enrollment();
+			enrollment.setCourse(random.nextInt(20) == 0 ? null : courses.get(random.nextInt(courses.size())));
+			enrollment.setEnrollmentDate(random.nextInt(20) == 0 ? null
+					: LocalDateTime.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28), 0, 0));
+			enrollments.add(enrollment);
+		}
+		return enrollments;
+	}
+
+	// Revenue aggregation as originally written with BigDecimal, used as the reference
+	private static Map<String, Object> referenceRevenueStats(List<Enrollment> enrollments, List<Category> categories) {
+		Map<String, Object> response = new HashMap<>();
+
+		response.put("totalRevenue", enrollments.stream()
+				.filter(e -> e.getCourse() != null && e.getCourse().getPrice() != null)
+				.map(e -> e.getCourse().getPrice())
+				.reduce(BigDecimal.ZERO, BigDecimal::add));
+
+		BigDecimal[] monthlyRevenue = new BigDecimal[12];
+		for (int i = 0; i < 12; i++) {
+			monthlyRevenue[i] = BigDecimal.ZERO;
+		}
+		enrollments.forEach(enrollment -> {
+			if (enrollment.getEnrollmentDate() != null &&
+				enrollment.getCourse() != null &&
+				enrollment.getCourse().getPrice() != null) {
+				int month = enrollment.getEnrollmentDate().getMonthValue() - 1;
+				monthlyRevenue[month] = monthlyRevenue[month].add(enrollment.getCourse().getPrice());
+			}
+		});
+		response.put("monthlyRevenue", monthlyRevenue);
+
+		Map<String, BigDecimal> revenueByCategory = new HashMap<>();
+		categories.forEach(category -> {
+			revenueByCategory.put(category.getName() != null ? category.getName() : "Uncategorized", BigDecimal.ZERO);
+		});
+		revenueByCategory.putIfAbsent("Uncategorized", BigDecimal.ZERO);
+		enrollments.forEach(enrollment -> {
+			if (enrollment.getCourse() != null &&
+				enrollment.getCourse().getPrice() != null &&
+				enrollment.getCourse().getCategoryId() != null) {
+				Integer categoryId = enrollment.getCourse().getCategoryId();
+				BigDecimal price = enrollment.getCourse().getPrice();
+				boolean foundCategory = false;
+				for (Category category : categories) {
+					if (category.getId().equals(categoryId)) {
+						String categoryName = category.getName() != null ? category.getName() : "Uncategorized";
+						revenueByCategory.put(categoryName, revenueByCategory.getOrDefault(categoryName, BigDecimal.ZERO).add(price));
+						foundCategory = true;
+						break;
+					}
+				}
+				if (!foundCategory) {
+					revenueByCategory.put("Uncategorized", revenueByCategory.getOrDefault("Uncategorized", BigDecimal.ZERO).add(price));
+				}
+			}
+		});
+		response.put("revenueByCategory", revenueByCategory);
+
+		return response;
+	}
+}
@@ -0,0 +1,86 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.elearn.service.SignedUrlCache.MediaFile;
+import com.elearn.service.SignedUrlCache.SignedUrl;
+
+class SignedUrlCacheTest {
+
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final AtomicInteger signatures = new AtomicInteger();
+
+	private SignedUrlCache cache(int maxEntries) {
+		return new SignedUrlCache((key, ttl) -> key + "?sig=" + signatures.incrementAndGet(), 120, maxEntries, now::get);
+	}
+
+	@Test
+	void reusesUrlUntilRefreshMargin() {
+		SignedUrlCache cache = cache(100);
+
+		SignedUrl first = cache.get(7, MediaFile.VIDEO, "student", "videos/7.mp4", 900);
+		assertEquals(now.get() + 900_000, first.getExpiresAtMillis());
+
+		now.addAndGet(779_000);
+		assertSame(first, cache.get(7, MediaFile.VIDEO, "student", "videos/7.mp4", 900));
+		assertEquals(1, signatures.get());
+
+		// Within two minutes of expiry a fresh URL is signed
+		now.addAndGet(1_000);
+		SignedUrl refreshed = cache.get(7, MediaFile.VIDEO, "student", "videos/7.mp4", 900);
+		assertNotEquals(first.getUrl(), refreshed.getUrl());
+		assertEquals(2, signatures.get());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	void keepsTiersFilesAndObjectsApart() {
+		SignedUrlCache cache = cache(100);
+
+		cache.get(7, MediaFile.VIDEO, "student", "videos/7.mp4", 900);
+		cache.get(7, MediaFile.VIDEO, "staff", "videos/7.mp4", 3600);
+		cache.get(7, MediaFile.NOTES, "student", "notes/7.pdf", 900);
+		assertEquals(3, signatures.get());
+
+		// The video was replaced: the cached URL for the old object is not reused
+		SignedUrl replaced = cache.get(7, MediaFile.VIDEO, "student", "videos/7-v2.mp4", 900);
+		assertEquals("videos/7-v2.mp4", replaced.getObjectKey());
+		assertEquals(4, signatures.get());
+		assertEquals(3, cache.size());
+
+		cache.evictVideo(7);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void signsWithoutCachingWhenFullOfLiveEntries() {
+		SignedUrlCache cache = cache(2);
+		cache.get(1, MediaFile.VIDEO, "student", "videos/1.mp4", 900);
+		cache.get(2, MediaFile.VIDEO, "student", "videos/2.mp4", 900);
+
+		cache.get(3, MediaFile.VIDEO, "student", "videos/3.mp4", 900);
+		cache.get(3, MediaFile.VIDEO, "student", "videos/3.mp4", 900);
+		assertEquals(2, cache.size());
+		assertEquals(4, signatures.get());
+
+		// Once the old entries near expiry they are purged to make room
+		now.addAndGet(800_000);
+		cache.get(3, MediaFile.VIDEO, "student", "videos/3.mp4", 900);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void rejectsLifetimeShorterThanRefreshMargin() {
+		SignedUrlCache cache = cache(100);
+		assertThrows(IllegalArgumentException.class,
+				() -> cache.get(1, MediaFile.VIDEO, "student", "videos/1.mp4", 60));
+	}
+}
@@ -0,0 +1,171 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.Laptops;
+import com.elearn.model.Mobiles;
+import com.elearn.model.ProductType;
+import com.elearn.model.StockReservation;
+import com.elearn.model.StockReservation.ReservationStatus;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.MobilesRepo;
+import com.elearn.repo.StockReservationRepository;
+import com.elearn.service.ProductCatalogIndex.ProductQuery;
+import com.elearn.service.StockReservationService.ReservationLine;
+
+/**
+ * Races hundreds of buyers for one SKU against an in-memory H2 database. Every reservation
+ * runs in its own transaction, so the test itself is not transactional.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ StockReservationService.class, ProductCatalogService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationContentionTest {
+
+	private static final int BUYERS = 400;
+	private static final int STOCK = 50;
+
+	@Autowired
+	private StockReservationService reservationService;
+
+	@Autowired
+	private ProductCatalogService productCatalogService;
+
+	@Autowired
+	private LaptopsRepo laptopsRepo;
+
+	@Autowired
+	private MobilesRepo mobilesRepo;
+
+	@Autowired
+	private StockReservationRepository reservationRepository;
+
+	@AfterEach
+	void tearDown() {
+		reservationRepository.deleteAll();
+		laptopsRepo.deleteAll();
+		mobilesRepo.deleteAll();
+	}
+
+	@Test
+	void sellsExactlyTheStockToConcurrentBuyers() throws Exception {
+		Long pid = saveLaptop(STOCK);
+
+		ExecutorService pool = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Future<?>> buyers = new ArrayList<>();
+		for (int i = 0; i < BUYERS; i++) {
+			String orderId = "order_" + i;
+			buyers.add(pool.submit(() -> {
+				start.await();
+				try {
+					reservationService.reserve(orderId, List.of(new ReservationLine(ProductType.LAPTOPS, pid, 1)));
+					succeeded.incrementAndGet();
+				} catch (IllegalStateException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		long startNanos = System.nanoTime();
+		start.countDown();
+		for (Future<?> buyer : buyers) {
+			buyer.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+		System.out.println(BUYERS + " buyers for " + STOCK + " units settled in "
+				+ (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+
+		assertEquals(STOCK, succeeded.get());
+		assertEquals(BUYERS - STOCK, rejected.get());
+		assertEquals(0, laptopsRepo.findById(pid).get().getPqty());
+		assertEquals(STOCK, reservationRepository.count());
+	}
+
+	@Test
+	void reservesAllLinesOfAnOrderOrNone() {
+		Long laptopId = saveLaptop(5);
+		Mobiles mobile = new Mobiles();
+		mobile.setPname("Redmi Note");
+		mobile.setPcost(14_000);
+		mobile.setPqty(1);
+		Long mobileId = mobilesRepo.save(mobile).getPid();
+
+		assertThrows(IllegalStateException.class, () -> reservationService.reserve("order_multi", List.of(
+				new ReservationLine(ProductType.LAPTOPS, laptopId, 2),
+				new ReservationLine(ProductType.MOBILES, mobileId, 2))));
+
+		assertEquals(5, laptopsRepo.findById(laptopId).get().getPqty());
+		assertEquals(1, mobilesRepo.findById(mobileId).get().getPqty());
+		assertEquals(0, reservationRepository.count());
+	}
+
+	@Test
+	void sweeperReturnsStockAndLatePaymentTakesItAgain() {
+		Long pid = saveLaptop(10);
+		ReflectionTestUtils.setField(reservationService, "ttlMillis", -1000L);
+		reservationService.reserve("order_late", List.of(new ReservationLine(ProductType.LAPTOPS, pid, 3)));
+		assertEquals(7, laptopsRepo.findById(pid).get().getPqty());
+
+		assertEquals(1, reservationService.sweepExpired());
+		assertEquals(10, laptopsRepo.findById(pid).get().getPqty());
+		assertEquals(ReservationStatus.EXPIRED, reservationRepository.findByOrderId("order_late").get(0).getStatus());
+
+		assertEquals(1, reservationService.confirm("order_late", "pay_1"));
+		assertEquals(7, laptopsRepo.findById(pid).get().getPqty());
+		StockReservation reservation = reservationRepository.findByOrderId("order_late").get(0);
+		assertEquals(ReservationStatus.CONFIRMED, reservation.getStatus());
+		assertEquals("pay_1", reservation.getPaymentId());
+
+		// Confirming twice changes nothing
+		assertEquals(0, reservationService.confirm("order_late", "pay_1"));
+		assertEquals(0, reservationService.sweepExpired());
+		ReflectionTestUtils.setField(reservationService, "ttlMillis", 900_000L);
+	}
+
+	@Test
+	void catalogSeesStockTakenAndReturnedByReservations() {
+		Long pid = saveLaptop(2);
+		productCatalogService.refresh();
+		ProductQuery inStock = new ProductQuery();
+		inStock.setInStock(true);
+		assertEquals(1, productCatalogService.query(inStock).getTotal());
+
+		ReflectionTestUtils.setField(reservationService, "ttlMillis", -1000L);
+		reservationService.reserve("order_all", List.of(new ReservationLine(ProductType.LAPTOPS, pid, 2)));
+		assertEquals(0, productCatalogService.query(inStock).getTotal());
+
+		reservationService.sweepExpired();
+		assertEquals(1, productCatalogService.query(inStock).getTotal());
+		ReflectionTestUtils.setField(reservationService, "ttlMillis", 900_000L);
+	}
+
+	private Long saveLaptop(int quantity) {
+		Laptops laptop = new Laptops();
+		laptop.setPname("Dell Inspiron");
+		laptop.setPcost(55_000);
+		laptop.setPqty(quantity);
+		return laptopsRepo.save(laptop).getPid();
+	}
+}
@@ -0,0 +1,198 @@
+package com.elearn.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.elearn.model.Laptops;
+import com.elearn.model.StorageGcCheckpoint;
+import com.elearn.repo.LaptopsRepo;
+import com.elearn.repo.StorageGcCheckpointRepository;
+import com.elearn.repo.StoredBlobRepository;
+import com.elearn.service.impl.LocalBlobStore;
+
+/**
+ * Storage GC against the local blob store and H2. The minimum age is zero so files
+ * written by the test are old enough, and pages of two objects exercise the listing.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"storage.backend=local",
+	"storage.gc.min-age-hours=0",
+	"storage.gc.page-size=2",
+	"storage.gc.max-deletes-per-second=0"
+})
+@Import({ StorageGcService.class, ContentStoreService.class, LocalBlobStore.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StorageGcServiceTest {
+
+	private static Path storageDir;
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) throws IOException {
+		storageDir = Files.createTempDirectory("edulearn-gc");
+		registry.add("storage.local-dir", storageDir::toString);
+	}
+
+	@Autowired
+	private StorageGcService storageGcService;
+
+	@Autowired
+	private ContentStoreService contentStoreService;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@Autowired
+	private LaptopsRepo laptopsRepo;
+
+	@Autowired
+	private StoredBlobRepository storedBlobRepository;
+
+	@Autowired
+	private StorageGcCheckpointRepository checkpointRepository;
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(storageDir)) {
+			List<Path> regular = files.filter(Files::isRegularFile).collect(Collectors.toList());
+			for (Path file : regular) {
+				Files.delete(file);
+			}
+		}
+		laptopsRepo.deleteAll();
+		storedBlobRepository.deleteAll();
+		checkpointRepository.deleteAll();
+		ReflectionTestUtils.setField(storageGcService, "minAgeHours", 0L);
+	}
+
+	@Test
+	void deletesOnlyUnreferencedFilesInOwnedPrefixes() throws Exception {
+		put("laptops/1_dell.jpg", 100);
+		put("laptops/2_replaced.jpg", 300);
+		put("courses/7_old_thumbnail.png", 500);
+		put("certificates/ab/abc.pdf", 700);
+		laptop(blobStore.publicUrl("laptops/1_dell.jpg"));
+		String kept = store("kept-image", "kept.png");
+		laptop(kept);
+		String released = store("released-image", "released.png");
+		assertTrue(contentStoreService.release(released));
+		Thread.sleep(20);
+
+		StorageGcCheckpoint report = storageGcService.run();
+
+		assertNotNull(report.getFinishedAt());
+		assertEquals(3, report.getDeleted());
+		assertEquals(300 + 500 + "released-image".length(), report.getBytesReclaimed());
+		assertEquals(0, report.getFailed());
+		assertEquals(5, report.getScanned());
+		assertTrue(blobStore.size("laptops/1_dell.jpg") > 0);
+		assertTrue(blobStore.size(blobStore.keyOf(kept)) > 0);
+		assertEquals(-1, blobStore.size("laptops/2_replaced.jpg"));
+		assertEquals(-1, blobStore.size("courses/7_old_thumbnail.png"));
+		assertEquals(-1, blobStore.size(blobStore.keyOf(released)));
+		// Not under an owned prefix
+		assertTrue(blobStore.size("certificates/ab/abc.pdf") > 0);
+		assertFalse(storedBlobRepository.findByObjectKey(blobStore.keyOf(released)).isPresent());
+
+		// Uploading a collected file again stores it again
+		assertEquals(released, store("released-image", "released.png"));
+		assertTrue(blobStore.size(blobStore.keyOf(released)) > 0);
+	}
+
+	@Test
+	void collectsOnlyLegacyUploadsAtTheRoot() throws Exception {
+		put("1600000000000_old_laptop.jpg", 100);
+		put("1600000000001_in_use.jpg", 200);
+		put("1600000000002_notes/readme.pdf", 300);
+		put("2024-export.csv", 400);
+		put("reports/12.csv", 500);
+		laptop(blobStore.publicUrl("1600000000001_in_use.jpg"));
+		Thread.sleep(20);
+
+		StorageGcCheckpoint report = storageGcService.run();
+
+		assertEquals(1, report.getDeleted());
+		assertEquals(2, report.getScanned());
+		assertEquals(-1, blobStore.size("1600000000000_old_laptop.jpg"));
+		assertTrue(blobStore.size("1600000000001_in_use.jpg") > 0);
+		assertTrue(blobStore.size("1600000000002_notes/readme.pdf") > 0);
+		assertTrue(blobStore.size("2024-export.csv") > 0);
+		assertTrue(blobStore.size("reports/12.csv") > 0);
+	}
+
+	@Test
+	void keepsFilesYoungerThanTheMinimumAge() throws Exception {
+		put("courses/8_new_upload.png", 200);
+		ReflectionTestUtils.setField(storageGcService, "minAgeHours", 1L);
+
+		StorageGcCheckpoint report = storageGcService.run();
+
+		assertEquals(0, report.getDeleted());
+		assertEquals(1, report.getTooNew());
+		assertTrue(blobStore.size("courses/8_new_upload.png") > 0);
+	}
+
+	@Test
+	void resumesAnUnfinishedRun() throws Exception {
+		put("blobs/00/orphan.png", 100);
+		put("laptops/3_orphan.jpg", 100);
+		StorageGcCheckpoint unfinished = new StorageGcCheckpoint();
+		unfinished.setId("storage-gc");
+		unfinished.setPrefix("laptops/");
+		unfinished.setScanned(40);
+		unfinished.setDeleted(10);
+		unfinished.setStartedAt(LocalDateTime.now().minusHours(1));
+		checkpointRepository.save(unfinished);
+		Thread.sleep(20);
+
+		StorageGcCheckpoint report = storageGcService.run();
+
+		// The earlier prefixes were done before it stopped
+		assertTrue(blobStore.size("blobs/00/orphan.png") > 0);
+		assertEquals(-1, blobStore.size("laptops/3_orphan.jpg"));
+		assertEquals(41, report.getScanned());
+		assertEquals(11, report.getDeleted());
+		assertEquals(unfinished.getStartedAt().withNano(0), report.getStartedAt().withNano(0));
+	}
+
+	private void put(String key, int size) throws IOException {
+		blobStore.put(key, new ByteArrayInputStream(new byte[size]), size, "image/png");
+	}
+
+	private String store(String content, String filename) throws IOException {
+		byte[] bytes = content.getBytes();
+		return contentStoreService.store(new ByteArrayResource(bytes), bytes.length, "image/png", filename);
+	}
+
+	private void laptop(String image) {
+		Laptops laptop = new Laptops();
+		laptop.setPname("Laptop");
+		laptop.setPcost(50000);
+		laptop.setPqty(3);
+		laptop.setPimage(image);
+		laptopsRepo.save(laptop);
+	}
+}
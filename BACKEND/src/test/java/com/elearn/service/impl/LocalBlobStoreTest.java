@@ -0,0 +1,185 @@
+package com.elearn.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.service.BlobStore.Listing;
+import com.elearn.service.BlobStore.StoredObject;
+
+class LocalBlobStoreTest {
+
+	@TempDir
+	Path storageDir;
+
+	private LocalBlobStore store;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		store = new LocalBlobStore();
+		ReflectionTestUtils.setField(store, "localDir", storageDir.toString());
+		ReflectionTestUtils.setField(store, "publicBaseUrl", "http://localhost:9090/");
+		store.init();
+	}
+
+	@Test
+	void storesShardedAndReadsBack() throws IOException {
+		byte[] image = bytes(40_000, 3);
+		put("courses/1712345678_intro.png", image);
+
+		assertArrayEquals(image, toArray(store.read("courses/1712345678_intro.png")));
+		assertEquals(image.length, store.size("courses/1712345678_intro.png"));
+
+		Path file = store.pathOf("courses/1712345678_intro.png");
+		assertTrue(Files.isRegularFile(file));
+		// Two levels of two hex digits under the root
+		assertEquals(storageDir.toAbsolutePath().normalize(), file.getParent().getParent().getParent());
+		assertTrue(file.getParent().getFileName().toString().matches("[0-9a-f]{2}"));
+
+		assertTrue(store.delete("courses/1712345678_intro.png"));
+		assertNull(store.read("courses/1712345678_intro.png"));
+		assertEquals(-1, store.size("courses/1712345678_intro.png"));
+		assertFalse(store.delete("courses/1712345678_intro.png"));
+	}
+
+	@Test
+	void leavesNothingBehindWhenUploadIsShort() throws IOException {
+		assertThrows(IOException.class, () -> store.put("laptops/1_dell.jpg", new ByteArrayInputStream(new byte[10]),
+				11, "image/jpeg"));
+
+		assertNull(store.read("laptops/1_dell.jpg"));
+		try (Stream<Path> files = Files.walk(storageDir)) {
+			List<Path> regular = files.filter(Files::isRegularFile).collect(Collectors.toList());
+			assertTrue(regular.isEmpty(), "temp files left: " + regular);
+		}
+	}
+
+	@Test
+	void readersSeeWholeVersionsWhileOverwritten() throws Exception {
+		byte[] first = bytes(256 * 1024, 1);
+		byte[] second = bytes(256 * 1024, 2);
+		put("courses/cover.png", first);
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread reader = new Thread(() -> {
+			try {
+				while (running.get()) {
+					byte[] seen = toArray(store.read("courses/cover.png"));
+					assertTrue(Arrays.equals(first, seen) || Arrays.equals(second, seen), "torn read");
+				}
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			}
+		});
+		reader.start();
+		for (int i = 0; i < 50; i++) {
+			put("courses/cover.png", i % 2 == 0 ? second : first);
+		}
+		running.set(false);
+		reader.join();
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	@Test
+	void listsPrefixInPages() throws IOException {
+		Set<String> expected = new HashSet<>();
+		for (int i = 0; i < 25; i++) {
+			put("courses/" + i + "_thumb +" + i + ".png", bytes(10 + i, i));
+			expected.add("courses/" + i + "_thumb +" + i + ".png");
+			put("laptops/" + i + ".jpg", bytes(5, i));
+		}
+		put("courses-archive/old.png", bytes(5, 0));
+
+		Set<String> listed = new HashSet<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String token = null;
+		do {
+			Listing page = store.list("courses/", token, 10);
+			for (StoredObject object : page.getObjects()) {
+				assertTrue(listed.add(object.getKey()), "listed twice: " + object.getKey());
+				assertEquals(store.size(object.getKey()), object.getSize());
+				assertTrue(object.getLastModified() != null);
+			}
+			pageSizes.add(page.getObjects().size());
+			token = page.getNextToken();
+		} while (token != null);
+
+		assertEquals(expected, listed);
+		assertEquals(List.of(10, 10, 5), pageSizes);
+		assertTrue(store.list("missing/", null, 10).getObjects().isEmpty());
+	}
+
+	@Test
+	void deletesInBatches() throws IOException {
+		put("laptops/a.jpg", bytes(5, 1));
+		put("laptops/b.jpg", bytes(5, 2));
+
+		List<String> deleted = store.deleteAll(List.of("laptops/a.jpg", "laptops/b.jpg", "laptops/missing.jpg", "../x"));
+
+		assertEquals(List.of("laptops/a.jpg", "laptops/b.jpg", "laptops/missing.jpg"), deleted);
+		assertNull(store.read("laptops/a.jpg"));
+		assertNull(store.read("laptops/b.jpg"));
+	}
+
+	@Test
+	void buildsAndParsesFileUrls() {
+		String url = store.publicUrl("courses/1_my intro+notes.pdf");
+		assertEquals("http://localhost:9090/api/public/files/courses/1_my%20intro%2Bnotes.pdf", url);
+		assertEquals("courses/1_my intro+notes.pdf", store.keyOf(url));
+
+		assertNull(store.keyOf("https://edulearn.s3.ap-south-1.amazonaws.com/courses/1.png"));
+		assertNull(store.keyOf(null));
+	}
+
+	@Test
+	void rejectsKeysOutsideTheStore() {
+		assertThrows(IllegalArgumentException.class, () -> store.pathOf("../secrets.txt"));
+		assertThrows(IllegalArgumentException.class, () -> store.pathOf("courses/../../x"));
+		assertThrows(IllegalArgumentException.class, () -> store.pathOf("/etc/passwd"));
+		assertThrows(IllegalArgumentException.class, () -> store.pathOf(""));
+	}
+
+	private void put(String key, byte[] content) throws IOException {
+		store.put(key, new ByteArrayInputStream(content), content.length, "image/png");
+	}
+
+	private static byte[] toArray(ByteBuffer buffer) {
+		byte[] array = new byte[buffer.remaining()];
+		buffer.duplicate().get(array);
+		return array;
+	}
+
+	private static byte[] bytes(int size, int seed) {
+		byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) (i * 31 + seed);
+		}
+		return content;
+	}
+}
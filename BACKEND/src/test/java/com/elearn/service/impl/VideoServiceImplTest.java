@@ -0,0 +1,113 @@
+package com.elearn.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.elearn.model.Courses;
+import com.elearn.model.User;
+import com.elearn.model.Video;
+import com.elearn.repository.CoursesRepo;
+import com.elearn.service.PlaybackService;
+import com.elearn.service.ProgressService;
+
+/**
+ * Course ordinals, which completed-video progress is keyed by, against H2
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect" })
+@Import(VideoServiceImpl.class)
+class VideoServiceImplTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private VideoServiceImpl videoService;
+
+	@Autowired
+	private CoursesRepo coursesRepo;
+
+	@MockitoBean
+	private ProgressService progressService;
+
+	@MockitoBean
+	private PlaybackService playbackService;
+
+	private Courses course;
+
+	@BeforeEach
+	void setUp() {
+		User instructor = new User();
+		instructor.setName("Instructor");
+		instructor.setEmail("instructor@example.com");
+		instructor.setPassword("password");
+		instructor.setRole(User.UserRole.INSTRUCTOR);
+		entityManager.persist(instructor);
+
+		course = new Courses();
+		course.setTitle("Course");
+		course.setInstructor(instructor);
+		course.setCategoryId(1);
+		entityManager.persist(course);
+		entityManager.flush();
+	}
+
+	@Test
+	void numbersVideosInCreationOrder() {
+		assertEquals(0, create("One").getCourseOrdinal());
+		assertEquals(1, create("Two").getCourseOrdinal());
+		assertEquals(2, create("Three").getCourseOrdinal());
+	}
+
+	@Test
+	void neverReusesTheOrdinalOfADeletedLastVideo() {
+		create("One");
+		Video last = create("Two");
+		videoService.deleteVideo(last.getId());
+
+		assertEquals(2, create("Three").getCourseOrdinal());
+	}
+
+	@Test
+	void savingAStaleCourseDoesNotRewindTheCounter() {
+		Courses stale = coursesRepo.findById(course.getId()).orElseThrow();
+		create("One");
+		create("Two");
+
+		stale.setTitle("Renamed");
+		coursesRepo.saveAndFlush(stale);
+		entityManager.clear();
+
+		assertEquals(2, create("Three").getCourseOrdinal());
+	}
+
+	@Test
+	void startsAfterTheHighestOrdinalForCoursesWithoutACounter() {
+		Video existing = new Video();
+		existing.setTitle("Legacy");
+		existing.setVideoLink("https://videos.example.com/legacy.mp4");
+		existing.setCourse(course);
+		existing.setCourseOrdinal(4);
+		entityManager.persist(existing);
+		entityManager.flush();
+
+		assertEquals(5, create("Next").getCourseOrdinal());
+	}
+
+	private Video create(String title) {
+		Video video = new Video();
+		video.setTitle(title);
+		video.setVideoLink("https://videos.example.com/" + title + ".mp4");
+		video.setCourse(coursesRepo.findById(course.getId()).orElseThrow());
+		Video saved = videoService.createVideo(video);
+		entityManager.flush();
+		return saved;
+	}
+}
@@ -0,0 +1,56 @@
+package com.elearn.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.json.JSONObject;
+
+import com.elearn.service.RazorpayGateway;
+
+/**
+ * Creates orders in memory, shaped like Razorpay's response, so checkout runs offline.
+ * Payments are "made" by signing with sign() and posting to /api/verify-payment.
+ */
+public class FakeRazorpayGateway extends RazorpayGateway {
+
+	private final AtomicLong orders = new AtomicLong();
+
+	@Override
+	public String createOrder(JSONObject orderRequest) {
+		long number = orders.incrementAndGet();
+		JSONObject order = new JSONObject();
+		order.put("id", "order_fake" + number);
+		order.put("entity", "order");
+		order.put("amount", orderRequest.getLong("amount"));
+		order.put("amount_paid", 0);
+		order.put("amount_due", orderRequest.getLong("amount"));
+		order.put("currency", orderRequest.optString("currency", "INR"));
+		order.put("receipt", orderRequest.optString("receipt", null));
+		order.put("status", "created");
+		order.put("attempts", 0);
+		order.put("created_at", System.currentTimeMillis() / 1000);
+		return order.toString();
+	}
+
+	public long getOrdersCreated() {
+		return orders.get();
+	}
+
+	/**
+	 * The razorpay_signature Checkout would hand the frontend for this payment
+	 */
+	public static String sign(String orderId, String paymentId, String secret) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			byte[] signature = mac.doFinal((orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(signature);
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to sign payment", e);
+		}
+	}
+}
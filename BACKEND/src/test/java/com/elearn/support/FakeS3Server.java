@@ -0,0 +1,409 @@
+package com.elearn.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-memory S3 for offline runs, speaking the path-style REST calls S3BlobStore
+ * makes: object PUT/GET/HEAD/DELETE, ListObjectsV2, batch delete and multipart uploads. Signatures are not checked. Point aws.s3.endpoint at getEndpoint().
+ */
+public class FakeS3Server {
+
+	private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+	private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+	private final HttpServer server;
+
+	// bucket/key -> object; sorted so listings come out in key order as in S3
+	private final NavigableMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+	private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+	private FakeS3Server(HttpServer server) {
+		this.server = server;
+	}
+
+	/**
+	 * Start on a free port on the loopback interface
+	 */
+	public static FakeS3Server start() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			FakeS3Server fake = new FakeS3Server(server);
+			server.createContext("/", fake::handle);
+			server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "fake-s3");
+				thread.setDaemon(true);
+				return thread;
+			}));
+			server.start();
+			return fake;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not start the fake S3 server", e);
+		}
+	}
+
+	public String getEndpoint() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public void stop() {
+		server.stop(0);
+	}
+
+	public int objectCount() {
+		return objects.size();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String path = exchange.getRequestURI().getPath();
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			int slash = path.indexOf('/', 1);
+			String bucket = slash < 0 ? path.substring(1) : path.substring(1, slash);
+			String key = slash < 0 ? "" : path.substring(slash + 1);
+			String method = exchange.getRequestMethod();
+
+			if (key.isEmpty()) {
+				if ("GET".equals(method)) {
+					listObjects(exchange, bucket, query);
+				} else if ("POST".equals(method) && query.containsKey("delete")) {
+					deleteObjects(exchange, bucket);
+				} else {
+					error(exchange, 405, "MethodNotAllowed", method + " on a bucket");
+				}
+				return;
+			}
+
+			String uploadId = query.get("uploadId");
+			switch (method) {
+				case "PUT":
+					if (uploadId != null) {
+						uploadPart(exchange, uploadId, Integer.parseInt(query.get("partNumber")));
+					} else {
+						putObject(exchange, bucket + "/" + key);
+					}
+					break;
+				case "POST":
+					if (query.containsKey("uploads")) {
+						createUpload(exchange, bucket, key);
+					} else {
+						completeUpload(exchange, bucket, key, uploadId);
+					}
+					break;
+				case "GET":
+					if (uploadId != null) {
+						listParts(exchange, bucket, key, uploadId);
+					} else {
+						getObject(exchange, bucket + "/" + key, true);
+					}
+					break;
+				case "HEAD":
+					getObject(exchange, bucket + "/" + key, false);
+					break;
+				case "DELETE":
+					if (uploadId != null) {
+						if (uploads.remove(uploadId) == null) {
+							error(exchange, 404, "NoSuchUpload", uploadId);
+							return;
+						}
+					} else {
+						objects.remove(bucket + "/" + key);
+					}
+					respond(exchange, 204, null, null);
+					break;
+				default:
+					error(exchange, 405, "MethodNotAllowed", method);
+			}
+		} catch (RuntimeException e) {
+			error(exchange, 500, "InternalError", String.valueOf(e.getMessage()));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void putObject(HttpExchange exchange, String path) throws IOException {
+		byte[] content = readBody(exchange);
+		String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		StoredObject object = new StoredObject(content, contentType != null ? contentType : "application/octet-stream");
+		objects.put(path, object);
+		exchange.getResponseHeaders().add("ETag", object.etag);
+		respond(exchange, 200, null, null);
+	}
+
+	private void getObject(HttpExchange exchange, String path, boolean withBody) throws IOException {
+		StoredObject object = objects.get(path);
+		if (object == null) {
+			if (withBody) {
+				error(exchange, 404, "NoSuchKey", path);
+			} else {
+				exchange.sendResponseHeaders(404, -1);
+			}
+			return;
+		}
+		exchange.getResponseHeaders().add("Content-Type", object.contentType);
+		exchange.getResponseHeaders().add("ETag", object.etag);
+		exchange.getResponseHeaders().add("Last-Modified",
+				DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified.atOffset(ZoneOffset.UTC)));
+		if (withBody) {
+			exchange.sendResponseHeaders(200, object.content.length == 0 ? -1 : object.content.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(object.content);
+			}
+		} else {
+			exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.content.length));
+			exchange.sendResponseHeaders(200, -1);
+		}
+	}
+
+	private void listObjects(HttpExchange exchange, String bucket, Map<String, String> query) throws IOException {
+		String prefix = query.getOrDefault("prefix", "");
+		String after = query.get("continuation-token");
+		int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+		String from = bucket + "/" + prefix;
+		NavigableMap<String, StoredObject> range = after != null
+				? objects.tailMap(bucket + "/" + after, false)
+				: objects.tailMap(from, true);
+
+		StringBuilder contents = new StringBuilder();
+		int count = 0;
+		String last = null;
+		boolean truncated = false;
+		for (Map.Entry<String, StoredObject> entry : range.entrySet()) {
+			if (!entry.getKey().startsWith(from)) {
+				break;
+			}
+			if (count == maxKeys) {
+				truncated = true;
+				break;
+			}
+			String key = entry.getKey().substring(bucket.length() + 1);
+			StoredObject object = entry.getValue();
+			contents.append("<Contents><Key>").append(xml(key)).append("</Key><LastModified>")
+					.append(DateTimeFormatter.ISO_INSTANT.format(object.lastModified)).append("</LastModified><ETag>")
+					.append(xml(object.etag)).append("</ETag><Size>").append(object.content.length)
+					.append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+			last = key;
+			count++;
+		}
+		StringBuilder body = new StringBuilder("<ListBucketResult xmlns=\"" + XMLNS + "\">")
+				.append("<Name>").append(xml(bucket)).append("</Name><Prefix>").append(xml(prefix)).append("</Prefix>")
+				.append("<KeyCount>").append(count).append("</KeyCount><MaxKeys>").append(maxKeys).append("</MaxKeys>")
+				.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+		if (truncated) {
+			body.append("<NextContinuationToken>").append(xml(last)).append("</NextContinuationToken>");
+		}
+		body.append(contents).append("</ListBucketResult>");
+		respond(exchange, 200, "application/xml", body.toString());
+	}
+
+	private void deleteObjects(HttpExchange exchange, String bucket) throws IOException {
+		String request = new String(readBody(exchange), StandardCharsets.UTF_8);
+		boolean quiet = request.contains("<Quiet>true</Quiet>");
+		StringBuilder body = new StringBuilder("<DeleteResult xmlns=\"" + XMLNS + "\">");
+		Matcher keys = DELETE_KEY.matcher(request);
+		while (keys.find()) {
+			String key = unxml(keys.group(1));
+			objects.remove(bucket + "/" + key);
+			if (!quiet) {
+				body.append("<Deleted><Key>").append(xml(key)).append("</Key></Deleted>");
+			}
+		}
+		respond(exchange, 200, "application/xml", body.append("</DeleteResult>").toString());
+	}
+
+	private void createUpload(HttpExchange exchange, String bucket, String key) throws IOException {
+		String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		String uploadId = UUID.randomUUID().toString();
+		uploads.put(uploadId, new Upload(bucket + "/" + key, contentType != null ? contentType : "application/octet-stream"));
+		respond(exchange, 200, "application/xml", "<InitiateMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>"
+				+ xml(bucket) + "</Bucket><Key>" + xml(key) + "</Key><UploadId>" + uploadId
+				+ "</UploadId></InitiateMultipartUploadResult>");
+	}
+
+	private void uploadPart(HttpExchange exchange, String uploadId, int partNumber) throws IOException {
+		Upload upload = uploads.get(uploadId);
+		if (upload == null) {
+			error(exchange, 404, "NoSuchUpload", uploadId);
+			return;
+		}
+		StoredObject part = new StoredObject(readBody(exchange), upload.contentType);
+		upload.parts.put(partNumber, part);
+		exchange.getResponseHeaders().add("ETag", part.etag);
+		respond(exchange, 200, null, null);
+	}
+
+	private void listParts(HttpExchange exchange, String bucket, String key, String uploadId) throws IOException {
+		Upload upload = uploads.get(uploadId);
+		if (upload == null) {
+			error(exchange, 404, "NoSuchUpload", uploadId);
+			return;
+		}
+		StringBuilder body = new StringBuilder("<ListPartsResult xmlns=\"" + XMLNS + "\"><Bucket>" + xml(bucket)
+				+ "</Bucket><Key>" + xml(key) + "</Key><UploadId>" + uploadId + "</UploadId><IsTruncated>false</IsTruncated>");
+		for (Map.Entry<Integer, StoredObject> part : upload.parts.entrySet()) {
+			body.append("<Part><PartNumber>").append(part.getKey()).append("</PartNumber><ETag>")
+					.append(xml(part.getValue().etag)).append("</ETag><Size>").append(part.getValue().content.length)
+					.append("</Size></Part>");
+		}
+		respond(exchange, 200, "application/xml", body.append("</ListPartsResult>").toString());
+	}
+
+	private void completeUpload(HttpExchange exchange, String bucket, String key, String uploadId) throws IOException {
+		readBody(exchange);
+		Upload upload = uploadId != null ? uploads.remove(uploadId) : null;
+		if (upload == null) {
+			error(exchange, 404, "NoSuchUpload", String.valueOf(uploadId));
+			return;
+		}
+		ByteArrayOutputStream joined = new ByteArrayOutputStream();
+		for (StoredObject part : upload.parts.values()) {
+			joined.write(part.content);
+		}
+		StoredObject object = new StoredObject(joined.toByteArray(), upload.contentType);
+		objects.put(upload.path, object);
+		respond(exchange, 200, "application/xml", "<CompleteMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>"
+				+ xml(bucket) + "</Bucket><Key>" + xml(key) + "</Key><ETag>" + xml(object.etag)
+				+ "</ETag></CompleteMultipartUploadResult>");
+	}
+
+	/**
+	 * The request body. The SDK signs uploads over plain HTTP chunk by chunk
+	 * (aws-chunked); the chunk headers are stripped here.
+	 */
+	private static byte[] readBody(HttpExchange exchange) throws IOException {
+		byte[] raw;
+		try (InputStream in = exchange.getRequestBody()) {
+			raw = in.readAllBytes();
+		}
+		String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+		String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+		boolean chunked = (sha256 != null && sha256.startsWith("STREAMING-"))
+				|| (encoding != null && encoding.contains("aws-chunked"));
+		return chunked ? decodeAwsChunked(raw) : raw;
+	}
+
+	static byte[] decodeAwsChunked(byte[] raw) {
+		ByteArrayOutputStream content = new ByteArrayOutputStream(raw.length);
+		int position = 0;
+		while (position < raw.length) {
+			int lineEnd = indexOfCrlf(raw, position);
+			if (lineEnd < 0) {
+				break;
+			}
+			String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+			int semicolon = header.indexOf(';');
+			int size = Integer.parseInt((semicolon < 0 ? header : header.substring(0, semicolon)).trim(), 16);
+			if (size == 0) {
+				break;
+			}
+			content.write(raw, lineEnd + 2, size);
+			position = lineEnd + 2 + size + 2;
+		}
+		return content.toByteArray();
+	}
+
+	private static int indexOfCrlf(byte[] bytes, int from) {
+		for (int i = from; i < bytes.length - 1; i++) {
+			if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+		respond(exchange, status, "application/xml", "<Error><Code>" + code + "</Code><Message>" + xml(message)
+				+ "</Message></Error>");
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+			String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+			query.put(name, value);
+		}
+		return query;
+	}
+
+	private static String xml(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String unxml(String text) {
+		return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+	}
+
+	private static final class StoredObject {
+		private final byte[] content;
+		private final String contentType;
+		private final String etag;
+		private final Instant lastModified = Instant.now();
+
+		StoredObject(byte[] content, String contentType) {
+			this.content = content;
+			this.contentType = contentType;
+			this.etag = "\"" + md5(content) + "\"";
+		}
+	}
+
+	private static final class Upload {
+		private final String path;
+		private final String contentType;
+		private final NavigableMap<Integer, StoredObject> parts = new ConcurrentSkipListMap<>();
+
+		Upload(String path, String contentType) {
+			this.path = path;
+			this.contentType = contentType;
+		}
+	}
+
+	private static String md5(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.elearn.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base for tests that start the whole application on a random port without MySQL,
+ * AWS or Razorpay: the "test" profile plus the fakes in OfflineTestConfig.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(OfflineTestConfig.class)
+public abstract class OfflineApplicationTest {
+
+	@DynamicPropertySource
+	static void offlineProperties(DynamicPropertyRegistry registry) {
+		OfflineTestConfig.registerFakes(registry);
+	}
+}
@@ -0,0 +1,39 @@
+package com.elearn.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import com.elearn.service.RazorpayGateway;
+
+/**
+ * The in-process fakes behind the "test" profile. The S3 fake is shared by every
+ * context in the JVM, like Spring's context cache shares the contexts themselves.
+ */
+@TestConfiguration
+public class OfflineTestConfig {
+
+	private static FakeS3Server s3;
+
+	public static synchronized FakeS3Server s3() {
+		if (s3 == null) {
+			s3 = FakeS3Server.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(s3::stop, "fake-s3-shutdown"));
+		}
+		return s3;
+	}
+
+	/**
+	 * Point the S3 clients at the fake; call from a @DynamicPropertySource
+	 */
+	public static void registerFakes(DynamicPropertyRegistry registry) {
+		registry.add("aws.s3.endpoint", () -> s3().getEndpoint());
+	}
+
+	@Bean
+	@Primary
+	public RazorpayGateway fakeRazorpayGateway() {
+		return new FakeRazorpayGateway();
+	}
+}
@@ -0,0 +1,51 @@
+package com.elearn.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.elearn.util.ByteRanges.Range;
+
+class ByteRangesTest {
+
+	@Test
+	void parsesClosedOpenAndSuffixRanges() {
+		List<Range> ranges = ByteRanges.parse("bytes=0-99, 500-, -50", 1000, 16);
+
+		assertEquals(2, ranges.size());
+		assertEquals("bytes 0-99/1000", ranges.get(0).contentRange(1000));
+		// 500- and the last 50 bytes overlap and are merged
+		assertEquals("bytes 500-999/1000", ranges.get(1).contentRange(1000));
+	}
+
+	@Test
+	void clipsAndMergesAdjacentRanges() {
+		List<Range> ranges = ByteRanges.parse("bytes=200-299,100-199,900-5000", 1000, 16);
+
+		assertEquals(2, ranges.size());
+		assertEquals(100, ranges.get(0).getStart());
+		assertEquals(299, ranges.get(0).getEnd());
+		assertEquals(100, ranges.get(1).length());
+	}
+
+	@Test
+	void reportsUnsatisfiableRanges() {
+		assertTrue(ByteRanges.parse("bytes=1000-", 1000, 16).isEmpty());
+		assertTrue(ByteRanges.parse("bytes=-0", 1000, 16).isEmpty());
+		assertTrue(ByteRanges.parse("bytes=0-", 0, 16).isEmpty());
+	}
+
+	@Test
+	void ignoresHeadersItCannotHonour() {
+		assertNull(ByteRanges.parse(null, 1000, 16));
+		assertNull(ByteRanges.parse("items=0-1", 1000, 16));
+		assertNull(ByteRanges.parse("bytes=abc", 1000, 16));
+		assertNull(ByteRanges.parse("bytes=5-1", 1000, 16));
+		assertNull(ByteRanges.parse("bytes=-", 1000, 16));
+		assertNull(ByteRanges.parse("bytes=0-1,2-3,4-5", 1000, 2));
+	}
+}
@@ -0,0 +1,97 @@
+package com.elearn.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.elearn.model.User;
+import com.elearn.repo.UserRepository;
+
+/**
+ * Every request loads the user, so role changes and deletions apply to tokens already handed out.
+ */
+class JwtFilterTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final JwtUtil jwtUtil = new JwtUtil();
+	private final JwtFilter filter = new JwtFilter();
+
+	private User student;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(jwtUtil, "secretString", "a-test-secret-that-is-long-enough-for-hs256");
+		jwtUtil.init();
+		ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+		ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+
+		student = new User();
+		student.setEmail("student@example.com");
+		student.setRole(User.UserRole.STUDENT);
+		when(userRepository.findByEmail("student@example.com")).thenReturn(Optional.of(student));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void seesRoleChangesOnTheNextRequest() throws Exception {
+		String token = jwtUtil.generateToken("student@example.com");
+		assertEquals("ROLE_STUDENT", authenticate(token).getAuthorities().iterator().next().getAuthority());
+
+		User promoted = new User();
+		promoted.setEmail("student@example.com");
+		promoted.setRole(User.UserRole.INSTRUCTOR);
+		when(userRepository.findByEmail("student@example.com")).thenReturn(Optional.of(promoted));
+
+		Authentication authentication = authenticate(token);
+		assertSame(promoted, authentication.getPrincipal());
+		assertEquals("ROLE_INSTRUCTOR", authentication.getAuthorities().iterator().next().getAuthority());
+	}
+
+	@Test
+	void rejectsTheTokenOfADeletedUserAtOnce() throws Exception {
+		String token = jwtUtil.generateToken("student@example.com");
+		assertSame(student, authenticate(token).getPrincipal());
+
+		when(userRepository.findByEmail("student@example.com")).thenReturn(Optional.empty());
+
+		assertNull(authenticate(token));
+		verify(userRepository, times(2)).findByEmail("student@example.com");
+	}
+
+	@Test
+	void rejectsATamperedToken() throws Exception {
+		String token = jwtUtil.generateToken("student@example.com");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertNull(authenticate(tampered));
+		assertSame(student, authenticate(token).getPrincipal());
+	}
+
+	private Authentication authenticate(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}
@@ -0,0 +1,113 @@
+package com.elearn.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongCounterMapTest {
+
+	@Test
+	void keepsCollidingKeysApart() {
+		// Capacity 8: all these keys start probing at the same slot
+		LongCounterMap map = new LongCounterMap(4);
+		long[] keys = collidingKeys(8, 4);
+
+		map.increment(keys[0]);
+		map.add(keys[1], 5);
+		map.add(keys[2], -3);
+		map.increment(keys[0]);
+
+		assertEquals(2, map.get(keys[0]));
+		assertEquals(5, map.get(keys[1]));
+		assertEquals(-3, map.get(keys[2]));
+		assertFalse(map.containsKey(keys[3]));
+		assertEquals(7, map.getOrDefault(keys[3], 7));
+		assertEquals(3, map.size());
+	}
+
+	@Test
+	void growsPastTheLoadFactor() {
+		LongCounterMap map = new LongCounterMap(4);
+		for (long key = -5000; key < 5000; key++) {
+			map.add(key * 31, key);
+		}
+		map.put(Long.MIN_VALUE, 1);
+		map.put(Long.MAX_VALUE, 2);
+
+		assertEquals(10_002, map.size());
+		for (long key = -5000; key < 5000; key++) {
+			assertEquals(key, map.get(key * 31));
+		}
+		assertEquals(1, map.get(Long.MIN_VALUE));
+		assertEquals(2, map.get(Long.MAX_VALUE));
+
+		long[] total = new long[1];
+		map.forEach((key, value) -> total[0] += value);
+		assertEquals(-5000 + 1 + 2, total[0]);
+	}
+
+	@Test
+	void removesFromTheMiddleOfAProbeChain() {
+		LongCounterMap map = new LongCounterMap(4);
+		long[] keys = collidingKeys(8, 3);
+		map.put(keys[0], 10);
+		map.put(keys[1], 20);
+		map.put(keys[2], 30);
+
+		// The last key of the chain must still be found through the hole
+		assertTrue(map.remove(keys[1]));
+		assertFalse(map.remove(keys[1]));
+		assertFalse(map.containsKey(keys[1]));
+		assertEquals(30, map.get(keys[2]));
+		assertEquals(2, map.size());
+
+		map.increment(keys[1]);
+		assertEquals(1, map.get(keys[1]));
+		assertEquals(10, map.get(keys[0]));
+		assertEquals(30, map.get(keys[2]));
+
+		assertTrue(map.remove(keys[0]));
+		assertTrue(map.remove(keys[2]));
+		assertEquals(1, map.get(keys[1]));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	void matchesAHashMapUnderRandomOperations() {
+		Random random = new Random(42);
+		LongCounterMap map = new LongCounterMap(4);
+		Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 200_000; i++) {
+			// A small key range keeps chains long and removals frequent
+			long key = random.nextInt(300);
+			switch (random.nextInt(3)) {
+				case 0 -> {
+					map.add(key, 2);
+					expected.merge(key, 2L, Long::sum);
+				}
+				case 1 -> assertEquals(expected.remove(key) != null, map.remove(key));
+				default -> assertEquals(expected.getOrDefault(key, 0L), map.get(key));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		map.forEach((key, value) -> assertEquals(expected.get(key), value));
+	}
+
+	private static long[] collidingKeys(int capacity, int count) {
+		long[] keys = new long[count];
+		int home = LongCounterMap.mix(1) & (capacity - 1);
+		int found = 0;
+		for (long key = 1; found < count; key++) {
+			if ((LongCounterMap.mix(key) & (capacity - 1)) == home) {
+				keys[found++] = key;
+			}
+		}
+		return keys;
+	}
+}
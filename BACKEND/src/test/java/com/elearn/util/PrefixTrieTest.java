@@ -0,0 +1,99 @@
+package com.elearn.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+	@Test
+	void returnsHeaviestCompletionsFirst() {
+		PrefixTrie trie = PrefixTrie.build(
+				new String[] { "java basics", "javascript for beginners", "java spring boot", "python" },
+				new long[] { 5, 40, 12, 100 },
+				new int[] { 0, 1, 2, 3 });
+
+		int[] out = new int[3];
+		assertEquals(3, trie.complete("java", out));
+		assertArrayEquals(new int[] { 1, 2, 0 }, out);
+
+		assertEquals(2, trie.complete("java ", out));
+		assertArrayEquals(new int[] { 2, 0 }, Arrays.copyOf(out, 2));
+
+		assertEquals(0, trie.complete("javaz", out));
+		assertEquals(0, trie.complete("ruby", out));
+	}
+
+	@Test
+	void skipsRepeatedValues() {
+		// Two keys of one suggestion, e.g. a title indexed from two word starts
+		PrefixTrie trie = PrefixTrie.build(
+				new String[] { "data science", "science of data", "data engineering" },
+				new long[] { 9, 9, 3 },
+				new int[] { 0, 0, 1 });
+
+		int[] out = new int[5];
+		assertEquals(2, trie.complete("", out));
+		assertArrayEquals(new int[] { 0, 1 }, Arrays.copyOf(out, 2));
+	}
+
+	@Test
+	void normalizesCaseAndWhitespace() {
+		assertEquals("complete python bootcamp", PrefixTrie.normalize("  Complete   Python\tBootcamp "));
+		assertEquals("", PrefixTrie.normalize(null));
+	}
+
+	@Test
+	void matchesBruteForceOnRandomKeys() {
+		Random random = new Random(11);
+		int count = 2000;
+		String[] keys = new String[count];
+		long[] weights = new long[count];
+		int[] values = new int[count];
+		for (int i = 0; i < count; i++) {
+			StringBuilder key = new StringBuilder();
+			int length = 1 + random.nextInt(8);
+			for (int j = 0; j < length; j++) {
+				key.append((char) ('a' + random.nextInt(4)));
+			}
+			keys[i] = key.toString();
+			weights[i] = random.nextInt(50);
+			values[i] = i;
+		}
+		PrefixTrie trie = PrefixTrie.build(keys, weights, values);
+
+		for (int q = 0; q < 500; q++) {
+			StringBuilder prefix = new StringBuilder();
+			int length = random.nextInt(5);
+			for (int j = 0; j < length; j++) {
+				prefix.append((char) ('a' + random.nextInt(4)));
+			}
+			String p = prefix.toString();
+
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				if (keys[i].startsWith(p)) {
+					expected.add(i);
+				}
+			}
+			expected.sort(Comparator.<Integer>comparingLong(i -> -weights[i])
+					.thenComparing(i -> keys[i])
+					.thenComparingInt(i -> i));
+
+			int[] out = new int[10];
+			int found = trie.complete(p, out);
+			assertEquals(Math.min(10, expected.size()), found);
+			for (int i = 0; i < found; i++) {
+				assertEquals(weights[expected.get(i)], weights[out[i]]);
+				assertEquals(keys[expected.get(i)], keys[out[i]]);
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.elearn.util;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+/**
+ * Statement budgets for tests, counted by the same RequestQueryStats inspector the
+ * application uses per request.
+ */
+public final class QueryAssertions {
+
+	private QueryAssertions() {
+	}
+
+	/**
+	 * Run the work and fail if it needed more than max SQL statements, listing the
+	 * statements that ran more than once
+	 */
+	public static <T> T assertMaxQueries(int max, ThrowingSupplier<T> work) {
+		RequestQueryStats.begin();
+		T result;
+		RequestQueryStats.Counts counts;
+		try {
+			result = work.get();
+		} catch (Throwable e) {
+			throw new AssertionError("Counted work failed", e);
+		} finally {
+			counts = RequestQueryStats.end();
+		}
+		if (counts.getStatements() > max) {
+			StringBuilder message = new StringBuilder("Expected at most " + max + " statements but "
+					+ counts.getStatements() + " ran");
+			for (Map.Entry<String, Integer> statement : counts.getRepeated(2).entrySet()) {
+				message.append("\n  ").append(statement.getValue()).append("x ").append(statement.getKey());
+			}
+			fail(message.toString());
+		}
+		return result;
+	}
+}
@@ -1,13 +0,0 @@
-package com.excelr;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class BackendApplnApplicationTests {
-
-	@Test
-	void contextLoads() {
-	}
-
-}
@@ -1,19 +1,60 @@
-import React, { createContext, useContext, useState } from "react";
+import React, { createContext, useContext, useEffect, useState } from "react";
+import { cartService } from "./services/api";
 
 // Create Context
 const CartContext = createContext();
 
+const isSignedIn = () => Boolean(localStorage.getItem("token"));
+
+// Server invoice lines in the item shape the pages already use
+const toCartItems = (invoice) =>
+  invoice.lines.map((line) => ({
+    type: line.type,
+    pid: line.itemId,
+    pname: line.name,
+    pimage: line.image,
+    pcost: Number(line.unitPrice),
+    qty: line.quantity,
+    problem: line.problem,
+  }));
+
 // Provider
 export const CartProvider = ({ children }) => {
   const [cart, setCart] = useState([]);
   const [totalCost, setTotalCost] = useState(0);
+  // The server invoice; null while the cart only exists in this browser
+  const [invoice, setInvoice] = useState(null);
+
+  const applyInvoice = (next) => {
+    setInvoice(next);
+    setCart(toCartItems(next));
+    setTotalCost(Number(next.total));
+    return next;
+  };
+
+  const refreshCart = async () => {
+    if (!isSignedIn()) return null;
+    try {
+      const response = await cartService.getCart();
+      return applyInvoice(response.data);
+    } catch (error) {
+      console.error("Failed to load cart:", error);
+      return null;
+    }
+  };
+
+  useEffect(() => {
+    refreshCart();
+  }, []);
 
-  const addToCart = (item) => {
+  // Before signing in the cart is kept in memory and priced here for display only
+  const addLocally = (item) => {
     setCart((prevCart) => {
-      const existingItem = prevCart.find((cartItem) => cartItem.pid === item.pid);
+      // Product ids repeat across laptops, mobiles and headphones
+      const existingItem = prevCart.find((cartItem) => cartItem.pid === item.pid && cartItem.type === item.type);
       if (existingItem) {
         return prevCart.map((cartItem) =>
-          cartItem.pid === item.pid
+          cartItem.pid === item.pid && cartItem.type === item.type
             ? { ...cartItem, qty: cartItem.qty + item.qty }
             : cartItem
         );
@@ -25,8 +66,47 @@ export const CartProvider = ({ children }) => {
     setTotalCost((prevCost) => prevCost + item.pcost * item.qty);
   };
 
+  const addToCart = async (item) => {
+    if (!isSignedIn()) {
+      addLocally(item);
+      return;
+    }
+    const existingItem = cart.find((cartItem) => cartItem.pid === item.pid && cartItem.type === item.type);
+    // A course is bought once, however often it is added
+    const quantity = item.type === "COURSES" ? 1 : (existingItem ? existingItem.qty : 0) + item.qty;
+    try {
+      const response = await cartService.setItem(item.type, item.pid, quantity);
+      applyInvoice(response.data);
+    } catch (error) {
+      console.error("Failed to add to cart:", error);
+      alert(error.response?.data?.message || "Could not add the item to your cart.");
+    }
+  };
+
+  // Store a cart built before signing in on the server, replacing what was there
+  const uploadCart = async () => {
+    const response = await cartService.replaceCart(
+      cart.map((item) => ({ type: item.type, id: item.pid, quantity: item.qty }))
+    );
+    return applyInvoice(response.data);
+  };
+
+  const clearCart = async () => {
+    setCart([]);
+    setTotalCost(0);
+    setInvoice(null);
+    if (isSignedIn()) {
+      try {
+        const response = await cartService.clearCart();
+        applyInvoice(response.data);
+      } catch (error) {
+        console.error("Failed to clear cart:", error);
+      }
+    }
+  };
+
   return (
-    <CartContext.Provider value={{ cart, totalCost, addToCart }}>
+    <CartContext.Provider value={{ cart, totalCost, invoice, addToCart, uploadCart, clearCart, refreshCart }}>
       {children}
     </CartContext.Provider>
   );
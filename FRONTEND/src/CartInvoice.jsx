@@ -3,26 +3,31 @@ import { useCart } from "./CartContext";
 import { useNavigate } from "react-router-dom";
 import "./CartInvoice.css";
 import axios from "axios";
+import { cartService } from "./services/api";
 
 const CartInvoice = () => {
-  const { cart, totalCost } = useCart();
+  const { cart, totalCost, invoice, uploadCart, clearCart, refreshCart } = useCart();
   const navigate = useNavigate();
 
   const handlePayment = async () => {
+    const token = localStorage.getItem('token');
+    if (!token) {
+      alert("Please log in to complete your payment.");
+      return;
+    }
     try {
-      // Add auth token to the request if available
-      const token = localStorage.getItem('token');
-      const headers = token ? { Authorization: `Bearer ${token}` } : {};
+      const headers = { Authorization: `Bearer ${token}` };
       
       // Use the API_BASE_URL from environment variables
       const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'https://edulearn-api.onrender.com';
-      const orderResponse = await axios.post(`${API_BASE_URL}/create-order`, {
-        amount: totalCost, // Amount in INR
-        currency: "INR",
-        receipt: "receipt#1",
-      }, { headers });
+      if (!invoice) {
+        // The cart was built before signing in
+        await uploadCart();
+      }
+      // The server prices the cart, reserves product stock and creates the order for its own total
+      const orderResponse = await cartService.checkout();
 
-      const { id: order_id, amount, currency } = orderResponse.data;
+      const { id: order_id, amount, currency } = orderResponse.data.order;
 
       const options = {
         key: "rzp_live_0CAWJFt3q8oaUX",
@@ -34,7 +39,7 @@ const CartInvoice = () => {
         handler: async (response) => {
           try {
             const verifyResponse = await axios.post(
-              `${API_BASE_URL}/verify-payment`,
+              `${API_BASE_URL}/api/verify-payment`,
               {
                 razorpay_order_id: response.razorpay_order_id,
                 razorpay_payment_id: response.razorpay_payment_id,
@@ -44,6 +49,7 @@ const CartInvoice = () => {
             );
 
             if (verifyResponse.status === 200) {
+              await clearCart();
               alert("Payment Successful!");
             } else {
               alert("Payment Verification Failed!");
@@ -70,6 +76,12 @@ const CartInvoice = () => {
       // Show a user-friendly error message
       if (error.response && error.response.status === 401) {
         alert("Please log in to complete your payment.");
+      } else if (error.response && error.response.status === 409) {
+        // Show which lines are unavailable
+        refreshCart();
+        alert(error.response.data.message || "Some items in your cart are out of stock.");
+      } else if (error.response && error.response.status === 400) {
+        alert(error.response.data.message || "Your cart cannot be paid for.");
       } else {
         alert("Payment processing failed. Please try again later.");
       }
@@ -105,8 +117,11 @@ const CartInvoice = () => {
         </thead>
         <tbody>
           {cart.map((item) => (
-            <tr key={item.pid}>
-              <td>{item.pname}</td>
+            <tr key={`${item.type}-${item.pid}`}>
+              <td>
+                {item.pname || "Unavailable item"}
+                {item.problem && <div className="cart-item-problem">{item.problem}</div>}
+              </td>
               <td>{item.qty}</td>
               <td>₹{item.pcost.toFixed(2)}</td>
               <td>₹{(item.qty * item.pcost).toFixed(2)}</td>
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { motion } from 'framer-motion';
-import { courseService, categoryService } from '../services/api';
+import { courseService, categoryService, uploadService } from '../services/api';
 import ImageWithFallback from '../components/common/ImageWithFallback';
 
 const CoursesManagement = () => {
@@ -191,11 +191,6 @@ const CoursesManagement = () => {
         type: 'application/json'
       }));
 
-      // If thumbnail is provided, append it
-      if (thumbnail) {
-        courseFormData.append('thumbnail', thumbnail);
-      }
-
       // Set the correct content type for the request (let browser set it for multipart)
       const config = {
         headers: {
@@ -203,12 +198,20 @@ const CoursesManagement = () => {
         }
       };
 
+      let savedCourseId;
       if (currentCourse) {
         // Update existing course
         await courseService.updateCourse(currentCourse.id, courseFormData, config);
+        savedCourseId = currentCourse.id;
       } else {
         // Create new course
-        await courseService.createCourse(courseFormData, config);
+        const response = await courseService.createCourse(courseFormData, config);
+        savedCourseId = response.data.id;
+      }
+
+      // The thumbnail goes straight to storage once the course exists
+      if (thumbnail) {
+        await uploadService.uploadDirect('course-thumbnail', savedCourseId, thumbnail);
       }
       
       // Reset form and show success message
@@ -98,13 +98,21 @@ const Dashboard = () => {
                          !isTokenExpired();
         
         if (tokenValid) {
-          // Use the retryRequest helper for better network resilience
-          [enrollmentStats, revenueStats, userStats, courseStats] = await Promise.all([
-            networkErrorHelpers.retryRequest(() => reportService.getEnrollmentStats()),
-            networkErrorHelpers.retryRequest(() => reportService.getRevenueStats()),
-            networkErrorHelpers.retryRequest(() => reportService.getUserStats()),
-            networkErrorHelpers.retryRequest(() => reportService.getCourseStats())
-          ]);
+          // Load all report sections in one request, falling back to the individual endpoints
+          try {
+            const dashboard = await networkErrorHelpers.retryRequest(() => reportService.getDashboard());
+            enrollmentStats = { data: dashboard.data?.enrollments || {} };
+            revenueStats = { data: dashboard.data?.revenue || {} };
+            userStats = { data: dashboard.data?.users || {} };
+            courseStats = { data: dashboard.data?.courses || {} };
+          } catch (dashboardError) {
+            [enrollmentStats, revenueStats, userStats, courseStats] = await Promise.all([
+              networkErrorHelpers.retryRequest(() => reportService.getEnrollmentStats()),
+              networkErrorHelpers.retryRequest(() => reportService.getRevenueStats()),
+              networkErrorHelpers.retryRequest(() => reportService.getUserStats()),
+              networkErrorHelpers.retryRequest(() => reportService.getCourseStats())
+            ]);
+          }
           
           // Clear any network errors if successful
           networkErrorHelpers.clearNetworkError();
@@ -1,5 +1,6 @@
 import {useState} from "react";
 import axios from "axios";
+import { uploadService } from "../../services/api";
 const UploadLaptop = ()=>{
     
     const [pname, setPname] = useState('');
@@ -14,7 +15,6 @@ const UploadLaptop = ()=>{
         const formData = new FormData();
         formData.append('pname', pname);
         formData.append('pcost', pcost);
-        formData.append('file', file);
         formData.append('pqty',pqty);
 
         try{
@@ -25,6 +25,10 @@ const UploadLaptop = ()=>{
                 },
             });
             console.log(response);
+            // The image goes straight to storage once the laptop exists
+            if (file) {
+                await uploadService.uploadDirect('laptop-image', response.data.pid, file);
+            }
             alert('Laptop uploaded successfully!');
         }catch(e){
             console.log(e);
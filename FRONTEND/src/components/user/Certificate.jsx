@@ -3,15 +3,21 @@ import { useNavigate, useParams, useLocation } from 'react-router-dom';
 import { motion } from 'framer-motion';
 import html2canvas from 'html2canvas';
 import jsPDF from 'jspdf';
+import { certificateService } from '../../services/api';
+
+const POLL_INTERVAL_MS = 2000;
+const MAX_POLLS = 15;
 
 const Certificate = () => {
   const navigate = useNavigate();
   const { courseId } = useParams();
   const location = useLocation();
-  const { course, userName } = location.state || {};
+  const { course, userName, enrollmentId } = location.state || {};
   const [currentDate, setCurrentDate] = useState('');
   const [certificateId, setCertificateId] = useState('');
   const [loading, setLoading] = useState(false);
+  const [serverCertificate, setServerCertificate] = useState(null);
+  const [issuing, setIssuing] = useState(false);
   
   useEffect(() => {
     // Format current date
@@ -32,7 +38,52 @@ const Certificate = () => {
     }
   }, [course, navigate]);
   
+  // Wait for the server to issue the certificate; the browser rendering stays as a fallback
+  useEffect(() => {
+    if (!enrollmentId) return;
+    let cancelled = false;
+    let polls = 0;
+    let timer;
+    
+    const poll = async () => {
+      try {
+        const response = await certificateService.getEnrollmentCertificate(enrollmentId);
+        if (cancelled) return;
+        const certificate = response.data;
+        if (certificate.status === 'ISSUED') {
+          setServerCertificate(certificate);
+          setCertificateId(certificate.verificationId);
+          setCurrentDate(new Date(certificate.completedAt).toLocaleDateString('en-US', {
+            year: 'numeric',
+            month: 'long',
+            day: 'numeric'
+          }));
+          setIssuing(false);
+          return;
+        }
+        if (certificate.status === 'PENDING' && ++polls < MAX_POLLS) {
+          setIssuing(true);
+          timer = setTimeout(poll, POLL_INTERVAL_MS);
+          return;
+        }
+      } catch (err) {
+        console.error('Failed to load certificate:', err);
+      }
+      if (!cancelled) setIssuing(false);
+    };
+    
+    poll();
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [enrollmentId]);
+  
   const handleDownloadPDF = () => {
+    if (serverCertificate) {
+      window.open(certificateService.getDownloadUrl(serverCertificate.verificationId, 'pdf'), '_blank');
+      return;
+    }
     setLoading(true);
     const certificateElement = document.getElementById('certificate');
     
@@ -81,6 +132,17 @@ const Certificate = () => {
       <div className="text-center mb-4">
         <h2 className="mb-3">Course Completion Certificate</h2>
         <p>Congratulations on completing the course!</p>
+        {issuing && (
+          <p className="text-muted small">
+            <span className="spinner-border spinner-border-sm me-2" role="status" aria-hidden="true"></span>
+            Issuing your verifiable certificate...
+          </p>
+        )}
+        {serverCertificate && (
+          <p className="text-muted small">
+            Verification ID: <strong>{serverCertificate.verificationId}</strong>
+          </p>
+        )}
         <div className="d-flex justify-content-center gap-3 mb-4">
           <button 
             className="btn btn-primary" 
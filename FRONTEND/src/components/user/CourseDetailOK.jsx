@@ -8,7 +8,7 @@ import Footer from "../marketing/Footer";
 import "./CourseDetailOK.css";
 import { useCart } from "../../CartContext";
 import CartIcon from "../../CartIcon";
-import { videoService, enrollmentService } from "../../services/api";
+import { videoService, enrollmentService, cartService } from "../../services/api";
 
 // Get API base URL from environment variables
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'https://edulearn-api.onrender.com';
@@ -136,7 +136,7 @@ const CourseDetailOK = () => {
   };
   
   const handleAddToCart = () => {
-    addToCart(course);
+    addToCart({ pid: course.id, pname: course.title, pcost: Number(course.price || 0), qty: 1, type: "COURSES" });
   };
 
   const handleEnrollNow = async () => {
@@ -158,20 +158,11 @@ const CourseDetailOK = () => {
     try {
       console.log("Starting payment process for course:", course);
       
-      // Create order - This endpoint should match ExcelRController
-      const orderResponse = await axios.post(`${API_BASE_URL}/api/create-order`, {
-        amount: course.Price,
-        currency: "INR",
-        receipt: `course_${course.id}_${Date.now()}`
-      });
-      
-      console.log("Order created successfully:", orderResponse.data);
+      // The server prices the course and creates the order for its own amount
+      const orderResponse = await cartService.checkoutCourse(course.id);
+      const orderData = orderResponse.data.order;
 
-      const orderData = typeof orderResponse.data === 'string' 
-        ? JSON.parse(orderResponse.data) 
-        : orderResponse.data;
-
-      console.log("Parsed order data:", orderData);
+      console.log("Order created successfully:", orderData);
 
       const options = {
         key: import.meta.env.VITE_RAZORPAY_API_KEY,
@@ -277,7 +268,13 @@ const CourseDetailOK = () => {
       razorpayInstance.open();
     } catch (error) {
       console.error("Payment Failed:", error);
-      alert(`Payment processing failed: ${error.message || "Unknown error"}. Please try again later.`);
+      if (error.response && error.response.status === 401) {
+        alert("Please log in to enroll in this course.");
+      } else if (error.response && (error.response.status === 400 || error.response.status === 409)) {
+        alert(error.response.data.message || "This course cannot be bought right now.");
+      } else {
+        alert(`Payment processing failed: ${error.message || "Unknown error"}. Please try again later.`);
+      }
     }
   };
 
@@ -1,6 +1,5 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useParams, useLocation, useNavigate } from 'react-router-dom';
-import axios from 'axios';
 import { videoService, enrollmentService } from '../../services/api';
 import { motion } from 'framer-motion';
 
@@ -29,6 +28,35 @@ const CoursePlayer = () => {
     return () => clearInterval(intervalId);
   }, [courseId]);
 
+  // Watch-time heartbeats: count visible seconds on the current video and send them in batches
+  const pendingHeartbeats = useRef([]);
+
+  useEffect(() => {
+    if (!currentVideo) return;
+    
+    const tickId = setInterval(() => {
+      if (document.visibilityState === 'visible') {
+        pendingHeartbeats.current.push({ videoId: currentVideo.id, seconds: 10 });
+      }
+    }, 10000);
+    
+    const flushHeartbeats = () => {
+      const events = pendingHeartbeats.current;
+      if (events.length === 0) return;
+      pendingHeartbeats.current = [];
+      videoService.sendHeartbeats(events).catch(heartbeatError => {
+        console.error('Failed to send heartbeats:', heartbeatError);
+      });
+    };
+    const flushId = setInterval(flushHeartbeats, 30000);
+    
+    return () => {
+      clearInterval(tickId);
+      clearInterval(flushId);
+      flushHeartbeats();
+    };
+  }, [currentVideo?.id]);
+
   const fetchData = async (showLoading = true) => {
     try {
       if (showLoading) setLoading(true);
@@ -42,7 +70,19 @@ const CoursePlayer = () => {
       
       // Get course videos
       const videosResponse = await videoService.getVideosByCourseId(course?.id);
-      const videosData = videosResponse.data || [];
+      let videosData = videosResponse.data || [];
+      
+      // Media in our bucket is private: play it through signed URLs
+      try {
+        const playbackResponse = await videoService.getCoursePlayback(course?.id);
+        const playback = new Map((playbackResponse.data || []).map(p => [p.videoId, p]));
+        videosData = videosData.map(video => {
+          const links = playback.get(video.id);
+          return links ? { ...video, videoLink: links.videoUrl, notesLink: links.notesUrl } : video;
+        });
+      } catch (playbackError) {
+        console.error('Failed to load playback links:', playbackError);
+      }
       setVideos(videosData);
       
       // Get user enrollment for this course
@@ -75,25 +115,35 @@ const CoursePlayer = () => {
             const calculatedProgress = Math.round((parsedVideos.length / videosData.length) * 100);
             setProgress(calculatedProgress);
           }
-        } else if (userEnrollment.completedVideos) {
+        } else {
           // Fall back to server data if no local storage
-          const completedVids = userEnrollment.completedVideos.split(',').map(id => parseInt(id));
-          setCompletedVideos(completedVids);
-          localStorage.setItem(`completedVideos_${course?.id}`, JSON.stringify(completedVids));
+          let serverProgress = null;
+          try {
+            const progressResponse = await enrollmentService.getProgress(userEnrollment.id);
+            serverProgress = progressResponse.data;
+          } catch (progressError) {
+            console.error('Failed to load progress:', progressError);
+          }
           
-          if (videosData.length > 0) {
-            const calculatedProgress = Math.round((completedVids.length / videosData.length) * 100);
-            setProgress(calculatedProgress);
-            localStorage.setItem(`progress_${course?.id}`, calculatedProgress.toString());
+          if (serverProgress && serverProgress.completedVideos) {
+            const completedVids = serverProgress.completedVideos.split(',').map(id => parseInt(id));
+            setCompletedVideos(completedVids);
+            localStorage.setItem(`completedVideos_${course?.id}`, JSON.stringify(completedVids));
+            
+            if (videosData.length > 0) {
+              const calculatedProgress = Math.round((completedVids.length / videosData.length) * 100);
+              setProgress(calculatedProgress);
+              localStorage.setItem(`progress_${course?.id}`, calculatedProgress.toString());
+            }
+          } else if (storedProgress) {
+            // Use stored progress if available
+            setProgress(parseInt(storedProgress));
+          } else {
+            // Set based on server progress
+            let currentProgress = (serverProgress && serverProgress.progress) || 0;
+            setProgress(currentProgress);
+            localStorage.setItem(`progress_${course?.id}`, currentProgress.toString());
           }
-        } else if (storedProgress) {
-          // Use stored progress if available
-          setProgress(parseInt(storedProgress));
-        } else {
-          // Set based on enrollment status
-          let currentProgress = userEnrollment.progress || 0;
-          setProgress(currentProgress);
-          localStorage.setItem(`progress_${course?.id}`, currentProgress.toString());
         }
         
         // Check if course is completed
@@ -108,6 +158,7 @@ const CoursePlayer = () => {
                 courseName: course.courseName,
                 instructor: course.instit || 'Expert Instructor',
               },
+              enrollmentId: userEnrollment.id,
               userName: localStorage.getItem('name')
             }
           });
@@ -154,6 +205,14 @@ const CoursePlayer = () => {
       // Update local storage
       localStorage.setItem(`progress_${course?.id}`, newProgress.toString());
       
+      // Update progress in backend
+      try {
+        await enrollmentService.updateProgress(enrollment.id, newProgress, updatedCompletedVideos);
+      } catch (progressError) {
+        console.error('Failed to update progress:', progressError);
+        // Continue anyway - this is just tracking
+      }
+      
       // Update enrollment status if all videos are completed
       let newStatus = enrollment.status;
       if (newProgress >= 100) {
@@ -168,26 +227,12 @@ const CoursePlayer = () => {
               courseName: course.courseName,
               instructor: course.instit || 'Expert Instructor'
             },
+            enrollmentId: enrollment.id,
             userName: localStorage.getItem('name')
           }
         });
         return;
       }
-      
-      // Update enrollment in backend (in a real app, you would have an API endpoint for this)
-      try {
-        await axios.put(`/api/enrollments/${enrollment.id}/progress`, {
-          progress: newProgress,
-          completedVideos: updatedCompletedVideos.join(',')
-        }, {
-          headers: {
-            Authorization: `Bearer ${localStorage.getItem('token')}`
-          }
-        });
-      } catch (progressError) {
-        console.error('Failed to update progress:', progressError);
-        // Continue anyway - this is just tracking
-      }
     } catch (err) {
       console.error('Error marking video as complete:', err);
     }
@@ -371,6 +416,7 @@ const CoursePlayer = () => {
                                   courseName: course.courseName,
                                   instructor: course.instit || 'Expert Instructor'
                                 },
+                                enrollmentId,
                                 userName: localStorage.getItem('name')
                               }
                             })}
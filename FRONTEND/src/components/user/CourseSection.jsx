@@ -4,6 +4,8 @@ import './CourseSection.css';
 import { courseService } from "../../services/api";
 import axios from "axios";
 
+const POPULAR_LIMIT = 4;
+
 const CourseSection = () => {
   const [courses, setCourses] = useState([]);
   const [programs, setPrograms] = useState([]);
@@ -34,26 +36,48 @@ const CourseSection = () => {
       setCourses(publishedCourses);
       setError("");
 
+      const toCard = course => ({
+        id: course.id,
+        img: course.thumbnail || "https://via.placeholder.com/300x200?text=Course+Image",
+        logo: course.logoUrl || "https://pamutalwar.s3.eu-north-1.amazonaws.com/courses/logo.jpg",
+        instit: course.institutionName || "EduLearn Academy",
+        courseName: course.title,
+        degreeIcon: true,
+        degree: course.degreeLabel || "Earn a certificate",
+        Degree: "Course",
+        Price: course.price || 0,
+        Pamu: course.description,
+      });
+
+      // The ranking only carries ids and summary fields, so cards come from the full course list
+      let popularCourses = [];
+      try {
+        const popularResponse = await courseService.getPopularCourses(POPULAR_LIMIT);
+        const coursesById = new Map(publishedCourses.map(course => [course.id, course]));
+        popularCourses = popularResponse.data
+          .map(ranked => coursesById.get(ranked.id))
+          .filter(Boolean);
+      } catch (popularError) {
+        console.error("Error fetching popular courses:", popularError);
+      }
+
       const transformedPrograms = [
         {
           title: "Top Online Courses ",
           heading: "Find a high-impact course that fits your goals",
           subHeading:
             "Master skills in Web Development, Data Science, AI & more — all 100% online.",
-          card: publishedCourses.map(course => ({
-            id: course.id,
-            img: course.thumbnail || "https://via.placeholder.com/300x200?text=Course+Image",
-            logo: course.logoUrl || "https://pamutalwar.s3.eu-north-1.amazonaws.com/courses/logo.jpg",
-            instit: course.institutionName || "EduLearn Academy",
-            courseName: course.title,
-            degreeIcon: true,
-            degree: course.degreeLabel || "Earn a certificate",
-            Degree: "Course",
-            Price: course.price || 0,
-            Pamu: course.description,
-          })),
+          card: publishedCourses.map(toCard),
         }
       ];
+      if (popularCourses.length > 0) {
+        transformedPrograms.unshift({
+          title: "Most Popular ",
+          heading: "Courses other learners are enrolling in",
+          subHeading: "Ranked by enrollments across EduLearn.",
+          card: popularCourses.map(toCard),
+        });
+      }
 
       setPrograms(transformedPrograms);
     } catch (err) {
@@ -8,6 +8,8 @@ const EnrollCourses = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [searchTerm, setSearchTerm] = useState('');
+  const [searchResults, setSearchResults] = useState(null);
+  const [suggestions, setSuggestions] = useState([]);
   const [enrollmentStatus, setEnrollmentStatus] = useState({});
   const [enrollingCourse, setEnrollingCourse] = useState(null);
   const navigate = useNavigate();
@@ -24,6 +26,61 @@ const EnrollCourses = () => {
     return () => clearInterval(intervalId);
   }, []);
 
+  // Suggestions follow every keystroke with a short debounce
+  useEffect(() => {
+    const prefix = searchTerm.trim();
+    if (!prefix) {
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timeoutId = setTimeout(async () => {
+      try {
+        const response = await courseService.suggestCourses(prefix);
+        if (!cancelled) setSuggestions(response.data);
+      } catch (err) {
+        if (!cancelled) setSuggestions([]);
+      }
+    }, 80);
+    return () => {
+      cancelled = true;
+      clearTimeout(timeoutId);
+    };
+  }, [searchTerm]);
+
+  // Search on the server once typing pauses; the local filter below covers errors
+  useEffect(() => {
+    const query = searchTerm.trim();
+    if (!query) {
+      setSearchResults(null);
+      return;
+    }
+    let cancelled = false;
+    const timeoutId = setTimeout(async () => {
+      try {
+        const response = await courseService.searchCourses(query, 0, 50);
+        if (!cancelled) {
+          setSearchResults(response.data.results.map(result => ({
+            id: result.id,
+            title: result.title,
+            description: result.description,
+            price: result.price,
+            thumbnail: result.thumbnail,
+            instructor: { name: result.instructorName },
+            status: 'PUBLISHED'
+          })));
+        }
+      } catch (err) {
+        console.error('Course search failed, filtering locally:', err);
+        if (!cancelled) setSearchResults(null);
+      }
+    }, 250);
+    return () => {
+      cancelled = true;
+      clearTimeout(timeoutId);
+    };
+  }, [searchTerm]);
+
   const fetchCourses = async (showLoading = true) => {
     try {
       if (showLoading) setLoading(true);
@@ -128,7 +185,7 @@ const EnrollCourses = () => {
     });
   };
 
-  const filteredCourses = courses.filter(course => 
+  const filteredCourses = searchResults || courses.filter(course => 
     course.title?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     (course.instructor && course.instructor.name && 
      course.instructor.name.toLowerCase().includes(searchTerm.toLowerCase()))
@@ -189,7 +246,14 @@ const EnrollCourses = () => {
               placeholder="Search courses..." 
               value={searchTerm}
               onChange={(e) => setSearchTerm(e.target.value)}
+              list="course-suggestions"
+              autoComplete="off"
             />
+            <datalist id="course-suggestions">
+              {suggestions.map((suggestion) => (
+                <option key={`${suggestion.type}-${suggestion.id}`} value={suggestion.text} />
+              ))}
+            </datalist>
           </div>
           <button 
             className="btn btn-outline-primary" 
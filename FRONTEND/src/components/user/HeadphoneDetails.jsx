@@ -19,7 +19,7 @@ const HeadphoneDetails = () => {
 
 
   const handleAddToCart = () => {
-    addToCart({ ...headphone, qty });
+    addToCart({ ...headphone, qty, type: "HEADPHONES" });
   };
 
 
@@ -19,7 +19,7 @@ const LaptopDetails = () => {
   }
 
   const handleAddToCart = () => {
-    addToCart({ ...laptop, qty });
+    addToCart({ ...laptop, qty, type: "LAPTOPS" });
   };
 
   const [qty, setQty] = useState(1); // Default qty is 1
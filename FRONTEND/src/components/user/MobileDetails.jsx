@@ -16,7 +16,7 @@ const MobilesDetails = () => {
   }
 
   const handleAddToCart = () => {
-    addToCart({ ...mobile, qty });
+    addToCart({ ...mobile, qty, type: "MOBILES" });
   };
 
   const [qty, setQty] = useState(1); // Default qty is 1
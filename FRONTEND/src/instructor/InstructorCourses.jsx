@@ -31,30 +31,21 @@ const InstructorCourses = () => {
       const coursesResponse = await courseService.getCoursesByInstructor(instructorId);
       setCourses(coursesResponse.data);
       
-      // Fetch video stats for each course
-      const statsPromises = coursesResponse.data.map(async (course) => {
+      // Fetch the videos of all courses in one request and count them per course
+      const statsObject = coursesResponse.data.reduce((acc, course) => {
+        acc[course.id] = 0;
+        return acc;
+      }, {});
+      if (coursesResponse.data.length > 0) {
         try {
-          const videosResponse = await videoService.getVideosByCourseId(course.id);
-          return {
-            courseId: course.id,
-            videoCount: videosResponse.data?.length || 0
-          };
+          const videosResponse = await videoService.getVideosByCourseIds(coursesResponse.data.map(course => course.id));
+          videosResponse.data.forEach(group => {
+            statsObject[group.courseId] = group.videos.length;
+          });
         } catch (err) {
-          console.error(`Error fetching videos for course ${course.id}:`, err);
-          return {
-            courseId: course.id,
-            videoCount: 0
-          };
+          console.error('Error fetching course videos:', err);
         }
-      });
-      
-      const stats = await Promise.all(statsPromises);
-      
-      // Convert array to object with courseId as key
-      const statsObject = stats.reduce((acc, curr) => {
-        acc[curr.courseId] = curr.videoCount;
-        return acc;
-      }, {});
+      }
       
       setCourseStats(statsObject);
     } catch (err) {
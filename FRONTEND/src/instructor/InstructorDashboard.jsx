@@ -219,7 +219,7 @@ const InstructorDashboard = () => {
                           </div>
                         </div>
                       </td>
-                      <td>{video.course?.title || 'Unknown Course'}</td>
+                      <td>{video.course?.title || video.courseTitle || 'Unknown Course'}</td>
                       <td>{formatDate(video.createdAt || video.updatedAt)}</td>
                       <td className="text-end">
                         <Link to={`/instructor/videos?edit=${video.id}`} className="btn btn-sm btn-outline-primary me-2">
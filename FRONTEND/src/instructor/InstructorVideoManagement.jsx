@@ -153,7 +153,7 @@ const InstructorVideoManagement = () => {
       description: video.description || '',
       videoLink: video.videoLink || '',
       notesLink: video.notesLink || '',
-      courseId: video.course?.id || ''
+      courseId: video.course?.id || video.courseId || ''
     });
     setIsModalOpen(true);
   };
@@ -467,7 +467,7 @@ const InstructorVideoManagement = () => {
                               </div>
                             </div>
                           </td>
-                          <td>{video.course?.title || getCourseNameById(video.courseId)}</td>
+                          <td>{video.course?.title || video.courseTitle || getCourseNameById(video.courseId)}</td>
                           <td>{formatDate(video.createdAt || video.updatedAt)}</td>
                           <td className="text-end">
                             <div className="btn-group">
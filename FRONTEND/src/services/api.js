@@ -188,6 +188,30 @@ export const courseService = {
     const response = await authenticatedAxios.get(`/api/courses/${courseId}`);
     return response;
   },
+
+  // Published courses with the most enrollments, most popular first
+  getPopularCourses: async (limit = 5) => {
+    const response = await authenticatedAxios.get('/api/courses/popular', {
+      params: { limit }
+    });
+    return response;
+  },
+
+  // Typeahead suggestions of course titles and category names
+  suggestCourses: async (prefix, limit = 8) => {
+    const response = await authenticatedAxios.get('/api/courses/suggest', {
+      params: { q: prefix, limit }
+    });
+    return response;
+  },
+
+  // Ranked full-text search over published courses
+  searchCourses: async (query, page = 0, size = 20) => {
+    const response = await authenticatedAxios.get('/api/courses/search', {
+      params: { q: query, page, size }
+    });
+    return response;
+  },
   
   createCourse: async (courseData, config = {}) => {
     // Default the content type to undefined for multipart/form-data
@@ -374,11 +398,23 @@ export const videoService = {
     return response;
   },
   
+  // Returns [{ courseId, courseTitle, videos: [...] }] for courses that have videos
+  getVideosByCourseIds: async (courseIds) => {
+    const response = await authenticatedAxios.get('/api/videos', { params: { courseIds: courseIds.join(',') } });
+    return response;
+  },
+  
   getVideoById: async (videoId) => {
     const response = await authenticatedAxios.get(`/api/videos/${videoId}`);
     return response;
   },
   
+  // Short-lived signed video and notes URLs for every lesson of a course
+  getCoursePlayback: async (courseId) => {
+    const response = await authenticatedAxios.get(`/api/videos/course/${courseId}/playback`);
+    return response;
+  },
+  
   createVideo: async (videoData) => {
     const response = await authenticatedAxios.post('/api/videos', videoData);
     return response;
@@ -394,12 +430,88 @@ export const videoService = {
     return response;
   },
   
+  sendHeartbeats: async (events) => {
+    const response = await authenticatedAxios.post('/api/videos/heartbeats', { events });
+    return response;
+  },
+  
   getVideosByInstructorId: async (instructorId) => {
     const response = await authenticatedAxios.get(`/api/videos/instructor/${instructorId}`);
     return response;
   }
 };
 
+// Certificate service
+export const certificateService = {
+  // 202 while the certificate is still being rendered, 200 once issued
+  getEnrollmentCertificate: async (enrollmentId) => {
+    const response = await authenticatedAxios.get(`/api/certificates/enrollment/${enrollmentId}`);
+    return response;
+  },
+  
+  verifyCertificate: async (verificationId) => {
+    const response = await axios.get(`${API_BASE_URL}/api/public/certificates/${verificationId}`);
+    return response;
+  },
+  
+  getDownloadUrl: (verificationId, format = 'pdf') => {
+    return `${API_BASE_URL}/api/public/certificates/${verificationId}/${format}`;
+  }
+};
+
+// Direct uploads: the file goes from the browser straight to S3 on a presigned URL
+export const uploadService = {
+  // target is "course-thumbnail" or "laptop-image"; resolves to the stored file URL
+  uploadDirect: async (target, targetId, file) => {
+    const { data: intent } = await authenticatedAxios.post('/api/uploads/intents', {
+      target,
+      targetId,
+      contentType: file.type,
+      size: file.size
+    });
+    // Plain axios: the presigned URL carries its own signature and must not get our token
+    await axios.put(intent.uploadUrl, file, { headers: intent.headers });
+    const response = await authenticatedAxios.post(`/api/uploads/intents/${intent.id}/complete`);
+    return response.data.url;
+  }
+};
+
+// Cart service; the server prices the cart and returns its invoice from every call
+export const cartService = {
+  getCart: async () => {
+    const response = await authenticatedAxios.get('/api/cart');
+    return response;
+  },
+
+  // A quantity of zero removes the item
+  setItem: async (type, id, quantity) => {
+    const response = await authenticatedAxios.put('/api/cart/items', { type, id, quantity });
+    return response;
+  },
+
+  replaceCart: async (items) => {
+    const response = await authenticatedAxios.put('/api/cart', { items });
+    return response;
+  },
+
+  clearCart: async () => {
+    const response = await authenticatedAxios.delete('/api/cart');
+    return response;
+  },
+
+  // Creates the Razorpay order for the server-computed total
+  checkout: async () => {
+    const response = await authenticatedAxios.post('/api/cart/checkout');
+    return response;
+  },
+
+  // Buy one course at its server-side price; the cart is left as it is
+  checkoutCourse: async (courseId) => {
+    const response = await authenticatedAxios.post(`/api/cart/checkout/courses/${courseId}`);
+    return response;
+  }
+};
+
 // Enrollment service
 export const enrollmentService = {
   getAllEnrollments: async () => {
@@ -483,6 +595,19 @@ export const enrollmentService = {
     return response;
   },
   
+  getProgress: async (enrollmentId) => {
+    const response = await authenticatedAxios.get(`/api/enrollments/${enrollmentId}/progress`);
+    return response;
+  },
+  
+  updateProgress: async (enrollmentId, progress, completedVideos) => {
+    const response = await authenticatedAxios.put(`/api/enrollments/${enrollmentId}/progress`, {
+      progress,
+      completedVideos: completedVideos.join(',')
+    });
+    return response;
+  },
+  
   // Alias for getAllEnrollments to fix function name error
   getEnrollments: async () => {
     return enrollmentService.getAllEnrollments();
@@ -491,6 +616,10 @@ export const enrollmentService = {
 
 // Report service
 export const reportService = {
+  getDashboard: async () => {
+    return await authenticatedAxios.get('/api/reports/dashboard');
+  },
+
   getEnrollmentStats: async () => {
     try {
       const response = await authenticatedAxios.get('/api/reports/enrollments');
@@ -883,11 +1012,23 @@ export const reportService = {
   
   generateReport: async (reportType, timeRange, format = 'pdf') => {
     try {
-      const response = await authenticatedAxios.post('/api/reports/generate', { 
-        type: reportType, 
+      // Submit the report as a background job and poll until it is ready
+      const submitResponse = await authenticatedAxios.post('/api/reports/jobs', {
+        type: reportType,
         range: timeRange,
         format: format
-      }, {
+      });
+      let job = submitResponse.data;
+      while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+        await new Promise(resolve => setTimeout(resolve, 1000));
+        const statusResponse = await authenticatedAxios.get(`/api/reports/jobs/${job.jobId}`);
+        job = statusResponse.data;
+      }
+      if (job.status !== 'COMPLETED') {
+        throw new Error(job.error || `Report job ${job.status.toLowerCase()}`);
+      }
+
+      const response = await authenticatedAxios.get(`/api/reports/jobs/${job.jobId}/download`, {
         responseType: 'blob'
       });
       